@@ -32,6 +32,7 @@ import org.jboss.galleon.api.config.GalleonFeaturePackConfig;
 import org.jboss.galleon.api.config.GalleonProvisioningConfig;
 import org.jboss.galleon.diff.FsDiff;
 import org.jboss.galleon.impl.ProvisioningUtil;
+import org.jboss.galleon.metrics.ProvisioningMetrics;
 import org.jboss.galleon.progresstracking.ProgressCallback;
 import org.jboss.galleon.progresstracking.ProgressTracker;
 import org.jboss.galleon.universe.FeaturePackLocation;
@@ -65,6 +66,13 @@ public interface Provisioning extends AutoCloseable {
      */
     public boolean isRecordState();
 
+    /**
+     * Metrics recording the phases of the provisioning.
+     *
+     * @return  provisioning metrics, which don't record anything unless they were set on the builder
+     */
+    public ProvisioningMetrics getMetrics();
+
     public static boolean isFeaturePack(Path path) {
         return ProvisioningUtil.isFeaturePack(path);
     }
@@ -21,6 +21,7 @@ import java.util.Map;
 import org.jboss.galleon.MessageWriter;
 import org.jboss.galleon.ProvisioningException;
 import org.jboss.galleon.core.builder.LocalFP;
+import org.jboss.galleon.metrics.ProvisioningMetrics;
 import org.jboss.galleon.universe.FeaturePackLocation;
 import org.jboss.galleon.universe.UniverseResolver;
 
@@ -31,6 +32,7 @@ public class ProvisioningBuilder {
     private final UniverseResolver resolver;
     private boolean logTime;
     private boolean recordState = true;
+    private ProvisioningMetrics metrics;
     private final String coreVersion;
     private final Map<FeaturePackLocation.FPID, LocalFP> locals;
 
@@ -60,6 +62,17 @@ public class ProvisioningBuilder {
         return this;
     }
 
+    /**
+     * Sets the metrics recording the phases of the provisioning.
+     *
+     * @param metrics  provisioning metrics
+     * @return  this builder
+     */
+    public ProvisioningBuilder setMetrics(ProvisioningMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     public Provisioning build() throws ProvisioningException {
 
         return new ProvisioningImpl(this);
@@ -91,6 +104,10 @@ public class ProvisioningBuilder {
         return recordState;
     }
 
+    public ProvisioningMetrics getMetrics() {
+        return metrics;
+    }
+
     UniverseResolver getUniverseResolver() throws ProvisioningException {
         return resolver;
     }
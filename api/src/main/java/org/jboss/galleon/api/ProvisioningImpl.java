@@ -37,6 +37,7 @@ import org.jboss.galleon.api.config.GalleonFeaturePackConfig;
 import org.jboss.galleon.api.config.GalleonProvisioningConfig;
 import org.jboss.galleon.core.builder.LocalFP;
 import org.jboss.galleon.core.builder.ProvisioningContext;
+import org.jboss.galleon.metrics.ProvisioningMetrics;
 import org.jboss.galleon.progresstracking.DefaultProgressTracker;
 import org.jboss.galleon.progresstracking.ProgressCallback;
 import org.jboss.galleon.progresstracking.ProgressTracker;
@@ -57,6 +58,7 @@ class ProvisioningImpl implements Provisioning {
 
     private final UniverseResolver universeResolver;
     private boolean recordState;
+    private final ProvisioningMetrics metrics;
     private final Map<String, ProgressTracker<?>> progressTrackers = new HashMap<>();
 
     private final Map<FPID, LocalFP> locals;
@@ -74,6 +76,7 @@ class ProvisioningImpl implements Provisioning {
         this.logTime = builder.isLogTime();
         this.locals = builder.getLocals();
         this.recordState = builder.isRecordState();
+        this.metrics = builder.getMetrics() == null ? ProvisioningMetrics.getNoOp() : builder.getMetrics();
         loader = GalleonBuilder.getCallerClassLoader(coreVersion, universeResolver);
     }
 
@@ -108,6 +111,11 @@ class ProvisioningImpl implements Provisioning {
         return recordState;
     }
 
+    @Override
+    public ProvisioningMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public void setProgressCallback(String id, ProgressCallback<?> callback) {
         if (callback == null) {
@@ -140,7 +148,8 @@ class ProvisioningImpl implements Provisioning {
                         recordState,
                         universeResolver,
                         progressTrackers,
-                        locals);
+                        locals,
+                        metrics);
                 contexts.add(ctx);
                 return ctx;
             } catch (Exception ex) {
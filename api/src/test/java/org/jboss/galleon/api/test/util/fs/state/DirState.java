@@ -31,6 +31,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import org.jboss.galleon.Constants;
 import org.jboss.galleon.api.test.util.TestUtils;
 import org.jboss.galleon.util.CollectionUtils;
 import org.jboss.galleon.util.PathsUtils;
@@ -121,7 +122,13 @@ public class DirState extends PathState {
                         @Override
                         public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
                             throws IOException {
-                            addFile(PathsUtils.toForwardSlashSeparator(path.relativize(file).toString()), TestUtils.read(file));
+                            final String relativePath = PathsUtils.toForwardSlashSeparator(path.relativize(file).toString());
+                            if(Constants.HASHES_INDEX.equals(file.getFileName().toString())) {
+                                // the binary hashes index is not text
+                                skip(relativePath);
+                            } else {
+                                addFile(relativePath, TestUtils.read(file));
+                            }
                             return FileVisitResult.CONTINUE;
                         }
                     });
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.config.ConfigModel;
+import org.jboss.galleon.config.FeatureConfig;
+import org.jboss.galleon.config.FeaturePackConfig;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.runtime.ProvisioningRuntime;
+import org.jboss.galleon.runtime.ProvisioningRuntimeBuilder;
+import org.jboss.galleon.spec.FeatureParameterSpec;
+import org.jboss.galleon.spec.FeatureSpec;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1Universe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the resolution of a config in which every other feature requires a dynamic
+ * capability provided by a feature added right after it, which makes the config arranger
+ * resolve a capability for each of the features.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DynamicCapabilityBenchmark extends FeaturePackRepoBenchmark {
+
+    private static final FPID FPID = LegacyGalleon1Universe.newFPID("org.jboss.galleon.benchmarks:capabilities", "1", "1.0.0.Final");
+
+    @Param({"50000"})
+    public int features;
+
+    @Override
+    protected ProvisioningConfig createFeaturePacks(FeaturePackCreator creator) throws ProvisioningException {
+        final ConfigModel.Builder config = ConfigModel.builder("model", "config");
+        for(int i = 0; i < features / 2; ++i) {
+            final String group = "g" + i % 100;
+            config.addFeature(new FeatureConfig("consumer")
+                    .setParam("name", "c" + i)
+                    .setParam("group", group)
+                    .setParam("ref", "p" + i));
+            config.addFeature(new FeatureConfig("provider")
+                    .setParam("group", group)
+                    .setParam("name", "p" + i));
+        }
+        creator.newFeaturePack(FPID)
+                .addFeatureSpec(FeatureSpec.builder("provider")
+                        .addParam(FeatureParameterSpec.createId("group"))
+                        .addParam(FeatureParameterSpec.createId("name"))
+                        .providesCapability("org.provider.$group.$name")
+                        .build())
+                .addFeatureSpec(FeatureSpec.builder("consumer")
+                        .addParam(FeatureParameterSpec.createId("name"))
+                        .addParam(FeatureParameterSpec.create("group"))
+                        .addParam(FeatureParameterSpec.create("ref"))
+                        .requiresCapability("org.provider.$group.$ref")
+                        .build())
+                .addConfig(config.build());
+        creator.install();
+        return ProvisioningConfig.builder().addFeaturePackDep(FeaturePackConfig.forLocation(FPID.getLocation())).build();
+    }
+
+    @Benchmark
+    public void build(Blackhole bh) throws ProvisioningException {
+        try(ProvisioningRuntime rt = ProvisioningRuntimeBuilder.newInstance(messageWriter)
+                .initLayout(layoutFactory, config)
+                .build()) {
+            bh.consume(rt.getConfigs());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.benchmarks;
+
+import java.nio.file.Path;
+
+import org.jboss.galleon.DefaultMessageWriter;
+import org.jboss.galleon.MessageWriter;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.ProvisioningManager;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.layout.ProvisioningLayoutFactory;
+import org.jboss.galleon.repo.RepositoryArtifactResolver;
+import org.jboss.galleon.universe.UniverseResolver;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1RepositoryManager;
+import org.jboss.galleon.util.IoUtils;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Installs the feature-packs of a benchmark into a temporary repository once per trial
+ * and removes the repository with everything else the benchmark created at the end of the trial.
+ */
+@State(Scope.Benchmark)
+public abstract class FeaturePackRepoBenchmark {
+
+    protected final MessageWriter messageWriter = new DefaultMessageWriter(System.out, System.err, false);
+
+    protected Path workDir;
+    protected RepositoryArtifactResolver repo;
+    protected ProvisioningConfig config;
+    protected ProvisioningLayoutFactory layoutFactory;
+
+    @Setup(Level.Trial)
+    public void setUpRepo() throws Exception {
+        workDir = IoUtils.createRandomTmpDir();
+        repo = LegacyGalleon1RepositoryManager.newInstance(workDir.resolve("repo"));
+        config = createFeaturePacks(FeaturePackCreator.getInstance().addArtifactResolver(repo));
+        layoutFactory = ProvisioningLayoutFactory.getInstance(UniverseResolver.builder().addArtifactResolver(repo).build());
+        init();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownRepo() throws Exception {
+        try {
+            cleanup();
+        } finally {
+            if(layoutFactory != null) {
+                layoutFactory.close();
+            }
+            IoUtils.recursiveDelete(workDir);
+        }
+    }
+
+    /**
+     * Creates and installs the feature-packs of the benchmark.
+     *
+     * @param creator  feature-pack creator installing into the benchmark repository
+     * @return  provisioning config of the benchmark
+     */
+    protected abstract ProvisioningConfig createFeaturePacks(FeaturePackCreator creator) throws ProvisioningException;
+
+    /**
+     * Called once the feature-packs have been installed.
+     */
+    protected void init() throws Exception {
+    }
+
+    /**
+     * Called at the end of the trial before the work directory is removed.
+     */
+    protected void cleanup() throws Exception {
+    }
+
+    protected ProvisioningManager newProvisioningManager(Path home) throws ProvisioningException {
+        return ProvisioningManager.builder()
+                .addArtifactResolver(repo)
+                .setInstallationHome(home)
+                .setMessageWriter(messageWriter)
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.ProvisioningManager;
+import org.jboss.galleon.diff.FsDiff;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ProvisioningManager#getFsDiff()} against an installation in which
+ * every tenth package content file has been modified and a user file has been added.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FsDiffBenchmark extends SyntheticFeaturePackBenchmark {
+
+    private ProvisioningManager pm;
+
+    @Override
+    protected void init() throws Exception {
+        final Path home = workDir.resolve("home");
+        pm = newProvisioningManager(home);
+        pm.provision(config);
+        for(int i = 0; i < packages; i += 10) {
+            Files.write(home.resolve("content").resolve("p" + i + ".txt"), ("modified package " + i).getBytes());
+        }
+        Files.write(home.resolve("user-file.txt"), "user file".getBytes());
+    }
+
+    @Override
+    protected void cleanup() {
+        if(pm != null) {
+            pm.close();
+        }
+    }
+
+    @Benchmark
+    public FsDiff getFsDiff() throws ProvisioningException {
+        return pm.getFsDiff();
+    }
+}
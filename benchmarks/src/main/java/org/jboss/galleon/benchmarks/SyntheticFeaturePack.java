@@ -0,0 +1,187 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.benchmarks;
+
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.config.ConfigModel;
+import org.jboss.galleon.config.FeatureConfig;
+import org.jboss.galleon.config.FeaturePackConfig;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackBuilder;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.creator.PackageBuilder;
+import org.jboss.galleon.spec.ConfigLayerSpec;
+import org.jboss.galleon.spec.FeatureParameterSpec;
+import org.jboss.galleon.spec.FeatureSpec;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1Universe;
+
+/**
+ * Generates a feature-pack of a configurable size.
+ *
+ * Package {@code p<i>} depends on packages {@code p<2i + 1>} and {@code p<2i + 2>}, which makes
+ * the package dependencies a balanced tree whose root {@code p0} is the only default package. Feature spec {@code spec<i>} depends on package {@code p<i % packages>}
+ * and provides capability {@code cap.spec<i>.$id}. The features of the config are spread
+ * evenly across a chain of layers, each depending on the previous one, and the config includes
+ * the last layer of the chain.
+ */
+public class SyntheticFeaturePack {
+
+    public static class Builder {
+
+        private FPID fpid = LegacyGalleon1Universe.newFPID("org.jboss.galleon.benchmarks:synthetic", "1", "1.0.0.Final");
+        private int packages = 1;
+        private int specs = 1;
+        private int layerDepth;
+        private int configSize;
+
+        private Builder() {
+        }
+
+        public Builder setFPID(FPID fpid) {
+            this.fpid = fpid;
+            return this;
+        }
+
+        public Builder setPackages(int packages) {
+            this.packages = Math.max(1, packages);
+            return this;
+        }
+
+        public Builder setFeatureSpecs(int specs) {
+            this.specs = Math.max(1, specs);
+            return this;
+        }
+
+        public Builder setLayerDepth(int layerDepth) {
+            this.layerDepth = Math.max(0, layerDepth);
+            return this;
+        }
+
+        public Builder setConfigSize(int configSize) {
+            this.configSize = Math.max(0, configSize);
+            return this;
+        }
+
+        public SyntheticFeaturePack build() {
+            return new SyntheticFeaturePack(this);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final String CONFIG_MODEL = "model";
+    public static final String CONFIG_NAME = "config";
+
+    private final FPID fpid;
+    private final int packages;
+    private final int specs;
+    private final int layerDepth;
+    private final int configSize;
+
+    private SyntheticFeaturePack(Builder builder) {
+        this.fpid = builder.fpid;
+        this.packages = builder.packages;
+        this.specs = builder.specs;
+        this.layerDepth = builder.layerDepth;
+        this.configSize = builder.configSize;
+    }
+
+    public FPID getFPID() {
+        return fpid;
+    }
+
+    /**
+     * Provisioning config installing the default packages and the config of the feature-pack.
+     */
+    public ProvisioningConfig getProvisioningConfig() throws ProvisioningDescriptionException {
+        return ProvisioningConfig.builder().addFeaturePackDep(FeaturePackConfig.forLocation(fpid.getLocation())).build();
+    }
+
+    public void create(FeaturePackCreator creator) throws ProvisioningException {
+        final FeaturePackBuilder fp = creator.newFeaturePack(fpid);
+        for(int i = 0; i < packages; ++i) {
+            final PackageBuilder pkg = fp.newPackage("p" + i, i == 0);
+            for(int dep = 2 * i + 1; dep <= 2 * i + 2 && dep < packages; ++dep) {
+                pkg.addDependency("p" + dep);
+            }
+            pkg.writeContent("content/p" + i + ".txt", "package " + i);
+        }
+
+        for(int i = 0; i < specs; ++i) {
+            fp.addFeatureSpec(newFeatureSpec(i, packages));
+        }
+
+        final ConfigModel.Builder config = ConfigModel.builder(CONFIG_MODEL, CONFIG_NAME);
+        if(layerDepth == 0) {
+            addFeatures(config, 0, configSize);
+        } else {
+            final int layerSize = (configSize + layerDepth - 1) / layerDepth;
+            for(int i = 0; i < layerDepth; ++i) {
+                final ConfigLayerSpec.Builder layer = ConfigLayerSpec.builder()
+                        .setModel(CONFIG_MODEL)
+                        .setName("layer" + i);
+                if(i > 0) {
+                    layer.addLayerDep("layer" + (i - 1));
+                }
+                addFeatures(layer, i * layerSize, Math.min(configSize, (i + 1) * layerSize));
+                fp.addConfigLayer(layer.build());
+            }
+            config.includeLayer("layer" + (layerDepth - 1));
+        }
+        fp.addConfig(config.build());
+        creator.install();
+    }
+
+    /**
+     * Spec {@code spec<i>} with the ID parameter {@code id} and a few plain parameters,
+     * depending on package {@code p<i % packages>}.
+     */
+    public static FeatureSpec newFeatureSpec(int i, int packages) throws ProvisioningDescriptionException {
+        return FeatureSpec.builder("spec" + i)
+                .addPackageDep("p" + i % packages)
+                .addParam(FeatureParameterSpec.createId("id"))
+                .addParam(FeatureParameterSpec.create("a", true))
+                .addParam(FeatureParameterSpec.create("b", "b" + i))
+                .providesCapability("cap.spec" + i + ".$id")
+                .build();
+    }
+
+    private void addFeatures(ConfigModel.Builder config, int from, int to) throws ProvisioningDescriptionException {
+        for(int i = from; i < to; ++i) {
+            config.addFeature(newFeature(i));
+        }
+    }
+
+    private void addFeatures(ConfigLayerSpec.Builder layer, int from, int to) throws ProvisioningDescriptionException {
+        for(int i = from; i < to; ++i) {
+            layer.addFeature(newFeature(i));
+        }
+    }
+
+    private FeatureConfig newFeature(int i) throws ProvisioningDescriptionException {
+        final String spec = "spec" + i % specs;
+        final FeatureConfig feature = new FeatureConfig(spec).setParam("id", String.valueOf(i));
+        if(i % 2 == 0) {
+            feature.setParam("a", "a" + i);
+        }
+        return feature;
+    }
+}
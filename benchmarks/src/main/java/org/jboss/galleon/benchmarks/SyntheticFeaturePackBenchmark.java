@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.benchmarks;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks run against a {@link SyntheticFeaturePack} whose size is set by the parameters,
+ * which can be overridden on the command line, e.g. {@code -p packages=5000 -p configSize=50000}.
+ */
+@State(Scope.Benchmark)
+public abstract class SyntheticFeaturePackBenchmark extends FeaturePackRepoBenchmark {
+
+    @Param({"100", "1000"})
+    public int packages;
+
+    @Param({"100"})
+    public int featureSpecs;
+
+    @Param({"1", "10"})
+    public int layerDepth;
+
+    @Param({"1000", "10000"})
+    public int configSize;
+
+    @Override
+    protected ProvisioningConfig createFeaturePacks(FeaturePackCreator creator) throws ProvisioningException {
+        final SyntheticFeaturePack fp = SyntheticFeaturePack.builder()
+                .setPackages(packages)
+                .setFeatureSpecs(featureSpecs)
+                .setLayerDepth(layerDepth)
+                .setConfigSize(configSize)
+                .build();
+        fp.create(creator);
+        return fp.getProvisioningConfig();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.ProvisioningManager;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.spec.FeatureSpec;
+import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.galleon.util.IoUtils;
+import org.jboss.galleon.util.PathsUtils;
+import org.jboss.galleon.xml.FeatureSpecXmlParser;
+import org.jboss.galleon.xml.FeatureSpecXmlWriter;
+import org.jboss.galleon.xml.ProvisionedStateXmlParser;
+import org.jboss.galleon.xml.ProvisionedStateXmlWriter;
+import org.jboss.galleon.xml.ProvisioningXmlParser;
+import org.jboss.galleon.xml.ProvisioningXmlWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the parsers and the writers of the provisioning config, the provisioned state
+ * and the feature specs of a provisioned synthetic feature-pack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class XmlBenchmark extends SyntheticFeaturePackBenchmark {
+
+    private String provisioningXml;
+    private ProvisioningConfig provisioningConfig;
+    private Path provisionedStateXmlPath;
+    private String provisionedStateXml;
+    private ProvisionedState provisionedState;
+    private List<String> featureSpecXmls;
+    private List<FeatureSpec> specs;
+
+    @Override
+    protected void init() throws Exception {
+        final Path home = workDir.resolve("home");
+        try(ProvisioningManager pm = newProvisioningManager(home)) {
+            pm.provision(config);
+        }
+        provisioningXml = IoUtils.readFile(PathsUtils.getProvisioningXml(home));
+        provisioningConfig = ProvisioningXmlParser.parse(PathsUtils.getProvisioningXml(home));
+        provisionedStateXmlPath = PathsUtils.getProvisionedStateXml(home);
+        provisionedStateXml = IoUtils.readFile(provisionedStateXmlPath);
+        provisionedState = ProvisionedStateXmlParser.parse(provisionedStateXmlPath);
+
+        specs = new ArrayList<>(featureSpecs);
+        featureSpecXmls = new ArrayList<>(featureSpecs);
+        for(int i = 0; i < featureSpecs; ++i) {
+            final FeatureSpec spec = SyntheticFeaturePack.newFeatureSpec(i, packages);
+            specs.add(spec);
+            final StringWriter writer = new StringWriter();
+            FeatureSpecXmlWriter.getInstance().write(spec, writer);
+            featureSpecXmls.add(writer.toString());
+        }
+    }
+
+    @Benchmark
+    public ProvisioningConfig parseProvisioningXml() throws XMLStreamException, ProvisioningDescriptionException {
+        return ProvisioningXmlParser.getInstance().parse(new StringReader(provisioningXml));
+    }
+
+    @Benchmark
+    public String writeProvisioningXml() throws XMLStreamException, IOException {
+        final StringWriter writer = new StringWriter();
+        ProvisioningXmlWriter.getInstance().write(provisioningConfig, writer);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public ProvisionedState parseProvisionedStateXml() throws XMLStreamException {
+        return ProvisionedStateXmlParser.getInstance().parse(new StringReader(provisionedStateXml));
+    }
+
+    @Benchmark
+    public ProvisionedState parseProvisionedStateXmlLazily() throws ProvisioningException {
+        return ProvisionedStateXmlParser.parseLazily(provisionedStateXmlPath);
+    }
+
+    @Benchmark
+    public String writeProvisionedStateXml() throws XMLStreamException, IOException {
+        final StringWriter writer = new StringWriter();
+        ProvisionedStateXmlWriter.getInstance().write(provisionedState, writer);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public void parseFeatureSpecXml(Blackhole bh) throws XMLStreamException, ProvisioningDescriptionException {
+        for(String xml : featureSpecXmls) {
+            bh.consume(FeatureSpecXmlParser.getInstance().parse(new StringReader(xml)));
+        }
+    }
+
+    @Benchmark
+    public void writeFeatureSpecXml(Blackhole bh) throws XMLStreamException, IOException {
+        for(FeatureSpec spec : specs) {
+            final StringWriter writer = new StringWriter();
+            FeatureSpecXmlWriter.getInstance().write(spec, writer);
+            bh.consume(writer.toString());
+        }
+    }
+}
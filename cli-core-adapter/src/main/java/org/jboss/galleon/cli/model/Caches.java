@@ -16,25 +16,52 @@
  */
 package org.jboss.galleon.cli.model;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.jboss.galleon.universe.FeaturePackLocation.FPID;
 
 /**
+ * Feature containers of the explored feature-packs, the least recently used ones
+ * being evicted once the number of cached containers exceeds
+ * {@link #FP_CACHE_SIZE_PROPERTY} (defaults to {@link #DEFAULT_FP_CACHE_SIZE}).
  *
  * @author jdenise@redhat.com
  */
 public class Caches {
 
-    private static final Map<FPID, FeatureContainer> FP_CACHE = new HashMap<>();
+    public static final String FP_CACHE_SIZE_PROPERTY = "org.jboss.galleon.cli.feature-pack-cache.size";
+    public static final int DEFAULT_FP_CACHE_SIZE = 16;
+
+    private static final Map<FPID, FeatureContainer> FP_CACHE = new LinkedHashMap<FPID, FeatureContainer>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FPID, FeatureContainer> eldest) {
+            return size() > getFeaturePackCacheSize();
+        }
+    };
+
+    static int getFeaturePackCacheSize() {
+        final int size = Integer.getInteger(FP_CACHE_SIZE_PROPERTY, DEFAULT_FP_CACHE_SIZE);
+        return size < 1 ? 1 : size;
+    }
 
     public static FeatureContainer getFeaturePackInfo(FPID fpid) {
-        return FP_CACHE.get(fpid);
+        synchronized (FP_CACHE) {
+            return FP_CACHE.get(fpid);
+        }
     }
 
     public static void addFeaturePackInfo(FPID fpid, FeatureContainer info) {
-        FP_CACHE.put(fpid, info);
+        synchronized (FP_CACHE) {
+            FP_CACHE.put(fpid, info);
+        }
     }
 
+    static void clear() {
+        synchronized (FP_CACHE) {
+            FP_CACHE.clear();
+        }
+    }
 }
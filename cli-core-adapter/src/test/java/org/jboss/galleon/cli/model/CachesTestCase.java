@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.cli.model;
+
+import org.jboss.galleon.universe.FeaturePackLocation;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CachesTestCase {
+
+    private static FPID fpid(int i) {
+        return FeaturePackLocation.fromString("producer" + i + "@factory:channel#build").getFPID();
+    }
+
+    @After
+    public void cleanup() {
+        System.clearProperty(Caches.FP_CACHE_SIZE_PROPERTY);
+        Caches.clear();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        System.setProperty(Caches.FP_CACHE_SIZE_PROPERTY, "2");
+        final FeatureContainer fp1 = new FeaturePackInfo("fp1", fpid(1), null);
+        final FeatureContainer fp2 = new FeaturePackInfo("fp2", fpid(2), null);
+        final FeatureContainer fp3 = new FeaturePackInfo("fp3", fpid(3), null);
+        Caches.addFeaturePackInfo(fpid(1), fp1);
+        Caches.addFeaturePackInfo(fpid(2), fp2);
+
+        // accessing fp1 makes fp2 the eldest entry
+        Assert.assertSame(fp1, Caches.getFeaturePackInfo(fpid(1)));
+        Caches.addFeaturePackInfo(fpid(3), fp3);
+
+        Assert.assertSame(fp1, Caches.getFeaturePackInfo(fpid(1)));
+        Assert.assertNull(Caches.getFeaturePackInfo(fpid(2)));
+        Assert.assertSame(fp3, Caches.getFeaturePackInfo(fpid(3)));
+    }
+
+    @Test
+    public void testDefaultSize() {
+        Assert.assertEquals(Caches.DEFAULT_FP_CACHE_SIZE, Caches.getFeaturePackCacheSize());
+        System.setProperty(Caches.FP_CACHE_SIZE_PROPERTY, "0");
+        Assert.assertEquals(1, Caches.getFeaturePackCacheSize());
+    }
+}
@@ -32,12 +32,15 @@ public interface Constants {
     String FEATURES = "features";
     String FEATURE_PACK_XML = "feature-pack.xml";
     String HASHES = "hashes";
+    String HASH_ORIGINS = "hash-origins";
+    String HASHES_INDEX = "hashes.idx";
     String HISTORY = "history";
     String HISTORY_LIST = "list";
     String KEEP = "keep";
     String LAYERS = "layers";
     String LAYER_SPEC_XML = "layer-spec.xml";
     String MAVEN = "maven";
+    String METADATA_INDEX = "metadata.idx";
     String MODEL_XML = "model.xml";
     String MODULES_XML = "module.xml";
     String PACKAGE_XML = "package.xml";
@@ -96,6 +99,20 @@ public interface Constants {
 
     String PRINT_ONLY_CONFLICTS = "print-only-conflicts";
 
+    String PARALLEL_PACKAGE_COPY = "parallel-package-copy";
+
+    String INCREMENTAL_HASHES = "incremental-hashes";
+
+    String BINARY_HASHES = "binary-hashes";
+
+    String PARALLEL_FEATURE_PACK_RESOLUTION = "parallel-feature-pack-resolution";
+
+    String RESOLUTION_CACHE = "resolution-cache";
+
+    String PARALLEL_CONFIG_RESOLUTION = "parallel-config-resolution";
+
+    String PARALLEL_UPDATE_CHECK = "parallel-update-check";
+
     String TRACK_LAYOUT_BUILD = "LAYOUT_BUILD";
     String TRACK_UPDATES = "UPDATES";
     String TRACK_PACKAGES = "PACKAGES";
@@ -21,6 +21,7 @@ import java.nio.file.Path;
 import java.util.Map;
 import org.jboss.galleon.MessageWriter;
 import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.metrics.ProvisioningMetrics;
 import org.jboss.galleon.progresstracking.ProgressTracker;
 import org.jboss.galleon.universe.FeaturePackLocation.FPID;
 import org.jboss.galleon.universe.UniverseResolver;
@@ -33,4 +34,18 @@ public interface ProvisioningContextBuilder {
             boolean recordState,
             UniverseResolver resolver,
             Map<String, ProgressTracker<?>> progressTrackers, Map<FPID, LocalFP> locals) throws ProvisioningException;
+
+    /**
+     * Builds a provisioning context recording the provisioning phases into the metrics.
+     * The cores that don't support the metrics ignore them.
+     */
+    public default ProvisioningContext buildProvisioningContext(URLClassLoader loader, Path home,
+            MessageWriter msgWriter,
+            boolean logTime,
+            boolean recordState,
+            UniverseResolver resolver,
+            Map<String, ProgressTracker<?>> progressTrackers, Map<FPID, LocalFP> locals,
+            ProvisioningMetrics metrics) throws ProvisioningException {
+        return buildProvisioningContext(loader, home, msgWriter, logTime, recordState, resolver, progressTrackers, locals);
+    }
 }
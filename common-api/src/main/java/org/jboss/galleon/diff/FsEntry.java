@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2023 Red Hat, Inc. and/or its affiliates
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
  * and other contributors as indicated by the @author tags.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -31,6 +31,7 @@ import java.util.Map;
 import org.jboss.galleon.BaseErrors;
 import org.jboss.galleon.ProvisioningException;
 import org.jboss.galleon.util.CollectionUtils;
+import org.jboss.galleon.util.HashEngine;
 import org.jboss.galleon.util.HashUtils;
 
 /**
@@ -84,6 +85,19 @@ public class FsEntry {
         }
     }
 
+    FsEntry(FsEntry parent, String name, Path p, boolean dir) {
+        this.parent = parent;
+        this.name = name;
+        this.p = p;
+        this.dir = dir;
+        if(parent != null) {
+            depth = parent.depth + 1;
+            parent.addChild(this);
+        } else {
+            depth = 0;
+        }
+    }
+
     private void addChild(FsEntry child) {
         children = CollectionUtils.put(children, child.name, child);
     }
@@ -175,6 +189,54 @@ public class FsEntry {
         return hash;
     }
 
+    /**
+     * Sets a previously calculated hash of the entry, so that it doesn't have to be
+     * calculated again.
+     *
+     * @param hash  hash of the entry
+     */
+    public void setHash(byte[] hash) {
+        this.hash = hash;
+    }
+
+    /**
+     * Calculates the hashes of the files under this entry which haven't been hashed yet
+     * using up to the specified number of threads.
+     *
+     * @param threads  maximum number of threads to use
+     * @throws ProvisioningException  in case a hash could not be calculated
+     */
+    public void initHashes(int threads) throws ProvisioningException {
+        final List<FsEntry> entries = new ArrayList<>();
+        collectNotHashed(this, entries);
+        if(entries.isEmpty()) {
+            return;
+        }
+        final List<Path> files = new ArrayList<>(entries.size());
+        for(FsEntry entry : entries) {
+            files.add(entry.p);
+        }
+        final List<byte[]> hashes;
+        try {
+            hashes = HashEngine.getDefault().hashFiles(files, threads);
+        } catch (IOException e) {
+            throw new ProvisioningException(BaseErrors.hashCalculation(p), e);
+        }
+        for(int i = 0; i < hashes.size(); ++i) {
+            entries.get(i).hash = hashes.get(i);
+        }
+    }
+
+    private static void collectNotHashed(FsEntry entry, List<FsEntry> entries) {
+        if(entry.dir) {
+            for(FsEntry child : entry.children.values()) {
+                collectNotHashed(child, entries);
+            }
+        } else if(entry.hash == null && entry.p != null) {
+            entries.add(entry);
+        }
+    }
+
     public boolean isDiffStatusAdded() {
         return diffStatus == ADDED;
     }
@@ -150,6 +150,55 @@ public class FsEntryFactory {
         return entry;
     }
 
+    /**
+     * Builds a representation of the directory that copying the content directories into it
+     * in the specified order would produce, without copying anything. When more than one content
+     * directory provides the same path, the one copied last wins.
+     *
+     * The file entries point to the source files, so their hashes are calculated by reading the
+     * source files when they are requested.
+     *
+     * @param p  target directory
+     * @param contentDirs  content directories in the order they would be copied
+     * @return  entry representing the target directory
+     * @throws ProvisioningException  in case a content directory could not be read
+     */
+    public FsEntry forContent(Path p, List<Path> contentDirs) throws ProvisioningException {
+        final Path fileName = p.getFileName();
+        final FsEntry entry = new FsEntry(null, fileName == null ? "" : fileName.toString(), p, true);
+        for(Path contentDir : contentDirs) {
+            try {
+                addContent(entry, contentDir);
+            } catch (IOException e) {
+                throw new ProvisioningException(BaseErrors.fsEntryInit(contentDir), e);
+            }
+        }
+        return entry;
+    }
+
+    private void addContent(final FsEntry parent, Path contentDir) throws IOException {
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(contentDir)) {
+            for(Path c : stream) {
+                String name = c.getFileName().toString();
+                if(name.endsWith("/")) {
+                    name = name.substring(0, name.length() - 1);
+                }
+                if(!pathFilters.isEmpty() && isFiltered(parent, name)) {
+                    continue;
+                }
+                if(Files.isDirectory(c)) {
+                    FsEntry child = parent.getChild(name);
+                    if(child == null || !child.dir) {
+                        child = new FsEntry(parent, name, c, true);
+                    }
+                    addContent(child, c);
+                } else {
+                    new FsEntry(parent, name, c, false);
+                }
+            }
+        }
+    }
+
     private void initChildren(final FsEntry parent) throws IOException {
         boolean hasDirs = false;
         try(DirectoryStream<Path> stream = Files.newDirectoryStream(parent.p)) {
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.diff;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.galleon.ProvisioningException;
+
+/**
+ * Hashes of the files of an installation persisted in a single binary file.
+ *
+ * The file starts with a header made of a magic number, the format version, the digest length
+ * and the number of entries. The header is followed by the entries of the directories and files
+ * visited depth-first with the children of each directory sorted by name. Each entry consists of
+ * its type, the length of its UTF-8 encoded relative path and the path itself. File entries are
+ * followed by the raw digest.
+ */
+public class HashesIndex {
+
+    private static final int MAGIC = 0x474c4e48;
+    private static final int VERSION = 1;
+
+    private static final byte DIR = 0;
+    private static final byte FILE = 1;
+
+    /**
+     * Writes the hashes of the files under the root entry.
+     *
+     * @param file  target file
+     * @param root  root of the tree
+     * @throws ProvisioningException  in case a hash could not be calculated
+     * @throws IOException  in case of a failure to write the file
+     */
+    public static void write(Path file, FsEntry root) throws ProvisioningException, IOException {
+        final List<FsEntry> entries = new ArrayList<>();
+        collectEntries(root, entries);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            int digestLength = 0;
+            for (FsEntry entry : entries) {
+                if (!entry.dir) {
+                    digestLength = entry.getHash().length;
+                    break;
+                }
+            }
+            out.writeInt(digestLength);
+            out.writeInt(entries.size());
+            for (FsEntry entry : entries) {
+                out.writeByte(entry.dir ? DIR : FILE);
+                final byte[] path = entry.getRelativePath().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(entry.dir ? path.length - 1 : path.length);
+                out.write(path, 0, entry.dir ? path.length - 1 : path.length);
+                if (!entry.dir) {
+                    final byte[] hash = entry.getHash();
+                    if (hash.length != digestLength) {
+                        throw new IOException("Unexpected digest length of " + entry.getRelativePath());
+                    }
+                    out.write(hash);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the index. The file is read into memory instead of being mapped, so that it is not
+     * kept locked and can be replaced while the index is in use.
+     *
+     * @param file  index file
+     * @return  the index
+     * @throws IOException  in case the file could not be read or has an unsupported format
+     */
+    public static HashesIndex read(Path file) throws IOException {
+        final ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+                throw new IOException("Unsupported format of the hashes index " + file);
+            }
+            final int digestLength = buf.getInt();
+            int entriesTotal = buf.getInt();
+            final FsEntry root = new FsEntry(null, "", null, true);
+            while (entriesTotal-- > 0) {
+                final byte type = buf.get();
+                final byte[] path = new byte[buf.getInt()];
+                buf.get(path);
+                final String relativePath = new String(path, StandardCharsets.UTF_8);
+                FsEntry parent = root;
+                int start = 0;
+                int end = relativePath.indexOf('/');
+                while (end > 0) {
+                    final String name = relativePath.substring(start, end);
+                    FsEntry dir = parent.getChild(name);
+                    if (dir == null) {
+                        dir = new FsEntry(parent, name, null, true);
+                    }
+                    parent = dir;
+                    start = end + 1;
+                    end = relativePath.indexOf('/', start);
+                }
+                final String name = relativePath.substring(start);
+                if (type == DIR) {
+                    if (parent.getChild(name) == null) {
+                        new FsEntry(parent, name, null, true);
+                    }
+                } else {
+                    final byte[] hash = new byte[digestLength];
+                    buf.get(hash);
+                    new FsEntry(parent, name, hash);
+                }
+            }
+            return new HashesIndex(root);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated hashes index " + file, e);
+        }
+    }
+
+    private static void collectEntries(FsEntry entry, List<FsEntry> entries) {
+        final List<FsEntry> children = new ArrayList<>(entry.getChildren());
+        children.sort((e1, e2) -> e1.getName().compareTo(e2.getName()));
+        for (FsEntry child : children) {
+            entries.add(child);
+            if (child.dir) {
+                collectEntries(child, entries);
+            }
+        }
+    }
+
+    private final FsEntry root;
+
+    /**
+     * Creates an index for a tree of hashes, e.g. one read from the hashes directory tree.
+     *
+     * @param root  root of the tree
+     */
+    public HashesIndex(FsEntry root) {
+        this.root = root;
+    }
+
+    /**
+     * The root of the tree of the recorded hashes.
+     *
+     * @return  root entry
+     */
+    public FsEntry getRoot() {
+        return root;
+    }
+}
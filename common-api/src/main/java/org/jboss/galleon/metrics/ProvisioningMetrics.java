@@ -0,0 +1,361 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durations of the provisioning phases and the amount of the content copied, recorded while provisioning.
+ *
+ * The same phase may be entered more than once, also concurrently, e.g. the feature specs are parsed
+ * one at a time as they are needed, in which case the durations add up. Phases may nest, e.g. the universe
+ * resolution happens while the layout is being built, so the durations of different phases should not be summed.
+ *
+ * The bytes allocated during a phase are recorded if the JVM supports measuring the allocations
+ * of a thread, only for the thread that entered the phase, i.e. the allocations of the workers
+ * of the parallel phases are not included.
+ *
+ * The instances are thread-safe.
+ */
+public class ProvisioningMetrics {
+
+    public enum Phase {
+        /**
+         * Building the provisioning layout, including the feature-pack resolution.
+         */
+        LAYOUT("layout"),
+        /**
+         * Resolving the feature-pack archives in the universes.
+         */
+        UNIVERSE_RESOLUTION("universe-resolution"),
+        /**
+         * Loading the package and feature specs.
+         */
+        SPEC_PARSING("spec-parsing"),
+        /**
+         * Resolving the configs and ordering their features.
+         */
+        CONFIG_RESOLUTION("config-resolution"),
+        /**
+         * Install plugins invoked before the package content is copied.
+         */
+        PLUGIN_PRE_INSTALL("plugin-pre-install"),
+        /**
+         * Copying the package content into the staged directory.
+         */
+        PACKAGE_COPY("package-copy"),
+        /**
+         * Install plugins invoked after the package content is copied.
+         */
+        PLUGIN_POST_INSTALL("plugin-post-install"),
+        /**
+         * Writing the provisioning config and the provisioned state.
+         */
+        STATE_WRITE("state-write"),
+        /**
+         * Hashing the provisioned content.
+         */
+        HASHING("hashing"),
+        /**
+         * Detecting the changes made to the installation since it was provisioned.
+         */
+        FS_DIFF("fs-diff"),
+        /**
+         * Moving the staged installation to its target directory.
+         */
+        PROMOTION("promotion");
+
+        private final String name;
+
+        Phase(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Measures a phase from its start until it is closed.
+     */
+    public static class Timer implements AutoCloseable {
+
+        private final PhaseStats stats;
+        private final long startNanos;
+        private final long startAllocated;
+
+        private Timer(PhaseStats stats) {
+            this.stats = stats;
+            this.startAllocated = stats == null ? -1 : getCurrentThreadAllocatedBytes();
+            this.startNanos = stats == null ? -1 : System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            if(stats == null) {
+                return;
+            }
+            final long nanos = System.nanoTime() - startNanos;
+            stats.count.increment();
+            stats.nanos.add(nanos);
+            if(startAllocated >= 0) {
+                final long allocated = getCurrentThreadAllocatedBytes();
+                if(allocated >= startAllocated) {
+                    stats.allocatedBytes.add(allocated - startAllocated);
+                }
+            }
+        }
+    }
+
+    private static class PhaseStats {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder allocatedBytes = new LongAdder();
+    }
+
+    private static final Timer NO_OP_TIMER = new Timer(null);
+    private static final ProvisioningMetrics NO_OP = new ProvisioningMetrics(false);
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN;
+    static {
+        com.sun.management.ThreadMXBean bean = null;
+        try {
+            final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            if(threadBean instanceof com.sun.management.ThreadMXBean) {
+                bean = (com.sun.management.ThreadMXBean) threadBean;
+                if(!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled()) {
+                    bean = null;
+                }
+            }
+        } catch (Throwable t) {
+            // allocations are not recorded
+        }
+        THREAD_MX_BEAN = bean;
+    }
+
+    private static long getCurrentThreadAllocatedBytes() {
+        return THREAD_MX_BEAN == null ? -1 : THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Creates metrics recording the provisioning phases.
+     *
+     * @return  new metrics
+     */
+    public static ProvisioningMetrics newInstance() {
+        return new ProvisioningMetrics(true);
+    }
+
+    /**
+     * Metrics that don't record anything, used when the metrics haven't been requested.
+     *
+     * @return  metrics that don't record anything
+     */
+    public static ProvisioningMetrics getNoOp() {
+        return NO_OP;
+    }
+
+    private final Map<Phase, PhaseStats> phases;
+    private final LongAdder bytesCopied = new LongAdder();
+    private final LongAdder filesCopied = new LongAdder();
+    private final LongAdder hashesReused = new LongAdder();
+
+    private ProvisioningMetrics(boolean enabled) {
+        if(enabled) {
+            phases = new EnumMap<>(Phase.class);
+            for(Phase phase : Phase.values()) {
+                phases.put(phase, new PhaseStats());
+            }
+        } else {
+            phases = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return phases != null;
+    }
+
+    /**
+     * Starts measuring a phase. The returned timer records the phase when it is closed.
+     *
+     * @param phase  provisioning phase
+     * @return  timer to be closed at the end of the phase
+     */
+    public Timer start(Phase phase) {
+        return phases == null ? NO_OP_TIMER : new Timer(phases.get(phase));
+    }
+
+    /**
+     * Records the content copied into the staged directory. The files are counted as they are copied.
+     * When several packages provide the same path, the sequential copy writes the file once per package
+     * while the parallel copy writes only the file of the package that wins, so the totals of the two
+     * differ by the overwritten files.
+     *
+     * @param files  number of files copied
+     * @param bytes  number of bytes copied
+     */
+    public void addCopied(long files, long bytes) {
+        if(phases == null) {
+            return;
+        }
+        filesCopied.add(files);
+        bytesCopied.add(bytes);
+    }
+
+    /**
+     * Records the hashes of the staged files reused from the previous provisioning
+     * instead of reading the files.
+     *
+     * @param files  number of files whose hashes were reused
+     */
+    public void addHashesReused(long files) {
+        if(phases == null) {
+            return;
+        }
+        hashesReused.add(files);
+    }
+
+    /**
+     * How many times the phase has been entered.
+     *
+     * @param phase  provisioning phase
+     * @return  number of times the phase has been entered
+     */
+    public long getCount(Phase phase) {
+        return phases == null ? 0 : phases.get(phase).count.sum();
+    }
+
+    /**
+     * Total duration of the phase in nanoseconds.
+     *
+     * @param phase  provisioning phase
+     * @return  total duration of the phase in nanoseconds
+     */
+    public long getDurationNanos(Phase phase) {
+        return phases == null ? 0 : phases.get(phase).nanos.sum();
+    }
+
+    /**
+     * Bytes allocated by the threads that entered the phase while the phase lasted.
+     *
+     * @param phase  provisioning phase
+     * @return  bytes allocated during the phase or -1 if the allocations can't be measured
+     */
+    public long getAllocatedBytes(Phase phase) {
+        if(THREAD_MX_BEAN == null) {
+            return -1;
+        }
+        return phases == null ? 0 : phases.get(phase).allocatedBytes.sum();
+    }
+
+    public long getBytesCopied() {
+        return bytesCopied.sum();
+    }
+
+    public long getFilesCopied() {
+        return filesCopied.sum();
+    }
+
+    public long getHashesReused() {
+        return hashesReused.sum();
+    }
+
+    /**
+     * Clears everything recorded so far.
+     */
+    public void reset() {
+        if(phases == null) {
+            return;
+        }
+        for(PhaseStats stats : phases.values()) {
+            stats.count.reset();
+            stats.nanos.reset();
+            stats.allocatedBytes.reset();
+        }
+        bytesCopied.reset();
+        filesCopied.reset();
+        hashesReused.reset();
+    }
+
+    /**
+     * Writes the metrics as a JSON object.
+     *
+     * @param writer  target writer
+     * @throws IOException  in case writing fails
+     */
+    public void writeJson(Writer writer) throws IOException {
+        writer.write("{\"phases\":{");
+        boolean first = true;
+        for(Phase phase : Phase.values()) {
+            if(first) {
+                first = false;
+            } else {
+                writer.write(',');
+            }
+            writer.write('"');
+            writer.write(phase.getName());
+            writer.write("\":{\"count\":");
+            writer.write(Long.toString(getCount(phase)));
+            writer.write(",\"durationNanos\":");
+            writer.write(Long.toString(getDurationNanos(phase)));
+            writer.write(",\"allocatedBytes\":");
+            writer.write(Long.toString(getAllocatedBytes(phase)));
+            writer.write('}');
+        }
+        writer.write("},\"filesCopied\":");
+        writer.write(Long.toString(getFilesCopied()));
+        writer.write(",\"bytesCopied\":");
+        writer.write(Long.toString(getBytesCopied()));
+        writer.write(",\"hashesReused\":");
+        writer.write(Long.toString(getHashesReused()));
+        writer.write('}');
+    }
+
+    /**
+     * The metrics as a JSON object.
+     *
+     * @return  JSON representation of the metrics
+     */
+    public String toJson() {
+        final StringWriter writer = new StringWriter();
+        try {
+            writeJson(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
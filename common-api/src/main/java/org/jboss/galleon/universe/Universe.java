@@ -16,7 +16,10 @@
  */
 package org.jboss.galleon.universe;
 
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.jboss.galleon.ProvisioningException;
 
@@ -37,4 +40,21 @@ public interface Universe<P extends Producer<?>> {
     P getProducer(String producerName) throws ProvisioningException;
 
     Collection<P> getProducers() throws ProvisioningException;
+
+    /**
+     * Resolves the feature-packs of this universe in one request. Universes able to fetch
+     * the feature-packs together should override the default implementation resolving
+     * them one by one.
+     *
+     * @param fpls  feature-pack locations
+     * @return  local feature-pack paths mapped to the feature-pack locations
+     * @throws ProvisioningException  in case any of the feature-packs could not be resolved
+     */
+    default Map<FeaturePackLocation, Path> resolveAll(Collection<FeaturePackLocation> fpls) throws ProvisioningException {
+        final Map<FeaturePackLocation, Path> paths = new LinkedHashMap<>(fpls.size());
+        for (FeaturePackLocation fpl : fpls) {
+            paths.put(fpl, getProducer(fpl.getProducerName()).getChannel(fpl.getChannelName()).resolve(fpl));
+        }
+        return paths;
+    }
 }
@@ -17,7 +17,11 @@
 package org.jboss.galleon.universe;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -127,6 +131,48 @@ public class UniverseResolver {
         return getUniverse(fpl.getUniverse()).getProducer(fpl.getProducerName()).getChannel(fpl.getChannelName()).resolve(fpl);
     }
 
+    /**
+     * Resolves feature-pack locations to paths in local repositories. The feature-packs of
+     * the same universe are resolved in one request.
+     *
+     * @param fpls  feature-pack locations
+     * @return  local feature-pack paths mapped to the feature-pack locations
+     * @throws ProvisioningException  in case any of the feature-packs could not be resolved
+     */
+    public Map<FeaturePackLocation, Path> resolveAll(Collection<FeaturePackLocation> fpls) throws ProvisioningException {
+        final Map<FeaturePackLocation, Path> paths = new LinkedHashMap<>(fpls.size());
+        final Map<UniverseSpec, List<FeaturePackLocation>> byUniverse = new LinkedHashMap<>();
+        for (FeaturePackLocation fpl : fpls) {
+            final Path local = localFeaturePacks.get(fpl.getFPID());
+            if (local != null) {
+                paths.put(fpl, local);
+            } else {
+                byUniverse.computeIfAbsent(fpl.getUniverse(), u -> new ArrayList<>()).add(fpl);
+            }
+        }
+        for (Map.Entry<UniverseSpec, List<FeaturePackLocation>> entry : byUniverse.entrySet()) {
+            final List<FeaturePackLocation> universeFpls = entry.getValue();
+            if (universeFpls.size() == 1) {
+                final FeaturePackLocation fpl = universeFpls.get(0);
+                paths.put(fpl, resolve(fpl));
+            } else {
+                paths.putAll(getUniverse(entry.getKey()).resolveAll(universeFpls));
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the local archive of the feature-pack in case it was added to this resolver
+     * as a local feature-pack, otherwise null.
+     *
+     * @param fpid  feature-pack ID
+     * @return  local feature-pack archive or null
+     */
+    public Path getLocalFeaturePack(FeaturePackLocation.FPID fpid) {
+        return localFeaturePacks.get(fpid);
+    }
+
     public boolean isResolved(FeaturePackLocation fpl) throws ProvisioningException {
         return getUniverse(fpl.getUniverse()).getProducer(fpl.getProducerName()).getChannel(fpl.getChannelName()).isResolved(fpl);
     }
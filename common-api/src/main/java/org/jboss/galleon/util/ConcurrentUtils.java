@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Helpers for the bounded worker pools used to parallelize provisioning tasks.
+ */
+public class ConcurrentUtils {
+
+    private ConcurrentUtils() {
+    }
+
+    /**
+     * The default number of workers for CPU or I/O bound tasks.
+     *
+     * @return  the number of available processors
+     */
+    public static int getDefaultParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Creates a fixed size pool of daemon threads.
+     *
+     * @param name  prefix for the thread names
+     * @param threads  maximum number of threads
+     * @return  new executor service
+     */
+    public static ExecutorService newFixedThreadPool(String name, int threads) {
+        return Executors.newFixedThreadPool(threads < 1 ? 1 : threads, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+            @Override
+            public Thread newThread(Runnable r) {
+                final Thread thread = new Thread(r, name + ' ' + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Shuts down the executor and waits for the submitted tasks to complete.
+     *
+     * @param executor  executor service
+     * @throws InterruptedException  in case the current thread was interrupted while waiting
+     */
+    public static void shutdownAndWait(ExecutorService executor) throws InterruptedException {
+        executor.shutdown();
+        while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+            // wait for the remaining tasks
+        }
+    }
+}
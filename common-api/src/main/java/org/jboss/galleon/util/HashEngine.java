@@ -0,0 +1,246 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Thread-safe hashing engine. Each thread hashes using its own digest instance,
+ * so unlike a shared synchronized digest concurrent callers don't block each other.
+ *
+ * The hash of a directory is the digest of the content of all the files it contains
+ * visited recursively with the children of each directory sorted by name.
+ */
+public class HashEngine {
+
+    public static final String SHA_1 = "SHA-1";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final HashEngine DEFAULT = new HashEngine(SHA_1);
+
+    /**
+     * The default SHA-1 engine used to calculate the hashes persisted in the provisioned state.
+     *
+     * @return  default hash engine
+     */
+    public static HashEngine getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Creates a hash engine for the specified digest algorithm.
+     *
+     * @param algorithm  digest algorithm name
+     * @return  hash engine
+     * @throws NoSuchAlgorithmException  in case the algorithm is not supported
+     */
+    public static HashEngine getInstance(String algorithm) throws NoSuchAlgorithmException {
+        if (SHA_1.equals(algorithm)) {
+            return DEFAULT;
+        }
+        MessageDigest.getInstance(algorithm);
+        return new HashEngine(algorithm);
+    }
+
+    private static class HashContext {
+        final MessageDigest digest;
+        final byte[] buffer = new byte[BUFFER_SIZE];
+
+        HashContext(MessageDigest digest) {
+            this.digest = digest;
+        }
+    }
+
+    private final String algorithm;
+    private final ThreadLocal<HashContext> context;
+
+    private HashEngine(String algorithm) {
+        this.algorithm = algorithm;
+        this.context = new ThreadLocal<HashContext>() {
+            @Override
+            protected HashContext initialValue() {
+                try {
+                    return new HashContext(MessageDigest.getInstance(algorithm));
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public byte[] hash(byte[] bytes) {
+        final MessageDigest digest = resetDigest().digest;
+        return digest.digest(bytes);
+    }
+
+    public byte[] hash(String content) {
+        return hash(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public byte[] hashPath(Path path) throws IOException {
+        final HashContext ctx = resetDigest();
+        updateDigest(ctx, path);
+        return ctx.digest.digest();
+    }
+
+    public byte[] hashJar(Path jarFile, boolean ignoreManifest) throws IOException {
+        final HashContext ctx = resetDigest();
+        try (FileSystem zipfs = ZipUtils.newFileSystem(jarFile)) {
+            for (Path zipRoot : zipfs.getRootDirectories()) {
+                final Map<String, Path> sortedChildren = new TreeMap<String, Path>();
+                try(DirectoryStream<Path> stream = Files.newDirectoryStream(zipRoot)) {
+                    for(Path p : stream) {
+                        final String fileName = p.getFileName().toString();
+                        if(ignoreManifest && fileName.equals("META-INF/")) {
+                            continue;
+                        }
+                        sortedChildren.put(fileName, p);
+                    }
+                }
+                for (Path child : sortedChildren.values()) {
+                    updateDigest(ctx, child);
+                }
+            }
+        }
+        return ctx.digest.digest();
+    }
+
+    /**
+     * Hashes each of the files using up to the specified number of threads.
+     * The hash of each file is the same as the one returned by {@link #hashPath(Path)}.
+     *
+     * @param files  files to hash
+     * @param threads  maximum number of threads to use
+     * @return  hashes of the files in the order the files were passed in
+     * @throws IOException  in case any of the files could not be read
+     */
+    public List<byte[]> hashFiles(List<Path> files, int threads) throws IOException {
+        if (files.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<byte[]> hashes = new ArrayList<>(files.size());
+        if (threads <= 1 || files.size() == 1) {
+            for (Path file : files) {
+                hashes.add(hashPath(file));
+            }
+            return hashes;
+        }
+        final ExecutorService executor = ConcurrentUtils.newFixedThreadPool("Galleon hashing", Math.min(threads, files.size()));
+        try {
+            final List<Future<byte[]>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                futures.add(executor.submit(() -> hashPath(file)));
+            }
+            for (Future<byte[]> future : futures) {
+                hashes.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while hashing files", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+        return hashes;
+    }
+
+    /**
+     * Hashes every regular file found in the directory tree using up to the specified number of threads.
+     *
+     * @param dir  root of the tree
+     * @param threads  maximum number of threads to use
+     * @return  file hashes keyed by the file paths, in the order the tree was walked
+     * @throws IOException  in case the tree could not be walked or a file could not be read
+     */
+    public Map<Path, byte[]> hashTree(Path dir, int threads) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                files.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        final List<byte[]> hashes = hashFiles(files, threads);
+        final Map<Path, byte[]> result = new LinkedHashMap<>(files.size());
+        for (int i = 0; i < files.size(); ++i) {
+            result.put(files.get(i), hashes.get(i));
+        }
+        return result;
+    }
+
+    private HashContext resetDigest() {
+        final HashContext ctx = context.get();
+        ctx.digest.reset();
+        return ctx;
+    }
+
+    private static void updateDigest(HashContext ctx, Path path) throws IOException {
+        if(Files.isDirectory(path)) {
+            try(DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+                final Map<String, Path> sortedChildren = new TreeMap<String, Path>();
+                for(Path p : stream) {
+                    sortedChildren.put(p.getFileName().toString(), p);
+                }
+                for (Path child : sortedChildren.values()) {
+                    updateDigest(ctx, child);
+                }
+            }
+        } else {
+            try (InputStream is = Files.newInputStream(path)) {
+                final byte[] bytes = ctx.buffer;
+                int read;
+                while ((read = is.read(bytes)) > -1) {
+                    ctx.digest.update(bytes, 0, read);
+                }
+            }
+        }
+    }
+}
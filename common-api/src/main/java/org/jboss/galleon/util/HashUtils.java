@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2023 Red Hat, Inc. and/or its affiliates
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
  * and other contributors as indicated by the @author tags.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -16,17 +16,8 @@
  */
 package org.jboss.galleon.util;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.DirectoryStream;
-import java.nio.file.FileSystem;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Map;
-import java.util.TreeMap;
 
 /**
  *
@@ -36,83 +27,20 @@ public class HashUtils {
 
     private static final char[] TABLE = "0123456789abcdef".toCharArray();
 
-    private static final MessageDigest DIGEST;
-    static {
-        try {
-            DIGEST = MessageDigest.getInstance("SHA-1");
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     public static byte[] hashPath(Path path) throws IOException {
-        synchronized (DIGEST) {
-            DIGEST.reset();
-            updateDigest(DIGEST, path);
-            return DIGEST.digest();
-        }
+        return HashEngine.getDefault().hashPath(path);
     }
 
     public static String hashFile(Path path) throws IOException {
-        synchronized (DIGEST) {
-            DIGEST.reset();
-            updateDigest(DIGEST, path);
-            return bytesToHexString(DIGEST.digest());
-        }
+        return bytesToHexString(HashEngine.getDefault().hashPath(path));
     }
 
     public static String hash(String content) throws IOException {
-        synchronized (DIGEST) {
-            DIGEST.reset();
-            DIGEST.update(content.getBytes(StandardCharsets.UTF_8));
-            return bytesToHexString(DIGEST.digest());
-        }
-    }
-
-    private static void updateDigest(MessageDigest digest, Path path) throws IOException {
-        if(Files.isDirectory(path)) {
-            try(DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
-                final Map<String, Path> sortedChildren = new TreeMap<String, Path>();
-                for(Path p : stream) {
-                    sortedChildren.put(p.getFileName().toString(), p);
-                }
-                for (Path child : sortedChildren.values()) {
-                    updateDigest(digest, child);
-                }
-            }
-        } else {
-            try (BufferedInputStream bis = new BufferedInputStream(Files.newInputStream(path))){
-                byte[] bytes = new byte[8192];
-                int read;
-                while ((read = bis.read(bytes)) > -1) {
-                    digest.update(bytes, 0, read);
-                }
-            }
-        }
+        return bytesToHexString(HashEngine.getDefault().hash(content));
     }
 
     public static byte[] hashJar(Path jarFile, boolean ignoreManifest) throws IOException {
-        synchronized (DIGEST) {
-            DIGEST.reset();
-            try (FileSystem zipfs = ZipUtils.newFileSystem(jarFile)) {
-                for (Path zipRoot : zipfs.getRootDirectories()) {
-                    final Map<String, Path> sortedChildren = new TreeMap<String, Path>();
-                    try(DirectoryStream<Path> stream = Files.newDirectoryStream(zipRoot)) {
-                        for(Path p : stream) {
-                            final String fileName = p.getFileName().toString();
-                            if(ignoreManifest && fileName.equals("META-INF/")) {
-                                continue;
-                            }
-                            sortedChildren.put(fileName, p);
-                        }
-                    }
-                    for (Path child : sortedChildren.values()) {
-                        updateDigest(DIGEST, child);
-                    }
-                }
-            }
-            return DIGEST.digest();
-        }
+        return HashEngine.getDefault().hashJar(jarFile, ignoreManifest);
     }
 
     /**
@@ -21,11 +21,14 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.AccessDeniedException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileVisitOption;
 import java.nio.file.FileVisitResult;
 import java.nio.file.FileVisitor;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
@@ -35,8 +38,11 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.LongConsumer;
 
 import org.jboss.galleon.BaseErrors;
 
@@ -152,6 +158,19 @@ public class IoUtils {
     }
 
     public static void copy(Path source, Path target, boolean skipExistingFiles) throws IOException {
+        copy(source, target, skipExistingFiles, null);
+    }
+
+    /**
+     * Copies the source to the target notifying the listener of the size of every file copied.
+     *
+     * @param source  source file or directory
+     * @param target  target file or directory
+     * @param skipExistingFiles  whether the existing target files that can't be written should be skipped
+     * @param copiedFiles  receives the size of each copied file or null
+     * @throws IOException  in case of a failure
+     */
+    public static void copy(Path source, Path target, boolean skipExistingFiles, LongConsumer copiedFiles) throws IOException {
         if(Files.isDirectory(source)) {
             Files.createDirectories(target);
         } else {
@@ -186,12 +205,110 @@ public class IoUtils {
                             if (!skipExistingFiles || !Files.exists(targetFile)) {
                                 throw e;
                             }
+                            return FileVisitResult.CONTINUE;
+                        }
+                        if (copiedFiles != null) {
+                            copiedFiles.accept(attrs.size());
                         }
                         return FileVisitResult.CONTINUE;
                     }
                 });
     }
 
+    /**
+     * Makes the content of the target directory match the content of the source directory.
+     * Target entries missing in the source are deleted, the rest of the source entries are moved
+     * to the target replacing the existing ones. Directories missing in the target are moved with a single
+     * rename while existing directories are updated file by file, so the target is never left empty.
+     * Entries that can't be renamed, e.g. because the source and the target are on different
+     * file systems, are copied instead, skipping the files whose content hasn't changed.
+     * Symbolic links are never followed, a link replaces the target entry with the same name.
+     *
+     * @param source  source directory, its content is consumed by this operation
+     * @param target  target directory
+     * @param mergedNames  names of the target children whose content is merged with the source
+     *                     instead of being replaced, i.e. their entries missing in the source are preserved
+     * @throws IOException  in case of a failure
+     */
+    public static void moveContent(Path source, Path target, Set<String> mergedNames) throws IOException {
+        Files.createDirectories(target);
+        new ContentMover().moveDir(source, target, true, mergedNames);
+    }
+
+    private static class ContentMover {
+
+        private boolean renameSupported = true;
+
+        void moveDir(Path source, Path target, boolean deleteMissing, Set<String> mergedNames) throws IOException {
+            final Set<String> sourceNames = new HashSet<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(source)) {
+                for (Path p : stream) {
+                    sourceNames.add(p.getFileName().toString());
+                }
+            }
+            if (deleteMissing) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(target)) {
+                    for (Path p : stream) {
+                        final String name = p.getFileName().toString();
+                        if (!sourceNames.contains(name) && !mergedNames.contains(name)) {
+                            recursiveDelete(p);
+                        }
+                    }
+                }
+            }
+            for (String name : sourceNames) {
+                final Path sourceChild = source.resolve(name);
+                final Path targetChild = target.resolve(name);
+                final boolean targetIsDir = Files.isDirectory(targetChild, LinkOption.NOFOLLOW_LINKS);
+                if (Files.isDirectory(sourceChild, LinkOption.NOFOLLOW_LINKS)) {
+                    if (targetIsDir) {
+                        moveDir(sourceChild, targetChild, deleteMissing && !mergedNames.contains(name), Collections.emptySet());
+                        continue;
+                    }
+                    Files.deleteIfExists(targetChild);
+                } else if (targetIsDir) {
+                    recursiveDelete(targetChild);
+                }
+                move(sourceChild, targetChild);
+            }
+        }
+
+        private void move(Path source, Path target) throws IOException {
+            if (renameSupported && !Files.isSymbolicLink(source)) {
+                try {
+                    Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+                    return;
+                } catch (AtomicMoveNotSupportedException e) {
+                    renameSupported = false;
+                } catch (AccessDeniedException e) {
+                    if (!Files.exists(target)) {
+                        throw e;
+                    }
+                    return;
+                }
+            }
+            if (Files.isSymbolicLink(source)) {
+                Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, LinkOption.NOFOLLOW_LINKS);
+                return;
+            }
+            if (Files.isDirectory(source)) {
+                copy(source, target, true);
+                return;
+            }
+            if (Files.isRegularFile(target, LinkOption.NOFOLLOW_LINKS)
+                    && Files.size(source) == Files.size(target) && Files.mismatch(source, target) == -1) {
+                return;
+            }
+            try {
+                Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AccessDeniedException e) {
+                if (!Files.exists(target)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
     public static String readFile(Path file) throws IOException {
         if(charBuffer == null) {
             charBuffer = new char[DEFAULT_BUFFER_SIZE];
@@ -0,0 +1,514 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes the content of a directory into a new ZIP archive compressing the entries in parallel.
+ *
+ * The entries are written in the order of their names, except for the manifest which goes first,
+ * with the same fixed timestamp, so the same content always results in the same archive.
+ * Files that are already compressed, such as JARs, are stored instead of deflated.
+ *
+ * The entries are streamed to the archive in order as soon as they are compressed. The compressed
+ * entries waiting to be written are kept in memory up to a bounded number of bytes, larger entries
+ * are compressed into temporary files. The ZIP64 extensions are used for the entries and the archives
+ * exceeding the limits of the ZIP format.
+ */
+public class ZipArchiveWriter {
+
+    private static final String MANIFEST_DIR = "META-INF/";
+    private static final String MANIFEST = MANIFEST_DIR + "MANIFEST.MF";
+
+    private static final Set<String> STORED_EXTENSIONS = new HashSet<>(Arrays.asList(
+            "jar", "war", "ear", "rar", "sar", "zip", "gz", "tgz", "bz2", "xz", "7z", "png", "jpg", "jpeg", "gif"));
+
+    // 1980-01-01 00:00, the earliest MS-DOS date
+    private static final int DOS_TIME = 0;
+    private static final int DOS_DATE = (1 << 5) | 1;
+
+    private static final int LOCAL_HEADER_SIG = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+    private static final int END_SIG = 0x06054b50;
+    private static final int ZIP64_END_SIG = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int UTF8_FLAG = 0x0800;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private static final long MAX_SIZE = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    // the upper bound of the bytes of the compressed entries kept in memory
+    private static final long MAX_BUFFERED_BYTES = 64L * 1024 * 1024;
+
+    private static final class Entry implements Comparable<Entry> {
+        final String name;
+        final byte[] nameBytes;
+        final Path file;
+        final long length;
+        int method = STORED;
+        long crc;
+        long size;
+        long compressedSize;
+        byte[] compressed;
+        Path spilled;
+        long offset;
+        Future<Entry> future;
+
+        Entry(String name, Path file, long length) {
+            this.name = name;
+            this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            this.file = file;
+            this.length = length;
+        }
+
+        boolean isDirectory() {
+            return file == null;
+        }
+
+        boolean isDeflated() {
+            return !isDirectory() && !isCompressed(name);
+        }
+
+        boolean isZip64() {
+            return size >= MAX_SIZE || compressedSize >= MAX_SIZE;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            if (name.equals(o.name)) {
+                return 0;
+            }
+            if (name.equals(MANIFEST_DIR) || name.equals(MANIFEST) && !o.name.equals(MANIFEST_DIR)) {
+                return -1;
+            }
+            if (o.name.equals(MANIFEST_DIR) || o.name.equals(MANIFEST)) {
+                return 1;
+            }
+            return name.compareTo(o.name);
+        }
+    }
+
+    /**
+     * Little-endian output keeping track of the number of written bytes.
+     */
+    private static final class ZipOutput implements AutoCloseable {
+        private final OutputStream out;
+        private long written;
+
+        ZipOutput(OutputStream out) {
+            this.out = out;
+        }
+
+        void writeShort(int i) throws IOException {
+            out.write(i & 0xff);
+            out.write((i >>> 8) & 0xff);
+            written += 2;
+        }
+
+        void writeInt(long i) throws IOException {
+            writeShort((int) (i & 0xffff));
+            writeShort((int) ((i >>> 16) & 0xffff));
+        }
+
+        void writeLong(long l) throws IOException {
+            writeInt(l & MAX_SIZE);
+            writeInt(l >>> 32);
+        }
+
+        void write(byte[] bytes, int off, int len) throws IOException {
+            out.write(bytes, off, len);
+            written += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private ZipArchiveWriter() {
+    }
+
+    /**
+     * Archives the directory using as many threads as there are available processors.
+     *
+     * @param src  directory whose content should be archived or a file to archive
+     * @param zipFile  archive to create, replacing the existing one
+     * @throws IOException  in case of a failure
+     */
+    public static void zip(Path src, Path zipFile) throws IOException {
+        zip(src, zipFile, ConcurrentUtils.getDefaultParallelism());
+    }
+
+    /**
+     * Archives the directory compressing the entries using up to the specified number of threads.
+     *
+     * @param src  directory whose content should be archived or a file to archive
+     * @param zipFile  archive to create, replacing the existing one
+     * @param threads  maximum number of threads to use
+     * @throws IOException  in case of a failure
+     */
+    public static void zip(Path src, Path zipFile, int threads) throws IOException {
+        zip(src, zipFile, threads, MAX_BUFFERED_BYTES);
+    }
+
+    /**
+     * Archives the directory keeping up to the specified number of bytes of compressed entries
+     * in memory. Entries larger than an eighth of it are compressed into temporary files.
+     */
+    static void zip(Path src, Path zipFile, int threads, long maxBuffered) throws IOException {
+        final List<Entry> entries = listEntries(src);
+        final long spillThreshold = maxBuffered / 8;
+        Path spillDir = null;
+        for (Entry entry : entries) {
+            if (entry.isDeflated() && entry.length > spillThreshold) {
+                spillDir = IoUtils.createRandomTmpDir();
+                break;
+            }
+        }
+        boolean written = false;
+        try {
+            if (threads <= 1 || entries.size() <= 1) {
+                writeArchive(entries, zipFile, null, 0, maxBuffered, spillDir, spillThreshold);
+            } else {
+                final ExecutorService executor = ConcurrentUtils.newFixedThreadPool("Galleon zip", threads);
+                try {
+                    writeArchive(entries, zipFile, executor, threads * 4, maxBuffered, spillDir, spillThreshold);
+                } finally {
+                    executor.shutdownNow();
+                    if (spillDir != null) {
+                        try {
+                            ConcurrentUtils.shutdownAndWait(executor);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+            }
+            written = true;
+        } finally {
+            IoUtils.recursiveDelete(spillDir);
+            if (!written) {
+                Files.deleteIfExists(zipFile);
+            }
+        }
+    }
+
+    private static List<Entry> listEntries(Path src) throws IOException {
+        if (!Files.isDirectory(src)) {
+            return Collections.singletonList(new Entry(src.getFileName().toString(), src, Files.size(src)));
+        }
+        final List<Entry> entries = new ArrayList<>();
+        Files.walkFileTree(src, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+                new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        if (!dir.equals(src)) {
+                            entries.add(new Entry(getEntryName(src, dir) + '/', null, 0));
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        entries.add(new Entry(getEntryName(src, file), file, attrs.size()));
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+        Collections.sort(entries);
+        return entries;
+    }
+
+    private static String getEntryName(Path src, Path path) {
+        final Path relative = src.relativize(path);
+        final StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < relative.getNameCount(); ++i) {
+            if (i > 0) {
+                buf.append('/');
+            }
+            buf.append(relative.getName(i).toString());
+        }
+        return buf.toString();
+    }
+
+    private static void writeArchive(List<Entry> entries, Path zipFile, ExecutorService executor, int window,
+            long maxBuffered, Path spillDir, long spillThreshold) throws IOException {
+        try (ZipOutput out = new ZipOutput(new BufferedOutputStream(Files.newOutputStream(zipFile), BUFFER_SIZE * 8))) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            if (executor == null) {
+                for (Entry entry : entries) {
+                    writeEntry(out, compress(entry, spillDir, spillThreshold), buffer);
+                }
+            } else {
+                final Deque<Entry> pending = new ArrayDeque<>(window);
+                long buffered = 0;
+                for (Entry entry : entries) {
+                    // deflated content is not expected to exceed the size of the file by more than a few bytes
+                    final long bytes = entry.isDeflated() && entry.length <= spillThreshold ? entry.length : 0;
+                    while (!pending.isEmpty() && (pending.size() >= window || buffered + bytes > maxBuffered)) {
+                        final Entry written = get(pending.removeFirst());
+                        buffered -= written.isDeflated() && written.length <= spillThreshold ? written.length : 0;
+                        writeEntry(out, written, buffer);
+                    }
+                    if (!entry.isDirectory()) {
+                        entry.future = executor.submit(new Callable<Entry>() {
+                            @Override
+                            public Entry call() throws IOException {
+                                return compress(entry, spillDir, spillThreshold);
+                            }
+                        });
+                    }
+                    pending.addLast(entry);
+                    buffered += bytes;
+                }
+                while (!pending.isEmpty()) {
+                    writeEntry(out, get(pending.removeFirst()), buffer);
+                }
+            }
+            writeCentralDirectory(out, entries);
+        }
+    }
+
+    private static Entry get(Entry entry) throws IOException {
+        if (entry.future == null) {
+            return entry;
+        }
+        try {
+            return entry.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing " + entry.file, e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            entry.future = null;
+        }
+    }
+
+    /**
+     * Calculates the checksum of the file and deflates it unless it is already compressed.
+     * Stored content is not buffered, it is copied from the file when the entry is written.
+     * Files larger than the threshold are deflated into a temporary file instead of memory.
+     */
+    private static Entry compress(Entry entry, Path spillDir, long spillThreshold) throws IOException {
+        if (entry.isDirectory()) {
+            return entry;
+        }
+        final CRC32 crc = new CRC32();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+        if (isCompressed(entry.name)) {
+            try (InputStream is = Files.newInputStream(entry.file)) {
+                int read;
+                while ((read = is.read(buffer)) > -1) {
+                    crc.update(buffer, 0, read);
+                    size += read;
+                }
+            }
+            entry.compressedSize = size;
+        } else {
+            final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            ByteArrayOutputStream bytes = null;
+            final OutputStream target;
+            if (entry.length > spillThreshold) {
+                entry.spilled = Files.createTempFile(spillDir, "entry", null);
+                target = new BufferedOutputStream(Files.newOutputStream(entry.spilled), BUFFER_SIZE);
+            } else {
+                target = bytes = new ByteArrayOutputStream();
+            }
+            try (InputStream is = Files.newInputStream(entry.file);
+                    DeflaterOutputStream os = new DeflaterOutputStream(target, deflater, BUFFER_SIZE)) {
+                int read;
+                while ((read = is.read(buffer)) > -1) {
+                    crc.update(buffer, 0, read);
+                    os.write(buffer, 0, read);
+                    size += read;
+                }
+            } finally {
+                deflater.end();
+            }
+            entry.method = DEFLATED;
+            if (bytes == null) {
+                entry.compressedSize = Files.size(entry.spilled);
+            } else {
+                entry.compressed = bytes.toByteArray();
+                entry.compressedSize = entry.compressed.length;
+            }
+        }
+        entry.crc = crc.getValue();
+        entry.size = size;
+        return entry;
+    }
+
+    private static boolean isCompressed(String name) {
+        final int dot = name.lastIndexOf('.');
+        return dot >= 0 && STORED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ENGLISH));
+    }
+
+    private static void writeEntry(ZipOutput out, Entry entry, byte[] buffer) throws IOException {
+        entry.offset = out.written;
+        out.writeInt(LOCAL_HEADER_SIG);
+        final boolean zip64 = entry.isZip64();
+        writeCommonHeader(out, entry, zip64);
+        if (zip64) {
+            out.writeShort(20); // extra field length
+            out.write(entry.nameBytes, 0, entry.nameBytes.length);
+            out.writeShort(ZIP64_EXTRA_ID);
+            out.writeShort(16);
+            out.writeLong(entry.size);
+            out.writeLong(entry.compressedSize);
+        } else {
+            out.writeShort(0); // extra field length
+            out.write(entry.nameBytes, 0, entry.nameBytes.length);
+        }
+        if (entry.compressed != null) {
+            out.write(entry.compressed, 0, entry.compressed.length);
+            entry.compressed = null;
+        } else if (entry.spilled != null) {
+            try (InputStream is = Files.newInputStream(entry.spilled)) {
+                int read;
+                while ((read = is.read(buffer)) > -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+            Files.delete(entry.spilled);
+            entry.spilled = null;
+        } else if (!entry.isDirectory()) {
+            long copied = 0;
+            try (InputStream is = Files.newInputStream(entry.file)) {
+                int read;
+                while ((read = is.read(buffer)) > -1) {
+                    out.write(buffer, 0, read);
+                    copied += read;
+                }
+            }
+            if (copied != entry.size) {
+                throw new IOException(entry.file + " was modified while it was being archived");
+            }
+        }
+    }
+
+    private static void writeCommonHeader(ZipOutput out, Entry entry, boolean zip64) throws IOException {
+        out.writeShort(zip64 ? 45 : entry.method == DEFLATED ? 20 : 10); // version needed to extract
+        out.writeShort(UTF8_FLAG);
+        out.writeShort(entry.method);
+        out.writeShort(DOS_TIME);
+        out.writeShort(DOS_DATE);
+        out.writeInt(entry.crc);
+        out.writeInt(zip64 ? MAX_SIZE : entry.compressedSize);
+        out.writeInt(zip64 ? MAX_SIZE : entry.size);
+        out.writeShort(entry.nameBytes.length);
+    }
+
+    private static void writeCentralDirectory(ZipOutput out, List<Entry> entries) throws IOException {
+        final long offset = out.written;
+        for (Entry entry : entries) {
+            final boolean zip64 = entry.isZip64();
+            final boolean zip64Offset = entry.offset >= MAX_SIZE;
+            out.writeInt(CENTRAL_HEADER_SIG);
+            out.writeShort(zip64 || zip64Offset ? 45 : 20); // version made by
+            writeCommonHeader(out, entry, zip64);
+            out.writeShort((zip64 ? 16 : 0) + (zip64Offset ? 8 : 0) + (zip64 || zip64Offset ? 4 : 0)); // extra field length
+            out.writeShort(0); // comment length
+            out.writeShort(0); // disk number
+            out.writeShort(0); // internal attributes
+            out.writeInt(0); // external attributes
+            out.writeInt(zip64Offset ? MAX_SIZE : entry.offset);
+            out.write(entry.nameBytes, 0, entry.nameBytes.length);
+            if (zip64 || zip64Offset) {
+                out.writeShort(ZIP64_EXTRA_ID);
+                out.writeShort((zip64 ? 16 : 0) + (zip64Offset ? 8 : 0));
+                if (zip64) {
+                    out.writeLong(entry.size);
+                    out.writeLong(entry.compressedSize);
+                }
+                if (zip64Offset) {
+                    out.writeLong(entry.offset);
+                }
+            }
+        }
+        final long size = out.written - offset;
+        final boolean zip64 = entries.size() >= MAX_ENTRIES || size >= MAX_SIZE || offset >= MAX_SIZE;
+        if (zip64) {
+            final long zip64EndOffset = out.written;
+            out.writeInt(ZIP64_END_SIG);
+            out.writeLong(44); // size of the remaining record
+            out.writeShort(45); // version made by
+            out.writeShort(45); // version needed to extract
+            out.writeInt(0); // number of this disk
+            out.writeInt(0); // disk where the central directory starts
+            out.writeLong(entries.size());
+            out.writeLong(entries.size());
+            out.writeLong(size);
+            out.writeLong(offset);
+
+            out.writeInt(ZIP64_LOCATOR_SIG);
+            out.writeInt(0); // disk where the zip64 end record is
+            out.writeLong(zip64EndOffset);
+            out.writeInt(1); // total number of disks
+        }
+        out.writeInt(END_SIG);
+        out.writeShort(0); // number of this disk
+        out.writeShort(0); // disk where the central directory starts
+        out.writeShort(Math.min(entries.size(), MAX_ENTRIES));
+        out.writeShort(Math.min(entries.size(), MAX_ENTRIES));
+        out.writeInt(Math.min(size, MAX_SIZE));
+        out.writeInt(Math.min(offset, MAX_SIZE));
+        out.writeShort(0); // comment length
+    }
+}
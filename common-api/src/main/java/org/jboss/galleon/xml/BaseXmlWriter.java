@@ -28,7 +28,10 @@ import javax.xml.stream.XMLStreamException;
 
 import org.jboss.galleon.xml.util.AttributeValue;
 import org.jboss.galleon.xml.util.ElementNode;
+import org.jboss.galleon.xml.util.ElementTreeWriter;
+import org.jboss.galleon.xml.util.ElementWriter;
 import org.jboss.galleon.xml.util.FormattingXmlStreamWriter;
+import org.jboss.galleon.xml.util.StreamElementWriter;
 
 /**
  *
@@ -62,6 +65,14 @@ public abstract class BaseXmlWriter<T> {
         e.addAttribute(name, new AttributeValue(value));
     }
 
+    public static void startElement(ElementWriter writer, XmlNameProvider e) throws XMLStreamException {
+        writer.startElement(e.getLocalName(), e.getNamespace());
+    }
+
+    public static void addAttribute(ElementWriter writer, XmlNameProvider name, String value) {
+        writer.addAttribute(name.getLocalName(), value);
+    }
+
     public void write(T t, Path outputFile) throws XMLStreamException, IOException {
         ensureParentDir(outputFile);
         try(Writer writer = Files.newBufferedWriter(outputFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
@@ -70,14 +81,39 @@ public abstract class BaseXmlWriter<T> {
     }
 
     public void write(T t, Writer stream) throws XMLStreamException, IOException {
-        final ElementNode root = toElement(t);
         try (FormattingXmlStreamWriter writer = new FormattingXmlStreamWriter(XMLOutputFactory.newDefaultFactory()
                 .createXMLStreamWriter(stream))) {
             writer.writeStartDocument(StandardCharsets.UTF_8.name(), null);
-            root.marshall(writer);
+            writeElement(t, new StreamElementWriter(writer));
             writer.writeEndDocument();
         }
     }
 
     protected abstract ElementNode toElement(T type) throws XMLStreamException;
+
+    /**
+     * Writes the root element of the type. Unless overridden, the element tree returned
+     * by {@link #toElement(Object)} is built first.
+     *
+     * @param type  the object to write
+     * @param writer  element writer
+     * @throws XMLStreamException  in case of a failure
+     */
+    protected void writeElement(T type, ElementWriter writer) throws XMLStreamException {
+        writer.write(toElement(type));
+    }
+
+    /**
+     * Builds the element tree of the type with {@link #writeElement(Object, ElementWriter)},
+     * for the writers that override it to implement {@link #toElement(Object)}.
+     *
+     * @param type  the object to build the tree for
+     * @return  the root element
+     * @throws XMLStreamException  in case of a failure
+     */
+    protected ElementNode buildElement(T type) throws XMLStreamException {
+        final ElementTreeWriter writer = new ElementTreeWriter();
+        writeElement(type, writer);
+        return writer.getRoot();
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.xml.util;
+
+import java.util.ArrayDeque;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Builds the {@link ElementNode} tree of the elements it receives.
+ */
+public class ElementTreeWriter extends ElementWriter {
+
+    private final ArrayDeque<ElementNode> elements = new ArrayDeque<>();
+    private ElementNode root;
+
+    @Override
+    public void startElement(String name) throws XMLStreamException {
+        startElement(name, elements.getFirst().getNamespace());
+    }
+
+    @Override
+    public void startElement(String name, String namespace) throws XMLStreamException {
+        final ElementNode parent = elements.peekFirst();
+        final ElementNode e = new ElementNode(parent, name, namespace);
+        if (parent == null) {
+            setRoot(e);
+        } else {
+            parent.addChild(e);
+        }
+        elements.push(e);
+    }
+
+    @Override
+    public void addAttribute(String name, String value) {
+        elements.getFirst().addAttribute(name, new AttributeValue(value));
+    }
+
+    @Override
+    public void write(Node node) throws XMLStreamException {
+        final ElementNode parent = elements.peekFirst();
+        if (parent != null) {
+            parent.addChild(node);
+        } else if (node instanceof ElementNode) {
+            setRoot((ElementNode) node);
+        } else {
+            throw new XMLStreamException("The root must be an element");
+        }
+    }
+
+    @Override
+    public void endElement() throws XMLStreamException {
+        elements.pop();
+    }
+
+    /**
+     * The root of the built tree.
+     *
+     * @return  root element or null if no element has been written
+     */
+    public ElementNode getRoot() {
+        return root;
+    }
+
+    private void setRoot(ElementNode e) throws XMLStreamException {
+        if (root != null) {
+            throw new XMLStreamException("The root element has already been written");
+        }
+        root = e;
+    }
+}
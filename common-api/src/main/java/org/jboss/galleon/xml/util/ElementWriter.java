@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.xml.util;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Receives the elements of a document as they are visited. The same visiting code can either
+ * stream the document with a {@link StreamElementWriter} or build its {@link ElementNode} tree
+ * with an {@link ElementTreeWriter}.
+ */
+public abstract class ElementWriter {
+
+    /**
+     * Starts a child element of the current element in the namespace of the current element.
+     *
+     * @param name  local name
+     * @throws XMLStreamException  in case of a failure
+     */
+    public abstract void startElement(String name) throws XMLStreamException;
+
+    /**
+     * Starts an element which becomes the current one.
+     *
+     * @param name  local name
+     * @param namespace  namespace
+     * @throws XMLStreamException  in case of a failure
+     */
+    public abstract void startElement(String name, String namespace) throws XMLStreamException;
+
+    /**
+     * Adds an attribute to the current element, which must not have children written yet.
+     * A repeated attribute replaces the previous value.
+     *
+     * @param name  attribute name
+     * @param value  attribute value
+     */
+    public abstract void addAttribute(String name, String value);
+
+    /**
+     * Writes a node as a child of the current element or, if there is no current element, as the root.
+     *
+     * @param node  node to write
+     * @throws XMLStreamException  in case of a failure
+     */
+    public abstract void write(Node node) throws XMLStreamException;
+
+    /**
+     * Ends the current element, making its parent the current element.
+     *
+     * @throws XMLStreamException  in case of a failure
+     */
+    public abstract void endElement() throws XMLStreamException;
+}
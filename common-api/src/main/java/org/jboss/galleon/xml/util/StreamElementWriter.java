@@ -0,0 +1,142 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.xml.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Writes elements to an {@link XMLStreamWriter} as they are visited instead of building
+ * an {@link ElementNode} tree first, producing the same events {@link ElementNode#marshall(XMLStreamWriter)}
+ * would for the tree {@link ElementTreeWriter} builds from the same calls.
+ *
+ * The start tag of an element is written once its first child with content is written, so that
+ * elements without content can still be written as empty elements. Until then, the attributes
+ * of the element can be added in any order and a repeated attribute replaces the previous value,
+ * like it does for the tree.
+ */
+public class StreamElementWriter extends ElementWriter {
+
+    private static class Element {
+        final String name;
+        final String namespace;
+        final List<String> attrNames = new ArrayList<>(4);
+        final List<String> attrValues = new ArrayList<>(4);
+        List<Node> noContent = Collections.emptyList();
+        boolean started;
+
+        Element(String name, String namespace) {
+            this.name = name;
+            this.namespace = namespace == null ? namespace : namespace.isEmpty() ? null : namespace;
+        }
+    }
+
+    private final XMLStreamWriter writer;
+    private final ArrayDeque<Element> elements = new ArrayDeque<>();
+
+    public StreamElementWriter(XMLStreamWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void startElement(String name) throws XMLStreamException {
+        startElement(name, elements.getFirst().namespace);
+    }
+
+    @Override
+    public void startElement(String name, String namespace) throws XMLStreamException {
+        final Element parent = elements.peekFirst();
+        if (parent != null && !parent.started) {
+            writeStart(parent, false);
+        }
+        elements.push(new Element(name, namespace));
+    }
+
+    @Override
+    public void addAttribute(String name, String value) {
+        final Element e = elements.getFirst();
+        if (e.started) {
+            throw new IllegalStateException("The start tag of " + e.name + " has already been written");
+        }
+        final int i = e.attrNames.indexOf(name);
+        if (i < 0) {
+            e.attrNames.add(name);
+            e.attrValues.add(value);
+        } else {
+            e.attrValues.set(i, value);
+        }
+    }
+
+    @Override
+    public void write(Node node) throws XMLStreamException {
+        final Element e = elements.peekFirst();
+        if (e == null || e.started) {
+            node.marshall(writer);
+        } else if (node.hasContent()) {
+            writeStart(e, false);
+            node.marshall(writer);
+        } else {
+            if (e.noContent.isEmpty()) {
+                e.noContent = new ArrayList<>(1);
+            }
+            e.noContent.add(node);
+        }
+    }
+
+    @Override
+    public void endElement() throws XMLStreamException {
+        final Element e = elements.pop();
+        if (e.started) {
+            writer.writeEndElement();
+        } else {
+            writeStart(e, true);
+        }
+    }
+
+    private void writeStart(Element e, boolean empty) throws XMLStreamException {
+        final String prefix = writer.getNamespaceContext().getPrefix(e.namespace);
+        if (prefix == null) {
+            // Unknown namespace; it becomes default
+            writer.setDefaultNamespace(e.namespace);
+            if (empty) {
+                writer.writeEmptyElement(e.name);
+            } else {
+                writer.writeStartElement(e.name);
+            }
+            writer.writeNamespace(null, e.namespace);
+        } else if (empty) {
+            writer.writeEmptyElement(e.namespace, e.name);
+        } else {
+            writer.writeStartElement(e.namespace, e.name);
+        }
+        for (int i = 0; i < e.attrNames.size(); ++i) {
+            writer.writeAttribute(e.attrNames.get(i), e.attrValues.get(i));
+        }
+        if (!empty) {
+            for (Node node : e.noContent) {
+                node.marshall(writer);
+            }
+            e.noContent = Collections.emptyList();
+            e.started = true;
+        }
+    }
+}
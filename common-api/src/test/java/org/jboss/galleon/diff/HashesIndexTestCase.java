@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.diff;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.jboss.galleon.util.HashUtils;
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HashesIndexTestCase {
+
+    private Path dir;
+    private Path index;
+
+    @Before
+    public void before() throws Exception {
+        dir = IoUtils.createRandomTmpDir();
+        index = IoUtils.createRandomTmpDir().resolve("hashes.idx");
+        write("a.txt", "a");
+        write("b/c.txt", "c");
+        write("b/d/e.txt", "e");
+        Files.createDirectories(dir.resolve("empty"));
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(dir);
+        IoUtils.recursiveDelete(index.getParent());
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        HashesIndex.write(index, FsEntryFactory.getInstance().forPath(dir));
+        final FsEntry root = HashesIndex.read(index).getRoot();
+
+        Assert.assertArrayEquals(HashUtils.hashPath(dir.resolve("b/d/e.txt")), root.getChild("b").getChild("d").getChild("e.txt").getHash());
+        Assert.assertTrue(root.getChild("empty").isDir());
+        Assert.assertFalse(root.getChild("empty").hasChildren());
+        Assert.assertTrue(FsDiff.diff(root, FsEntryFactory.getInstance().forPath(dir)).isEmpty());
+    }
+
+    @Test
+    public void testModifiedFilesAreDetected() throws Exception {
+        HashesIndex.write(index, FsEntryFactory.getInstance().forPath(dir));
+        write("b/c.txt", "modified");
+        Files.delete(dir.resolve("a.txt"));
+
+        final FsDiff diff = FsDiff.diff(HashesIndex.read(index).getRoot(), FsEntryFactory.getInstance().forPath(dir));
+        Assert.assertEquals(Collections.singleton("b/c.txt"), diff.getModifiedPaths());
+        Assert.assertEquals(Collections.singleton("a.txt"), diff.getRemovedPaths());
+    }
+
+    @Test
+    public void testUnsupportedFormat() throws Exception {
+        Files.write(index, "hashes".getBytes(StandardCharsets.UTF_8));
+        try {
+            HashesIndex.read(index);
+            Assert.fail("The index is not valid");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private void write(String relativePath, String content) throws IOException {
+        final Path p = dir.resolve(relativePath);
+        Files.createDirectories(p.getParent());
+        Files.write(p, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
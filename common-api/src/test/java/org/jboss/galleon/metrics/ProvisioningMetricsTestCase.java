@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.metrics;
+
+import org.jboss.galleon.metrics.ProvisioningMetrics.Phase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProvisioningMetricsTestCase {
+
+    @Test
+    public void testPhasesAddUp() {
+        final ProvisioningMetrics metrics = ProvisioningMetrics.newInstance();
+        try (ProvisioningMetrics.Timer timer = metrics.start(Phase.SPEC_PARSING)) {
+            try (ProvisioningMetrics.Timer nested = metrics.start(Phase.SPEC_PARSING)) {
+            }
+        }
+        metrics.addCopied(2, 10);
+        metrics.addCopied(1, 5);
+
+        Assert.assertTrue(metrics.isEnabled());
+        Assert.assertEquals(2, metrics.getCount(Phase.SPEC_PARSING));
+        Assert.assertTrue(metrics.getDurationNanos(Phase.SPEC_PARSING) > 0);
+        Assert.assertEquals(0, metrics.getCount(Phase.LAYOUT));
+        Assert.assertEquals(0, metrics.getDurationNanos(Phase.LAYOUT));
+        Assert.assertEquals(3, metrics.getFilesCopied());
+        Assert.assertEquals(15, metrics.getBytesCopied());
+
+        metrics.reset();
+        Assert.assertEquals(0, metrics.getCount(Phase.SPEC_PARSING));
+        Assert.assertEquals(0, metrics.getFilesCopied());
+    }
+
+    @Test
+    public void testNoOp() {
+        final ProvisioningMetrics metrics = ProvisioningMetrics.getNoOp();
+        try (ProvisioningMetrics.Timer timer = metrics.start(Phase.LAYOUT)) {
+        }
+        metrics.addCopied(1, 1);
+        Assert.assertFalse(metrics.isEnabled());
+        Assert.assertEquals(0, metrics.getCount(Phase.LAYOUT));
+        Assert.assertEquals(0, metrics.getFilesCopied());
+    }
+
+    @Test
+    public void testJson() {
+        final ProvisioningMetrics metrics = ProvisioningMetrics.newInstance();
+        try (ProvisioningMetrics.Timer timer = metrics.start(Phase.HASHING)) {
+        }
+        metrics.addCopied(3, 42);
+        metrics.addHashesReused(2);
+        final String json = metrics.toJson();
+        Assert.assertTrue(json, json.startsWith("{\"phases\":{\"layout\":{\"count\":0,\"durationNanos\":0,\"allocatedBytes\":"));
+        Assert.assertTrue(json, json.contains("\"hashing\":{\"count\":1,"));
+        Assert.assertTrue(json, json.endsWith("},\"filesCopied\":3,\"bytesCopied\":42,\"hashesReused\":2}"));
+    }
+}
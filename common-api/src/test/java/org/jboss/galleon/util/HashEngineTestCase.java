@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.util;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HashEngineTestCase {
+
+    private Path dir;
+
+    @Before
+    public void before() throws Exception {
+        dir = IoUtils.createRandomTmpDir();
+        for (int i = 0; i < 20; ++i) {
+            final Path sub = dir.resolve("dir" + (i % 3));
+            Files.createDirectories(sub);
+            Files.write(sub.resolve("file" + i + ".txt"), ("content " + i).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(dir);
+    }
+
+    @Test
+    public void testDirectoryHashIsSortedContentDigest() throws Exception {
+        final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        for (String subName : new String[] {"dir0", "dir1", "dir2"}) {
+            final Path sub = dir.resolve(subName);
+            final String[] names = sub.toFile().list();
+            Arrays.sort(names);
+            for (String name : names) {
+                digest.update(Files.readAllBytes(sub.resolve(name)));
+            }
+        }
+        Assert.assertArrayEquals(digest.digest(), HashUtils.hashPath(dir));
+        Assert.assertArrayEquals(HashUtils.hashPath(dir), HashEngine.getDefault().hashPath(dir));
+    }
+
+    @Test
+    public void testParallelTreeHashing() throws Exception {
+        final Map<Path, byte[]> hashes = HashEngine.getDefault().hashTree(dir, 4);
+        Assert.assertEquals(20, hashes.size());
+        for (Map.Entry<Path, byte[]> entry : hashes.entrySet()) {
+            Assert.assertEquals(HashUtils.hashFile(entry.getKey()), HashUtils.bytesToHexString(entry.getValue()));
+        }
+    }
+
+    @Test
+    public void testAlgorithm() throws Exception {
+        final HashEngine engine = HashEngine.getInstance("SHA-256");
+        Assert.assertEquals("SHA-256", engine.getAlgorithm());
+        Assert.assertArrayEquals(MessageDigest.getInstance("SHA-256").digest("galleon".getBytes(StandardCharsets.UTF_8)),
+                engine.hash("galleon"));
+        Assert.assertSame(HashEngine.getDefault(), HashEngine.getInstance(HashEngine.SHA_1));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.util;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MoveContentTestCase {
+
+    private Path dir;
+    private Path source;
+    private Path target;
+
+    @Before
+    public void before() throws Exception {
+        dir = IoUtils.createRandomTmpDir();
+        source = dir.resolve("source");
+        target = dir.resolve("target");
+        write(source.resolve("file.txt"), "new");
+        write(source.resolve("same.txt"), "same");
+        write(source.resolve("dir/a.txt"), "new a");
+        write(source.resolve("new-dir/b.txt"), "new b");
+        write(source.resolve("file-to-dir/c.txt"), "new c");
+        write(source.resolve("dir-to-file"), "new d");
+        write(source.resolve(".galleon/state.xml"), "new state");
+
+        write(target.resolve("file.txt"), "old");
+        write(target.resolve("same.txt"), "same");
+        write(target.resolve("dir/a.txt"), "old a");
+        write(target.resolve("dir/removed.txt"), "removed");
+        write(target.resolve("removed-dir/e.txt"), "removed");
+        write(target.resolve("file-to-dir"), "old c");
+        write(target.resolve("dir-to-file/d.txt"), "old d");
+        write(target.resolve(".galleon/state.xml"), "old state");
+        write(target.resolve(".galleon/history/1"), "history");
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(dir);
+    }
+
+    @Test
+    public void testReplaceContent() throws Exception {
+        IoUtils.moveContent(source, target, Collections.emptySet());
+        assertContent(target.resolve("file.txt"), "new");
+        assertContent(target.resolve("same.txt"), "same");
+        assertContent(target.resolve("dir/a.txt"), "new a");
+        assertContent(target.resolve("new-dir/b.txt"), "new b");
+        assertContent(target.resolve("file-to-dir/c.txt"), "new c");
+        assertContent(target.resolve("dir-to-file"), "new d");
+        assertContent(target.resolve(".galleon/state.xml"), "new state");
+        Assert.assertFalse(Files.exists(target.resolve("dir/removed.txt")));
+        Assert.assertFalse(Files.exists(target.resolve("removed-dir")));
+        Assert.assertFalse(Files.exists(target.resolve(".galleon/history")));
+    }
+
+    @Test
+    public void testMergedContent() throws Exception {
+        IoUtils.moveContent(source, target, Collections.singleton(".galleon"));
+        assertContent(target.resolve("file.txt"), "new");
+        assertContent(target.resolve(".galleon/state.xml"), "new state");
+        assertContent(target.resolve(".galleon/history/1"), "history");
+        Assert.assertFalse(Files.exists(target.resolve("removed-dir")));
+    }
+
+    @Test
+    public void testMissingTarget() throws Exception {
+        IoUtils.recursiveDelete(target);
+        IoUtils.moveContent(source, target, Collections.emptySet());
+        assertContent(target.resolve("dir/a.txt"), "new a");
+        assertContent(target.resolve(".galleon/state.xml"), "new state");
+        Assert.assertFalse(Files.exists(target.resolve("removed-dir")));
+    }
+
+    @Test
+    public void testLinkedDirectoryReplacesTargetDirectory() throws Exception {
+        final Path external = dir.resolve("external");
+        write(external.resolve("f.txt"), "external");
+        IoUtils.recursiveDelete(source.resolve("dir"));
+        Files.createSymbolicLink(source.resolve("dir"), external);
+        Files.createSymbolicLink(source.resolve("linked-file"), external.resolve("f.txt"));
+        write(target.resolve("linked-file"), "old");
+
+        IoUtils.moveContent(source, target, Collections.emptySet());
+        Assert.assertTrue(Files.isSymbolicLink(target.resolve("dir")));
+        Assert.assertEquals(external, Files.readSymbolicLink(target.resolve("dir")));
+        Assert.assertTrue(Files.isSymbolicLink(target.resolve("linked-file")));
+        assertContent(external.resolve("f.txt"), "external");
+        Assert.assertFalse(Files.exists(external.resolve("a.txt")));
+        Assert.assertFalse(Files.exists(external.resolve("removed.txt")));
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertContent(Path file, String content) throws Exception {
+        Assert.assertEquals(content, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+}
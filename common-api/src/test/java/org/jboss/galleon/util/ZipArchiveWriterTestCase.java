@@ -0,0 +1,166 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.util;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ZipArchiveWriterTestCase {
+
+    private Path dir;
+    private Path source;
+
+    @Before
+    public void before() throws Exception {
+        dir = IoUtils.createRandomTmpDir();
+        source = dir.resolve("source");
+        final StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 1000; ++i) {
+            buf.append("line ").append(i).append('\n');
+        }
+        write(source.resolve("b.txt"), buf.toString());
+        write(source.resolve("a/c.txt"), "c");
+        write(source.resolve("a/lib.jar"), buf.toString());
+        write(source.resolve("META-INF/MANIFEST.MF"), "Manifest-Version: 1.0\n");
+        write(source.resolve("Z.txt"), "");
+        Files.createDirectories(source.resolve("empty"));
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(dir);
+    }
+
+    @Test
+    public void testContent() throws Exception {
+        final Path zip = dir.resolve("archive.zip");
+        ZipArchiveWriter.zip(source, zip, 4);
+
+        final List<String> names = new ArrayList<>();
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                names.add(entry.getName());
+                if (entry.getName().endsWith(".jar")) {
+                    Assert.assertEquals(ZipEntry.STORED, entry.getMethod());
+                } else if (!entry.isDirectory()) {
+                    Assert.assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+                }
+                if (!entry.isDirectory()) {
+                    try (InputStream is = zipFile.getInputStream(entry)) {
+                        Assert.assertArrayEquals(Files.readAllBytes(source.resolve(entry.getName())), is.readAllBytes());
+                    }
+                }
+            }
+        }
+        Assert.assertEquals(Arrays.asList("META-INF/", "META-INF/MANIFEST.MF", "Z.txt", "a/", "a/c.txt", "a/lib.jar", "b.txt", "empty/"), names);
+
+        // the entries can be read sequentially as well
+        names.clear();
+        try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                names.add(entry.getName());
+                if (!entry.isDirectory()) {
+                    Assert.assertArrayEquals(Files.readAllBytes(source.resolve(entry.getName())), zis.readAllBytes());
+                }
+            }
+        }
+        Assert.assertEquals(8, names.size());
+
+        final Path unzipped = dir.resolve("unzipped");
+        ZipUtils.unzip(zip, unzipped);
+        Assert.assertArrayEquals(HashEngine.getDefault().hashPath(source), HashEngine.getDefault().hashPath(unzipped));
+    }
+
+    @Test
+    public void testReproducible() throws Exception {
+        final Path parallel = dir.resolve("parallel.zip");
+        ZipArchiveWriter.zip(source, parallel, 4);
+
+        Files.setLastModifiedTime(source.resolve("b.txt"), FileTime.fromMillis(0));
+        final Path sequential = dir.resolve("sequential.zip");
+        ZipArchiveWriter.zip(source, sequential, 1);
+        Assert.assertArrayEquals(Files.readAllBytes(parallel), Files.readAllBytes(sequential));
+
+        // an existing archive is replaced
+        ZipArchiveWriter.zip(source.resolve("a"), sequential, 4);
+        try (ZipFile zipFile = new ZipFile(sequential.toFile())) {
+            Assert.assertEquals(2, zipFile.size());
+        }
+    }
+
+    @Test
+    public void testLargeEntriesAreSpilled() throws Exception {
+        final Path buffered = dir.resolve("buffered.zip");
+        ZipArchiveWriter.zip(source, buffered, 4);
+
+        // b.txt exceeds an eighth of the buffer and is compressed into a temporary file
+        final Path parallel = dir.resolve("parallel.zip");
+        ZipArchiveWriter.zip(source, parallel, 4, 1024);
+        Assert.assertArrayEquals(Files.readAllBytes(buffered), Files.readAllBytes(parallel));
+
+        final Path sequential = dir.resolve("sequential.zip");
+        ZipArchiveWriter.zip(source, sequential, 1, 1024);
+        Assert.assertArrayEquals(Files.readAllBytes(buffered), Files.readAllBytes(sequential));
+    }
+
+    @Test
+    public void testZip64EntriesTotal() throws Exception {
+        final Path many = dir.resolve("many");
+        final int total = 0xFFFF + 10;
+        for (int i = 0; i < total; ++i) {
+            Files.createFile(Files.createDirectories(many.resolve("d" + i / 1000)).resolve("f" + i));
+        }
+        final Path zip = dir.resolve("zip64.zip");
+        ZipArchiveWriter.zip(many, zip, 4);
+
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            // the files and their parent directories
+            Assert.assertEquals(total + (total - 1) / 1000 + 1, zipFile.size());
+            Assert.assertNotNull(zipFile.getEntry("d65/f65544"));
+        }
+        int read = 0;
+        try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(zip))) {
+            while (zis.getNextEntry() != null) {
+                ++read;
+            }
+        }
+        Assert.assertEquals(total + (total - 1) / 1000 + 1, read);
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -453,6 +453,10 @@ public interface Errors {
         return buf.toString();
     }
 
+    static String systemPropertyNotPositive(String name, String value) {
+        return "System property " + name + " value " + value + " is not a positive number";
+    }
+
     static String pluginOptionsNotRecognized(Collection<String> names) {
         final StringBuilder buf = new StringBuilder("The following plugin options are not recognized: ");
         if(names.size() > 1) {
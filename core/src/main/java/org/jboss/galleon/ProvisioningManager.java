@@ -26,8 +26,10 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeSet;
 
 import org.jboss.galleon.config.FeaturePackConfig;
@@ -35,13 +37,18 @@ import org.jboss.galleon.config.ProvisioningConfig;
 import org.jboss.galleon.diff.FsDiff;
 import org.jboss.galleon.diff.FsEntry;
 import org.jboss.galleon.diff.FsEntryFactory;
+import org.jboss.galleon.diff.HashesIndex;
 import org.jboss.galleon.diff.ProvisioningDiffProvider;
+import org.jboss.galleon.jfr.HashingEvent;
+import org.jboss.galleon.jfr.PluginInvocationEvent;
 import org.jboss.galleon.layout.FeaturePackPluginVisitor;
 import org.jboss.galleon.layout.ProvisioningLayout;
 import org.jboss.galleon.layout.ProvisioningLayoutFactory;
 import org.jboss.galleon.layout.ProvisioningPlan;
+import org.jboss.galleon.metrics.ProvisioningMetrics;
 import org.jboss.galleon.plugin.StateDiffPlugin;
 import org.jboss.galleon.runtime.FeaturePackRuntimeBuilder;
+import org.jboss.galleon.runtime.PackageContentOrigins;
 import org.jboss.galleon.runtime.ProvisioningRuntime;
 import org.jboss.galleon.runtime.ProvisioningRuntimeBuilder;
 import org.jboss.galleon.state.ProvisionedState;
@@ -51,11 +58,12 @@ import org.jboss.galleon.universe.UniverseFactoryLoader;
 import org.jboss.galleon.universe.UniverseResolver;
 import org.jboss.galleon.universe.UniverseResolverBuilder;
 import org.jboss.galleon.universe.UniverseSpec;
-import org.jboss.galleon.util.StateHistoryUtils;
+import org.jboss.galleon.util.ConcurrentUtils;
 import org.jboss.galleon.util.HashUtils;
 import org.jboss.galleon.util.IoUtils;
 import org.jboss.galleon.util.LayoutUtils;
 import org.jboss.galleon.util.PathsUtils;
+import org.jboss.galleon.util.StateHistoryUtils;
 import org.jboss.galleon.xml.ProvisionedStateXmlParser;
 import org.jboss.galleon.xml.ProvisioningXmlParser;
 import org.jboss.galleon.xml.ProvisioningXmlWriter;
@@ -77,6 +85,7 @@ public class ProvisioningManager implements AutoCloseable {
         private UniverseResolver resolver;
         private boolean logTime;
         private boolean recordState = true;
+        private ProvisioningMetrics metrics;
 
         private Builder() {
         }
@@ -134,6 +143,17 @@ public class ProvisioningManager implements AutoCloseable {
             return this;
         }
 
+        /**
+         * Sets the metrics recording the phases of the provisioning performed by the manager.
+         *
+         * @param metrics  provisioning metrics
+         * @return  this builder
+         */
+        public Builder setMetrics(ProvisioningMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
         public ProvisioningManager build() throws ProvisioningException {
             return new ProvisioningManager(this);
         }
@@ -156,6 +176,7 @@ public class ProvisioningManager implements AutoCloseable {
     private boolean closeLayoutFactory;
     private ProvisioningConfig provisioningConfig;
     private boolean recordState;
+    private final ProvisioningMetrics metrics;
 
     private ProvisioningManager(Builder builder) throws ProvisioningException {
         PathsUtils.assertInstallationDir(builder.installationHome);
@@ -170,6 +191,13 @@ public class ProvisioningManager implements AutoCloseable {
         }
         this.logTime = builder.logTime;
         this.recordState = builder.recordState;
+        this.metrics = builder.metrics == null ? ProvisioningMetrics.getNoOp() : builder.metrics;
+        if(layoutFactory != null && builder.metrics != null) {
+            layoutFactory.setMetrics(metrics);
+        }
+        if(layoutFactory != null && builder.messageWriter != null) {
+            layoutFactory.setMessageWriter(log);
+        }
     }
 
     /**
@@ -181,10 +209,21 @@ public class ProvisioningManager implements AutoCloseable {
         if(layoutFactory == null) {
             closeLayoutFactory = true;
             layoutFactory = ProvisioningLayoutFactory.getInstance(universeResolver);
+            layoutFactory.setMetrics(metrics);
+            layoutFactory.setMessageWriter(log);
         }
         return layoutFactory;
     }
 
+    /**
+     * Metrics recording the phases of the provisioning performed by the manager.
+     *
+     * @return  provisioning metrics, which don't record anything unless they were set on the builder
+     */
+    public ProvisioningMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Location of the installation.
      *
@@ -291,7 +330,7 @@ public class ProvisioningManager implements AutoCloseable {
      * @throws ProvisioningException  in case there was an error reading the description from the disk
      */
     public ProvisionedState getProvisionedState() throws ProvisioningException {
-        return ProvisionedStateXmlParser.parse(PathsUtils.getProvisionedStateXml(home));
+        return ProvisionedStateXmlParser.parseLazily(PathsUtils.getProvisionedStateXml(home));
     }
 
     /**
@@ -628,25 +667,26 @@ public class ProvisioningManager implements AutoCloseable {
 
     private ProvisioningRuntime getRuntimeInternal(ProvisioningLayout<FeaturePackRuntimeBuilder> layout, FsDiff fsDiff)
             throws ProvisioningException {
-        return getRuntimeInternal(layout, fsDiff, false);
+        return getRuntimeInternal(layout, fsDiff, null);
     }
 
-    private ProvisioningRuntime getRuntimeInternal(ProvisioningLayout<FeaturePackRuntimeBuilder> layout, FsDiff fsDiff, boolean setStagedDir)
+    private ProvisioningRuntime getRuntimeInternal(ProvisioningLayout<FeaturePackRuntimeBuilder> layout, FsDiff fsDiff, Path stagedDir)
             throws ProvisioningException {
         final ProvisioningRuntimeBuilder rtBuilder = ProvisioningRuntimeBuilder.newInstance(log)
                 .initRtLayout(layout)
                 .setLogTime(logTime)
                 .setFsDiff(fsDiff)
                 .setRecordState(recordState);
-        if(setStagedDir) {
-            rtBuilder.setStagedDir(home);
+        if(stagedDir != null) {
+            rtBuilder.setStagedDir(stagedDir);
         }
         return rtBuilder.build();
     }
 
     private void doProvision(ProvisioningLayout<FeaturePackRuntimeBuilder> layout, FsDiff fsDiff, boolean undo) throws ProvisioningException {
         final boolean freshInstall = PathsUtils.isNewHome(home);
-        try (ProvisioningRuntime runtime = getRuntimeInternal(layout, fsDiff, freshInstall)) {
+        final Path siblingStagedDir = freshInstall ? null : newSiblingStagedDir();
+        try (ProvisioningRuntime runtime = getRuntimeInternal(layout, fsDiff, freshInstall ? home : siblingStagedDir)) {
             runtime.provision();
             if(recordState) {
                 if (runtime.getProvisioningConfig().hasFeaturePackDeps()) {
@@ -687,7 +727,8 @@ public class ProvisioningManager implements AutoCloseable {
 
             log.verbose("Moving the provisioned installation from the staged directory to %s", home);
             final Path stagedDir = runtime.getStagedDir();
-            // copy from the staged to the target installation directory
+            // move from the staged to the target installation directory
+            Set<String> mergedNames = Collections.emptySet();
             if (Files.exists(home)) {
                 if (recordState) {
                     if (undo) {
@@ -695,30 +736,46 @@ public class ProvisioningManager implements AutoCloseable {
                     } else {
                         StateHistoryUtils.addNewUndoConfig(home, stagedDir, undoTasks, log);
                     }
-                    IoUtils.recursiveDelete(home);
                 } else if(Files.exists(PathsUtils.getProvisionedStateDir(home))) {
-                    try(DirectoryStream<Path> stream = Files.newDirectoryStream(home)) {
-                        for(Path p : stream) {
-                            if(p.getFileName().toString().equals(Constants.PROVISIONED_STATE_DIR)) {
-                                continue;
-                            }
-                            IoUtils.recursiveDelete(p);
-                        }
-                    } catch (IOException e) {
-                        throw new ProvisioningException(BaseErrors.readDirectory(home), e);
-                    }
-                } else {
-                    IoUtils.recursiveDelete(home);
+                    mergedNames = Collections.singleton(Constants.PROVISIONED_STATE_DIR);
                 }
             }
-            try {
-                IoUtils.copy(stagedDir, home, true);
+            try (ProvisioningMetrics.Timer timer = metrics.start(ProvisioningMetrics.Phase.PROMOTION)) {
+                IoUtils.moveContent(stagedDir, home, mergedNames);
             } catch (IOException e) {
-                throw new ProvisioningException(BaseErrors.copyFile(stagedDir, home));
+                throw new ProvisioningException(BaseErrors.copyFile(stagedDir, home), e);
             }
         } finally {
             this.provisioningConfig = null;
+            if(siblingStagedDir != null) {
+                IoUtils.recursiveDelete(siblingStagedDir);
+            }
+        }
+    }
+
+    /**
+     * Creates the staged directory next to the installation, so that the staged content
+     * can be moved into the installation with renames. If the parent directory of the installation
+     * is not writable, the staged directory of the layout is used instead.
+     *
+     * @return  staged directory next to the installation or null
+     * @throws ProvisioningException  in case of a failure
+     */
+    private Path newSiblingStagedDir() throws ProvisioningException {
+        final Path parent = home.toAbsolutePath().getParent();
+        if(parent == null || !Files.isWritable(parent)) {
+            return null;
+        }
+        final Path stagedDir = parent.resolve('.' + home.getFileName().toString() + '.' + ProvisioningLayout.STAGED);
+        // left over by an interrupted provisioning
+        IoUtils.recursiveDelete(stagedDir);
+        try {
+            Files.createDirectory(stagedDir);
+        } catch (IOException e) {
+            log.verbose("Failed to create the staged directory %s: %s", stagedDir, e.getLocalizedMessage());
+            return null;
         }
+        return stagedDir;
     }
 
     /**
@@ -734,17 +791,25 @@ public class ProvisioningManager implements AutoCloseable {
             return null;
         }
         log.verbose("Detecting user changes");
-        final Path hashesDir = LayoutUtils.getHashesDir(getInstallationHome());
-        if(Files.exists(hashesDir)) {
-            final FsEntry originalState = new FsEntry(null, hashesDir);
-            readHashes(originalState, new ArrayList<>());
+        try (ProvisioningMetrics.Timer timer = metrics.start(ProvisioningMetrics.Phase.FS_DIFF)) {
+            return doGetFsDiff(config);
+        }
+    }
+
+    private FsDiff doGetFsDiff(ProvisioningConfig config) throws ProvisioningException {
+        final HashesIndex hashes = readHashes(getInstallationHome());
+        if(hashes != null) {
             final FsEntry currentState = getDefaultFsEntryFactory().forPath(getInstallationHome());
-            return FsDiff.diff(originalState, currentState);
+            return FsDiff.diff(hashes.getRoot(), currentState);
         }
         try(ProvisioningRuntime rt = getRuntime(config)) {
-            rt.provision();
             final FsEntryFactory fsFactory =  getDefaultFsEntryFactory();
-            final FsEntry originalState = fsFactory.forPath(rt.getStagedDir());
+            FsEntry originalState = rt.getStagedContentState(fsFactory);
+            if(originalState == null) {
+                // the staged files are hashed lazily by the diff, streaming their content
+                rt.provision();
+                originalState = fsFactory.forPath(rt.getStagedDir());
+            }
             final FsEntry currentState = fsFactory.forPath(getInstallationHome());
             final long startTime = log.isVerboseEnabled() ? System.nanoTime() : -1;
             final FsDiff fsDiff = FsDiff.diff(originalState, currentState);
@@ -765,7 +830,15 @@ public class ProvisioningManager implements AutoCloseable {
             layout.visitPlugins(new FeaturePackPluginVisitor<StateDiffPlugin>() {
                 @Override
                 public void visitPlugin(StateDiffPlugin plugin) throws ProvisioningException {
+                    final PluginInvocationEvent event = new PluginInvocationEvent();
+                    event.begin();
                     plugin.diff(diffProvider);
+                    event.end();
+                    if(event.shouldCommit()) {
+                        event.pluginClass = plugin.getClass();
+                        event.phase = PluginInvocationEvent.PHASE_DIFF;
+                        event.commit();
+                    }
                 }
             }, StateDiffPlugin.class);
             return diffProvider;
@@ -800,6 +873,30 @@ public class ProvisioningManager implements AutoCloseable {
         }
     }
 
+    /**
+     * Reads the hashes recorded for an installation from the hashes index or, if the index is missing,
+     * from the hashes directory tree persisted by the previous versions.
+     *
+     * @return  the recorded hashes or null if the installation doesn't have them
+     */
+    private static HashesIndex readHashes(Path home) throws ProvisioningException {
+        final Path indexFile = LayoutUtils.getHashesIndexFile(home);
+        if(Files.exists(indexFile)) {
+            try {
+                return HashesIndex.read(indexFile);
+            } catch (IOException e) {
+                throw new ProvisioningException(Errors.readFile(indexFile), e);
+            }
+        }
+        final Path hashesDir = LayoutUtils.getHashesDir(home);
+        if(Files.exists(hashesDir)) {
+            final FsEntry root = new FsEntry(null, hashesDir);
+            readHashes(root, new ArrayList<>());
+            return new HashesIndex(root);
+        }
+        return null;
+    }
+
     private static void readHashes(FsEntry parent, List<FsEntry> dirs) throws ProvisioningException {
         int dirsTotal = 0;
         try(DirectoryStream<Path> stream = Files.newDirectoryStream(parent.getPath())) {
@@ -833,28 +930,123 @@ public class ProvisioningManager implements AutoCloseable {
     }
 
     private void persistHashes(ProvisioningRuntime runtime) throws ProvisioningException {
+        try (ProvisioningMetrics.Timer timer = metrics.start(ProvisioningMetrics.Phase.HASHING)) {
+            doPersistHashes(runtime);
+        }
+    }
+
+    private void doPersistHashes(ProvisioningRuntime runtime) throws ProvisioningException {
         final long startTime = log.isVerboseEnabled() ? System.nanoTime() : -1;
-        final FsEntry root = getDefaultFsEntryFactory().forPath(runtime.getStagedDir());
+        final HashingEvent event = new HashingEvent();
+        event.begin();
+        final Path stagedDir = runtime.getStagedDir();
+        final FsEntry root = getDefaultFsEntryFactory().forPath(stagedDir);
+        final PackageContentOrigins origins = runtime.getPackageContentOrigins();
+        int reused = 0;
         if (root.hasChildren()) {
-            final Path hashes = LayoutUtils.getHashesDir(runtime.getStagedDir());
-            try {
-                Files.createDirectories(hashes);
-            } catch (IOException e) {
-                throw new ProvisioningException("Failed to persist hashes", e);
+            Map<String, String> stagedOrigins = null;
+            if(origins != null) {
+                stagedOrigins = new HashMap<>();
+                reused = reuseHashes(root, origins, stagedDir, stagedOrigins);
+                metrics.addHashesReused(reused);
             }
-            final List<FsEntry> dirs = new ArrayList<>();
-            persistChildHashes(hashes, root, dirs, hashes);
-            if(!dirs.isEmpty()) {
-                for(int i = dirs.size() - 1; i >= 0; --i) {
-                    persistDirHashes(hashes, dirs.get(i), dirs);
+            root.initHashes(ConcurrentUtils.getDefaultParallelism());
+            if(Boolean.parseBoolean(runtime.getOptionValue(ProvisioningOption.BINARY_HASHES))) {
+                final Path indexFile = LayoutUtils.getHashesIndexFile(stagedDir);
+                try {
+                    Files.createDirectories(indexFile.getParent());
+                    HashesIndex.write(indexFile, root);
+                } catch (IOException e) {
+                    throw new ProvisioningException(Errors.hashesNotPersisted(), e);
+                }
+            } else {
+                final Path hashes = LayoutUtils.getHashesDir(stagedDir);
+                try {
+                    Files.createDirectories(hashes);
+                } catch (IOException e) {
+                    throw new ProvisioningException(Errors.hashesNotPersisted(), e);
+                }
+                final List<FsEntry> dirs = new ArrayList<>();
+                persistChildHashes(hashes, root, dirs, hashes);
+                if(!dirs.isEmpty()) {
+                    for(int i = dirs.size() - 1; i >= 0; --i) {
+                        persistDirHashes(hashes, dirs.get(i), dirs);
+                    }
                 }
             }
+            if(stagedOrigins != null) {
+                PackageContentOrigins.store(LayoutUtils.getHashOriginsFile(stagedDir), stagedOrigins);
+            }
+        }
+        event.end();
+        if(event.shouldCommit()) {
+            event.dir = stagedDir.toString();
+            event.files = countFiles(root);
+            event.incremental = origins != null;
+            event.reused = reused;
+            event.commit();
         }
         if(startTime != -1) {
             log.verbose(Errors.tookTime("Hashing", startTime));
         }
     }
 
+    private static int countFiles(FsEntry entry) {
+        int files = 0;
+        for(FsEntry child : entry.getChildren()) {
+            files += child.isDir() ? countFiles(child) : 1;
+        }
+        return files;
+    }
+
+    /**
+     * Assigns the hashes recorded for the current installation to the staged files
+     * that were copied from the same package content and haven't been modified since.
+     *
+     * @param stagedOrigins  receives the origins of the staged files that are safe to be persisted for the next incremental hashing
+     * @return  number of the reused hashes
+     */
+    private int reuseHashes(FsEntry root, PackageContentOrigins origins, Path stagedDir, Map<String, String> stagedOrigins) throws ProvisioningException {
+        Map<String, String> prevOrigins = Collections.emptyMap();
+        FsEntry prevHashes = null;
+        if(!home.equals(stagedDir)) {
+            final Path originsFile = LayoutUtils.getHashOriginsFile(home);
+            if(Files.exists(originsFile)) {
+                prevOrigins = PackageContentOrigins.read(originsFile);
+                if(!prevOrigins.isEmpty()) {
+                    final HashesIndex hashes = readHashes(home);
+                    prevHashes = hashes == null ? null : hashes.getRoot();
+                }
+            }
+        }
+        return reuseHashes(root, prevHashes, origins, prevOrigins, stagedOrigins);
+    }
+
+    private static int reuseHashes(FsEntry entry, FsEntry prevEntry, PackageContentOrigins origins,
+            Map<String, String> prevOrigins, Map<String, String> stagedOrigins) throws ProvisioningException {
+        int reused = 0;
+        for(FsEntry child : entry.getChildren()) {
+            if(child.isDir()) {
+                reused += reuseHashes(child, prevEntry == null ? null : prevEntry.getChild(child.getName()), origins, prevOrigins, stagedOrigins);
+                continue;
+            }
+            final String relativePath = child.getRelativePath();
+            final String origin = origins.getOrigin(relativePath, child.getPath());
+            if(origin == null) {
+                continue;
+            }
+            stagedOrigins.put(relativePath, origin);
+            if(prevEntry != null && origin.equals(prevOrigins.get(relativePath))) {
+                final FsEntry prevFile = prevEntry.getChild(child.getName());
+                if(prevFile != null && !prevFile.isDir()) {
+                    child.setHash(prevFile.getHash());
+                    ++reused;
+                }
+            }
+        }
+        return reused;
+    }
+
     private void persistDirHashes(Path hashes, FsEntry entry, List<FsEntry> dirs) throws ProvisioningException {
         final Path target = hashes.resolve(entry.getRelativePath());
         try {
@@ -65,6 +65,46 @@ public class ProvisioningOption {
            .setBooleanValueSet()
            .build();
 
+    public static final ProvisioningOption PARALLEL_PACKAGE_COPY = ProvisioningOption.builder(Constants.PARALLEL_PACKAGE_COPY)
+            .setDefaultValue(Constants.FALSE)
+            .setBooleanValueSet()
+            .setPersistent(false)
+            .build();
+
+    public static final ProvisioningOption INCREMENTAL_HASHES = ProvisioningOption.builder(Constants.INCREMENTAL_HASHES)
+            .setDefaultValue(Constants.FALSE)
+            .setBooleanValueSet()
+            .setPersistent(false)
+            .build();
+
+    public static final ProvisioningOption BINARY_HASHES = ProvisioningOption.builder(Constants.BINARY_HASHES)
+            .setDefaultValue(Constants.FALSE)
+            .setBooleanValueSet()
+            .setPersistent(false)
+            .build();
+
+    public static final ProvisioningOption PARALLEL_FEATURE_PACK_RESOLUTION = ProvisioningOption.builder(Constants.PARALLEL_FEATURE_PACK_RESOLUTION)
+            .setDefaultValue(Constants.FALSE)
+            .setBooleanValueSet()
+            .setPersistent(false)
+            .build();
+
+    public static final ProvisioningOption RESOLUTION_CACHE = ProvisioningOption.builder(Constants.RESOLUTION_CACHE)
+            .setPersistent(false)
+            .build();
+
+    public static final ProvisioningOption PARALLEL_CONFIG_RESOLUTION = ProvisioningOption.builder(Constants.PARALLEL_CONFIG_RESOLUTION)
+            .setDefaultValue(Constants.FALSE)
+            .setBooleanValueSet()
+            .setPersistent(false)
+            .build();
+
+    public static final ProvisioningOption PARALLEL_UPDATE_CHECK = ProvisioningOption.builder(Constants.PARALLEL_UPDATE_CHECK)
+            .setDefaultValue(Constants.FALSE)
+            .setBooleanValueSet()
+            .setPersistent(false)
+            .build();
+
     public static final ProvisioningOption STABILITY_LEVEL = ProvisioningOption.builder(Constants.STABILITY_LEVEL)
             .addToValueSet(Constants.STABILITY_EXPERIMENTAL)
             .addToValueSet(Constants.STABILITY_PREVIEW)
@@ -88,7 +128,10 @@ public class ProvisioningOption {
 
     private static final List<ProvisioningOption> stdOptions = Arrays
             .asList(new ProvisioningOption[] { IGNORE_NOT_EXCLUDED_LAYERS, OPTIONAL_PACKAGES, VERSION_CONVERGENCE, PRINT_ONLY_CONFLICTS,
-                STORE_INPUT_PROVISIONING_CONFIG, EXPORT_SYSTEM_PATHS, CONFIG_STABILITY_LEVEL, PACKAGE_STABILITY_LEVEL, STABILITY_LEVEL});
+                STORE_INPUT_PROVISIONING_CONFIG, EXPORT_SYSTEM_PATHS, PARALLEL_PACKAGE_COPY, INCREMENTAL_HASHES,
+                BINARY_HASHES, PARALLEL_FEATURE_PACK_RESOLUTION, RESOLUTION_CACHE,
+                PARALLEL_CONFIG_RESOLUTION, PARALLEL_UPDATE_CHECK,
+                CONFIG_STABILITY_LEVEL, PACKAGE_STABILITY_LEVEL, STABILITY_LEVEL});
 
     public static List<ProvisioningOption> getStandardList() {
         return stdOptions;
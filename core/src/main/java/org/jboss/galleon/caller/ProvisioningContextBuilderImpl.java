@@ -21,6 +21,7 @@ import java.nio.file.Path;
 import java.util.Map;
 import org.jboss.galleon.MessageWriter;
 import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.metrics.ProvisioningMetrics;
 import org.jboss.galleon.progresstracking.ProgressTracker;
 import org.jboss.galleon.core.builder.LocalFP;
 import org.jboss.galleon.core.builder.ProvisioningContext;
@@ -38,7 +39,19 @@ public class ProvisioningContextBuilderImpl implements ProvisioningContextBuilde
             UniverseResolver universeResolver,
             Map<String, ProgressTracker<?>> progressTrackers,
             Map<FPID, LocalFP> locals) throws ProvisioningException {
-        return buildContext(loader, home, msgWriter, logTime, recordState, universeResolver, progressTrackers, locals);
+        return buildContext(loader, home, msgWriter, logTime, recordState, universeResolver, progressTrackers, locals, null);
+    }
+
+    @Override
+    public ProvisioningContext buildProvisioningContext(URLClassLoader loader, Path home,
+            MessageWriter msgWriter,
+            boolean logTime,
+            boolean recordState,
+            UniverseResolver universeResolver,
+            Map<String, ProgressTracker<?>> progressTrackers,
+            Map<FPID, LocalFP> locals,
+            ProvisioningMetrics metrics) throws ProvisioningException {
+        return buildContext(loader, home, msgWriter, logTime, recordState, universeResolver, progressTrackers, locals, metrics);
     }
 
     private static ProvisioningContext buildContext(URLClassLoader loader, Path home,
@@ -47,7 +60,8 @@ public class ProvisioningContextBuilderImpl implements ProvisioningContextBuilde
             boolean recordState,
             UniverseResolver universeResolver,
             Map<String, ProgressTracker<?>> progressTrackers,
-            Map<FPID, LocalFP> locals) throws ProvisioningException  {
-        return new ProvisioningContextImpl(loader, home, msgWriter, logTime, recordState, universeResolver, progressTrackers, locals);
+            Map<FPID, LocalFP> locals,
+            ProvisioningMetrics metrics) throws ProvisioningException  {
+        return new ProvisioningContextImpl(loader, home, msgWriter, logTime, recordState, universeResolver, progressTrackers, locals, metrics);
     }
 }
@@ -56,6 +56,7 @@ import org.jboss.galleon.core.builder.LocalFP;
 import org.jboss.galleon.core.builder.ProvisioningContext;
 import org.jboss.galleon.diff.FsDiff;
 import org.jboss.galleon.layout.ProvisioningLayoutFactory;
+import org.jboss.galleon.metrics.ProvisioningMetrics;
 import org.jboss.galleon.progresstracking.ProgressTracker;
 import org.jboss.galleon.spec.FeaturePackPlugin;
 import org.jboss.galleon.state.ProvisionedFeaturePack;
@@ -77,6 +78,7 @@ public class ProvisioningContextImpl implements ProvisioningContext {
     private final UniverseResolver universeResolver;
     private final Map<String, ProgressTracker<?>> progressTrackers;
     private final Map<FeaturePackLocation.FPID, LocalFP> locals;
+    private final ProvisioningMetrics metrics;
 
     ProvisioningContextImpl(URLClassLoader loader, Path home,
             MessageWriter msgWriter,
@@ -84,7 +86,8 @@ public class ProvisioningContextImpl implements ProvisioningContext {
             boolean recordState,
             UniverseResolver universeResolver,
             Map<String, ProgressTracker<?>> progressTrackers,
-            Map<FeaturePackLocation.FPID, LocalFP> locals) throws ProvisioningException {
+            Map<FeaturePackLocation.FPID, LocalFP> locals,
+            ProvisioningMetrics metrics) throws ProvisioningException {
         this.loader = loader;
         this.home = home;
         this.msgWriter = msgWriter;
@@ -93,6 +96,7 @@ public class ProvisioningContextImpl implements ProvisioningContext {
         this.universeResolver = universeResolver;
         this.progressTrackers = progressTrackers;
         this.locals = locals;
+        this.metrics = metrics;
     }
 
     @Override
@@ -209,7 +213,7 @@ public class ProvisioningContextImpl implements ProvisioningContext {
 
     @Override
     public List<String> getInstalledPacks(Path dir) throws ProvisioningException {
-        final Collection<ProvisionedFeaturePack> featurePacks = ProvisionedStateXmlParser.parse(
+        final Collection<ProvisionedFeaturePack> featurePacks = ProvisionedStateXmlParser.parseLazily(
                 PathsUtils.getProvisionedStateXml(dir)).getFeaturePacks();
 
         return featurePacks.stream().map(fp -> fp.getFPID().getProducer().getName()).collect(Collectors.toList());
@@ -274,7 +278,8 @@ public class ProvisioningContextImpl implements ProvisioningContext {
                     .setInstallationHome(home)
                     .setMessageWriter(msgWriter)
                     .setLogTime(logTime)
-                    .setRecordState(recordState);
+                    .setRecordState(recordState)
+                    .setMetrics(metrics);
             if (universeResolver != null) {
                 builder.setUniverseResolver(universeResolver);
             }
@@ -292,6 +297,8 @@ public class ProvisioningContextImpl implements ProvisioningContext {
     private ProvisioningLayoutFactory getLayoutFactory() throws ProvisioningException {
         if (factory == null) {
             factory = ProvisioningLayoutFactory.getInstance();
+            factory.setMetrics(metrics);
+            factory.setMessageWriter(msgWriter);
             for (LocalFP fp : locals.values()) {
                 factory.addLocal(fp.getPath(), fp.isInstallInUniverse());
             }
@@ -38,6 +38,7 @@ import org.jboss.galleon.config.FeatureGroup;
 import org.jboss.galleon.config.FeaturePackConfig;
 import org.jboss.galleon.creator.tasks.FsTaskContext;
 import org.jboss.galleon.creator.tasks.FsTaskList;
+import org.jboss.galleon.layout.FeaturePackMetadataIndex;
 import org.jboss.galleon.plugin.InstallPlugin;
 import org.jboss.galleon.spec.ConfigLayerSpec;
 import org.jboss.galleon.spec.FeaturePackPlugin;
@@ -49,7 +50,7 @@ import org.jboss.galleon.universe.FeaturePackLocation;
 import org.jboss.galleon.util.CollectionUtils;
 import org.jboss.galleon.util.IoUtils;
 import org.jboss.galleon.util.LayoutUtils;
-import org.jboss.galleon.util.ZipUtils;
+import org.jboss.galleon.util.ZipArchiveWriter;
 import org.jboss.galleon.xml.ConfigLayerXmlWriter;
 import org.jboss.galleon.xml.ConfigXmlWriter;
 import org.jboss.galleon.xml.FeatureGroupXmlWriter;
@@ -358,6 +359,8 @@ public class FeaturePackBuilder {
                 }
             }
 
+            FeaturePackMetadataIndex.write(fpWorkDir);
+
             fpSpec = fpBuilder.build();
             final FeaturePackXmlWriter writer = FeaturePackXmlWriter.getInstance();
             writer.write(fpSpec, fpWorkDir.resolve(Constants.FEATURE_PACK_XML));
@@ -422,7 +425,7 @@ public class FeaturePackBuilder {
             }
 
             ensureDir(target.getParent());
-            ZipUtils.zip(tmpDir, target);
+            ZipArchiveWriter.zip(tmpDir, target);
         } finally {
             IoUtils.recursiveDelete(tmpDir);
         }
@@ -33,7 +33,7 @@ import org.jboss.galleon.universe.UniverseResolverBuilder;
 import org.jboss.galleon.util.CollectionUtils;
 import org.jboss.galleon.util.IoUtils;
 import org.jboss.galleon.util.LayoutUtils;
-import org.jboss.galleon.util.ZipUtils;
+import org.jboss.galleon.util.ZipArchiveWriter;
 
 /**
  *
@@ -117,7 +117,7 @@ public class FeaturePackCreator extends UniverseResolverBuilder<FeaturePackCreat
         }
         final Path fpZip = getBuildDir().resolve(LayoutUtils.ensureValidFileName(fpid.toString()));
         try {
-            ZipUtils.zip(fpContentDir, fpZip);
+            ZipArchiveWriter.zip(fpContentDir, fpZip);
         } catch (IOException e) {
             throw new ProvisioningException("Failed to create feature-pack archive", e);
         }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Resolution of a feature-pack archive by the layout factory.
+ */
+@Name("org.jboss.galleon.FeaturePackResolution")
+@Label("Feature-Pack Resolution")
+@Category("Galleon")
+@StackTrace(false)
+public final class FeaturePackResolutionEvent extends jdk.jfr.Event {
+
+    /** The feature-pack had already been resolved and opened by the factory */
+    public static final String SOURCE_OPEN = "open";
+    /** The feature-pack was resolved from its universe */
+    public static final String SOURCE_UNIVERSE = "universe";
+    /** The feature-pack was added from a local archive */
+    public static final String SOURCE_LOCAL = "local";
+
+    @Label("FPID")
+    public String fpid;
+
+    @Label("Source")
+    @Description("Where the feature-pack was resolved from: open, universe or local")
+    public String source;
+
+    @Label("Archive Size")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Loading of a package or a feature spec of a feature-pack.
+ */
+@Name("org.jboss.galleon.FeatureSpecParse")
+@Label("Spec Parse")
+@Category("Galleon")
+@StackTrace(false)
+public final class FeatureSpecParseEvent extends jdk.jfr.Event {
+
+    /** Package spec */
+    public static final String KIND_PACKAGE = "package";
+    /** Feature spec */
+    public static final String KIND_FEATURE = "feature";
+
+    @Label("FPID")
+    public String fpid;
+
+    @Label("Kind")
+    @Description("Kind of the spec: package or feature")
+    public String kind;
+
+    @Label("Spec")
+    public String spec;
+
+    @Label("Indexed")
+    @Description("Whether the spec was read from the metadata index of the feature-pack instead of its XML")
+    public boolean indexed;
+}
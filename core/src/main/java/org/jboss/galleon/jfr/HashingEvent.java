@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Hashing of the staged content and persisting of the hashes index.
+ */
+@Name("org.jboss.galleon.Hashing")
+@Label("Hashing")
+@Category("Galleon")
+@StackTrace(false)
+public final class HashingEvent extends jdk.jfr.Event {
+
+    @Label("Directory")
+    public String dir;
+
+    @Label("Files")
+    @Description("Number of files in the hashes index")
+    public int files;
+
+    @Label("Incremental")
+    @Description("Whether the hashes of the files copied from unchanged package content were reused")
+    public boolean incremental;
+
+    @Label("Reused")
+    @Description("Number of files whose hashes were reused instead of reading the files")
+    public int reused;
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Copying of the content of a package into the staged directory.
+ *
+ * When the content of the packages is copied by a pool of workers, an event begins when
+ * the first file of the package is copied and ends when the last one has been copied,
+ * so the events of the packages copied at the same time overlap.
+ */
+@Name("org.jboss.galleon.PackageCopy")
+@Label("Package Content Copy")
+@Category("Galleon")
+@StackTrace(false)
+public final class PackageCopyEvent extends jdk.jfr.Event {
+
+    @Label("FPID")
+    public String fpid;
+
+    @Label("Package")
+    public String packageName;
+
+    @Label("Files")
+    @Description("Number of files copied from the package content")
+    public int files;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
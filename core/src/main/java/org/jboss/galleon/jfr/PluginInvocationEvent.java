@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Invocation of a feature-pack plugin.
+ */
+@Name("org.jboss.galleon.PluginInvocation")
+@Label("Plugin Invocation")
+@Category("Galleon")
+@StackTrace(false)
+public final class PluginInvocationEvent extends jdk.jfr.Event {
+
+    public static final String PHASE_PRE_INSTALL = "pre-install";
+    public static final String PHASE_POST_INSTALL = "post-install";
+    public static final String PHASE_DIFF = "diff";
+
+    @Label("Plugin Class")
+    public Class<?> pluginClass;
+
+    @Label("Phase")
+    @Description("Phase the plugin was invoked for: pre-install, post-install or diff")
+    public String phase;
+}
@@ -0,0 +1,584 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.layout;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.Errors;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.util.HashUtils;
+import org.jboss.galleon.util.IoUtils;
+import org.jboss.galleon.util.PropertyUtils;
+import org.jboss.galleon.util.ZipUtils;
+
+/**
+ * On-disk cache of extracted feature-pack archives shared between processes.
+ *
+ * Entries are keyed by the feature-pack ID and validated against the size and the modification time
+ * of the archive they were extracted from, falling back to the checksum of the archive when those differ.
+ * Each entry is guarded by a file lock, so the same feature-pack is extracted only once while different
+ * feature-packs can be extracted concurrently. The lock files of the entries are deleted together with the entries
+ * when they are evicted. The cache directory is guarded by a file lock held only
+ * to look up, install and evict entries. Each entry in use holds a shared lock preventing its eviction.
+ * Once the total size of the entries exceeds the limit, the least recently used entries that are not
+ * in use are evicted.
+ *
+ * When an archive is extracted, the digests of its package content files are recorded and its metadata index
+ * is checked against the archive, the index is removed from the entry in case it doesn't match the archive.
+ * Entries extracted in an older format are extracted again.
+ *
+ * The cache is enabled for the default layout factories by setting the {@link #CACHE_DIR_PROPERTY}
+ * system property and, optionally, {@link #MAX_SIZE_PROPERTY} to a positive number of bytes.
+ */
+public class FeaturePackCache {
+
+    public static final String CACHE_DIR_PROPERTY = "galleon.feature-pack.cache.dir";
+    public static final String MAX_SIZE_PROPERTY = "galleon.feature-pack.cache.max-size";
+    public static final long DEFAULT_MAX_SIZE = 2L * 1024 * 1024 * 1024;
+
+    private static final String CONTENT = "content";
+    private static final String ENTRY = "entry";
+    private static final String DIGESTS = "digests";
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final String CACHE_LOCK = "cache.lock";
+    private static final String EXTRACT_LOCK_SUFFIX = ".extract";
+    private static final String TMP = "tmp";
+    private static final long TMP_MAX_AGE = 24L * 60 * 60 * 1000;
+
+    private static final int CHECKSUM = 0;
+    private static final int SIZE = 1;
+    private static final int ARCHIVE_SIZE = 2;
+    private static final int ARCHIVE_TIME = 3;
+    private static final int FORMAT = 4;
+
+    private static final String FORMAT_VERSION = "2";
+
+    /**
+     * Shared locks held on the entries in use by this JVM. File locks are held on behalf of the whole JVM,
+     * so the same entry used by more than one layout factory is locked only once. This map is also
+     * the monitor serializing the access to the cache directories within the JVM.
+     */
+    private static final Map<Path, EntryLock> JVM_LOCKS = new HashMap<>();
+
+    /**
+     * Monitors serializing the lookups and extractions of the same entry within the JVM, the entry
+     * file locks serialize them across processes. A monitor is removed once no thread uses it.
+     */
+    private static final Map<Path, EntryMonitor> ENTRY_MONITORS = new HashMap<>();
+
+    /**
+     * Returns the cache configured with the system properties or null in case the cache is not enabled.
+     *
+     * @return  feature-pack cache or null
+     * @throws ProvisioningException  in case the maximum size is not a positive number
+     */
+    public static FeaturePackCache getDefault() throws ProvisioningException {
+        final String dir = PropertyUtils.getSystemProperty(CACHE_DIR_PROPERTY);
+        if (dir == null || dir.isEmpty()) {
+            return null;
+        }
+        final String value = PropertyUtils.getSystemProperty(MAX_SIZE_PROPERTY);
+        long maxSize = DEFAULT_MAX_SIZE;
+        if (value != null) {
+            try {
+                maxSize = Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                throw new ProvisioningException(Errors.systemPropertyNotPositive(MAX_SIZE_PROPERTY, value), e);
+            }
+            if (maxSize <= 0) {
+                throw new ProvisioningException(Errors.systemPropertyNotPositive(MAX_SIZE_PROPERTY, value));
+            }
+        }
+        return new FeaturePackCache(Paths.get(dir), maxSize);
+    }
+
+    private static class EntryMonitor {
+        int users;
+    }
+
+    private static class EntryLock {
+        final FileChannel channel;
+        final FileLock lock;
+        int refs;
+
+        EntryLock(FileChannel channel, FileLock lock) {
+            this.channel = channel;
+            this.lock = lock;
+        }
+    }
+
+    /**
+     * Extracted feature-pack in use. The entry can't be evicted until it is closed.
+     */
+    public static class Entry implements Closeable {
+
+        private final Path dir;
+        private final Path lockFile;
+        private final String checksum;
+        private boolean closed;
+
+        private Entry(Path dir, Path lockFile, String checksum) {
+            this.dir = dir;
+            this.lockFile = lockFile;
+            this.checksum = checksum;
+        }
+
+        /**
+         * @return  directory containing the extracted feature-pack
+         */
+        public Path getDir() {
+            return dir;
+        }
+
+        /**
+         * @return  checksum of the archive the feature-pack was extracted from
+         */
+        public String getChecksum() {
+            return checksum;
+        }
+
+        /**
+         * Reads the digests of the package content files recorded when the archive was extracted.
+         *
+         * @return  digests keyed by the file paths relative to the feature-pack directory or null
+         *          in case the entry has no digests recorded
+         * @throws IOException  in case the digests could not be read
+         */
+        public Map<String, String> getContentDigests() throws IOException {
+            final Path digestsFile = dir.getParent().resolve(DIGESTS);
+            if (!Files.exists(digestsFile)) {
+                return null;
+            }
+            final Map<String, String> digests = new HashMap<>();
+            try (BufferedReader reader = Files.newBufferedReader(digestsFile)) {
+                String path = reader.readLine();
+                while (path != null) {
+                    final String digest = reader.readLine();
+                    if (digest == null) {
+                        break;
+                    }
+                    digests.put(path, digest);
+                    path = reader.readLine();
+                }
+            }
+            return digests;
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (JVM_LOCKS) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                final EntryLock entryLock = JVM_LOCKS.get(lockFile);
+                if (entryLock == null || --entryLock.refs > 0) {
+                    return;
+                }
+                JVM_LOCKS.remove(lockFile);
+                try {
+                    entryLock.lock.release();
+                } finally {
+                    entryLock.channel.close();
+                }
+            }
+        }
+    }
+
+    private final Path cacheDir;
+    private final long maxSize;
+
+    public FeaturePackCache(Path cacheDir, long maxSize) {
+        this.cacheDir = cacheDir.toAbsolutePath().normalize();
+        this.maxSize = maxSize;
+    }
+
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the extracted content of the feature-pack archive extracting it first in case
+     * the cache does not contain a valid entry for it.
+     *
+     * An entry is valid without reading the archive if the size and the modification time of the archive
+     * are the same as recorded for the entry. Otherwise the archive is hashed and the entry is valid
+     * if it was extracted from an archive with the same checksum.
+     *
+     * The archive is hashed and extracted holding only the lock of the entry, so different feature-packs
+     * can be extracted concurrently. The lock of the cache is held only to look up, install and evict entries.
+     *
+     * @param fpid  feature-pack ID
+     * @param archive  feature-pack archive
+     * @return  cache entry or null in case the feature-pack can't be cached at the moment because
+     *          a stale entry for the same feature-pack is still in use
+     * @throws IOException  in case of a failure
+     */
+    public Entry get(FPID fpid, Path archive) throws IOException {
+        final String key = HashUtils.hash(fpid.toString());
+        final Path entryDir = cacheDir.resolve(key);
+        final Path entryFile = entryDir.resolve(ENTRY);
+        final Path lockFile = cacheDir.resolve(key + LOCK_SUFFIX);
+        final BasicFileAttributes archiveAttrs = Files.readAttributes(archive, BasicFileAttributes.class);
+        final String archiveSize = String.valueOf(archiveAttrs.size());
+        final String archiveTime = String.valueOf(archiveAttrs.lastModifiedTime().toMillis());
+        Files.createDirectories(cacheDir);
+        final EntryMonitor monitor = acquireEntryMonitor(entryDir);
+        try {
+            synchronized (monitor) {
+                try (FileChannel extractChannel = lockExtraction(cacheDir.resolve(key + EXTRACT_LOCK_SUFFIX))) {
+                    synchronized (JVM_LOCKS) {
+                        try (FileChannel cacheChannel = lockCache(); FileLock cacheLock = cacheChannel.lock()) {
+                            final String[] entry = readEntry(entryFile);
+                            if (entry != null && FORMAT_VERSION.equals(entry[FORMAT])
+                                    && archiveSize.equals(entry[ARCHIVE_SIZE]) && archiveTime.equals(entry[ARCHIVE_TIME])) {
+                                Files.setLastModifiedTime(entryFile, FileTime.fromMillis(System.currentTimeMillis()));
+                                return lock(entryDir, lockFile, entry[CHECKSUM]);
+                            }
+                        }
+                    }
+
+                    final String checksum = HashUtils.hashFile(archive);
+                    synchronized (JVM_LOCKS) {
+                        try (FileChannel cacheChannel = lockCache(); FileLock cacheLock = cacheChannel.lock()) {
+                            final String[] entry = readEntry(entryFile);
+                            if (entry != null && FORMAT_VERSION.equals(entry[FORMAT]) && checksum.equals(entry[CHECKSUM])) {
+                                // the archive was copied or touched, the metadata is recorded for the next lookup
+                                writeEntry(entryFile, checksum, entry[SIZE], fpid, archiveSize, archiveTime);
+                                return lock(entryDir, lockFile, checksum);
+                            }
+                            if (Files.exists(entryDir)) {
+                                if (JVM_LOCKS.containsKey(lockFile) || !delete(entryDir, lockFile)) {
+                                    return null;
+                                }
+                            }
+                        }
+                    }
+
+                    final Path tmpDir = cacheDir.resolve(TMP).resolve(UUID.randomUUID().toString());
+                    try {
+                        extract(fpid, archive, checksum, archiveSize, archiveTime, tmpDir);
+                        synchronized (JVM_LOCKS) {
+                            try (FileChannel cacheChannel = lockCache(); FileLock cacheLock = cacheChannel.lock()) {
+                                // the entry lock prevents other extractions of the same entry, so the entry can't exist at this point
+                                Files.move(tmpDir, entryDir);
+                                evict(entryDir);
+                                return lock(entryDir, lockFile, checksum);
+                            }
+                        }
+                    } finally {
+                        IoUtils.recursiveDelete(tmpDir);
+                    }
+                }
+            }
+        } finally {
+            releaseEntryMonitor(entryDir, monitor);
+        }
+    }
+
+    private static EntryMonitor acquireEntryMonitor(Path entryDir) {
+        synchronized (ENTRY_MONITORS) {
+            final EntryMonitor monitor = ENTRY_MONITORS.computeIfAbsent(entryDir, k -> new EntryMonitor());
+            ++monitor.users;
+            return monitor;
+        }
+    }
+
+    private static void releaseEntryMonitor(Path entryDir, EntryMonitor monitor) {
+        synchronized (ENTRY_MONITORS) {
+            if (--monitor.users == 0) {
+                ENTRY_MONITORS.remove(entryDir);
+            }
+        }
+    }
+
+    private FileChannel lockCache() throws IOException {
+        return FileChannel.open(cacheDir.resolve(CACHE_LOCK), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Acquires the lock serializing the extractions of the entry, which is released when the returned
+     * channel is closed. The lock file is created holding the cache lock and, since an evicted entry
+     * deletes it holding the cache lock too, it is checked to be still in place once it is locked.
+     */
+    private FileChannel lockExtraction(Path extractFile) throws IOException {
+        while (true) {
+            final FileChannel channel;
+            final Object fileKey;
+            synchronized (JVM_LOCKS) {
+                try (FileChannel cacheChannel = lockCache(); FileLock cacheLock = cacheChannel.lock()) {
+                    channel = FileChannel.open(extractFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    fileKey = Files.readAttributes(extractFile, BasicFileAttributes.class).fileKey();
+                }
+            }
+            boolean locked = false;
+            try {
+                channel.lock();
+                synchronized (JVM_LOCKS) {
+                    try (FileChannel cacheChannel = lockCache(); FileLock cacheLock = cacheChannel.lock()) {
+                        if (Files.exists(extractFile)
+                                && Objects.equals(fileKey, Files.readAttributes(extractFile, BasicFileAttributes.class).fileKey())) {
+                            locked = true;
+                            return channel;
+                        }
+                    }
+                }
+            } finally {
+                if (!locked) {
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Acquires the shared lock preventing the eviction of the entry while it is in use.
+     * Expected to be called holding the cache lock.
+     */
+    private static Entry lock(Path entryDir, Path lockFile, String checksum) throws IOException {
+        EntryLock entryLock = JVM_LOCKS.get(lockFile);
+        if (entryLock == null) {
+            final FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                entryLock = new EntryLock(channel, channel.lock(0, Long.MAX_VALUE, true));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            JVM_LOCKS.put(lockFile, entryLock);
+        }
+        ++entryLock.refs;
+        return new Entry(entryDir.resolve(CONTENT), lockFile, checksum);
+    }
+
+    /**
+     * Extracts the archive into the directory, validates its metadata index, records the digests
+     * of the package content files and the entry.
+     */
+    private static void extract(FPID fpid, Path archive, String checksum, String archiveSize, String archiveTime, Path tmpDir) throws IOException {
+        final Path contentDir = tmpDir.resolve(CONTENT);
+        ZipUtils.unzip(archive, contentDir);
+        final Path index = contentDir.resolve(Constants.METADATA_INDEX);
+        if (Files.exists(index)) {
+            // checked against the central directory of the archive, the extracted index is then read unchecked
+            try (FileSystem zipfs = ZipUtils.newFileSystem(archive)) {
+                if (FeaturePackMetadataIndex.read(zipfs.getPath("/")) == null) {
+                    Files.delete(index);
+                }
+            }
+        }
+        final long[] size = new long[1];
+        final Map<String, String> digests = new TreeMap<>();
+        Files.walkFileTree(contentDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                size[0] += attrs.size();
+                final Path relative = contentDir.relativize(file);
+                if (relative.getNameCount() > 3 && relative.getName(0).toString().equals(Constants.PACKAGES)
+                        && relative.getName(2).toString().equals(Constants.CONTENT)) {
+                    digests.put(relative.toString().replace(file.getFileSystem().getSeparator(), "/"), HashUtils.hashFile(file));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        try (BufferedWriter writer = Files.newBufferedWriter(tmpDir.resolve(DIGESTS))) {
+            for (Map.Entry<String, String> digest : digests.entrySet()) {
+                writer.write(digest.getKey());
+                writer.newLine();
+                writer.write(digest.getValue());
+                writer.newLine();
+            }
+        }
+        writeEntry(tmpDir.resolve(ENTRY), checksum, String.valueOf(size[0]), fpid, archiveSize, archiveTime);
+    }
+
+    private static void writeEntry(Path entryFile, String checksum, String size, FPID fpid, String archiveSize, String archiveTime) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(entryFile)) {
+            writer.write(checksum);
+            writer.newLine();
+            writer.write(size);
+            writer.newLine();
+            writer.write(fpid.toString());
+            writer.newLine();
+            writer.write(archiveSize);
+            writer.newLine();
+            writer.write(archiveTime);
+            writer.newLine();
+            writer.write(FORMAT_VERSION);
+            writer.newLine();
+        }
+    }
+
+    private void evict(Path keep) throws IOException {
+        deleteAbandonedTmpDirs();
+        final List<Path> entries = new ArrayList<>();
+        final Map<Path, Long> sizes = new HashMap<>();
+        final Map<Path, FileTime> lastUsed = new HashMap<>();
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir, Files::isDirectory)) {
+            for (Path entryDir : stream) {
+                final Path entryFile = entryDir.resolve(ENTRY);
+                final String[] entry = readEntry(entryFile);
+                if (entry == null) {
+                    continue;
+                }
+                final long size = Long.parseLong(entry[SIZE]);
+                total += size;
+                if (entryDir.equals(keep)) {
+                    continue;
+                }
+                entries.add(entryDir);
+                sizes.put(entryDir, size);
+                lastUsed.put(entryDir, Files.getLastModifiedTime(entryFile));
+            }
+        }
+        if (total <= maxSize) {
+            return;
+        }
+        entries.sort(Comparator.comparing(lastUsed::get));
+        for (Path entryDir : entries) {
+            final Path lockFile = cacheDir.resolve(entryDir.getFileName() + LOCK_SUFFIX);
+            if (JVM_LOCKS.containsKey(lockFile) || !delete(entryDir, lockFile)) {
+                continue;
+            }
+            deleteExtractLock(entryDir);
+            total -= sizes.get(entryDir);
+            if (total <= maxSize) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Deletes the temporary directories left by the extractions of processes that didn't complete.
+     * Extractions in progress are not affected since the directories are deleted only after a day.
+     */
+    private void deleteAbandonedTmpDirs() throws IOException {
+        final Path tmpDir = cacheDir.resolve(TMP);
+        if (!Files.exists(tmpDir)) {
+            return;
+        }
+        final long expired = System.currentTimeMillis() - TMP_MAX_AGE;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(tmpDir)) {
+            for (Path dir : stream) {
+                if (Files.getLastModifiedTime(dir).toMillis() < expired) {
+                    IoUtils.recursiveDelete(dir);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the entry unless it is in use by another process.
+     */
+    private static boolean delete(Path entryDir, Path lockFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            final FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return false;
+            }
+            try {
+                IoUtils.recursiveDelete(entryDir);
+            } finally {
+                lock.release();
+            }
+        }
+        // entry locks are acquired while holding the cache lock, so nobody could be waiting on this file
+        Files.deleteIfExists(lockFile);
+        return !Files.exists(entryDir);
+    }
+
+    /**
+     * Deletes the extraction lock file of the evicted entry unless an extraction of the entry is in progress.
+     * Expected to be called holding the cache lock.
+     */
+    private void deleteExtractLock(Path entryDir) throws IOException {
+        synchronized (ENTRY_MONITORS) {
+            if (ENTRY_MONITORS.containsKey(entryDir)) {
+                // the file lock is held or about to be acquired by another thread of this JVM
+                return;
+            }
+        }
+        final Path extractFile = cacheDir.resolve(entryDir.getFileName() + EXTRACT_LOCK_SUFFIX);
+        if (!Files.exists(extractFile)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(extractFile, StandardOpenOption.WRITE)) {
+            final FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return;
+            }
+            try {
+                // the processes waiting on the deleted file will find it missing and create a new one
+                Files.delete(extractFile);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * Reads the checksum and the size of the entry, the size and the modification time of the archive
+     * it was extracted from and the format of the entry, which is null for the entries of the first format.
+     */
+    private static String[] readEntry(Path entryFile) throws IOException {
+        if (!Files.exists(entryFile)) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(entryFile)) {
+            final String checksum = reader.readLine();
+            final String size = reader.readLine();
+            final String fpid = reader.readLine();
+            final String archiveSize = reader.readLine();
+            final String archiveTime = reader.readLine();
+            final String format = reader.readLine();
+            if (checksum == null || size == null || fpid == null || archiveSize == null || archiveTime == null) {
+                return null;
+            }
+            return new String[] {checksum, size, archiveSize, archiveTime, format};
+        }
+    }
+}
@@ -0,0 +1,488 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.layout;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.Errors;
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.spec.CapabilitySpec;
+import org.jboss.galleon.spec.FeatureAnnotation;
+import org.jboss.galleon.spec.FeatureDependencySpec;
+import org.jboss.galleon.spec.FeatureId;
+import org.jboss.galleon.spec.FeatureParameterSpec;
+import org.jboss.galleon.spec.FeatureReferenceSpec;
+import org.jboss.galleon.spec.FeatureSpec;
+import org.jboss.galleon.spec.PackageDependencySpec;
+import org.jboss.galleon.spec.PackageDepsSpec;
+import org.jboss.galleon.spec.PackageDepsSpecBuilder;
+import org.jboss.galleon.spec.PackageSpec;
+import org.jboss.galleon.xml.FeatureSpecXmlParser;
+import org.jboss.galleon.xml.PackageXmlParser;
+
+/**
+ * Binary index of the package and feature specs of a feature-pack, stored in the feature-pack
+ * next to the XML files it was built from, so that the specs can be loaded without parsing
+ * the XML files one by one.
+ *
+ * The index is read with a single read of the file. It records the CRC-32 checksum of each
+ * package and feature spec XML file it was built from, which are checked once when the index
+ * is read. If the XML files were added, removed or modified since, the index is ignored as a whole
+ * and the XML files have to be parsed. In a feature-pack archive the checksums are read from
+ * the central directory of the archive, otherwise the XML files are read to compute them.
+ * The feature-pack cache checks the index against the archive once, when the archive is extracted,
+ * so the index of a cached feature-pack is read without checking the extracted XML files.
+ */
+public class FeaturePackMetadataIndex {
+
+    private static final int MAGIC = 0x474c4e4d;
+    private static final int VERSION = 4;
+
+    private static final String ZIP_VIEW = "zip";
+    private static final String ZIP_CRC = "zip:crc";
+
+    /**
+     * Builds the index for the package and feature specs found in the feature-pack directory.
+     *
+     * @param fpDir  feature-pack directory
+     * @throws ProvisioningException  in case the XML files could not be parsed or the index could not be written
+     */
+    public static void write(Path fpDir) throws ProvisioningException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final ByteArrayOutputStream toc = new ByteArrayOutputStream();
+        try (DataOutputStream bodyOut = new DataOutputStream(body);
+                DataOutputStream tocOut = new DataOutputStream(toc)) {
+            final Map<String, Path> pkgXmls = listXmls(fpDir.resolve(Constants.PACKAGES), Constants.PACKAGE_XML);
+            final Map<String, Path> specXmls = listXmls(fpDir.resolve(Constants.FEATURES), Constants.SPEC_XML);
+            tocOut.writeInt(MAGIC);
+            tocOut.writeInt(VERSION);
+
+            tocOut.writeInt(pkgXmls.size());
+            for (Map.Entry<String, Path> entry : pkgXmls.entrySet()) {
+                final PackageSpec pkgSpec;
+                try (BufferedReader reader = Files.newBufferedReader(entry.getValue())) {
+                    pkgSpec = PackageXmlParser.getInstance().parse(reader);
+                } catch (Exception e) {
+                    throw new ProvisioningException(Errors.parseXml(entry.getValue()), e);
+                }
+                writeTocEntry(tocOut, entry.getKey(), entry.getValue(), bodyOut.size());
+                writeString(bodyOut, pkgSpec.getName());
+                writeString(bodyOut, pkgSpec.getStability() == null ? null : pkgSpec.getStability().toString());
+                writePackageDeps(bodyOut, pkgSpec);
+            }
+
+            tocOut.writeInt(specXmls.size());
+            for (Map.Entry<String, Path> entry : specXmls.entrySet()) {
+                final FeatureSpec featureSpec;
+                try (BufferedReader reader = Files.newBufferedReader(entry.getValue())) {
+                    featureSpec = FeatureSpecXmlParser.getInstance().parse(reader);
+                } catch (Exception e) {
+                    throw new ProvisioningException(Errors.parseXml(entry.getValue()), e);
+                }
+                writeTocEntry(tocOut, entry.getKey(), entry.getValue(), bodyOut.size());
+                writeFeatureSpec(bodyOut, featureSpec);
+            }
+        } catch (IOException e) {
+            throw new ProvisioningException(Errors.writeFile(fpDir.resolve(Constants.METADATA_INDEX)), e);
+        }
+        try {
+            final byte[] tocBytes = toc.toByteArray();
+            final ByteBuffer length = ByteBuffer.allocate(Integer.BYTES).putInt(tocBytes.length);
+            try (OutputStream out = Files.newOutputStream(fpDir.resolve(Constants.METADATA_INDEX))) {
+                out.write(length.array());
+                out.write(tocBytes);
+                body.writeTo(out);
+            }
+        } catch (IOException e) {
+            throw new ProvisioningException(Errors.writeFile(fpDir.resolve(Constants.METADATA_INDEX)), e);
+        }
+    }
+
+    /**
+     * Reads the index of the feature-pack.
+     *
+     * @param fpDir  feature-pack directory
+     * @return  the index or null, if the feature-pack doesn't include an index in a supported format
+     * or the spec XML files of the feature-pack don't match the index
+     */
+    public static FeaturePackMetadataIndex read(Path fpDir) {
+        return read(fpDir, false);
+    }
+
+    /**
+     * Reads the index of the feature-pack, optionally trusting it to match the spec XML files.
+     *
+     * @param fpDir  feature-pack directory
+     * @param validated  whether the index is known to match the spec XML files, in which case
+     *                   the XML files are neither listed nor checked
+     * @return  the index or null, if the feature-pack doesn't include an index in a supported format
+     * or the index is not validated and the spec XML files of the feature-pack don't match the index
+     */
+    public static FeaturePackMetadataIndex read(Path fpDir, boolean validated) {
+        final Path file = fpDir.resolve(Constants.METADATA_INDEX);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            final ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+            final int bodyOffset = Integer.BYTES + buf.getInt();
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+                return null;
+            }
+            final Map<String, Integer> packages = readToc(buf, bodyOffset,
+                    validated ? null : listXmls(fpDir.resolve(Constants.PACKAGES), Constants.PACKAGE_XML));
+            if (packages == null) {
+                return null;
+            }
+            final Map<String, Integer> features = readToc(buf, bodyOffset,
+                    validated ? null : listXmls(fpDir.resolve(Constants.FEATURES), Constants.SPEC_XML));
+            if (features == null) {
+                return null;
+            }
+            return new FeaturePackMetadataIndex(buf, packages, features);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Path> listXmls(Path dir, String xmlName) throws IOException {
+        final Map<String, Path> xmls = new TreeMap<>();
+        if (!Files.exists(dir)) {
+            return xmls;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path child : stream) {
+                final Path xml = child.resolve(xmlName);
+                if (Files.exists(xml)) {
+                    xmls.put(child.getFileName().toString(), xml);
+                }
+            }
+        }
+        return xmls;
+    }
+
+    private static void writeTocEntry(DataOutputStream out, String name, Path xml, int offset) throws IOException {
+        writeString(out, name);
+        out.writeLong(checksum(xml));
+        out.writeInt(offset);
+    }
+
+    /**
+     * Reads the table of contents checking it against the XML files, unless they are null.
+     *
+     * @return  offsets of the entries or null, if the XML files don't match the index
+     */
+    private static Map<String, Integer> readToc(ByteBuffer buf, int bodyOffset, Map<String, Path> xmls) throws IOException {
+        int i = buf.getInt();
+        if (xmls != null && i != xmls.size()) {
+            return null;
+        }
+        final Map<String, Integer> toc = new HashMap<>(i);
+        while (i-- > 0) {
+            final String name = readString(buf);
+            final long checksum = buf.getLong();
+            if (xmls != null) {
+                final Path xml = xmls.get(name);
+                if (xml == null || checksum != checksum(xml)) {
+                    return null;
+                }
+            }
+            toc.put(name, bodyOffset + buf.getInt());
+        }
+        return toc;
+    }
+
+    /**
+     * The CRC-32 checksum of the file, read from the central directory for the files in an archive.
+     */
+    private static long checksum(Path xml) throws IOException {
+        if (xml.getFileSystem().supportedFileAttributeViews().contains(ZIP_VIEW)) {
+            final Object crc = Files.getAttribute(xml, ZIP_CRC);
+            if (crc instanceof Long && (Long) crc >= 0) {
+                return (Long) crc;
+            }
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(xml));
+        return crc.getValue();
+    }
+
+    private static void writeFeatureSpec(DataOutputStream out, FeatureSpec spec) throws IOException {
+        writeString(out, spec.getName());
+        writeString(out, spec.getStability() == null ? null : spec.getStability().toString());
+
+        out.writeInt(spec.getAnnotations().size());
+        for (FeatureAnnotation annotation : spec.getAnnotations()) {
+            writeString(out, annotation.getName());
+            writeStrings(out, annotation.getElements());
+        }
+
+        writeCaps(out, spec.getProvidedCapabilities());
+        writeCaps(out, spec.getRequiredCapabilities());
+
+        out.writeInt(spec.getFeatureDeps().size());
+        for (FeatureDependencySpec dep : spec.getFeatureDeps()) {
+            writeString(out, dep.getFeatureId().toString());
+            writeString(out, dep.getOrigin());
+            out.writeBoolean(dep.isInclude());
+        }
+
+        out.writeInt(spec.getFeatureRefs().size());
+        for (FeatureReferenceSpec ref : spec.getFeatureRefs()) {
+            writeString(out, ref.getFeature().toString());
+            writeString(out, ref.getOrigin());
+            writeString(out, ref.getName());
+            out.writeBoolean(ref.isNillable());
+            out.writeBoolean(ref.isInclude());
+            writeStrings(out, ref.getMappedParams());
+        }
+
+        out.writeInt(spec.getParamsTotal());
+        for (FeatureParameterSpec param : spec.getParams().values()) {
+            writeString(out, param.getName());
+            out.writeBoolean(param.isFeatureId());
+            out.writeBoolean(param.isNillable());
+            writeString(out, param.getDefaultValue());
+            writeString(out, param.getType());
+            writeString(out, param.getStability() == null ? null : param.getStability().toString());
+        }
+
+        writePackageDeps(out, spec);
+    }
+
+    private static FeatureSpec readFeatureSpec(ByteBuffer buf) throws ProvisioningDescriptionException {
+        final FeatureSpec.Builder builder = FeatureSpec.builder(readString(buf));
+        builder.setStability(readString(buf));
+
+        int i = buf.getInt();
+        while (i-- > 0) {
+            final FeatureAnnotation annotation = new FeatureAnnotation(readString(buf));
+            int j = buf.getInt();
+            while (j-- > 0) {
+                annotation.setElement(readString(buf), readString(buf));
+            }
+            builder.addAnnotation(annotation);
+        }
+
+        i = buf.getInt();
+        while (i-- > 0) {
+            builder.providesCapability(CapabilitySpec.fromString(readString(buf), buf.get() != 0));
+        }
+        i = buf.getInt();
+        while (i-- > 0) {
+            builder.requiresCapability(CapabilitySpec.fromString(readString(buf), buf.get() != 0));
+        }
+
+        i = buf.getInt();
+        while (i-- > 0) {
+            final FeatureId featureId = FeatureId.fromString(readString(buf));
+            builder.addFeatureDep(FeatureDependencySpec.create(featureId, readString(buf), buf.get() != 0));
+        }
+
+        i = buf.getInt();
+        while (i-- > 0) {
+            final FeatureReferenceSpec.Builder refBuilder = FeatureReferenceSpec.builder(readString(buf))
+                    .setOrigin(readString(buf))
+                    .setName(readString(buf))
+                    .setNillable(buf.get() != 0)
+                    .setInclude(buf.get() != 0);
+            int j = buf.getInt();
+            while (j-- > 0) {
+                refBuilder.mapParam(readString(buf), readString(buf));
+            }
+            builder.addFeatureRef(refBuilder.build());
+        }
+
+        i = buf.getInt();
+        while (i-- > 0) {
+            final FeatureParameterSpec.Builder paramBuilder = FeatureParameterSpec.builder(readString(buf));
+            if (buf.get() != 0) {
+                paramBuilder.setFeatureId();
+            }
+            if (buf.get() != 0) {
+                paramBuilder.setNillable();
+            }
+            paramBuilder.setDefaultValue(readString(buf))
+                    .setType(readString(buf))
+                    .setStability(readString(buf));
+            builder.addParam(paramBuilder.build());
+        }
+
+        readPackageDeps(buf, builder);
+        return builder.build();
+    }
+
+    private static void writeCaps(DataOutputStream out, Collection<CapabilitySpec> caps) throws IOException {
+        out.writeInt(caps.size());
+        for (CapabilitySpec cap : caps) {
+            writeString(out, cap.toString());
+            out.writeBoolean(cap.isOptional());
+        }
+    }
+
+    private static void writePackageDeps(DataOutputStream out, PackageDepsSpec spec) throws IOException {
+        writePackageDeps(out, spec.getLocalPackageDeps());
+        out.writeInt(spec.getPackageOrigins().size());
+        for (String origin : spec.getPackageOrigins()) {
+            writeString(out, origin);
+            writePackageDeps(out, spec.getExternalPackageDeps(origin));
+        }
+    }
+
+    private static void writePackageDeps(DataOutputStream out, Collection<PackageDependencySpec> deps) throws IOException {
+        out.writeInt(deps.size());
+        for (PackageDependencySpec dep : deps) {
+            writeString(out, dep.getName());
+            out.writeByte(dep.getType());
+            writeString(out, dep.getValidForStability());
+        }
+    }
+
+    private static void readPackageDeps(ByteBuffer buf, PackageDepsSpecBuilder<?> builder) throws ProvisioningDescriptionException {
+        int i = buf.getInt();
+        while (i-- > 0) {
+            builder.addPackageDep(readPackageDep(buf));
+        }
+        i = buf.getInt();
+        while (i-- > 0) {
+            final String origin = readString(buf);
+            int j = buf.getInt();
+            while (j-- > 0) {
+                builder.addPackageDep(origin, readPackageDep(buf));
+            }
+        }
+    }
+
+    private static PackageDependencySpec readPackageDep(ByteBuffer buf) throws ProvisioningDescriptionException {
+        final String name = readString(buf);
+        final int type = buf.get();
+        final String validForStability = readString(buf);
+        switch (type) {
+            case PackageDependencySpec.OPTIONAL:
+                return PackageDependencySpec.optional(name, validForStability);
+            case PackageDependencySpec.PASSIVE:
+                return PackageDependencySpec.passive(name, validForStability);
+            case PackageDependencySpec.REQUIRED:
+                return PackageDependencySpec.required(name);
+            default:
+                throw new ProvisioningDescriptionException(Errors.unexpectedPackageDependencyType(name, type));
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        final int length = buf.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final String str = new String(buf.array(), buf.arrayOffset() + buf.position(), length, StandardCharsets.UTF_8);
+        buf.position(buf.position() + length);
+        return str;
+    }
+
+    private final ByteBuffer buf;
+    private final Map<String, Integer> packages;
+    private final Map<String, Integer> features;
+
+    private FeaturePackMetadataIndex(ByteBuffer buf, Map<String, Integer> packages, Map<String, Integer> features) {
+        this.buf = buf;
+        this.packages = packages;
+        this.features = features;
+    }
+
+    /**
+     * Returns the indexed package spec.
+     *
+     * @param name  package name
+     * @return  package spec or null, if the package is not indexed
+     */
+    public PackageSpec getPackageSpec(String name) {
+        final ByteBuffer entry = getEntry(packages.get(name));
+        if (entry == null) {
+            return null;
+        }
+        try {
+            final PackageSpec.Builder builder = PackageSpec.builder(readString(entry));
+            builder.setStability(readString(entry));
+            readPackageDeps(entry, builder);
+            return builder.build();
+        } catch (ProvisioningDescriptionException | BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the indexed feature spec.
+     *
+     * @param name  feature spec name
+     * @return  feature spec or null, if the spec is not indexed
+     */
+    public FeatureSpec getFeatureSpec(String name) {
+        final ByteBuffer entry = getEntry(features.get(name));
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return readFeatureSpec(entry);
+        } catch (ProvisioningDescriptionException | BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    private ByteBuffer getEntry(Integer offset) {
+        if (offset == null) {
+            return null;
+        }
+        final ByteBuffer entry = buf.duplicate();
+        entry.position(offset);
+        return entry;
+    }
+}
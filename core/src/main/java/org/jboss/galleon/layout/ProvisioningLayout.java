@@ -37,6 +37,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.jboss.galleon.BaseErrors;
@@ -66,6 +69,7 @@ import org.jboss.galleon.universe.Universe;
 import org.jboss.galleon.universe.UniverseResolver;
 import org.jboss.galleon.universe.galleon1.LegacyGalleon1UniverseFactory;
 import org.jboss.galleon.util.CollectionUtils;
+import org.jboss.galleon.util.ConcurrentUtils;
 import org.jboss.galleon.util.IoUtils;
 import org.jboss.galleon.util.LayoutUtils;
 
@@ -163,20 +167,32 @@ public class ProvisioningLayout<F extends FeaturePackLayout> implements AutoClos
                 }
             }
 
-            final UniverseResolver universeResolver = layoutFactory.getUniverseResolver();
+            // the plugins of the same repository are resolved in one request
+            final Map<String, List<FeaturePackPlugin>> pluginsByRepo = new LinkedHashMap<>();
             for(FeaturePackPlugin plugin : plugins) {
-                String pluginId = plugin.getId();
-                if(!pluginId.endsWith(".jar")) {
-                    pluginId += ".jar";
-                }
-                final RepositoryArtifactResolver resolver = universeResolver.getArtifactResolver(plugin.getRepoId());
+                pluginsByRepo.computeIfAbsent(plugin.getRepoId(), r -> new ArrayList<>()).add(plugin);
+            }
+            final UniverseResolver universeResolver = layoutFactory.getUniverseResolver();
+            for(Map.Entry<String, List<FeaturePackPlugin>> entry : pluginsByRepo.entrySet()) {
+                final RepositoryArtifactResolver resolver = universeResolver.getArtifactResolver(entry.getKey());
                 if(resolver == null) {
-                    throw new ProvisioningException("Failed to resolve plugin " + plugin + ": artifact resolver " + plugin.getRepoId() + " has not been configured");
+                    throw new ProvisioningException("Failed to resolve plugin " + entry.getValue().get(0) + ": artifact resolver " + entry.getKey() + " has not been configured");
                 }
-                try {
-                    Files.copy(resolver.resolve(plugin.getLocation()), pluginsDir.resolve(pluginId), StandardCopyOption.REPLACE_EXISTING);
-                } catch (IOException e) {
-                    throw new ProvisioningException("Failed to copy feature-pack plugin", e);
+                final List<String> locations = new ArrayList<>(entry.getValue().size());
+                for(FeaturePackPlugin plugin : entry.getValue()) {
+                    locations.add(plugin.getLocation());
+                }
+                final Map<String, Path> resolved = resolver.resolveLocations(locations);
+                for(FeaturePackPlugin plugin : entry.getValue()) {
+                    String pluginId = plugin.getId();
+                    if(!pluginId.endsWith(".jar")) {
+                        pluginId += ".jar";
+                    }
+                    try {
+                        Files.copy(resolved.get(plugin.getLocation()), pluginsDir.resolve(pluginId), StandardCopyOption.REPLACE_EXISTING);
+                    } catch (IOException e) {
+                        throw new ProvisioningException("Failed to copy feature-pack plugin", e);
+                    }
                 }
             }
         }
@@ -343,6 +359,8 @@ public class ProvisioningLayout<F extends FeaturePackLayout> implements AutoClos
     private Map<FPID, List<F>> fpPatches = Collections.emptyMap();
     private Map<String, FeaturePackPlugin> pluginLocations = Collections.emptyMap();
     private boolean failOnConvergence;
+    private boolean parallelResolution;
+    private boolean parallelUpdateCheck;
     private SystemPaths systemPaths = new SystemPaths(Collections.emptySet());
 
     private ProgressTracker<ProducerSpec> updatesTracker;
@@ -742,6 +760,9 @@ public class ProvisioningLayout<F extends FeaturePackLayout> implements AutoClos
     }
 
     private ProvisioningPlan getUpdatesInternal(Collection<ProducerSpec> producers) throws ProvisioningException {
+        if(parallelUpdateCheck && producers.size() > 1) {
+            return getUpdatesConcurrently(producers);
+        }
         final ProvisioningPlan plan = ProvisioningPlan.builder();
         updatesTracker = getUpdatesTracker();
         updatesTracker.starting(producers.size());
@@ -757,6 +778,62 @@ public class ProvisioningLayout<F extends FeaturePackLayout> implements AutoClos
         return plan;
     }
 
+    /**
+     * Asks the channels for the update plans concurrently. The channels are looked up by the calling thread,
+     * so the universes and the producers are resolved once and shared by the update checks. The progress is reported
+     * and the plan is built by the calling thread in the order of the producers.
+     */
+    private ProvisioningPlan getUpdatesConcurrently(Collection<ProducerSpec> producers) throws ProvisioningException {
+        final ProvisioningPlan plan = ProvisioningPlan.builder();
+        updatesTracker = getUpdatesTracker();
+        updatesTracker.starting(producers.size());
+        final List<Future<FeaturePackUpdatePlan>> fpPlans = new ArrayList<>(producers.size());
+        final ExecutorService executor = ConcurrentUtils.newFixedThreadPool("Galleon update check",
+                Math.min(producers.size(), ConcurrentUtils.getDefaultParallelism()));
+        try {
+            for(ProducerSpec producer : producers) {
+                final F f = getInstalledFeaturePack(producer);
+                final Channel channel = getChannel(f);
+                final FeaturePackUpdatePlan.Request request = getUpdateRequest(f);
+                fpPlans.add(executor.submit(() -> channel.getUpdatePlan(request)));
+            }
+            final Iterator<Future<FeaturePackUpdatePlan>> i = fpPlans.iterator();
+            for(ProducerSpec producer : producers) {
+                updatesTracker.processing(producer);
+                final FeaturePackUpdatePlan fpPlan = getUpdatePlan(i.next());
+                if(!fpPlan.isEmpty()) {
+                    plan.update(fpPlan);
+                }
+                updatesTracker.processed(producer);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        updatesTracker.complete();
+        return plan;
+    }
+
+    private static FeaturePackUpdatePlan getUpdatePlan(Future<FeaturePackUpdatePlan> future) throws ProvisioningException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProvisioningException("Interrupted while checking for updates", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if(cause instanceof ProvisioningException) {
+                throw (ProvisioningException) cause;
+            }
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if(cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ProvisioningException(cause);
+        }
+    }
+
     /**
      * Query for available version update and patches for the specific producer.
      *
@@ -765,13 +842,26 @@ public class ProvisioningLayout<F extends FeaturePackLayout> implements AutoClos
      * @throws ProvisioningException  in case of a failure
      */
     public FeaturePackUpdatePlan getFeaturePackUpdate(ProducerSpec producer) throws ProvisioningException {
+        final F f = getInstalledFeaturePack(producer);
+        return getChannel(f).getUpdatePlan(getUpdateRequest(f));
+    }
+
+    private F getInstalledFeaturePack(ProducerSpec producer) throws ProvisioningException {
         final F f = featurePacks.get(producer);
         if(f == null) {
             throw new ProvisioningException(BaseErrors.unknownFeaturePack(producer.getLocation().getFPID()));
         }
+        return f;
+    }
+
+    private Channel getChannel(F f) throws ProvisioningException {
         final FeaturePackLocation fpl = f.getFPID().getLocation();
         final Universe<?> universe = layoutFactory.getUniverseResolver().getUniverse(fpl.getUniverse());
-        final Channel channel = universe.getProducer(fpl.getProducerName()).getChannel(fpl.getChannelName());
+        return universe.getProducer(fpl.getProducerName()).getChannel(fpl.getChannelName());
+    }
+
+    private FeaturePackUpdatePlan.Request getUpdateRequest(F f) {
+        final FeaturePackLocation fpl = f.getFPID().getLocation();
         final List<F> patches = fpPatches.get(fpl.getFPID());
         final Set<FPID> patchIds;
         if (patches == null || patches.isEmpty()) {
@@ -785,7 +875,7 @@ public class ProvisioningLayout<F extends FeaturePackLayout> implements AutoClos
             }
             patchIds = CollectionUtils.unmodifiable(tmp);
         }
-        return channel.getUpdatePlan(FeaturePackUpdatePlan.request(fpl, patchIds, f.isTransitiveDep()));
+        return FeaturePackUpdatePlan.request(fpl, patchIds, f.isTransitiveDep());
     }
 
     public ProvisioningConfig getConfig() {
@@ -906,6 +996,26 @@ public class ProvisioningLayout<F extends FeaturePackLayout> implements AutoClos
                 throw new ProvisioningException(Errors.pluginOptionIllegalValue(ProvisioningOption.VERSION_CONVERGENCE.getName(), setValue, ProvisioningOption.VERSION_CONVERGENCE.getValueSet()));
             }
         }
+
+        final String resolutionOption = ProvisioningOption.PARALLEL_FEATURE_PACK_RESOLUTION.getName();
+        setValue = extraOptions.get(resolutionOption);
+        if(setValue == null) {
+            setValue = config.getOption(resolutionOption);
+            if(setValue == null && config.hasOption(resolutionOption)) {
+                setValue = Constants.TRUE;
+            }
+        }
+        parallelResolution = Boolean.parseBoolean(setValue);
+
+        final String updateCheckOption = ProvisioningOption.PARALLEL_UPDATE_CHECK.getName();
+        setValue = extraOptions.get(updateCheckOption);
+        if(setValue == null) {
+            setValue = config.getOption(updateCheckOption);
+            if(setValue == null && config.hasOption(updateCheckOption)) {
+                setValue = Constants.TRUE;
+            }
+        }
+        parallelUpdateCheck = Boolean.parseBoolean(setValue);
     }
 
     private void rebuild(ProvisioningConfig config, boolean cleanupTransitive) throws ProvisioningException {
@@ -1094,6 +1204,7 @@ public class ProvisioningLayout<F extends FeaturePackLayout> implements AutoClos
         if(!config.hasFeaturePackDeps()) {
             return;
         }
+        prefetchFeaturePacks(config, branch);
 
         List<ProducerSpec> added = Collections.emptyList();
         if(config.hasTransitiveDeps()) {
@@ -1105,17 +1216,7 @@ public class ProvisioningLayout<F extends FeaturePackLayout> implements AutoClos
                 if(transitiveConfig.hasPatches()) {
                     addPatches(transitiveConfig);
                 }
-                FPID branchId = branch.get(fpl.getProducer());
-                if (branchId == null) {
-                    // Family members are converted to Maven.
-                    if(fpl.isMavenCoordinates()) {
-                        // Do we have a maven producer for it?
-                        ProducerSpec ps = featurePackFamily.getMemberFPL(fpl);
-                        if (ps != null) {
-                            branchId = branch.get(ps);
-                        }
-                    }
-                }
+                final FPID branchId = getTransitiveBranchId(fpl, branch);
                 if (branchId != null) {
                     if (branchId.getChannel().getName() != null && fpl.getChannel().getName() != null &&
                             !branchId.getChannel().getName().equals(fpl.getChannel().getName())) {
@@ -1242,6 +1343,60 @@ public class ProvisioningLayout<F extends FeaturePackLayout> implements AutoClos
         featurePackFamily.validateFamilies();
     }
 
+    private FPID getTransitiveBranchId(FeaturePackLocation fpl, Map<ProducerSpec, FPID> branch) {
+        FPID branchId = branch.get(fpl.getProducer());
+        if (branchId == null) {
+            // Family members are converted to Maven.
+            if(fpl.isMavenCoordinates()) {
+                // Do we have a maven producer for it?
+                ProducerSpec ps = featurePackFamily.getMemberFPL(fpl);
+                if (ps != null) {
+                    branchId = branch.get(ps);
+                }
+            }
+        }
+        return branchId;
+    }
+
+    /**
+     * Resolves the archives of the feature-packs of the dependency level whose locations are already known,
+     * in one request or concurrently with parallel feature-pack resolution, so that they aren't fetched
+     * one by one while the level is processed. Locations that depend on the resolution of the latest builds
+     * are left to be resolved when they are reached.
+     */
+    private void prefetchFeaturePacks(FeaturePackDepsConfig config, Map<ProducerSpec, FPID> branch) {
+        List<FeaturePackLocation> fpls = Collections.emptyList();
+        if(config.hasTransitiveDeps()) {
+            for(FeaturePackConfig transitiveConfig : config.getTransitiveDeps()) {
+                final FeaturePackLocation fpl = transitiveConfig.getLocation();
+                if(fpl.isMavenCoordinates() && getTransitiveBranchId(fpl, branch) == null) {
+                    fpls = CollectionUtils.add(fpls, fpl);
+                }
+            }
+        }
+        for(FeaturePackConfig fpConfig : config.getFeaturePackDeps()) {
+            FeaturePackLocation fpl = fpConfig.getLocation();
+            if(!fpl.isMavenCoordinates() && (fpl.getChannelName() == null || featurePacks.containsKey(fpl.getProducer()))) {
+                continue;
+            }
+            final FPID branchId = branch.get(fpl.getProducer());
+            if(branchId != null) {
+                if(branchId.getChannel().getName() != null && !branchId.getChannel().getName().equals(fpl.getChannelName())) {
+                    continue;
+                }
+                if(branchId.getBuild() != null) {
+                    fpl = fpl.replaceBuild(branchId.getBuild());
+                }
+            }
+            if(fpl.getBuild() != null) {
+                fpls = CollectionUtils.add(fpls, fpl);
+            }
+        }
+        if(fpls.size() > 1) {
+            layoutFactory.prefetchFeaturePacks(fpls, parallelResolution);
+        }
+    }
+
     private void registerFeaturePack(ProducerSpec producer, F f) {
         featurePacks.put(producer, f);
     }
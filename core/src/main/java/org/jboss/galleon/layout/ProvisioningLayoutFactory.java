@@ -22,28 +22,42 @@ import java.io.IOException;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.stream.XMLStreamException;
 import org.jboss.galleon.BaseErrors;
 
 import org.jboss.galleon.Constants;
+import org.jboss.galleon.DefaultMessageWriter;
 import org.jboss.galleon.Errors;
+import org.jboss.galleon.MessageWriter;
 import org.jboss.galleon.ProvisioningDescriptionException;
 import org.jboss.galleon.ProvisioningException;
 import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.jfr.FeaturePackResolutionEvent;
+import org.jboss.galleon.metrics.ProvisioningMetrics;
 import org.jboss.galleon.progresstracking.DefaultProgressTracker;
 import org.jboss.galleon.progresstracking.NoOpProgressCallback;
 import org.jboss.galleon.progresstracking.ProgressCallback;
 import org.jboss.galleon.progresstracking.ProgressTracker;
 import org.jboss.galleon.spec.FeaturePackSpec;
+import org.jboss.galleon.universe.Channel;
 import org.jboss.galleon.universe.FeaturePackLocation;
 import org.jboss.galleon.universe.FeaturePackLocation.FPID;
 import org.jboss.galleon.universe.Universe;
 import org.jboss.galleon.universe.UniverseFeaturePackInstaller;
 import org.jboss.galleon.universe.UniverseResolver;
+import org.jboss.galleon.util.ConcurrentUtils;
+import org.jboss.galleon.util.HashUtils;
 import org.jboss.galleon.util.ZipUtils;
 import org.jboss.galleon.xml.FeaturePackXmlParser;
 
@@ -55,6 +69,21 @@ public class ProvisioningLayoutFactory implements Closeable {
 
     private static ProgressTracker<?> NO_OP_PROGRESS_TRACKER;
 
+    /**
+     * The archive a feature-pack was read from and the cache entry it was extracted into, if any.
+     */
+    private static class Source {
+        final Path archive;
+        final FeaturePackCache.Entry entry;
+        String checksum;
+
+        Source(Path archive, FeaturePackCache.Entry entry) {
+            this.archive = archive;
+            this.entry = entry;
+            this.checksum = entry == null ? null : entry.getChecksum();
+        }
+    }
+
     public static final String TRACK_LAYOUT_BUILD = "LAYOUT_BUILD";
     public static final String TRACK_UPDATES = "UPDATES";
     public static final String TRACK_PACKAGES = "PACKAGES";
@@ -64,8 +93,28 @@ public class ProvisioningLayoutFactory implements Closeable {
         return getInstance(UniverseResolver.builder().build());
     }
 
+    /**
+     * Creates a layout factory using the feature-pack cache configured with the system properties.
+     * The cache configuration is read when the first feature-pack is added to the factory.
+     *
+     * @param universeResolver  universe resolver
+     * @return  layout factory
+     */
     public static ProvisioningLayoutFactory getInstance(UniverseResolver universeResolver) {
-        return new ProvisioningLayoutFactory(universeResolver);
+        final ProvisioningLayoutFactory factory = new ProvisioningLayoutFactory(universeResolver, null);
+        factory.defaultFpCache = true;
+        return factory;
+    }
+
+    /**
+     * Creates a layout factory reading the feature-packs from the extracted archives in the cache.
+     *
+     * @param universeResolver  universe resolver
+     * @param fpCache  extracted feature-pack cache or null in case the archives should be read directly
+     * @return  layout factory
+     */
+    public static ProvisioningLayoutFactory getInstance(UniverseResolver universeResolver, FeaturePackCache fpCache) {
+        return new ProvisioningLayoutFactory(universeResolver, fpCache);
     }
 
     @SuppressWarnings("unchecked")
@@ -79,10 +128,17 @@ public class ProvisioningLayoutFactory implements Closeable {
     private AtomicInteger openHandles = new AtomicInteger();
     private Map<String, UniverseFeaturePackInstaller> universeInstallers;
     private Map<String, ProgressTracker<?>> progressTrackers = new HashMap<>();
-    private final Map<FPID, FileSystem> cachedPacks = new HashMap<>();
+    private final Map<FPID, Path> cachedPacks = new HashMap<>();
+    private final Map<FPID, Source> sources = new HashMap<>();
+    private final List<Closeable> openPacks = new ArrayList<>();
+    private FeaturePackCache fpCache;
+    private boolean defaultFpCache;
+    private ProvisioningMetrics metrics = ProvisioningMetrics.getNoOp();
+    private MessageWriter messageWriter = DefaultMessageWriter.getDefaultInstance();
 
-    private ProvisioningLayoutFactory(UniverseResolver universeResolver) {
+    private ProvisioningLayoutFactory(UniverseResolver universeResolver, FeaturePackCache fpCache) {
         this.universeResolver = universeResolver;
+        this.fpCache = fpCache;
     }
 
     public void setProgressCallback(String id, ProgressCallback<?> callback) {
@@ -115,6 +171,87 @@ public class ProvisioningLayoutFactory implements Closeable {
         return universeResolver;
     }
 
+    /**
+     * Sets the metrics recording the phases of the provisioning performed with the layouts created by this factory.
+     *
+     * @param metrics  provisioning metrics or null to stop recording
+     */
+    public void setMetrics(ProvisioningMetrics metrics) {
+        this.metrics = metrics == null ? ProvisioningMetrics.getNoOp() : metrics;
+    }
+
+    public ProvisioningMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the message writer reporting the failures the factory recovers from, e.g. a feature-pack
+     * that could not be prefetched and is resolved again later.
+     *
+     * @param messageWriter  message writer or null to use the default one
+     */
+    public void setMessageWriter(MessageWriter messageWriter) {
+        this.messageWriter = messageWriter == null ? DefaultMessageWriter.getDefaultInstance() : messageWriter;
+    }
+
+    /**
+     * Returns the checksum of the archive the feature-pack was read from. The checksum recorded
+     * by the feature-pack cache is returned when the feature-pack was read from the cache,
+     * otherwise the archive is hashed the first time its checksum is requested.
+     *
+     * @param fpid  feature-pack ID
+     * @return  checksum of the feature-pack archive or null in case the feature-pack hasn't been added to this factory
+     * @throws ProvisioningException  in case the archive could not be read
+     */
+    public synchronized String getChecksum(FPID fpid) throws ProvisioningException {
+        final Source source = sources.get(fpid);
+        if(source == null) {
+            return null;
+        }
+        if(source.checksum == null) {
+            try {
+                source.checksum = HashUtils.hashFile(source.archive);
+            } catch (IOException e) {
+                throw new ProvisioningException(Errors.hashCalculation(source.archive), e);
+            }
+        }
+        return source.checksum;
+    }
+
+    /**
+     * Whether the directory is the feature-pack extracted by the feature-pack cache, whose metadata index
+     * was checked against the archive when it was extracted.
+     *
+     * @param fpid  feature-pack ID
+     * @param fpDir  feature-pack directory
+     * @return  true if the directory is the cache entry of the feature-pack
+     */
+    public synchronized boolean isMetadataIndexValidated(FPID fpid, Path fpDir) {
+        final Source source = sources.get(fpid);
+        return source != null && source.entry != null && source.entry.getDir().equals(fpDir);
+    }
+
+    /**
+     * Returns the digests of the package content files of the feature-pack recorded by the feature-pack cache
+     * when the archive was extracted.
+     *
+     * @param fpid  feature-pack ID
+     * @return  digests keyed by the file paths relative to the feature-pack directory or null in case
+     *          the feature-pack was not read from the feature-pack cache or the cache entry has no digests
+     * @throws ProvisioningException  in case the digests could not be read
+     */
+    public synchronized Map<String, String> getContentDigests(FPID fpid) throws ProvisioningException {
+        final Source source = sources.get(fpid);
+        if(source == null || source.entry == null) {
+            return null;
+        }
+        try {
+            return source.entry.getContentDigests();
+        } catch (IOException e) {
+            throw new ProvisioningException(Errors.readFile(source.entry.getDir()), e);
+        }
+    }
+
     /**
      * Adds feature-pack archive to the local provisioning feature-pack cache.
      * Optionally, installs the feature-pack archive to the universe repository.
@@ -125,8 +262,11 @@ public class ProvisioningLayoutFactory implements Closeable {
      * @throws ProvisioningException  in case of a failure
      */
     public synchronized FeaturePackLocation addLocal(Path featurePack, boolean installInUniverse) throws ProvisioningException {
+        final FeaturePackResolutionEvent event = new FeaturePackResolutionEvent();
+        event.begin();
         final FPID fpid = FeaturePackDescriber.readSpec(featurePack).getFPID();
         put(featurePack, fpid);
+        commit(event, fpid, FeaturePackResolutionEvent.SOURCE_LOCAL, featurePack);
         if(!installInUniverse) {
             return fpid.getLocation();
         }
@@ -169,11 +309,15 @@ public class ProvisioningLayoutFactory implements Closeable {
     }
 
     public <F extends FeaturePackLayout> ProvisioningLayout<F> newConfigLayout(ProvisioningConfig config, FeaturePackLayoutFactory<F> factory, boolean initOptions) throws ProvisioningException {
-        return new ProvisioningLayout<>(this, config, factory, initOptions);
+        try (ProvisioningMetrics.Timer timer = metrics.start(ProvisioningMetrics.Phase.LAYOUT)) {
+            return new ProvisioningLayout<>(this, config, factory, initOptions);
+        }
     }
 
     public <F extends FeaturePackLayout> ProvisioningLayout<F> newConfigLayout(ProvisioningConfig config, FeaturePackLayoutFactory<F> factory, Map<String, String> pluginOptions) throws ProvisioningException {
-        return new ProvisioningLayout<>(this, config, factory, pluginOptions);
+        try (ProvisioningMetrics.Timer timer = metrics.start(ProvisioningMetrics.Phase.LAYOUT)) {
+            return new ProvisioningLayout<>(this, config, factory, pluginOptions);
+        }
     }
 
     public <F extends FeaturePackLayout> F resolveFeaturePack(FeaturePackLocation location, int type, FeaturePackLayoutFactory<F> factory)
@@ -190,6 +334,7 @@ public class ProvisioningLayoutFactory implements Closeable {
                 final FeaturePackLocation fpl = new FeaturePackLocation(specId.getUniverse(), specId.getProducer().getName(), specId.getChannel().getName(), location.getFrequency(), specId.getBuild());
                 synchronized (this) {
                     cachedPacks.put(fpl.getFPID(), cachedPacks.get(location.getFPID()));
+                    sources.put(fpl.getFPID(), sources.get(location.getFPID()));
                 }
                 location = fpl;
             }
@@ -201,22 +346,150 @@ public class ProvisioningLayoutFactory implements Closeable {
 
     private synchronized Path resolveFeaturePackDir(FeaturePackLocation fpl) throws ProvisioningException {
         final FPID fpid = fpl.getFPID();
-        FileSystem packFs = cachedPacks.get(fpid);
-        if(packFs != null) {
-            return getFpDir(packFs);
+        final FeaturePackResolutionEvent event = new FeaturePackResolutionEvent();
+        event.begin();
+        Path fpDir = cachedPacks.get(fpid);
+        if(fpDir != null) {
+            commit(event, fpid, FeaturePackResolutionEvent.SOURCE_OPEN, null);
+            return fpDir;
+        }
+        final Path featurePack;
+        try (ProvisioningMetrics.Timer timer = metrics.start(ProvisioningMetrics.Phase.UNIVERSE_RESOLUTION)) {
+            featurePack = universeResolver.resolve(fpl);
+        }
+        fpDir = put(featurePack, fpid);
+        commit(event, fpid, FeaturePackResolutionEvent.SOURCE_UNIVERSE, featurePack);
+        return fpDir;
+    }
+
+    /**
+     * Resolves the archives of the feature-packs that haven't been resolved yet and adds them to this factory,
+     * so that the layout finds them resolved. The archives are resolved in one request or concurrently,
+     * each by its channel looked up by the calling thread.
+     * The feature-packs that could not be resolved are left to be resolved one by one, which reports
+     * the failure for the feature-pack that could not be resolved.
+     *
+     * @param fpls  feature-pack locations
+     * @param concurrently  whether the archives should be resolved concurrently instead of in one request
+     */
+    synchronized void prefetchFeaturePacks(Collection<FeaturePackLocation> fpls, boolean concurrently) {
+        final Map<FPID, FeaturePackLocation> unresolved = new LinkedHashMap<>(fpls.size());
+        for(FeaturePackLocation fpl : fpls) {
+            final FPID fpid = fpl.getFPID();
+            if(!cachedPacks.containsKey(fpid)) {
+                unresolved.putIfAbsent(fpid, fpl);
+            }
+        }
+        if(unresolved.size() < 2) {
+            return;
+        }
+        final FeaturePackResolutionEvent[] events = new FeaturePackResolutionEvent[unresolved.size()];
+        for(int i = 0; i < events.length; ++i) {
+            events[i] = new FeaturePackResolutionEvent();
+            events[i].begin();
+        }
+        try {
+            final Map<FeaturePackLocation, Path> featurePacks;
+            try (ProvisioningMetrics.Timer timer = metrics.start(ProvisioningMetrics.Phase.UNIVERSE_RESOLUTION)) {
+                featurePacks = concurrently ? resolveConcurrently(unresolved.values()) : universeResolver.resolveAll(unresolved.values());
+            }
+            int i = 0;
+            for(FeaturePackLocation fpl : unresolved.values()) {
+                final Path featurePack = featurePacks.get(fpl);
+                if(featurePack != null) {
+                    put(featurePack, fpl.getFPID());
+                    commit(events[i], fpl.getFPID(), FeaturePackResolutionEvent.SOURCE_UNIVERSE, featurePack);
+                }
+                ++i;
+            }
+        } catch (ProvisioningException e) {
+            messageWriter.verbose(e, "Failed to prefetch feature-packs %s, resolving them one by one", unresolved.keySet());
         }
-        return put(universeResolver.resolve(fpl), fpid);
+    }
+
+    private Map<FeaturePackLocation, Path> resolveConcurrently(Collection<FeaturePackLocation> fpls) throws ProvisioningException {
+        final Map<FeaturePackLocation, Path> featurePacks = new LinkedHashMap<>(fpls.size());
+        final Map<FeaturePackLocation, Future<Path>> futures = new LinkedHashMap<>(fpls.size());
+        final ExecutorService executor = ConcurrentUtils.newFixedThreadPool("Galleon feature-pack resolution", Math.min(fpls.size(), ConcurrentUtils.getDefaultParallelism()));
+        try {
+            for(FeaturePackLocation fpl : fpls) {
+                final Path local = universeResolver.getLocalFeaturePack(fpl.getFPID());
+                if(local != null) {
+                    featurePacks.put(fpl, local);
+                    continue;
+                }
+                final Channel channel;
+                try {
+                    channel = universeResolver.getChannel(fpl);
+                } catch (ProvisioningException e) {
+                    messageWriter.verbose(e, "Failed to prefetch feature-pack %s", fpl);
+                    continue;
+                }
+                futures.put(fpl, executor.submit(() -> channel.resolve(fpl)));
+            }
+            for(Map.Entry<FeaturePackLocation, Future<Path>> future : futures.entrySet()) {
+                try {
+                    featurePacks.put(future.getKey(), future.getValue().get());
+                } catch (ExecutionException e) {
+                    messageWriter.verbose(e.getCause(), "Failed to prefetch feature-pack %s", future.getKey());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProvisioningException("Interrupted while resolving feature-packs", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return featurePacks;
+    }
+
+    private static void commit(FeaturePackResolutionEvent event, FPID fpid, String source, Path featurePack) {
+        event.end();
+        if(!event.shouldCommit()) {
+            return;
+        }
+        event.fpid = fpid.toString();
+        event.source = source;
+        if(featurePack != null) {
+            try {
+                event.bytes = Files.size(featurePack);
+            } catch (IOException e) {
+                // the size is not essential to the event
+            }
+        }
+        event.commit();
     }
 
     private Path put(Path featurePack, FeaturePackLocation.FPID fpid) throws ProvisioningException {
+        if(defaultFpCache) {
+            fpCache = FeaturePackCache.getDefault();
+            defaultFpCache = false;
+        }
+        if(fpCache != null) {
+            FeaturePackCache.Entry entry = null;
+            try {
+                entry = fpCache.get(fpid, featurePack);
+            } catch (IOException e) {
+                // the archive is read directly when the cache is not usable
+            }
+            if(entry != null) {
+                openPacks.add(entry);
+                cachedPacks.put(fpid, entry.getDir());
+                sources.put(fpid, new Source(featurePack, entry));
+                return entry.getDir();
+            }
+        }
         final FileSystem packFs;
         try {
             packFs = ZipUtils.newFileSystem(featurePack);
         } catch (IOException e) {
             throw new ProvisioningException(Errors.openFile(featurePack), e);
         }
-        cachedPacks.put(fpid, packFs);
-        return getFpDir(packFs);
+        openPacks.add(packFs);
+        final Path fpDir = getFpDir(packFs);
+        cachedPacks.put(fpid, fpDir);
+        sources.put(fpid, new Source(featurePack, null));
+        return fpDir;
     }
 
     private static Path getFpDir(FileSystem packFs) {
@@ -235,9 +508,9 @@ public class ProvisioningLayoutFactory implements Closeable {
 
     @Override
     public void close() {
-        for(FileSystem fs : cachedPacks.values()) {
+        for(Closeable pack : openPacks) {
             try {
-                fs.close();
+                pack.close();
             } catch (IOException e) {
                 //e.printStackTrace();
             }
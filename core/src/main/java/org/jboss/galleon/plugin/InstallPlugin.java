@@ -51,4 +51,15 @@ public interface InstallPlugin extends ProvisioningPlugin {
      * @throws ProvisioningException  in case the plugin failed  to process the callback
      */
     default void postInstall(ProvisioningRuntime runtime) throws ProvisioningException {}
+
+    /**
+     * Whether the plugin adds, modifies or removes files of the staged installation.
+     * The content of an installation that was provisioned with plugins that don't modify it
+     * can be determined from the content of the packages, without running the plugins.
+     *
+     * @return  true, unless the plugin leaves the content of the staged installation unchanged
+     */
+    default boolean isContentModifier() {
+        return true;
+    }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.runtime;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.jboss.galleon.util.CollectionUtils;
+
+/**
+ * Capability providers of a config indexed by the dot-separated segments of the capability
+ * names, forming a trie.
+ *
+ * Capabilities are resolved by walking the trie one segment at a time, so the names of the
+ * capabilities are not built unless they have to be reported.
+ */
+class CapabilityIndex {
+
+    static final class Node {
+
+        private final Node parent;
+        private final String segment;
+        private Map<String, Node> children = Collections.emptyMap();
+        private CapabilityProviders providers;
+
+        private Node(Node parent, String segment) {
+            this.parent = parent;
+            this.segment = segment;
+        }
+
+        /**
+         * Returns the child node for the segment. When the child doesn't exist and it is not
+         * supposed to be added, a node detached from the trie is returned, which has no providers.
+         */
+        Node getChild(String segment, boolean add) {
+            Node child = children.get(segment);
+            if(child == null) {
+                child = new Node(this, segment);
+                if(add) {
+                    children = CollectionUtils.put(children, segment, child);
+                }
+            }
+            return child;
+        }
+
+        Node getDescendant(String[] segments, boolean add) {
+            Node node = this;
+            for(String segment : segments) {
+                node = node.getChild(segment, add);
+            }
+            return node;
+        }
+
+        /**
+         * Returns the descendant node for the dot-separated path.
+         */
+        Node getDescendant(String path, boolean add) {
+            int start = 0;
+            int dot = path.indexOf('.');
+            if(dot < 0) {
+                return getChild(path, add);
+            }
+            Node node = this;
+            while(dot >= 0) {
+                node = node.getChild(path.substring(start, dot), add);
+                start = dot + 1;
+                dot = path.indexOf('.', start);
+            }
+            return node.getChild(path.substring(start), add);
+        }
+
+        boolean isRoot() {
+            return parent == null;
+        }
+
+        CapabilityProviders getProviders() {
+            return providers;
+        }
+
+        CapabilityProviders getOrCreateProviders() {
+            if(providers == null) {
+                providers = new CapabilityProviders();
+            }
+            return providers;
+        }
+
+        /**
+         * The capability name the node stands for.
+         */
+        String getName() {
+            if(parent == null) {
+                return "";
+            }
+            if(parent.parent == null) {
+                return segment;
+            }
+            return parent.getName() + '.' + segment;
+        }
+
+        @Override
+        public String toString() {
+            return getName();
+        }
+    }
+
+    /**
+     * Splits a capability name into its dot-separated segments, keeping the empty ones.
+     */
+    static String[] split(String name) {
+        int dot = name.indexOf('.');
+        if(dot < 0) {
+            return new String[] {name};
+        }
+        int total = 1;
+        while(dot >= 0) {
+            ++total;
+            dot = name.indexOf('.', dot + 1);
+        }
+        final String[] segments = new String[total];
+        int start = 0;
+        for(int i = 0; i < total - 1; ++i) {
+            dot = name.indexOf('.', start);
+            segments[i] = name.substring(start, dot);
+            start = dot + 1;
+        }
+        segments[total - 1] = name.substring(start);
+        return segments;
+    }
+
+    private final Node root = new Node(null, null);
+
+    Node getRoot() {
+        return root;
+    }
+}
@@ -36,6 +36,11 @@ public class CapabilityResolver {
     private ArrayList<StringBuilder> capList = null;
     private StringBuilder capBuf;
 
+    // when resolving against an index
+    private CapabilityIndex.Node node;
+    private ArrayList<CapabilityIndex.Node> nodeList;
+    private boolean addNodes;
+
     private ResolvedFeature feature;
     private CapabilitySpec capSpec;
     private String currentElem;
@@ -68,11 +73,68 @@ public class CapabilityResolver {
         }
     }
 
+    /**
+     * Resolves the capability against the index, returning the nodes of the resolved capabilities
+     * in the same order as {@link #resolve(CapabilitySpec, ResolvedFeature)} returns their names.
+     *
+     * @param cap  capability to resolve
+     * @param feature  feature the dynamic elements of the capability are resolved from
+     * @param index  capability index
+     * @param add  whether the missing nodes should be added to the index
+     * @return  nodes of the resolved capabilities
+     * @throws ProvisioningException  in case the capability could not be resolved
+     */
+    List<CapabilityIndex.Node> resolve(ResolvedCapabilitySpec cap, ResolvedFeature feature, CapabilityIndex index, boolean add) throws ProvisioningException {
+        if(cap.isStatic()) {
+            return Collections.singletonList(index.getRoot().getDescendant(cap.getStaticSegments(0), add));
+        }
+        if(capBuf == null) {
+            capBuf = new StringBuilder();
+        }
+        this.feature = feature;
+        this.capSpec = cap.spec;
+        this.node = index.getRoot();
+        this.addNodes = add;
+        try {
+            for(int i = 0; i < cap.getElementsTotal(); ++i) {
+                final String[] segments = cap.getStaticSegments(i);
+                if(segments != null) {
+                    addSegments(segments);
+                    continue;
+                }
+                currentElem = cap.getElement(i);
+                if(!feature.spec.resolveCapabilityElement(feature, currentElem, this)) {
+                    return Collections.emptyList();
+                }
+            }
+            if(nodeList == null) {
+                return node.isRoot() ? Collections.emptyList() : Collections.singletonList(node);
+            }
+            return nodeList;
+        } catch(ProvisioningException e) {
+            throw new ProvisioningException(Errors.failedToResolveCapability(feature, capSpec), e);
+        } finally {
+            reset();
+        }
+    }
+
     void reset() {
         feature = null;
         capList = null;
         capBuf.setLength(0);
         currentElem = null;
+        node = null;
+        nodeList = null;
+    }
+
+    private void addSegments(String[] segments) {
+        if(nodeList == null) {
+            node = node.getDescendant(segments, addNodes);
+            return;
+        }
+        for(int i = 0; i < nodeList.size(); ++i) {
+            nodeList.set(i, nodeList.get(i).getDescendant(segments, addNodes));
+        }
     }
 
     public CapabilitySpec getSpec() {
@@ -93,6 +155,17 @@ public class CapabilityResolver {
     }
 
     public CapabilityResolver add(Object elem) throws ProvisioningException {
+        if(node != null) {
+            final String str = toStringElem(elem);
+            if(nodeList == null) {
+                node = node.getDescendant(str, addNodes);
+                return this;
+            }
+            for(int i = 0; i < nodeList.size(); ++i) {
+                nodeList.set(i, nodeList.get(i).getDescendant(str, addNodes));
+            }
+            return this;
+        }
         if(capList == null) {
             if(capBuf.length() > 0) {
                 capBuf.append('.');
@@ -109,12 +182,33 @@ public class CapabilityResolver {
 
     public CapabilityResolver multiply(Collection<?> elems) throws ProvisioningException {
         if(elems.isEmpty()) {
-            throw new ProvisioningException(Errors.illegalCapabilityElement(capSpec, elems.toString(), capBuf.toString()));
+            throw new ProvisioningException(Errors.illegalCapabilityElement(capSpec, elems.toString(), getResolved()));
         }
         if(elems.size() == 1) {
             add(elems.iterator().next());
             return this;
         }
+        if(node != null) {
+            if(nodeList == null) {
+                nodeList = new ArrayList<>(elems.size());
+                for(Object o : elems) {
+                    nodeList.add(node.getDescendant(toStringElem(o), addNodes));
+                }
+                return this;
+            }
+            nodeList.ensureCapacity(nodeList.size() * elems.size());
+            final int capsTotal = nodeList.size();
+            for (int i = 0; i < capsTotal; ++i) {
+                final CapabilityIndex.Node prefix = nodeList.get(i);
+                final Iterator<?> elemI = elems.iterator();
+                final Object firstElem = elemI.next();
+                while(elemI.hasNext()) {
+                    nodeList.add(prefix.getDescendant(toStringElem(elemI.next()), addNodes));
+                }
+                nodeList.set(i, prefix.getDescendant(toStringElem(firstElem), addNodes));
+            }
+            return this;
+        }
         if(capList == null) {
             if(capBuf.length() > 0) {
                 capBuf.append('.');
@@ -142,12 +236,16 @@ public class CapabilityResolver {
 
     private String toStringElem(Object elem) throws ProvisioningException {
         if(elem == null) {
-            throw new ProvisioningException(Errors.illegalCapabilityElement(capSpec, null, capBuf.toString()));
+            throw new ProvisioningException(Errors.illegalCapabilityElement(capSpec, null, getResolved()));
         }
         final String str = elem.toString().trim();
         if(str.isEmpty()) {
-            throw new ProvisioningException(Errors.illegalCapabilityElement(capSpec, str, capBuf.toString()));
+            throw new ProvisioningException(Errors.illegalCapabilityElement(capSpec, str, getResolved()));
         }
         return StringUtils.stripSurrounding(str, '"');
     }
+
+    private String getResolved() {
+        return node == null ? capBuf.toString() : node.getName();
+    }
 }
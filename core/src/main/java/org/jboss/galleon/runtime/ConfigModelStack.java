@@ -36,6 +36,7 @@ import org.jboss.galleon.api.GalleonLayerDependency;
 import org.jboss.galleon.config.ConfigId;
 import org.jboss.galleon.config.ConfigModel;
 import org.jboss.galleon.config.FeatureGroupSupport;
+import org.jboss.galleon.jfr.ConfigArrangementEvent;
 import org.jboss.galleon.spec.FeatureDependencySpec;
 import org.jboss.galleon.util.CollectionUtils;
 
@@ -521,6 +522,8 @@ class ConfigModelStack {
         if (features.isEmpty()) {
             orderedFeatures = Collections.emptyList();
         } else if(arrange) {
+            final ConfigArrangementEvent event = new ConfigArrangementEvent();
+            event.begin();
             final String arranger = System.getProperty(Constants.PROP_CONFIG_ARRANGER);
             if(arranger == null) {
                 orderedFeatures = new DefaultBranchedConfigArranger(this).orderFeatures();
@@ -529,6 +532,13 @@ class ConfigModelStack {
             } else {
                 throw new ProvisioningException("Unsupported config arranger " + arranger);
             }
+            event.end();
+            if(event.shouldCommit()) {
+                event.model = id.getModel();
+                event.name = id.getName();
+                event.featureCount = orderedFeatures.size();
+                event.commit();
+            }
         } else {
             orderedFeatures = new ArrayList<>(features.size());
             for(ResolvedFeature feature : features.values()) {
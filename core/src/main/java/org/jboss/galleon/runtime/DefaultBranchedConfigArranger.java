@@ -32,7 +32,6 @@ import org.jboss.galleon.Errors;
 import org.jboss.galleon.ProvisioningDescriptionException;
 import org.jboss.galleon.ProvisioningException;
 import org.jboss.galleon.config.ConfigModel;
-import org.jboss.galleon.spec.CapabilitySpec;
 import org.jboss.galleon.util.CollectionUtils;
 
 /**
@@ -58,7 +57,7 @@ class DefaultBranchedConfigArranger {
     private final boolean mergeIndependentBranches;
 
     private CapabilityResolver capResolver = new CapabilityResolver();
-    private Map<String, CapabilityProviders> capProviders = Collections.emptyMap();
+    private final CapabilityIndex capIndex = new CapabilityIndex();
 
     private List<ConfigFeatureBranch> featureBranches = Collections.emptyList();
     private Map<Object, ConfigFeatureBranch> branchesWithId = Collections.emptyMap();
@@ -247,21 +246,25 @@ class DefaultBranchedConfigArranger {
 
     private void doOrder(ProvisioningRuntimeBuilder rt) throws ProvisioningException {
         for (SpecFeatures specFeatures : specFeatures.values()) {
+            // features merged from a model-only config may also belong to other configs
+            for(ResolvedFeature feature : specFeatures.getFeatures()) {
+                feature.setSpecFeatures(specFeatures);
+            }
             // resolve references
             specFeatures.spec.resolveRefMappings(rt);
             // resolve and register capability providers
             if(specFeatures.spec.xmlSpec.providesCapabilities()) {
-                for(CapabilitySpec cap : specFeatures.spec.xmlSpec.getProvidedCapabilities()) {
+                for(ResolvedCapabilitySpec cap : specFeatures.spec.getProvidedCapabilities()) {
                     if(cap.isStatic()) {
-                        getProviders(cap.toString(), true).add(specFeatures);
+                        capResolver.resolve(cap, null, capIndex, true).get(0).getOrCreateProviders().add(specFeatures);
                     } else {
                         for(ResolvedFeature feature : specFeatures.getFeatures()) {
-                            final List<String> resolvedCaps = capResolver.resolve(cap, feature);
+                            final List<CapabilityIndex.Node> resolvedCaps = capResolver.resolve(cap, feature, capIndex, true);
                             if(resolvedCaps.isEmpty()) {
                                 continue;
                             }
-                            for(String resolvedCap : resolvedCaps) {
-                                getProviders(resolvedCap, true).add(feature);
+                            for(CapabilityIndex.Node resolvedCap : resolvedCaps) {
+                                resolvedCap.getOrCreateProviders().add(feature);
                             }
                         }
                     }
@@ -291,19 +294,6 @@ class DefaultBranchedConfigArranger {
         }
     }
 
-    private CapabilityProviders getProviders(String cap, boolean add) throws ProvisioningException {
-        CapabilityProviders providers = capProviders.get(cap);
-        if(providers != null) {
-            return providers;
-        }
-        if(!add) {
-            throw new ProvisioningException(Errors.noCapabilityProvider(cap));
-        }
-        providers = new CapabilityProviders();
-        capProviders = CollectionUtils.put(capProviders, cap, providers);
-        return providers;
-    }
-
     /**
      * Attempts to order the features of the spec.
      * Terminates immediately when a feature reference loop is detected.
@@ -627,17 +617,15 @@ class DefaultBranchedConfigArranger {
 
     private List<CircularRefInfo> orderCapabilityProviders(ResolvedFeature feature, List<CircularRefInfo> circularRefs)
             throws ProvisioningException {
-        for (CapabilitySpec capSpec : feature.spec.xmlSpec.getRequiredCapabilities()) {
-            final List<String> resolvedCaps = capResolver.resolve(capSpec, feature);
+        for (ResolvedCapabilitySpec capSpec : feature.spec.getRequiredCapabilities()) {
+            final List<CapabilityIndex.Node> resolvedCaps = capResolver.resolve(capSpec, feature, capIndex, false);
             if (resolvedCaps.isEmpty() || ignoreCapabilities) {
                 continue;
             }
-            for (String resolvedCap : resolvedCaps) {
-                final CapabilityProviders providers;
-                try {
-                    providers = getProviders(resolvedCap, false);
-                } catch (ProvisioningException e) {
-                    throw new ProvisioningException(Errors.noCapabilityProvider(feature, capSpec, resolvedCap));
+            for (CapabilityIndex.Node resolvedCap : resolvedCaps) {
+                final CapabilityProviders providers = resolvedCap.getProviders();
+                if (providers == null) {
+                    throw new ProvisioningException(Errors.noCapabilityProvider(feature, capSpec.spec, resolvedCap.getName()));
                 }
                 circularRefs = CollectionUtils.addAll(circularRefs, orderProviders(providers));
                 if(providers.isProvided()) {
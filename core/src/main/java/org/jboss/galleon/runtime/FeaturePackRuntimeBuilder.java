@@ -36,10 +36,14 @@ import org.jboss.galleon.UnsatisfiedPackageDependencyException;
 import org.jboss.galleon.config.ConfigId;
 import org.jboss.galleon.config.ConfigModel;
 import org.jboss.galleon.config.FeatureGroup;
+import org.jboss.galleon.jfr.FeatureSpecParseEvent;
 import org.jboss.galleon.layout.FeaturePackLayout;
+import org.jboss.galleon.layout.FeaturePackMetadataIndex;
+import org.jboss.galleon.metrics.ProvisioningMetrics;
 import org.jboss.galleon.spec.ConfigLayerSpec;
 import org.jboss.galleon.spec.FeaturePackSpec;
 import org.jboss.galleon.spec.FeatureSpec;
+import org.jboss.galleon.spec.PackageSpec;
 import org.jboss.galleon.spec.PackageDependencySpec;
 import org.jboss.galleon.type.ParameterTypeProvider;
 import org.jboss.galleon.type.builtin.BuiltInParameterTypeProvider;
@@ -74,6 +78,11 @@ public class FeaturePackRuntimeBuilder extends FeaturePackLayout {
 
     private ParameterTypeProvider featureParamTypeProvider = BuiltInParameterTypeProvider.getInstance();
 
+    private FeaturePackMetadataIndex metadataIndex;
+    private boolean metadataIndexRead;
+    boolean metadataIndexValidated;
+    ProvisioningMetrics metrics = ProvisioningMetrics.getNoOp();
+
     private int flags;
 
     public FeaturePackRuntimeBuilder(FPID fpid, FeaturePackSpec spec, Path dir, int type) {
@@ -109,24 +118,11 @@ public class FeaturePackRuntimeBuilder extends FeaturePackLayout {
     boolean resolvePackage(String pkgName, ProvisioningRuntimeBuilder rt, PackageRuntime.Builder parent, int type) throws ProvisioningException {
         PackageRuntime.Builder pkgBuilder = pkgBuilders.get(pkgName);
         if(pkgBuilder == null) {
-            final Path pkgDir = LayoutUtils.getPackageDir(dir, pkgName, false);
-            if (!Files.exists(pkgDir)) {
+            pkgBuilder = loadPackage(pkgName, rt.pkgsTotal + 1);
+            if (pkgBuilder == null) {
                 return false;
             }
-            final Path pkgXml = pkgDir.resolve(Constants.PACKAGE_XML);
-            if (!Files.exists(pkgXml)) {
-                throw new ProvisioningDescriptionException(BaseErrors.pathDoesNotExist(pkgXml));
-            }
-
-            try (BufferedReader reader = Files.newBufferedReader(pkgXml)) {
-                pkgBuilder = PackageRuntime.builder(this, PackageXmlParser.getInstance().parse(reader), pkgDir, ++rt.pkgsTotal);
-            } catch (IOException | XMLStreamException e) {
-                throw new ProvisioningException(Errors.parseXml(pkgXml), e);
-            }
-            if (!pkgBuilder.spec.getName().equals(pkgName)) {
-                throw new ProvisioningDescriptionException("Feature-pack " + getFPID() + " package spec name "
-                        + pkgBuilder.spec.getName() + " does not match the requested package name " + pkgName);
-            }
+            ++rt.pkgsTotal;
             pkgBuilders = CollectionUtils.put(pkgBuilders, pkgName, pkgBuilder);
         }
         pkgBuilder.referencedAs(type);
@@ -157,6 +153,41 @@ public class FeaturePackRuntimeBuilder extends FeaturePackLayout {
         return true;
     }
 
+    PackageRuntime.Builder loadPackage(String pkgName, int id) throws ProvisioningException {
+        final Path pkgDir = LayoutUtils.getPackageDir(dir, pkgName, false);
+        if (!Files.exists(pkgDir)) {
+            return null;
+        }
+        final Path pkgXml = pkgDir.resolve(Constants.PACKAGE_XML);
+        if (!Files.exists(pkgXml)) {
+            throw new ProvisioningDescriptionException(BaseErrors.pathDoesNotExist(pkgXml));
+        }
+
+        final PackageRuntime.Builder pkgBuilder;
+        final FeatureSpecParseEvent event = new FeatureSpecParseEvent();
+        event.begin();
+        final PackageSpec indexedSpec;
+        try (ProvisioningMetrics.Timer timer = metrics.start(ProvisioningMetrics.Phase.SPEC_PARSING)) {
+            final FeaturePackMetadataIndex index = getMetadataIndex();
+            indexedSpec = index == null ? null : index.getPackageSpec(pkgName);
+            if (indexedSpec != null) {
+                pkgBuilder = PackageRuntime.builder(this, indexedSpec, pkgDir, id);
+            } else {
+                try (BufferedReader reader = Files.newBufferedReader(pkgXml)) {
+                    pkgBuilder = PackageRuntime.builder(this, PackageXmlParser.getInstance().parse(reader), pkgDir, id);
+                } catch (IOException | XMLStreamException e) {
+                    throw new ProvisioningException(Errors.parseXml(pkgXml), e);
+                }
+            }
+        }
+        commit(event, FeatureSpecParseEvent.KIND_PACKAGE, pkgName, indexedSpec != null);
+        if (!pkgBuilder.spec.getName().equals(pkgName)) {
+            throw new ProvisioningDescriptionException("Feature-pack " + getFPID() + " package spec name "
+                    + pkgBuilder.spec.getName() + " does not match the requested package name " + pkgName);
+        }
+        return pkgBuilder;
+    }
+
     FeatureGroup getFeatureGroupSpec(String name) throws ProvisioningException {
         if(fgSpecs != null) {
             final FeatureGroup fgSpec = fgSpecs.get(name);
@@ -236,8 +267,24 @@ public class FeaturePackRuntimeBuilder extends FeaturePackLayout {
         if (!Files.exists(specXml)) {
             return null;
         }
-        try (BufferedReader reader = Files.newBufferedReader(specXml)) {
-            final FeatureSpec xmlSpec = FeatureSpecXmlParser.getInstance().parse(reader);
+        FeatureSpec xmlSpec;
+        final FeatureSpecParseEvent event = new FeatureSpecParseEvent();
+        event.begin();
+        final boolean indexed;
+        try (ProvisioningMetrics.Timer timer = metrics.start(ProvisioningMetrics.Phase.SPEC_PARSING)) {
+            final FeaturePackMetadataIndex index = getMetadataIndex();
+            xmlSpec = index == null ? null : index.getFeatureSpec(name);
+            indexed = xmlSpec != null;
+            if (xmlSpec == null) {
+                try (BufferedReader reader = Files.newBufferedReader(specXml)) {
+                    xmlSpec = FeatureSpecXmlParser.getInstance().parse(reader);
+                } catch (Exception e) {
+                    throw new ProvisioningDescriptionException(Errors.parseXml(specXml), e);
+                }
+            }
+        }
+        commit(event, FeatureSpecParseEvent.KIND_FEATURE, name, indexed);
+        try {
             if(!xmlSpec.getName().equals(name)) {
                 throw new ProvisioningDescriptionException("Feature-pack " + getFPID() + " feature spec " + xmlSpec.getName() + " does not match the requested feature spec name " + name);
             }
@@ -253,6 +300,25 @@ public class FeaturePackRuntimeBuilder extends FeaturePackLayout {
         }
     }
 
+    private void commit(FeatureSpecParseEvent event, String kind, String spec, boolean indexed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.fpid = getFPID().toString();
+            event.kind = kind;
+            event.spec = spec;
+            event.indexed = indexed;
+            event.commit();
+        }
+    }
+
+    private FeaturePackMetadataIndex getMetadataIndex() {
+        if (!metadataIndexRead) {
+            metadataIndex = FeaturePackMetadataIndex.read(dir, metadataIndexValidated);
+            metadataIndexRead = true;
+        }
+        return metadataIndex;
+    }
+
     FeaturePackRuntime build(ProvisioningRuntimeBuilder rt) throws ProvisioningException {
         return new FeaturePackRuntime(this, rt);
     }
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.runtime;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.jboss.galleon.Constants;
+
+/**
+ * Immutable parameters of a feature ID.
+ *
+ * The parameter names are interned and sorted, the values are kept in an array indexed
+ * by the position of their names. The IDs of the same spec share the array of names,
+ * which is prepared once by the spec. The hash code follows the {@link Map} contract
+ * and is computed once.
+ */
+final class IdParams extends AbstractMap<String, Object> {
+
+    private static final String[] NO_NAMES = new String[0];
+
+    static final IdParams EMPTY = new IdParams(NO_NAMES, new Object[0]);
+
+    /**
+     * Returns the interned names sorted.
+     *
+     * @param names  parameter names
+     * @return  array of interned parameter names
+     */
+    static String[] names(String... names) {
+        final String[] result = new String[names.length];
+        for(int i = 0; i < names.length; ++i) {
+            result[i] = names[i].intern();
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    static IdParams of(String name, Object value) {
+        return new IdParams(new String[] {name.intern()}, new Object[] {value});
+    }
+
+    static IdParams of(Map<String, Object> params) {
+        if(params instanceof IdParams) {
+            return (IdParams) params;
+        }
+        if(params.isEmpty()) {
+            return EMPTY;
+        }
+        final String[] names = names(params.keySet().toArray(NO_NAMES));
+        final Object[] values = new Object[names.length];
+        for(int i = 0; i < names.length; ++i) {
+            values[i] = params.get(names[i]);
+        }
+        return new IdParams(names, values);
+    }
+
+    private final String[] names;
+    private final Object[] values;
+    private final int hash;
+    private Set<Map.Entry<String, Object>> entrySet;
+
+    /**
+     * The names are expected to be interned and sorted, as returned by {@link #names(String...)}.
+     */
+    IdParams(String[] names, Object[] values) {
+        this.names = names;
+        this.values = values;
+        int hash = 0;
+        for(int i = 0; i < names.length; ++i) {
+            hash += names[i].hashCode() ^ Objects.hashCode(values[i]);
+        }
+        this.hash = hash;
+    }
+
+    /**
+     * Removes the parameters set to {@link Constants#GLN_UNDEFINED} unless all of them are.
+     */
+    IdParams withoutUndefined() {
+        int undefined = 0;
+        for(Object value : values) {
+            if(Constants.GLN_UNDEFINED.equals(value)) {
+                ++undefined;
+            }
+        }
+        if(undefined == 0 || undefined == values.length) {
+            return this;
+        }
+        final String[] names = new String[this.names.length - undefined];
+        final Object[] values = new Object[names.length];
+        int j = 0;
+        for(int i = 0; i < this.values.length; ++i) {
+            if(!Constants.GLN_UNDEFINED.equals(this.values[i])) {
+                names[j] = this.names[i];
+                values[j++] = this.values[i];
+            }
+        }
+        return new IdParams(names, values);
+    }
+
+    private int indexOf(Object name) {
+        for(int i = 0; i < names.length; ++i) {
+            if(names[i] == name) {
+                return i;
+            }
+        }
+        for(int i = 0; i < names.length; ++i) {
+            if(names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return names.length == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+        return indexOf(name) >= 0;
+    }
+
+    @Override
+    public Object get(Object name) {
+        final int i = indexOf(name);
+        return i < 0 ? null : values[i];
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if(entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<String, Object>>() {
+                @Override
+                public Iterator<Map.Entry<String, Object>> iterator() {
+                    return new Iterator<Map.Entry<String, Object>>() {
+                        int i;
+
+                        @Override
+                        public boolean hasNext() {
+                            return i < names.length;
+                        }
+
+                        @Override
+                        public Map.Entry<String, Object> next() {
+                            if(i == names.length) {
+                                throw new NoSuchElementException();
+                            }
+                            final Map.Entry<String, Object> entry = new AbstractMap.SimpleImmutableEntry<>(names[i], values[i]);
+                            ++i;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return names.length;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) {
+            return true;
+        }
+        if(!(obj instanceof IdParams)) {
+            return super.equals(obj);
+        }
+        final IdParams other = (IdParams) obj;
+        if(hash != other.hash || names.length != other.names.length) {
+            return false;
+        }
+        for(int i = 0; i < names.length; ++i) {
+            if(names[i] != other.names[i] || !Objects.equals(values[i], other.values[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.runtime;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.galleon.Errors;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.api.GalleonPackageRuntime;
+import org.jboss.galleon.jfr.PackageCopyEvent;
+import org.jboss.galleon.util.ConcurrentUtils;
+import org.jboss.galleon.util.FeaturePackInstallException;
+
+/**
+ * Copies package content into the staged directory using a bounded pool of workers.
+ *
+ * Packages are first scanned one after another in the provisioning order to figure out
+ * which package provides each target file. When more than one package provides the same path,
+ * the package added last wins, which is the same outcome as copying the packages sequentially.
+ * The directory structure is created before the files are copied in parallel.
+ */
+class PackageContentCopier {
+
+    private static final int NO_FAILURE = Integer.MAX_VALUE;
+
+    /**
+     * The copy event of a package, which begins when the first file of the package is copied
+     * and ends when the last one has been copied, whichever worker copies them.
+     */
+    private static final class PackageEvent {
+
+        final PackageCopyEvent event = new PackageCopyEvent();
+        private int remainingFiles;
+        private boolean begun;
+
+        synchronized void fileStarted() {
+            if (!begun) {
+                begun = true;
+                event.begin();
+            }
+        }
+
+        synchronized void fileCopied() {
+            if (--remainingFiles == 0) {
+                event.end();
+            }
+        }
+
+        synchronized void end() {
+            if (!begun) {
+                // nothing was copied from the package
+                event.begin();
+                event.end();
+            }
+        }
+    }
+
+    private class CopyTask implements Runnable {
+
+        final int pkgIndex;
+        final Path src;
+        final Path target;
+        final long size;
+
+        CopyTask(int pkgIndex, Path src, Path target, long size) {
+            this.pkgIndex = pkgIndex;
+            this.src = src;
+            this.target = target;
+            this.size = size;
+        }
+
+        @Override
+        public void run() {
+            if (failedPkg.get() != NO_FAILURE) {
+                return;
+            }
+            final PackageEvent event = events == null ? null : events[pkgIndex];
+            if (event != null) {
+                event.fileStarted();
+            }
+            try {
+                Files.copy(src, target, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                failed(pkgIndex, e);
+                return;
+            }
+            filesCopied.incrementAndGet();
+            bytesCopied.addAndGet(size);
+            if (event != null) {
+                event.fileCopied();
+            }
+        }
+    }
+
+    private final Path stagedDir;
+    private final int threads;
+    private final List<GalleonPackageRuntime> packages = new ArrayList<>();
+    private final Map<Path, Integer> dirs = new LinkedHashMap<>();
+    private final Map<Path, CopyTask> files = new LinkedHashMap<>();
+    private final AtomicInteger failedPkg = new AtomicInteger(NO_FAILURE);
+    private final AtomicInteger filesCopied = new AtomicInteger();
+    private final AtomicLong bytesCopied = new AtomicLong();
+    private IOException failure;
+    private PackageEvent[] events;
+
+    PackageContentCopier(Path stagedDir, int threads) {
+        this.stagedDir = stagedDir;
+        this.threads = threads < 1 ? 1 : threads;
+    }
+
+    /**
+     * Schedules the content of the package to be copied.
+     * Packages are expected to be added in the provisioning order.
+     *
+     * @param pkg  package runtime
+     * @throws ProvisioningException  in case the package content could not be read
+     */
+    void addPackage(GalleonPackageRuntime pkg) throws ProvisioningException {
+        final Path pkgSrcDir = pkg.getContentDir();
+        if (!Files.exists(pkgSrcDir)) {
+            return;
+        }
+        final Integer pkgIndex = packages.size();
+        packages.add(pkg);
+        try {
+            Files.walkFileTree(pkgSrcDir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+                    new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                            final Path targetDir = stagedDir.resolve(pkgSrcDir.relativize(dir).toString());
+                            if (files.containsKey(targetDir)) {
+                                throw new FileAlreadyExistsException(targetDir.toString());
+                            }
+                            dirs.putIfAbsent(targetDir, pkgIndex);
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                            final Path targetFile = stagedDir.resolve(pkgSrcDir.relativize(file).toString());
+                            files.put(targetFile, new CopyTask(pkgIndex, file, targetFile, attrs.size()));
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+        } catch (IOException e) {
+            throw new FeaturePackInstallException(Errors.packageContentCopyFailed(pkg.getName()), e);
+        }
+    }
+
+    /**
+     * Number of files copied so far.
+     *
+     * @return  number of files
+     */
+    int getFilesCopied() {
+        return filesCopied.get();
+    }
+
+    /**
+     * Total size of the files copied so far.
+     *
+     * @return  size in bytes
+     */
+    long getBytesCopied() {
+        return bytesCopied.get();
+    }
+
+    /**
+     * Creates the directory structure and copies the scheduled files.
+     *
+     * @throws ProvisioningException  in case the content of a package could not be copied
+     */
+    void copy() throws ProvisioningException {
+        events = initEvents();
+        for (Map.Entry<Path, Integer> dir : dirs.entrySet()) {
+            try {
+                Files.createDirectories(dir.getKey());
+            } catch (IOException e) {
+                throw new FeaturePackInstallException(Errors.packageContentCopyFailed(packages.get(dir.getValue()).getName()), e);
+            }
+        }
+        if (files.isEmpty()) {
+            commitEvents();
+            return;
+        }
+        if (threads == 1) {
+            for (CopyTask task : files.values()) {
+                task.run();
+            }
+        } else {
+            final ExecutorService executor = ConcurrentUtils.newFixedThreadPool("Galleon package content copy", Math.min(threads, files.size()));
+            try {
+                for (CopyTask task : files.values()) {
+                    executor.execute(task);
+                }
+                ConcurrentUtils.shutdownAndWait(executor);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProvisioningException("Interrupted while copying package content", e);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        final int pkgIndex = failedPkg.get();
+        if (pkgIndex != NO_FAILURE) {
+            throw new FeaturePackInstallException(Errors.packageContentCopyFailed(packages.get(pkgIndex).getName()), failure);
+        }
+        commitEvents();
+    }
+
+    /**
+     * Creates an event for each package counting the files it provides, unless the events are not recorded.
+     */
+    private PackageEvent[] initEvents() {
+        if (packages.isEmpty() || !new PackageCopyEvent().isEnabled()) {
+            return null;
+        }
+        final PackageEvent[] events = new PackageEvent[packages.size()];
+        for (int i = 0; i < events.length; ++i) {
+            events[i] = new PackageEvent();
+        }
+        for (CopyTask task : files.values()) {
+            final PackageEvent event = events[task.pkgIndex];
+            ++event.remainingFiles;
+            ++event.event.files;
+            event.event.bytes += task.size;
+        }
+        return events;
+    }
+
+    private void commitEvents() {
+        if (events == null) {
+            return;
+        }
+        for (int i = 0; i < events.length; ++i) {
+            events[i].end();
+            final PackageCopyEvent event = events[i].event;
+            if (event.shouldCommit()) {
+                final GalleonPackageRuntime pkg = packages.get(i);
+                event.fpid = pkg.getFeaturePackFPID().toString();
+                event.packageName = pkg.getName();
+                event.commit();
+            }
+        }
+    }
+
+    private synchronized void failed(int pkgIndex, IOException e) {
+        // report the package that would have failed first if the content was copied sequentially
+        if (pkgIndex < failedPkg.get()) {
+            failure = e;
+            failedPkg.set(pkgIndex);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.runtime;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.Errors;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.api.GalleonPackageRuntime;
+import org.jboss.galleon.util.FeaturePackInstallException;
+
+/**
+ * Records which package each file of the staged directory was copied from
+ * and whether the file has been left untouched since it was copied.
+ *
+ * The origin of a file copied from a feature-pack extracted into the feature-pack cache is the digest
+ * of the file recorded when the archive was extracted, so files with the same content have the same
+ * origin whatever the version of the feature-pack they were copied from. The origin of a file copied
+ * from any other feature-pack is the checksum of the feature-pack archive and the path of the file
+ * in the feature-pack. Two files with the same origin have the same content, which allows the hash
+ * of a file recorded during the previous provisioning to be reused instead of reading the file again.
+ */
+public class PackageContentOrigins {
+
+    /**
+     * File timestamps may have a coarse granularity. Files modified within this window before
+     * the snapshot was taken are not trusted since a later modification could leave their
+     * last modification time unchanged. The snapshot moves the last modification time
+     * of the copied files before this window.
+     */
+    private static final long RACY_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final long RACY_WINDOW_FINE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static class Origin {
+        final String key;
+        long stagedSize = -1;
+        FileTime stagedTime;
+
+        Origin(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Reads the origins persisted by {@link #store(Path, Map)}.
+     *
+     * @param file  file containing the origins
+     * @return  origins keyed by the relative file paths
+     * @throws ProvisioningException  in case of a failure to read the file
+     */
+    public static Map<String, String> read(Path file) throws ProvisioningException {
+        if(!Files.exists(file)) {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> origins = new HashMap<>();
+        try(BufferedReader reader = Files.newBufferedReader(file)) {
+            String line = reader.readLine();
+            while(line != null) {
+                final String origin = reader.readLine();
+                if(origin == null) {
+                    break;
+                }
+                origins.put(line, origin);
+                line = reader.readLine();
+            }
+        } catch (IOException e) {
+            throw new ProvisioningException(Errors.readFile(file), e);
+        }
+        return origins;
+    }
+
+    /**
+     * Persists the origins sorted by the relative file paths.
+     *
+     * @param file  target file
+     * @param origins  origins keyed by the relative file paths
+     * @throws ProvisioningException  in case of a failure to write the file
+     */
+    public static void store(Path file, Map<String, String> origins) throws ProvisioningException {
+        try(BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for(Map.Entry<String, String> entry : new TreeMap<>(origins).entrySet()) {
+                writer.write(entry.getKey());
+                writer.write('\n');
+                writer.write(entry.getValue());
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new ProvisioningException(Errors.writeFile(file), e);
+        }
+    }
+
+    private final Map<String, Origin> origins = new HashMap<>();
+    private long snapshotTime;
+
+    /**
+     * Records the origins of the files of the package. Packages are expected to be added
+     * in the provisioning order, so that a file provided by more than one package is attributed
+     * to the package added last.
+     *
+     * @param pkg  package runtime
+     * @param checksum  checksum of the archive of the feature-pack the package belongs to or null if unknown
+     * @param digests  digests of the package content files of the feature-pack recorded by the feature-pack cache,
+     *                 keyed by the paths relative to the feature-pack directory, or null if not available
+     * @throws ProvisioningException  in case the package content could not be read
+     */
+    public void addPackage(GalleonPackageRuntime pkg, String checksum, Map<String, String> digests) throws ProvisioningException {
+        final Path pkgSrcDir = pkg.getContentDir();
+        if(!Files.exists(pkgSrcDir)) {
+            return;
+        }
+        final String pkgContentPath = Constants.PACKAGES + '/' + pkg.getName() + '/' + Constants.CONTENT + '/';
+        try {
+            Files.walkFileTree(pkgSrcDir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+                    new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                            final String relativePath = toRelativePath(pkgSrcDir.relativize(file));
+                            final String fpPath = pkgContentPath + relativePath;
+                            String key = digests == null ? null : digests.get(fpPath);
+                            if(key == null && checksum != null) {
+                                key = checksum + '/' + fpPath;
+                            }
+                            if(key == null) {
+                                // the file provided by a previous package is overwritten
+                                origins.remove(relativePath);
+                            } else {
+                                origins.put(relativePath, new Origin(key));
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+        } catch (IOException e) {
+            throw new FeaturePackInstallException(Errors.packageContentCopyFailed(pkg.getName()), e);
+        }
+    }
+
+    /**
+     * Records the size and the last modification time of the copied files in the staged directory.
+     * Must be called once the package content has been copied and before anything else could
+     * modify the staged files.
+     *
+     * The files are private copies of the package content that have just been made, so their last
+     * modification time is set a few seconds back for a later modification of the files to be noticed
+     * whatever the timestamp granularity.
+     *
+     * @param stagedDir  staged directory
+     * @throws ProvisioningException  in case the staged files could not be read
+     */
+    public void snapshot(Path stagedDir) throws ProvisioningException {
+        snapshotTime = System.currentTimeMillis();
+        final FileTime copiedTime = FileTime.fromMillis(snapshotTime - TimeUnit.NANOSECONDS.toMillis(RACY_WINDOW_NANOS) - 1000);
+        for(Map.Entry<String, Origin> entry : origins.entrySet()) {
+            final Path file = stagedDir.resolve(entry.getKey());
+            try {
+                Files.setLastModifiedTime(file, copiedTime);
+            } catch (IOException e) {
+                // the file will be hashed
+            }
+            try {
+                final BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                final Origin origin = entry.getValue();
+                origin.stagedSize = attrs.size();
+                origin.stagedTime = attrs.lastModifiedTime();
+            } catch (IOException e) {
+                throw new ProvisioningException(Errors.readFile(file), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the origin of the staged file in case the file hasn't been modified
+     * since the snapshot was taken, otherwise null.
+     *
+     * @param relativePath  path relative to the staged directory
+     * @param file  the staged file
+     * @return  origin of the file or null
+     * @throws ProvisioningException  in case the staged file could not be read
+     */
+    public String getOrigin(String relativePath, Path file) throws ProvisioningException {
+        final Origin origin = origins.get(relativePath);
+        if(origin == null || origin.stagedTime == null) {
+            return null;
+        }
+        final BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new ProvisioningException(Errors.readFile(file), e);
+        }
+        if(attrs.size() != origin.stagedSize || !attrs.lastModifiedTime().equals(origin.stagedTime)) {
+            return null;
+        }
+        final long stagedNanos = origin.stagedTime.to(TimeUnit.NANOSECONDS);
+        final long window = stagedNanos % TimeUnit.SECONDS.toNanos(1) == 0 ? RACY_WINDOW_NANOS : RACY_WINDOW_FINE_NANOS;
+        if(stagedNanos > TimeUnit.MILLISECONDS.toNanos(snapshotTime) - window) {
+            return null;
+        }
+        return origin.key;
+    }
+
+    private static String toRelativePath(Path path) {
+        final int count = path.getNameCount();
+        if(count == 1) {
+            return path.toString();
+        }
+        final StringBuilder buf = new StringBuilder();
+        buf.append(path.getName(0).toString());
+        for(int i = 1; i < count; ++i) {
+            buf.append('/').append(path.getName(i).toString());
+        }
+        return buf.toString();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.runtime;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.Errors;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.config.FeaturePackConfig;
+import org.jboss.galleon.config.FeaturePackDepsConfig;
+import org.jboss.galleon.layout.ProvisioningLayout;
+
+/**
+ * Feature-packs providing the packages referenced from an origin.
+ *
+ * A package is provided by the first feature-pack that includes it, visiting the origin first
+ * and then its dependencies depth-first in the order they are declared. The order in which
+ * the feature-packs are visited is computed once per origin, the names of the packages are read
+ * once per feature-pack and the provider is remembered per origin and package name.
+ */
+class PackageOriginIndex {
+
+    private final ProvisioningLayout<FeaturePackRuntimeBuilder> layout;
+    private final Map<FeaturePackRuntimeBuilder, Map<String, FeaturePackRuntimeBuilder>> providers = new HashMap<>();
+    private final Map<FeaturePackRuntimeBuilder, List<FeaturePackRuntimeBuilder>> searchOrder = new HashMap<>();
+    private final Map<FeaturePackRuntimeBuilder, Set<String>> packageNames = new HashMap<>();
+
+    PackageOriginIndex(ProvisioningLayout<FeaturePackRuntimeBuilder> layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * Returns the feature-pack providing the package for the origin or null
+     * if neither the origin nor its dependencies include the package.
+     *
+     * @param origin  feature-pack the package is referenced from
+     * @param pkgName  package name
+     * @return  feature-pack providing the package or null
+     * @throws ProvisioningException  in case the packages of a feature-pack could not be listed
+     */
+    FeaturePackRuntimeBuilder getProvider(FeaturePackRuntimeBuilder origin, String pkgName) throws ProvisioningException {
+        Map<String, FeaturePackRuntimeBuilder> originProviders = providers.get(origin);
+        if (originProviders == null) {
+            originProviders = new HashMap<>();
+            providers.put(origin, originProviders);
+        } else if (originProviders.containsKey(pkgName)) {
+            return originProviders.get(pkgName);
+        }
+        FeaturePackRuntimeBuilder provider = null;
+        for (FeaturePackRuntimeBuilder fp : getSearchOrder(origin)) {
+            if (getPackageNames(fp).contains(pkgName)) {
+                provider = fp;
+                break;
+            }
+        }
+        originProviders.put(pkgName, provider);
+        return provider;
+    }
+
+    private List<FeaturePackRuntimeBuilder> getSearchOrder(FeaturePackRuntimeBuilder origin) throws ProvisioningException {
+        List<FeaturePackRuntimeBuilder> order = searchOrder.get(origin);
+        if (order == null) {
+            order = new ArrayList<>();
+            addToSearchOrder(origin, new HashSet<>(), order);
+            searchOrder.put(origin, order);
+        }
+        return order;
+    }
+
+    private void addToSearchOrder(FeaturePackRuntimeBuilder fp, Set<FeaturePackRuntimeBuilder> visited, List<FeaturePackRuntimeBuilder> order) throws ProvisioningException {
+        if (!visited.add(fp)) {
+            return;
+        }
+        order.add(fp);
+        final FeaturePackDepsConfig fpDeps = fp.getSpec();
+        if (!fpDeps.hasFeaturePackDeps()) {
+            return;
+        }
+        for (FeaturePackConfig fpDep : fpDeps.getFeaturePackDeps()) {
+            addToSearchOrder(layout.getFeaturePack(fpDep.getLocation().getProducer()), visited, order);
+        }
+    }
+
+    private Set<String> getPackageNames(FeaturePackRuntimeBuilder fp) throws ProvisioningException {
+        Set<String> names = packageNames.get(fp);
+        if (names != null) {
+            return names;
+        }
+        final Path packagesDir = fp.getDir().resolve(Constants.PACKAGES);
+        if (!Files.exists(packagesDir)) {
+            names = Collections.emptySet();
+        } else {
+            names = new HashSet<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(packagesDir)) {
+                for (Path p : stream) {
+                    names.add(p.getFileName().toString());
+                }
+            } catch (IOException e) {
+                throw new ProvisioningException(Errors.readDirectory(packagesDir), e);
+            }
+        }
+        packageNames.put(fp, names);
+        return names;
+    }
+}
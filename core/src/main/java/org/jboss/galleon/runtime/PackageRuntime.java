@@ -130,6 +130,25 @@ public class PackageRuntime implements ProvisionedPackage, GalleonPackageRuntime
             }
         }
 
+        int getStatus() {
+            return status;
+        }
+
+        List<PackageRuntime.Builder> getRequiredDeps() {
+            return requiredDeps;
+        }
+
+        List<PackageRuntime.Builder> getOptionalDeps() {
+            return optionalDeps;
+        }
+
+        void restore(int status, int type, List<PackageRuntime.Builder> requiredDeps, List<PackageRuntime.Builder> optionalDeps) {
+            this.status = status;
+            this.type = type;
+            this.requiredDeps = requiredDeps;
+            this.optionalDeps = optionalDeps;
+        }
+
         boolean isPassiveWithSatisfiedDeps() {
             if(type != PackageDependencySpec.PASSIVE) {
                 return false;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2024 Red Hat, Inc. and/or its affiliates
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
  * and other contributors as indicated by the @author tags.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.xml.stream.XMLStreamException;
@@ -36,14 +37,20 @@ import org.jboss.galleon.ProvisioningOption;
 import org.jboss.galleon.Stability;
 import org.jboss.galleon.config.ProvisioningConfig;
 import org.jboss.galleon.diff.FsDiff;
+import org.jboss.galleon.diff.FsEntry;
+import org.jboss.galleon.diff.FsEntryFactory;
+import org.jboss.galleon.jfr.PackageCopyEvent;
+import org.jboss.galleon.jfr.PluginInvocationEvent;
 import org.jboss.galleon.layout.FeaturePackLayoutTransformer;
 import org.jboss.galleon.layout.FeaturePackPluginVisitor;
 import org.jboss.galleon.layout.ProvisioningLayout;
+import org.jboss.galleon.metrics.ProvisioningMetrics;
 import org.jboss.galleon.plugin.InstallPlugin;
 import org.jboss.galleon.repo.RepositoryArtifactResolver;
 import org.jboss.galleon.state.FeaturePackSet;
 import org.jboss.galleon.state.ProvisionedConfig;
 import org.jboss.galleon.universe.FeaturePackLocation.ProducerSpec;
+import org.jboss.galleon.util.ConcurrentUtils;
 import org.jboss.galleon.util.FeaturePackInstallException;
 import org.jboss.galleon.util.IoUtils;
 import org.jboss.galleon.util.PathsUtils;
@@ -93,6 +100,8 @@ public class ProvisioningRuntime implements FeaturePackSet<FeaturePackRuntime>,
     private final boolean recordState;
     private Stability lowestConfigStability;
     private List<ProvisionedConfig> configs = Collections.emptyList();
+    private PackageContentOrigins contentOrigins;
+    private final ProvisioningMetrics metrics;
 
     ProvisioningRuntime(final ProvisioningRuntimeBuilder builder, final MessageWriter messageWriter) throws ProvisioningException {
         this.startTime = builder.startTime;
@@ -105,10 +114,11 @@ public class ProvisioningRuntime implements FeaturePackSet<FeaturePackRuntime>,
             }
         });
         this.fsDiff = builder.fsDiff;
+        this.metrics = builder.metrics;
 
         Path stagedDir = null;
         try {
-            this.configs = builder.getResolvedConfigs();
+            this.configs = builder.resolvedConfigs;
             if(builder.stagedDir == null) {
                 this.stagedDir = stagedDir = layout.newStagedDir();
             } else {
@@ -167,6 +177,16 @@ public class ProvisioningRuntime implements FeaturePackSet<FeaturePackRuntime>,
         return fsDiff;
     }
 
+    /**
+     * Origins of the files copied from the package content into the staged directory.
+     * The origins are recorded only when incremental hashing is enabled.
+     *
+     * @return  origins of the package content files or null if they were not recorded
+     */
+    public PackageContentOrigins getPackageContentOrigins() {
+        return contentOrigins;
+    }
+
     @Override
     public boolean hasFeaturePacks() {
         return layout.hasFeaturePacks();
@@ -309,62 +329,179 @@ public class ProvisioningRuntime implements FeaturePackSet<FeaturePackRuntime>,
     @Override
     public void provision() throws ProvisioningException {
 
-        layout.visitPlugins(new FeaturePackPluginVisitor<InstallPlugin>() {
-            @Override
-            public void visitPlugin(InstallPlugin plugin) throws ProvisioningException {
-                plugin.preInstall(ProvisioningRuntime.this);
+        try (ProvisioningMetrics.Timer timer = metrics.start(ProvisioningMetrics.Phase.PLUGIN_PRE_INSTALL)) {
+            layout.visitPlugins(new FeaturePackPluginVisitor<InstallPlugin>() {
+                @Override
+                public void visitPlugin(InstallPlugin plugin) throws ProvisioningException {
+                    final PluginInvocationEvent event = new PluginInvocationEvent();
+                    event.begin();
+                    plugin.preInstall(ProvisioningRuntime.this);
+                    commit(event, plugin, PluginInvocationEvent.PHASE_PRE_INSTALL);
+                }
+            }, InstallPlugin.class);
+        }
+
+        try (ProvisioningMetrics.Timer timer = metrics.start(ProvisioningMetrics.Phase.PACKAGE_COPY)) {
+            copyPackageContent();
+        }
+
+        try (ProvisioningMetrics.Timer timer = metrics.start(ProvisioningMetrics.Phase.PLUGIN_POST_INSTALL)) {
+            layout.visitPlugins(new FeaturePackPluginVisitor<InstallPlugin>() {
+                @Override
+                public void visitPlugin(InstallPlugin plugin) throws ProvisioningException {
+                    final PluginInvocationEvent event = new PluginInvocationEvent();
+                    event.begin();
+                    plugin.postInstall(ProvisioningRuntime.this);
+                    commit(event, plugin, PluginInvocationEvent.PHASE_POST_INSTALL);
+                }
+            }, InstallPlugin.class);
+        }
+
+        if(recordState) {
+            try (ProvisioningMetrics.Timer timer = metrics.start(ProvisioningMetrics.Phase.STATE_WRITE)) {
+                writeState();
             }
-        }, InstallPlugin.class);
+        }
+        emptyStagedDir = null;
+    }
 
-        // copy package content
-        for(FeaturePackRuntime fp : layout.getOrderedFeaturePacks()) {
-            messageWriter.verbose("Installing %s", fp.getFPID());
-            for(GalleonPackageRuntime pkg : fp.getPackages()) {
-                final Path pkgSrcDir = pkg.getContentDir();
-                if (Files.exists(pkgSrcDir)) {
-                    try {
-                        IoUtils.copy(pkgSrcDir, stagedDir);
-                    } catch (IOException e) {
-                        throw new FeaturePackInstallException(Errors.packageContentCopyFailed(pkg.getName()), e);
+    private void copyPackageContent() throws ProvisioningException {
+        final PackageContentOrigins origins = recordState && Boolean.parseBoolean(getOptionValue(ProvisioningOption.INCREMENTAL_HASHES))
+                ? new PackageContentOrigins() : null;
+
+        final boolean parallelCopy = Boolean.parseBoolean(getOptionValue(ProvisioningOption.PARALLEL_PACKAGE_COPY));
+        if(parallelCopy) {
+            final PackageContentCopier copier = new PackageContentCopier(stagedDir, ConcurrentUtils.getDefaultParallelism());
+            for(FeaturePackRuntime fp : layout.getOrderedFeaturePacks()) {
+                messageWriter.verbose("Installing %s", fp.getFPID());
+                final String checksum = origins == null ? null : layout.getFactory().getChecksum(fp.getFPID());
+                final Map<String, String> digests = origins == null ? null : layout.getFactory().getContentDigests(fp.getFPID());
+                for(GalleonPackageRuntime pkg : fp.getPackages()) {
+                    copier.addPackage(pkg);
+                    if(origins != null) {
+                        origins.addPackage(pkg, checksum, digests);
+                    }
+                }
+            }
+            copier.copy();
+            metrics.addCopied(copier.getFilesCopied(), copier.getBytesCopied());
+        } else {
+            for(FeaturePackRuntime fp : layout.getOrderedFeaturePacks()) {
+                messageWriter.verbose("Installing %s", fp.getFPID());
+                final String checksum = origins == null ? null : layout.getFactory().getChecksum(fp.getFPID());
+                final Map<String, String> digests = origins == null ? null : layout.getFactory().getContentDigests(fp.getFPID());
+                for(GalleonPackageRuntime pkg : fp.getPackages()) {
+                    final Path pkgSrcDir = pkg.getContentDir();
+                    if (Files.exists(pkgSrcDir)) {
+                        final PackageCopyEvent event = new PackageCopyEvent();
+                        event.begin();
+                        try {
+                            IoUtils.copy(pkgSrcDir, stagedDir, false, size -> {
+                                ++event.files;
+                                event.bytes += size;
+                            });
+                        } catch (IOException e) {
+                            throw new FeaturePackInstallException(Errors.packageContentCopyFailed(pkg.getName()), e);
+                        }
+                        commit(event, pkg);
+                        metrics.addCopied(event.files, event.bytes);
+                        if(origins != null) {
+                            origins.addPackage(pkg, checksum, digests);
+                        }
                     }
                 }
             }
         }
+        if(origins != null) {
+            origins.snapshot(stagedDir);
+            contentOrigins = origins;
+        }
+    }
 
-        layout.visitPlugins(new FeaturePackPluginVisitor<InstallPlugin>() {
-            @Override
-            public void visitPlugin(InstallPlugin plugin) throws ProvisioningException {
-                plugin.postInstall(ProvisioningRuntime.this);
-            }
-        }, InstallPlugin.class);
+    private static void commit(PluginInvocationEvent event, InstallPlugin plugin, String phase) {
+        event.end();
+        if(event.shouldCommit()) {
+            event.pluginClass = plugin.getClass();
+            event.phase = phase;
+            event.commit();
+        }
+    }
 
-        if(recordState) {
-            // save the config
-            try {
-                ProvisioningConfig cfg = Boolean.parseBoolean(config.getOption(Constants.STORE_INPUT_PROVISIONING_CONFIG)) ?
-                        layout.getOriginalConfig() : config;
-                ProvisioningXmlWriter.getInstance().write(cfg, PathsUtils.getProvisioningXml(stagedDir));
-            } catch (XMLStreamException | IOException e) {
-                throw new FeaturePackInstallException(BaseErrors.writeFile(PathsUtils.getProvisioningXml(stagedDir)), e);
-            }
+    private static void commit(PackageCopyEvent event, GalleonPackageRuntime pkg) {
+        event.end();
+        if(event.shouldCommit()) {
+            event.fpid = pkg.getFeaturePackFPID().toString();
+            event.packageName = pkg.getName();
+            event.commit();
+        }
+    }
 
-            // save the provisioned state
+    private void writeState() throws ProvisioningException {
+        // save the config
+        try {
+            ProvisioningConfig cfg = Boolean.parseBoolean(config.getOption(Constants.STORE_INPUT_PROVISIONING_CONFIG)) ?
+                    layout.getOriginalConfig() : config;
+            ProvisioningXmlWriter.getInstance().write(cfg, PathsUtils.getProvisioningXml(stagedDir));
+        } catch (XMLStreamException | IOException e) {
+            throw new FeaturePackInstallException(BaseErrors.writeFile(PathsUtils.getProvisioningXml(stagedDir)), e);
+        }
+
+        // save the provisioned state
+        try {
+            ProvisionedStateXmlWriter.getInstance().write(this, PathsUtils.getProvisionedStateXml(stagedDir));
+        } catch (XMLStreamException | IOException e) {
+            throw new FeaturePackInstallException(BaseErrors.writeFile(PathsUtils.getProvisionedStateXml(stagedDir)), e);
+        }
+
+        boolean exportPath = Boolean.parseBoolean(layout.getOptionValue(Constants.EXPORT_SYSTEM_PATHS));
+        if (exportPath) {
             try {
-                ProvisionedStateXmlWriter.getInstance().write(this, PathsUtils.getProvisionedStateXml(stagedDir));
-            } catch (XMLStreamException | IOException e) {
-                throw new FeaturePackInstallException(BaseErrors.writeFile(PathsUtils.getProvisionedStateXml(stagedDir)), e);
+                layout.getSystemPaths().store(stagedDir);
+            } catch (IOException ex) {
+                throw new ProvisioningException(ex);
             }
+        }
+    }
 
-            boolean exportPath = Boolean.parseBoolean(layout.getOptionValue(Constants.EXPORT_SYSTEM_PATHS));
-            if (exportPath) {
-                try {
-                    layout.getSystemPaths().store(stagedDir);
-                } catch (IOException ex) {
-                    throw new ProvisioningException(ex);
+    /**
+     * Builds the state of the staged directory the provisioning would produce from the content
+     * of the packages without copying it. The state can be built only if none of the install plugins
+     * of the feature-packs modifies the content, since the output of such plugins isn't known
+     * without running them. Install plugins are content modifiers unless they declare otherwise,
+     * so feature-packs whose plugins generate configuration files, for example, are always provisioned.
+     *
+     * The package content is not combined with the outputs of the plugins alone: the plugins run
+     * against the staged directory, reading and rewriting the package files copied into it, so their
+     * outputs can't be produced without copying the package content first.
+     *
+     * @param fsFactory  factory used to build the state
+     * @return  expected state of the staged directory or null in case there are install plugins modifying the content
+     * @throws ProvisioningException  in case the package content could not be read
+     */
+    public FsEntry getStagedContentState(FsEntryFactory fsFactory) throws ProvisioningException {
+        final boolean[] contentModifiers = new boolean[1];
+        layout.visitPlugins(new FeaturePackPluginVisitor<InstallPlugin>() {
+            @Override
+            public void visitPlugin(InstallPlugin plugin) throws ProvisioningException {
+                if(plugin.isContentModifier()) {
+                    contentModifiers[0] = true;
+                }
+            }
+        }, InstallPlugin.class);
+        if(contentModifiers[0]) {
+            messageWriter.verbose("The install plugins modify the content, provisioning the installation to detect user changes");
+            return null;
+        }
+        final List<Path> contentDirs = new ArrayList<>();
+        for(FeaturePackRuntime fp : layout.getOrderedFeaturePacks()) {
+            for(GalleonPackageRuntime pkg : fp.getPackages()) {
+                final Path pkgSrcDir = pkg.getContentDir();
+                if (Files.exists(pkgSrcDir)) {
+                    contentDirs.add(pkgSrcDir);
                 }
             }
         }
-        emptyStagedDir = null;
+        return fsFactory.forContent(stagedDir, contentDirs);
     }
 
     @Override
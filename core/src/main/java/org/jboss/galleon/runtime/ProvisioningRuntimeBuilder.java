@@ -17,14 +17,19 @@
 package org.jboss.galleon.runtime;
 
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.jboss.galleon.Constants;
 import org.jboss.galleon.DefaultMessageWriter;
 import org.jboss.galleon.Errors;
@@ -49,6 +54,7 @@ import org.jboss.galleon.diff.FsDiff;
 import org.jboss.galleon.layout.FeaturePackLayoutFactory;
 import org.jboss.galleon.layout.ProvisioningLayout;
 import org.jboss.galleon.layout.ProvisioningLayoutFactory;
+import org.jboss.galleon.metrics.ProvisioningMetrics;
 import org.jboss.galleon.spec.ConfigLayerSpec;
 import org.jboss.galleon.spec.FeatureDependencySpec;
 import org.jboss.galleon.spec.FeatureId;
@@ -62,6 +68,7 @@ import org.jboss.galleon.state.ProvisionedConfig;
 import org.jboss.galleon.universe.FeaturePackLocation;
 import org.jboss.galleon.universe.FeaturePackLocation.ProducerSpec;
 import org.jboss.galleon.util.CollectionUtils;
+import org.jboss.galleon.util.ConcurrentUtils;
 
 
 /**
@@ -96,6 +103,7 @@ public class ProvisioningRuntimeBuilder {
     Stability userPackageStability;
     // Can be needed by Galleon plugins.
     Stability lowestConfigStability;
+    ProvisioningMetrics metrics;
     private final MessageWriter messageWriter;
 
     Map<String, ConfigModelStack> nameOnlyConfigs = Collections.emptyMap();
@@ -113,7 +121,9 @@ public class ProvisioningRuntimeBuilder {
     private Map<ConfigId, ConfigModelStack> layers = Collections.emptyMap();
 
     private ArrayList<PackageRuntime.Builder> resolvedPkgBranch = new ArrayList<>();
+    private PackageOriginIndex pkgOriginIndex;
     int pkgsTotal;
+    List<ProvisionedConfig> resolvedConfigs = Collections.emptyList();
 
     private List<FeaturePackRuntimeBuilder> visited = new ArrayList<>();
     private int pkgDepMask;
@@ -186,6 +196,11 @@ public class ProvisioningRuntimeBuilder {
 
         config = layout.getConfig();
         fpConfigStack = new FpStack(config);
+        metrics = layout.getFactory().getMetrics();
+        for (FeaturePackRuntimeBuilder fp : layout.getOrderedFeaturePacks()) {
+            fp.metrics = metrics;
+            fp.metadataIndexValidated = layout.getFactory().isMetadataIndexValidated(fp.getFPID(), fp.getDir());
+        }
         String stabilityOption = layout.getOptionValue(ProvisioningOption.STABILITY_LEVEL);
         String configStabilityOption = layout.getOptionValue(ProvisioningOption.CONFIG_STABILITY_LEVEL);
         String packageStabilityOption = layout.getOptionValue(ProvisioningOption.PACKAGE_STABILITY_LEVEL);
@@ -252,6 +267,35 @@ public class ProvisioningRuntimeBuilder {
                 throw new ProvisioningDescriptionException(Errors.pluginOptionIllegalValue(ProvisioningOption.OPTIONAL_PACKAGES.getName(), optionalPackages, ProvisioningOption.OPTIONAL_PACKAGES.getValueSet()));
         }
 
+        final ResolutionCache resolutionCache = getResolutionCache();
+        final String resolutionKey = resolutionCache == null ? null : resolutionCache.getKey(this);
+        if(resolutionKey != null && resolutionCache.restore(resolutionKey, this)) {
+            if (messageWriter.isVerboseEnabled()) {
+                messageWriter.verbose("Reusing the cached resolution %s", resolutionKey);
+            }
+            return new ProvisioningRuntime(this, messageWriter);
+        }
+
+        resolve();
+        try (ProvisioningMetrics.Timer timer = metrics.start(ProvisioningMetrics.Phase.CONFIG_RESOLUTION)) {
+            resolvedConfigs = getResolvedConfigs();
+        }
+
+        if(resolutionKey != null) {
+            resolutionCache.store(resolutionKey, this);
+        }
+        return new ProvisioningRuntime(this, messageWriter);
+    }
+
+    private ResolutionCache getResolutionCache() throws ProvisioningException {
+        final String cacheDir = layout.getOptionValue(ProvisioningOption.RESOLUTION_CACHE);
+        if(cacheDir == null || cacheDir.isEmpty()) {
+            return null;
+        }
+        return ResolutionCache.getInstance(Paths.get(cacheDir).toAbsolutePath());
+    }
+
+    private void resolve() throws ProvisioningException {
         collectDefaultConfigs();
 
         List<ConfigModelStack> configStacks = Collections.emptyList();
@@ -277,8 +321,6 @@ public class ProvisioningRuntimeBuilder {
         }
 
         mergeModelOnlyConfigs();
-
-        return new ProvisioningRuntime(this, messageWriter);
     }
 
     /**
@@ -1102,7 +1144,6 @@ public class ProvisioningRuntimeBuilder {
         final int offset = resolvedPkgBranch.size();
         boolean resolved = false;
         try {
-            currentOrigin.setFlag(FeaturePackRuntimeBuilder.VISIT);
             if (resolved = resolvePackage(currentOrigin, pkgName, parent, type)) {
                 if (offset == 0) {
                     for (int i = resolvedPkgBranch.size() - 1; i >= 0; --i) {
@@ -1135,8 +1176,6 @@ public class ProvisioningRuntimeBuilder {
                     }
                 }
             }
-            clearFlag(FeaturePackRuntimeBuilder.VISIT);
-            currentOrigin.clearFlag(FeaturePackRuntimeBuilder.VISIT);
         }
         if (!resolved) {
             throw new ProvisioningDescriptionException(Errors.packageNotFound(currentOrigin.producer.getLocation().getFPID(), pkgName));
@@ -1144,27 +1183,11 @@ public class ProvisioningRuntimeBuilder {
     }
 
     private boolean resolvePackage(FeaturePackRuntimeBuilder origin, String name, PackageRuntime.Builder parent, int type) throws ProvisioningException {
-        final FeaturePackDepsConfig fpDeps;
-        if (origin != null) {
-            if(origin.resolvePackage(name, this, parent, type)) {
-                return true;
-            }
-            fpDeps = origin.getSpec();
-        } else {
-            fpDeps = config;
-        }
-
-        if (!fpDeps.hasFeaturePackDeps()) {
-            return false;
-        }
-
-        for (FeaturePackConfig fpDep : fpDeps.getFeaturePackDeps()) {
-            final FeaturePackRuntimeBuilder fpDepBuilder = layout.getFeaturePack(fpDep.getLocation().getProducer());
-            if (setFlag(fpDepBuilder, FeaturePackRuntimeBuilder.VISIT) && resolvePackage(fpDepBuilder, name, parent, type)) {
-                return true;
-            }
+        if (pkgOriginIndex == null) {
+            pkgOriginIndex = new PackageOriginIndex(layout);
         }
-        return false;
+        final FeaturePackRuntimeBuilder provider = pkgOriginIndex.getProvider(origin, name);
+        return provider != null && provider.resolvePackage(name, this, parent, type);
     }
 
     boolean addToPkgDepBranch(PackageRuntime.Builder pkg) {
@@ -1217,29 +1240,105 @@ public class ProvisioningRuntimeBuilder {
         if(configsTotal == 0) {
             return Collections.emptyList();
         }
-        final List<ProvisionedConfig> configList = new ArrayList<>(configsTotal);
-        buildConfigs(configList, configsToBuild.entrySet());
-        return configList.size() > 0 ? Collections.unmodifiableList(configList) : configList;
+        final List<ConfigModelStack> orderedConfigs = new ArrayList<>(configsTotal);
+        orderConfigs(orderedConfigs, configsToBuild.entrySet());
+        if(orderedConfigs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<ProvisionedConfig> configList;
+        if(orderedConfigs.size() > 1 && Boolean.parseBoolean(layout.getOptionValue(ProvisioningOption.PARALLEL_CONFIG_RESOLUTION))) {
+            configList = buildConfigsConcurrently(orderedConfigs);
+        } else {
+            configList = new ArrayList<>(orderedConfigs.size());
+            for(ConfigModelStack configStack : orderedConfigs) {
+                configList.add(ResolvedConfig.build(configStack));
+            }
+        }
+        return Collections.unmodifiableList(configList);
+    }
+
+    /**
+     * Orders the features of the configs using a pool of workers. The feature references are resolved
+     * by the calling thread beforehand, since resolving them looks up the feature specs of the layout
+     * and caches the result in the shared specs. The capability providers are registered with the
+     * spec features of each config rather than with the shared specs, so the arrangers of different
+     * configs don't see each other's providers. Configs sharing feature instances, which may
+     * happen when features without an ID are merged from a model-only config, are built by the calling
+     * thread. The resulting list follows the same order as when the configs are built sequentially.
+     */
+    private List<ProvisionedConfig> buildConfigsConcurrently(List<ConfigModelStack> orderedConfigs) throws ProvisioningException {
+        final Map<ResolvedFeature, ConfigModelStack> featureConfigs = new IdentityHashMap<>();
+        final Set<ConfigModelStack> sharingConfigs = Collections.newSetFromMap(new IdentityHashMap<>());
+        for(ConfigModelStack configStack : orderedConfigs) {
+            for(SpecFeatures specFeatures : configStack.specFeatures.values()) {
+                specFeatures.spec.resolveRefMappings(this);
+                for(ResolvedFeature feature : specFeatures.getFeatures()) {
+                    final ConfigModelStack otherStack = featureConfigs.put(feature, configStack);
+                    if(otherStack != null && otherStack != configStack) {
+                        sharingConfigs.add(otherStack);
+                        sharingConfigs.add(configStack);
+                    }
+                }
+            }
+        }
+
+        final ExecutorService executor = ConcurrentUtils.newFixedThreadPool("Galleon config resolution",
+                Math.min(ConcurrentUtils.getDefaultParallelism(), orderedConfigs.size()));
+        try {
+            final List<Future<ResolvedConfig>> futures = new ArrayList<>(orderedConfigs.size());
+            for(ConfigModelStack configStack : orderedConfigs) {
+                futures.add(sharingConfigs.contains(configStack) ? null : executor.submit(() -> ResolvedConfig.build(configStack)));
+            }
+            final List<ProvisionedConfig> configList = new ArrayList<>(orderedConfigs.size());
+            for(int i = 0; i < orderedConfigs.size(); ++i) {
+                final Future<ResolvedConfig> future = futures.get(i);
+                configList.add(future == null ? ResolvedConfig.build(orderedConfigs.get(i)) : getResolvedConfig(future));
+            }
+            return configList;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ResolvedConfig getResolvedConfig(Future<ResolvedConfig> future) throws ProvisioningException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProvisioningException("Interrupted while resolving configs", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if(cause instanceof ProvisioningException) {
+                throw (ProvisioningException) cause;
+            }
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if(cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ProvisioningException("Failed to resolve configs", cause);
+        }
     }
 
-    private void buildConfigs(List<ProvisionedConfig> configList, Set<Map.Entry<ConfigId, ConfigModelStack>> configStacks) throws ProvisioningException {
+    private void orderConfigs(List<ConfigModelStack> orderedConfigs, Set<Map.Entry<ConfigId, ConfigModelStack>> configStacks) throws ProvisioningException {
         for(Map.Entry<ConfigId, ConfigModelStack> entry : configStacks) {
             final ConfigId id = entry.getKey();
-            if(id.getName() == null || contains(configList, id)) {
+            if(id.getName() == null || contains(orderedConfigs, id)) {
                 continue;
             }
-            orderConfig(entry.getValue(), configList, Collections.emptySet());
+            orderConfig(entry.getValue(), orderedConfigs, Collections.emptySet());
         }
     }
 
-    private void orderConfig(ConfigModelStack config, List<ProvisionedConfig> configList, Set<ConfigId> scheduledIds) throws ProvisioningException {
+    private void orderConfig(ConfigModelStack config, List<ConfigModelStack> orderedConfigs, Set<ConfigId> scheduledIds) throws ProvisioningException {
         if(!config.hasConfigDeps()) {
-            configList.add(ResolvedConfig.build(config));
+            orderedConfigs.add(config);
             return;
         }
         scheduledIds = CollectionUtils.add(scheduledIds, config.id);
         for(ConfigId depId : config.getConfigDeps().values()) {
-            if(scheduledIds.contains(depId) || contains(configList, depId)) {
+            if(scheduledIds.contains(depId) || contains(orderedConfigs, depId)) {
                 continue;
             }
 
@@ -1249,10 +1348,10 @@ public class ProvisioningRuntimeBuilder {
                     throw new ProvisioningDescriptionException("Config " + config.id + " has unsatisfied dependency on config " + depId);
                 }
                 for(ConfigModelStack dep : configs.values()) {
-                    if(contains(configList, dep.id)) {
+                    if(contains(orderedConfigs, dep.id)) {
                         continue;
                     }
-                    orderConfig(dep, configList, scheduledIds);
+                    orderConfig(dep, orderedConfigs, scheduledIds);
                 }
             } else {
                 final ConfigModelStack configStack;
@@ -1268,20 +1367,20 @@ public class ProvisioningRuntimeBuilder {
                 if(configStack == null) {
                     throw new ProvisioningDescriptionException("Config " + config.id + " has unsatisfied dependency on config " + depId);
                 }
-                if(contains(configList, configStack.id)) {
+                if(contains(orderedConfigs, configStack.id)) {
                     continue;
                 }
-                orderConfig(configStack, configList, scheduledIds);
+                orderConfig(configStack, orderedConfigs, scheduledIds);
             }
         }
         scheduledIds = CollectionUtils.remove(scheduledIds, config.id);
-        configList.add(ResolvedConfig.build(config));
+        orderedConfigs.add(config);
     }
 
-    private boolean contains(List<ProvisionedConfig> configList, ConfigId depId) {
+    private boolean contains(List<ConfigModelStack> orderedConfigs, ConfigId depId) {
         int i = 0;
-        while(i < configList.size()) {
-            if(((ResolvedConfig)configList.get(i++)).id.equals(depId)) {
+        while(i < orderedConfigs.size()) {
+            if(orderedConfigs.get(i++).id.equals(depId)) {
                 return true;
             }
         }
@@ -0,0 +1,690 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.CoreVersion;
+import org.jboss.galleon.Errors;
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.config.ConfigId;
+import org.jboss.galleon.state.ProvisionedConfig;
+import org.jboss.galleon.universe.FeaturePackLocation.ProducerSpec;
+import org.jboss.galleon.util.CollectionUtils;
+import org.jboss.galleon.util.HashUtils;
+import org.jboss.galleon.util.PropertyUtils;
+import org.jboss.galleon.xml.ProvisioningXmlWriter;
+
+/**
+ * Persistent cache of the results of the resolution phase of the provisioning runtime build,
+ * i.e. the resolved package sets and the resolved configs.
+ *
+ * An entry is keyed by the hash of the Galleon core version, the provisioning config, the provisioning
+ * options and the IDs and the archive checksums of the resolved feature-packs, so it is reused only when
+ * the resolution would produce the same result, even if a feature-pack was rebuilt keeping its ID.
+ * The feature and package specs referenced by an entry are loaded from the feature-packs when the entry
+ * is restored.
+ *
+ * Once the total size of the entries exceeds the limit set with the {@link #MAX_SIZE_PROPERTY} system
+ * property, the least recently used entries are deleted.
+ */
+class ResolutionCache {
+
+    static final String MAX_SIZE_PROPERTY = "galleon.resolution-cache.max-size";
+    static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+
+    private static final int VERSION = 3;
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private static final int BATCH_START = 0b0001;
+    private static final int BATCH_END = 0b0010;
+    private static final int BRANCH_START = 0b0100;
+    private static final int BRANCH_END = 0b1000;
+
+    private static class PackageRef {
+        final int fp;
+        final String name;
+
+        PackageRef(int fp, String name) {
+            this.fp = fp;
+            this.name = name;
+        }
+    }
+
+    private static class PackageEntry {
+        final String name;
+        final int id;
+        final int status;
+        final int type;
+        final List<PackageRef> requiredDeps;
+        final List<PackageRef> optionalDeps;
+
+        PackageEntry(String name, int id, int status, int type, List<PackageRef> requiredDeps, List<PackageRef> optionalDeps) {
+            this.name = name;
+            this.id = id;
+            this.status = status;
+            this.type = type;
+            this.requiredDeps = requiredDeps;
+            this.optionalDeps = optionalDeps;
+        }
+    }
+
+    private static class FeaturePackEntry {
+        final List<String> featureSpecs;
+        final List<PackageEntry> packages;
+        final List<String> pkgOrder;
+
+        FeaturePackEntry(List<String> featureSpecs, List<PackageEntry> packages, List<String> pkgOrder) {
+            this.featureSpecs = featureSpecs;
+            this.packages = packages;
+            this.pkgOrder = pkgOrder;
+        }
+    }
+
+    private static class FeatureEntry {
+        final int fp;
+        final String spec;
+        final int includeNo;
+        final int flags;
+        final byte child;
+        final Map<String, String> idParams;
+        final Map<String, String> params;
+
+        FeatureEntry(int fp, String spec, int includeNo, int flags, byte child, Map<String, String> idParams, Map<String, String> params) {
+            this.fp = fp;
+            this.spec = spec;
+            this.includeNo = includeNo;
+            this.flags = flags;
+            this.child = child;
+            this.idParams = idParams;
+            this.params = params;
+        }
+    }
+
+    private static class ConfigEntry {
+        final ConfigId id;
+        final Map<String, String> props;
+        final Map<String, ConfigId> configDeps;
+        final List<ConfigId> layers;
+        final List<FeatureEntry> features;
+
+        ConfigEntry(ConfigId id, Map<String, String> props, Map<String, ConfigId> configDeps, List<ConfigId> layers, List<FeatureEntry> features) {
+            this.id = id;
+            this.props = props;
+            this.configDeps = configDeps;
+            this.layers = layers;
+            this.features = features;
+        }
+    }
+
+    /**
+     * Creates the cache in the directory limiting its size with the {@link #MAX_SIZE_PROPERTY} system property.
+     *
+     * @param dir  cache directory
+     * @return  resolution cache
+     * @throws ProvisioningException  in case the maximum size is not a positive number
+     */
+    static ResolutionCache getInstance(Path dir) throws ProvisioningException {
+        final String value = PropertyUtils.getSystemProperty(MAX_SIZE_PROPERTY);
+        long maxSize = DEFAULT_MAX_SIZE;
+        if (value != null) {
+            try {
+                maxSize = Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                throw new ProvisioningException(Errors.systemPropertyNotPositive(MAX_SIZE_PROPERTY, value), e);
+            }
+            if (maxSize <= 0) {
+                throw new ProvisioningException(Errors.systemPropertyNotPositive(MAX_SIZE_PROPERTY, value));
+            }
+        }
+        return new ResolutionCache(dir, maxSize);
+    }
+
+    private final Path dir;
+    private final long maxSize;
+
+    ResolutionCache(Path dir, long maxSize) {
+        this.dir = dir;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Calculates the key of the resolution performed by the builder.
+     *
+     * @param rt  runtime builder with the initialized layout
+     * @return  the key
+     * @throws ProvisioningException  in case the key could not be calculated
+     */
+    String getKey(ProvisioningRuntimeBuilder rt) throws ProvisioningException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new ProvisioningException("Failed to calculate the resolution cache key", e);
+        }
+        try (DataOutputStream out = new DataOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+            out.writeInt(VERSION);
+            writeString(out, CoreVersion.getVersion());
+            final StringWriter configXml = new StringWriter();
+            ProvisioningXmlWriter.getInstance().write(rt.layout.getConfig(), configXml);
+            writeString(out, configXml.toString());
+            final Map<String, String> options = new TreeMap<>(rt.layout.getOptions());
+            options.remove(Constants.RESOLUTION_CACHE);
+            writeStringMap(out, options);
+            for (FeaturePackRuntimeBuilder fp : rt.layout.getOrderedFeaturePacks()) {
+                writeString(out, fp.getFPID().toString());
+                final String checksum = rt.layout.getFactory().getChecksum(fp.getFPID());
+                writeString(out, checksum);
+                if (checksum == null) {
+                    hashMetadata(out, fp.getDir());
+                }
+            }
+        } catch (IOException | XMLStreamException e) {
+            throw new ProvisioningException("Failed to calculate the resolution cache key", e);
+        }
+        return HashUtils.bytesToHexString(digest.digest());
+    }
+
+    /**
+     * Restores the cached resolution into the builder.
+     *
+     * @param key  resolution key
+     * @param rt  runtime builder
+     * @return  true if the entry was found and restored, false otherwise
+     * @throws ProvisioningException  in case the specs referenced by the entry could not be loaded
+     */
+    boolean restore(String key, ProvisioningRuntimeBuilder rt) throws ProvisioningException {
+        final List<FeaturePackRuntimeBuilder> fps = rt.layout.getOrderedFeaturePacks();
+        final List<FeaturePackEntry> fpEntries = new ArrayList<>(fps.size());
+        final List<ConfigEntry> configEntries;
+        final Path file = dir.resolve(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != VERSION || in.readInt() != fps.size()) {
+                return false;
+            }
+            for (FeaturePackRuntimeBuilder fp : fps) {
+                if (!fp.getFPID().toString().equals(readString(in))) {
+                    return false;
+                }
+                fpEntries.add(readFeaturePack(in));
+            }
+            int i = in.readInt();
+            configEntries = new ArrayList<>(i);
+            while (i-- > 0) {
+                configEntries.add(readConfig(in));
+            }
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            rt.getMessageWriter().verbose(e, "Failed to read the cached resolution %s", key);
+            return false;
+        }
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // the entry may be evicted earlier
+        }
+
+        final List<Map<String, PackageRuntime.Builder>> pkgBuilders = new ArrayList<>(fps.size());
+        int pkgsTotal = 0;
+        for (int i = 0; i < fps.size(); ++i) {
+            final FeaturePackRuntimeBuilder fp = fps.get(i);
+            final FeaturePackEntry fpEntry = fpEntries.get(i);
+            for (String specName : fpEntry.featureSpecs) {
+                getFeatureSpec(fp, specName);
+            }
+            final Map<String, PackageRuntime.Builder> fpPkgs = new LinkedHashMap<>(fpEntry.packages.size());
+            for (PackageEntry pkgEntry : fpEntry.packages) {
+                final PackageRuntime.Builder pkgBuilder = fp.loadPackage(pkgEntry.name, pkgEntry.id);
+                if (pkgBuilder == null) {
+                    throw new ProvisioningDescriptionException("Feature-pack " + fp.getFPID() + " does not contain package " + pkgEntry.name);
+                }
+                fpPkgs.put(pkgEntry.name, pkgBuilder);
+                pkgsTotal = Math.max(pkgsTotal, pkgEntry.id);
+            }
+            pkgBuilders.add(fpPkgs);
+        }
+        for (int i = 0; i < fps.size(); ++i) {
+            final FeaturePackRuntimeBuilder fp = fps.get(i);
+            final FeaturePackEntry fpEntry = fpEntries.get(i);
+            for (PackageEntry pkgEntry : fpEntry.packages) {
+                pkgBuilders.get(i).get(pkgEntry.name).restore(pkgEntry.status, pkgEntry.type,
+                        toBuilders(pkgBuilders, pkgEntry.requiredDeps), toBuilders(pkgBuilders, pkgEntry.optionalDeps));
+            }
+            fp.pkgBuilders = pkgBuilders.get(i);
+            fp.pkgOrder.addAll(fpEntry.pkgOrder);
+        }
+        rt.pkgsTotal = pkgsTotal;
+
+        final List<ProvisionedConfig> configs = new ArrayList<>(configEntries.size());
+        for (ConfigEntry configEntry : configEntries) {
+            final List<ResolvedFeature> features = new ArrayList<>(configEntry.features.size());
+            for (FeatureEntry featureEntry : configEntry.features) {
+                features.add(toFeature(getFeatureSpec(fps.get(featureEntry.fp), featureEntry.spec), featureEntry));
+            }
+            configs.add(new ResolvedConfig(configEntry.id, configEntry.props, configEntry.configDeps, configEntry.layers, features));
+        }
+        rt.resolvedConfigs = configs.isEmpty() ? configs : Collections.unmodifiableList(configs);
+        return true;
+    }
+
+    /**
+     * Stores the resolution performed by the builder and evicts the least recently used entries
+     * in case the cache exceeds its maximum size. A failure to store the entry is reported
+     * as a verbose message and doesn't affect the provisioning.
+     *
+     * @param key  resolution key
+     * @param rt  runtime builder
+     * @throws ProvisioningException  in case a resolved parameter could not be converted to a string
+     */
+    void store(String key, ProvisioningRuntimeBuilder rt) throws ProvisioningException {
+        final List<FeaturePackRuntimeBuilder> fps = rt.layout.getOrderedFeaturePacks();
+        final Map<ProducerSpec, Integer> fpIndex = new HashMap<>(fps.size());
+        for (int i = 0; i < fps.size(); ++i) {
+            fpIndex.put(fps.get(i).producer, i);
+        }
+        final Path tmp = dir.resolve(key + '.' + UUID.randomUUID() + TMP_SUFFIX);
+        try {
+            Files.createDirectories(dir);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(VERSION);
+                out.writeInt(fps.size());
+                for (FeaturePackRuntimeBuilder fp : fps) {
+                    writeString(out, fp.getFPID().toString());
+                    writeFeaturePack(out, fp, fpIndex);
+                }
+                out.writeInt(rt.resolvedConfigs.size());
+                for (ProvisionedConfig config : rt.resolvedConfigs) {
+                    writeConfig(out, (ResolvedConfig) config, fpIndex);
+                }
+            }
+            try {
+                Files.move(tmp, dir.resolve(key), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, dir.resolve(key), StandardCopyOption.REPLACE_EXISTING);
+            }
+            evict(key);
+        } catch (IOException e) {
+            rt.getMessageWriter().verbose(e, "Failed to store the resolution %s", key);
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries, except the one just stored, until the total size
+     * of the entries doesn't exceed the maximum size. Entries that can't be deleted, e.g. because
+     * they are being read on a platform that doesn't allow deleting open files, are skipped.
+     */
+    private void evict(String keep) throws IOException {
+        final List<Path> entries = new ArrayList<>();
+        final Map<Path, BasicFileAttributes> attrs = new HashMap<>();
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                if (file.getFileName().toString().endsWith(TMP_SUFFIX)) {
+                    continue;
+                }
+                final BasicFileAttributes fileAttrs;
+                try {
+                    fileAttrs = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (!fileAttrs.isRegularFile()) {
+                    continue;
+                }
+                total += fileAttrs.size();
+                if (!file.getFileName().toString().equals(keep)) {
+                    entries.add(file);
+                    attrs.put(file, fileAttrs);
+                }
+            }
+        }
+        if (total <= maxSize) {
+            return;
+        }
+        entries.sort(Comparator.comparing(file -> attrs.get(file).lastModifiedTime()));
+        for (Path file : entries) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                continue;
+            }
+            total -= attrs.get(file).size();
+            if (total <= maxSize) {
+                break;
+            }
+        }
+    }
+
+    private static ResolvedFeatureSpec getFeatureSpec(FeaturePackRuntimeBuilder fp, String name) throws ProvisioningException {
+        final ResolvedFeatureSpec spec = fp.getFeatureSpec(name);
+        if (spec == null) {
+            throw new ProvisioningDescriptionException("Feature-pack " + fp.getFPID() + " does not contain feature spec " + name);
+        }
+        return spec;
+    }
+
+    private static List<PackageRuntime.Builder> toBuilders(List<Map<String, PackageRuntime.Builder>> pkgBuilders, List<PackageRef> refs) {
+        if (refs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<PackageRuntime.Builder> builders = new ArrayList<>(refs.size());
+        for (PackageRef ref : refs) {
+            builders.add(pkgBuilders.get(ref.fp).get(ref.name));
+        }
+        return builders;
+    }
+
+    private static ResolvedFeature toFeature(ResolvedFeatureSpec spec, FeatureEntry entry) throws ProvisioningException {
+        ResolvedFeatureId id = null;
+        if (entry.idParams != null) {
+            final Map<String, Object> idParams = new HashMap<>(entry.idParams.size());
+            for (Map.Entry<String, String> param : entry.idParams.entrySet()) {
+                idParams.put(param.getKey(), spec.paramFromString(param.getKey(), param.getValue()));
+            }
+            id = new ResolvedFeatureId(spec.id, idParams, entry.child == 0 ? null : entry.child == 2);
+        }
+        final ResolvedFeature feature = new ResolvedFeature(id, spec, entry.includeNo);
+        feature.deps = Collections.emptyMap();
+        for (Map.Entry<String, String> param : entry.params.entrySet()) {
+            if (!feature.params.containsKey(param.getKey())) {
+                feature.writableParams().put(param.getKey(), param.getValue() == null ? null : spec.paramFromString(param.getKey(), param.getValue()));
+            }
+        }
+        if ((entry.flags & BATCH_START) > 0) {
+            feature.startBatch();
+        }
+        if ((entry.flags & BATCH_END) > 0) {
+            feature.endBatch();
+        }
+        if ((entry.flags & BRANCH_START) > 0) {
+            feature.startBranch();
+        }
+        if ((entry.flags & BRANCH_END) > 0) {
+            feature.endBranch();
+        }
+        return feature;
+    }
+
+    private static void writeFeaturePack(DataOutputStream out, FeaturePackRuntimeBuilder fp, Map<ProducerSpec, Integer> fpIndex) throws IOException {
+        final Map<String, ResolvedFeatureSpec> featureSpecs = fp.featureSpecs == null ? Collections.emptyMap() : fp.featureSpecs;
+        out.writeInt(featureSpecs.size());
+        for (String name : featureSpecs.keySet()) {
+            writeString(out, name);
+        }
+        out.writeInt(fp.pkgBuilders.size());
+        for (PackageRuntime.Builder pkg : fp.pkgBuilders.values()) {
+            writeString(out, pkg.spec.getName());
+            out.writeInt(pkg.id);
+            out.writeInt(pkg.getStatus());
+            out.writeInt(pkg.type);
+            writePackageRefs(out, pkg.getRequiredDeps(), fpIndex);
+            writePackageRefs(out, pkg.getOptionalDeps(), fpIndex);
+        }
+        out.writeInt(fp.pkgOrder.size());
+        for (String name : fp.pkgOrder) {
+            writeString(out, name);
+        }
+    }
+
+    private static FeaturePackEntry readFeaturePack(DataInputStream in) throws IOException {
+        int i = in.readInt();
+        final List<String> featureSpecs = new ArrayList<>(i);
+        while (i-- > 0) {
+            featureSpecs.add(readString(in));
+        }
+        i = in.readInt();
+        final List<PackageEntry> packages = new ArrayList<>(i);
+        while (i-- > 0) {
+            packages.add(new PackageEntry(readString(in), in.readInt(), in.readInt(), in.readInt(), readPackageRefs(in), readPackageRefs(in)));
+        }
+        i = in.readInt();
+        final List<String> pkgOrder = new ArrayList<>(i);
+        while (i-- > 0) {
+            pkgOrder.add(readString(in));
+        }
+        return new FeaturePackEntry(featureSpecs, packages, pkgOrder);
+    }
+
+    private static void writePackageRefs(DataOutputStream out, List<PackageRuntime.Builder> deps, Map<ProducerSpec, Integer> fpIndex) throws IOException {
+        out.writeInt(deps.size());
+        for (PackageRuntime.Builder dep : deps) {
+            out.writeInt(fpIndex.get(dep.fp.producer));
+            writeString(out, dep.spec.getName());
+        }
+    }
+
+    private static List<PackageRef> readPackageRefs(DataInputStream in) throws IOException {
+        int i = in.readInt();
+        if (i == 0) {
+            return Collections.emptyList();
+        }
+        final List<PackageRef> refs = new ArrayList<>(i);
+        while (i-- > 0) {
+            refs.add(new PackageRef(in.readInt(), readString(in)));
+        }
+        return refs;
+    }
+
+    private static void writeConfig(DataOutputStream out, ResolvedConfig config, Map<ProducerSpec, Integer> fpIndex) throws IOException, ProvisioningException {
+        writeConfigId(out, config.id);
+        writeStringMap(out, config.getProperties());
+        out.writeInt(config.getConfigDeps().size());
+        for (Map.Entry<String, ConfigId> dep : config.getConfigDeps().entrySet()) {
+            writeString(out, dep.getKey());
+            writeConfigId(out, dep.getValue());
+        }
+        out.writeInt(config.getLayers().size());
+        for (ConfigId layer : config.getLayers()) {
+            writeConfigId(out, layer);
+        }
+        final List<ResolvedFeature> features = config.getResolvedFeatures();
+        out.writeInt(features.size());
+        for (ResolvedFeature feature : features) {
+            final ResolvedFeatureSpec spec = feature.spec;
+            out.writeInt(fpIndex.get(spec.id.producer));
+            writeString(out, spec.id.getName());
+            out.writeInt(feature.includeNo);
+            int flags = 0;
+            if (feature.isBatchStart()) {
+                flags |= BATCH_START;
+            }
+            if (feature.isBatchEnd()) {
+                flags |= BATCH_END;
+            }
+            if (feature.isBranchStart()) {
+                flags |= BRANCH_START;
+            }
+            if (feature.isBranchEnd()) {
+                flags |= BRANCH_END;
+            }
+            out.writeInt(flags);
+            if (feature.id == null) {
+                out.writeBoolean(false);
+            } else {
+                out.writeBoolean(true);
+                out.writeByte(feature.id.child == null ? 0 : feature.id.child ? 2 : 1);
+                writeParams(out, spec, feature.id.params);
+            }
+            writeParams(out, spec, feature.params);
+        }
+    }
+
+    private static ConfigEntry readConfig(DataInputStream in) throws IOException {
+        final ConfigId id = readConfigId(in);
+        final Map<String, String> props = readStringMap(in);
+        int i = in.readInt();
+        Map<String, ConfigId> configDeps = Collections.emptyMap();
+        while (i-- > 0) {
+            configDeps = CollectionUtils.putLinked(configDeps, readString(in), readConfigId(in));
+        }
+        i = in.readInt();
+        final List<ConfigId> layers = new ArrayList<>(i);
+        while (i-- > 0) {
+            layers.add(readConfigId(in));
+        }
+        i = in.readInt();
+        final List<FeatureEntry> features = new ArrayList<>(i);
+        while (i-- > 0) {
+            final int fp = in.readInt();
+            final String spec = readString(in);
+            final int includeNo = in.readInt();
+            final int flags = in.readInt();
+            byte child = 0;
+            Map<String, String> idParams = null;
+            if (in.readBoolean()) {
+                child = in.readByte();
+                idParams = readStringMap(in);
+            }
+            features.add(new FeatureEntry(fp, spec, includeNo, flags, child, idParams, readStringMap(in)));
+        }
+        return new ConfigEntry(id, props, configDeps, layers, features);
+    }
+
+    private static void writeParams(DataOutputStream out, ResolvedFeatureSpec spec, Map<String, Object> params) throws IOException, ProvisioningException {
+        out.writeInt(params.size());
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            writeString(out, param.getKey());
+            writeString(out, param.getValue() == null ? null : spec.paramToString(param.getKey(), param.getValue()));
+        }
+    }
+
+    private static void writeConfigId(DataOutputStream out, ConfigId id) throws IOException {
+        writeString(out, id.getModel());
+        writeString(out, id.getName());
+    }
+
+    private static ConfigId readConfigId(DataInputStream in) throws IOException {
+        return new ConfigId(readString(in), readString(in));
+    }
+
+    private static void writeStringMap(DataOutputStream out, Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readStringMap(DataInputStream in) throws IOException {
+        int i = in.readInt();
+        if (i == 0) {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> map = new LinkedHashMap<>(i);
+        while (i-- > 0) {
+            map.put(readString(in), readString(in));
+        }
+        return map;
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Digests the relative paths and the content of the feature-pack files the resolution depends on,
+     * skipping the package content, the plugins and the resources.
+     */
+    private static void hashMetadata(DataOutputStream out, Path fpDir) throws IOException {
+        final Map<String, Path> files = new TreeMap<>();
+        Files.walkFileTree(fpDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                final Path relative = fpDir.relativize(dir);
+                final int count = relative.getNameCount();
+                if (count == 1) {
+                    final String name = relative.toString();
+                    if (name.equals(Constants.PLUGINS) || name.equals(Constants.RESOURCES)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                } else if (count == 3 && relative.getName(0).toString().equals(Constants.PACKAGES)
+                        && relative.getName(2).toString().equals(Constants.CONTENT)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                files.put(fpDir.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/"), file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        out.writeInt(files.size());
+        for (Map.Entry<String, Path> file : files.entrySet()) {
+            writeString(out, file.getKey());
+            final long size = Files.size(file.getValue());
+            out.writeLong(size);
+            Files.copy(file.getValue(), out);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.runtime;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.jboss.galleon.spec.CapabilitySpec;
+
+/**
+ * A capability spec with the dot-separated segments of its static elements split
+ * once, so that it can be resolved against a {@link CapabilityIndex}.
+ */
+final class ResolvedCapabilitySpec {
+
+    static List<ResolvedCapabilitySpec> resolve(Collection<CapabilitySpec> specs) {
+        if(specs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final ResolvedCapabilitySpec[] resolved = new ResolvedCapabilitySpec[specs.size()];
+        int i = 0;
+        for(CapabilitySpec spec : specs) {
+            resolved[i++] = new ResolvedCapabilitySpec(spec);
+        }
+        return resolved.length == 1 ? Collections.singletonList(resolved[0]) : Collections.unmodifiableList(Arrays.asList(resolved));
+    }
+
+    final CapabilitySpec spec;
+    // segments of the static elements, null for the dynamic ones
+    private final String[][] staticSegments;
+
+    private ResolvedCapabilitySpec(CapabilitySpec spec) {
+        this.spec = spec;
+        staticSegments = new String[spec.getElementsTotal()][];
+        for(int i = 0; i < staticSegments.length; ++i) {
+            if(spec.isStaticElement(i)) {
+                staticSegments[i] = CapabilityIndex.split(spec.getElement(i));
+            }
+        }
+    }
+
+    boolean isStatic() {
+        return spec.isStatic();
+    }
+
+    int getElementsTotal() {
+        return staticSegments.length;
+    }
+
+    String getElement(int i) {
+        return spec.getElement(i);
+    }
+
+    String[] getStaticSegments(int i) {
+        return staticSegments[i];
+    }
+
+    @Override
+    public String toString() {
+        return spec.toString();
+    }
+}
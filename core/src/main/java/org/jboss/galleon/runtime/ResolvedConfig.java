@@ -51,6 +51,14 @@ public class ResolvedConfig implements ProvisionedConfig {
         layers = Collections.unmodifiableList(configStack.getIncludedLayers());
     }
 
+    ResolvedConfig(ConfigId id, Map<String, String> props, Map<String, ConfigId> configDeps, List<ConfigId> layers, List<ResolvedFeature> features) {
+        this.id = id;
+        this.props = CollectionUtils.unmodifiable(props);
+        this.configDeps = CollectionUtils.unmodifiable(configDeps);
+        this.features = CollectionUtils.unmodifiable(features);
+        this.layers = Collections.unmodifiableList(layers);
+    }
+
     /* (non-Javadoc)
      * @see org.jboss.galleon.state.ProvisionedConfig#getName()
      */
@@ -153,6 +161,10 @@ public class ResolvedConfig implements ProvisionedConfig {
         handler.done();
     }
 
+    List<ResolvedFeature> getResolvedFeatures() {
+        return features;
+    }
+
     @Override
     public int size() {
         return features.size();
@@ -70,7 +70,7 @@ public class ResolvedFeature extends CapabilityProvider implements ProvisionedFe
         this.includeNo = includeNo;
         this.id = id;
         this.spec = spec;
-        params = id == null ? new HashMap<>() : new HashMap<>(id.params);
+        params = id == null ? Collections.emptyMap() : id.params;
     }
 
     ResolvedFeature(ResolvedFeatureId id, ResolvedFeatureSpec spec, Map<String, Object> params, Map<ResolvedFeatureId, FeatureDependencySpec> resolvedDeps, int includeNo)
@@ -79,7 +79,7 @@ public class ResolvedFeature extends CapabilityProvider implements ProvisionedFe
         this.id = id;
         this.spec = spec;
         this.deps = resolvedDeps;
-        this.params = id == null ? new HashMap<>() : new HashMap<>(id.params);
+        this.params = id == null ? Collections.emptyMap() : id.params;
         if (!params.isEmpty()) {
             for (Map.Entry<String, Object> entry : params.entrySet()) {
                 setParam(entry.getKey(), entry.getValue(), true);
@@ -110,10 +110,21 @@ public class ResolvedFeature extends CapabilityProvider implements ProvisionedFe
                 }
                 throw new ProvisioningDescriptionException(Errors.nonNillableParameterIsNull(this, entry.getKey()));
             }
-            params.put(entry.getKey(), param.defaultValue);
+            writableParams().put(entry.getKey(), param.defaultValue);
         }
     }
 
+    /**
+     * The parameters of the feature start as the parameters of its ID and are copied
+     * once they are modified.
+     */
+    Map<String, Object> writableParams() {
+        if(!(params instanceof HashMap)) {
+            params = new HashMap<>(params);
+        }
+        return params;
+    }
+
     boolean isFree() {
         return orderingState == FREE;
     }
@@ -136,7 +147,7 @@ public class ResolvedFeature extends CapabilityProvider implements ProvisionedFe
         }
         orderingState = ORDERED;
         provided(branch);
-        spec.provided(branch);
+        specFeatures.provided(branch);
     }
 
     void free() {
@@ -294,7 +305,7 @@ public class ResolvedFeature extends CapabilityProvider implements ProvisionedFe
                 return;
             }
             unsetParams = CollectionUtils.remove(unsetParams, name);
-            params.put(name, value);
+            writableParams().put(name, value);
             return;
         }
 
@@ -303,22 +314,22 @@ public class ResolvedFeature extends CapabilityProvider implements ProvisionedFe
                 return;
             }
             resetParams = CollectionUtils.remove(resetParams, name);
-            params.put(name, value);
+            writableParams().put(name, value);
             return;
         }
 
         final Object prevValue = params.get(name);
         if(prevValue == null) {
-            params.put(name, value);
+            writableParams().put(name, value);
             return;
         }
         final FeatureParameterType valueType = spec.getTypeForParameter(name);
         if(valueType.isMergeable()) {
-            params.put(name, overwrite ? valueType.merge(prevValue, value) : valueType.merge(value, prevValue));
+            writableParams().put(name, overwrite ? valueType.merge(prevValue, value) : valueType.merge(value, prevValue));
             return;
         }
         if(overwrite) {
-            params.put(name, value);
+            writableParams().put(name, value);
         }
     }
 
@@ -342,7 +353,7 @@ public class ResolvedFeature extends CapabilityProvider implements ProvisionedFe
             }
             resetParams = CollectionUtils.remove(resetParams, name);
         } else if (overwrite) {
-            params.remove(name);
+            writableParams().remove(name);
         } else if (params.containsKey(name)) {
             return;
         }
@@ -371,7 +382,7 @@ public class ResolvedFeature extends CapabilityProvider implements ProvisionedFe
         if(unsetParams.contains(name)) {
             unsetParams = CollectionUtils.remove(unsetParams, name);
         } else {
-            params.remove(name);
+            writableParams().remove(name);
         }
         resetParams = CollectionUtils.add(resetParams, name);
     }
@@ -20,7 +20,6 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.jboss.galleon.Constants;
 import org.jboss.galleon.ProvisioningDescriptionException;
 import org.jboss.galleon.universe.FeaturePackLocation;
 import org.jboss.galleon.universe.FeaturePackLocation.ProducerSpec;
@@ -103,7 +102,7 @@ public class ResolvedFeatureId {
             if(equals < 0 || equals == str.length() - 1) {
                 formatException(str);
             }
-            return new ResolvedFeatureId(specId, Collections.singletonMap(str.substring(colon + 1, equals), str.substring(equals + 1)));
+            return new ResolvedFeatureId(specId, IdParams.of(str.substring(colon + 1, equals), str.substring(equals + 1)), null);
         }
 
         final Map<String, Object> params = new HashMap<>();
@@ -177,7 +176,7 @@ public class ResolvedFeatureId {
             if(equals < 0 || equals == str.length() - 1) {
                 formatException(str);
             }
-            return new ResolvedFeatureId(specId, Collections.singletonMap(str.substring(nextIndex, equals), str.substring(equals + 1)));
+            return new ResolvedFeatureId(specId, IdParams.of(str.substring(nextIndex, equals), str.substring(equals + 1)), null);
         }
 
         final Map<String, Object> params = new HashMap<>(2);
@@ -205,15 +204,15 @@ public class ResolvedFeatureId {
     }
 
     public static ResolvedFeatureId create(ProducerSpec producer, String spec, String param, String value) {
-        return new ResolvedFeatureId(new ResolvedSpecId(producer, spec), Collections.singletonMap(param, value));
+        return new ResolvedFeatureId(new ResolvedSpecId(producer, spec), IdParams.of(param, value), null);
     }
 
     public static ResolvedFeatureId create(ResolvedSpecId specId, String param, String value) {
-        return new ResolvedFeatureId(specId, Collections.singletonMap(param, value));
+        return new ResolvedFeatureId(specId, IdParams.of(param, value), null);
     }
 
     final ResolvedSpecId specId;
-    final Map<String, Object> params;
+    final IdParams params;
     final Boolean child;
     private final int hash;
 
@@ -222,17 +221,12 @@ public class ResolvedFeatureId {
     }
 
     ResolvedFeatureId(ResolvedSpecId specId, Map<String, Object> params, Boolean child) {
+        this(specId, IdParams.of(params), child);
+    }
+
+    ResolvedFeatureId(ResolvedSpecId specId, IdParams params, Boolean child) {
         this.specId = specId;
-        Map<String, Object> filtered = Collections.emptyMap(); // TODO
-        for(Map.Entry<String, Object> entry : params.entrySet()) {
-            if(!Constants.GLN_UNDEFINED.equals(entry.getValue())) {
-                filtered = CollectionUtils.put(filtered, entry.getKey(), entry.getValue());
-            }
-        }
-        if(filtered.isEmpty()) {
-            filtered = params;
-        }
-        this.params = CollectionUtils.unmodifiable(filtered);
+        this.params = params.withoutUndefined();
         this.child = child;
 
         final int prime = 31;
@@ -268,10 +262,9 @@ public class ResolvedFeatureId {
         if (getClass() != obj.getClass())
             return false;
         ResolvedFeatureId other = (ResolvedFeatureId) obj;
-        if (params == null) {
-            if (other.params != null)
-                return false;
-        } else if (!params.equals(other.params))
+        if (hash != other.hash)
+            return false;
+        if (!params.equals(other.params))
             return false;
         if (specId == null) {
             if (other.specId != null)
@@ -17,6 +17,7 @@
 package org.jboss.galleon.runtime;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -46,13 +47,17 @@ import org.jboss.galleon.util.StringUtils;
  *
  * @author Alexey Loubyansky
  */
-public class ResolvedFeatureSpec extends CapabilityProvider {
+public class ResolvedFeatureSpec {
 
     final ResolvedSpecId id;
     final FeatureSpec xmlSpec;
     private Map<String, ResolvedFeatureParam> resolvedParamSpecs = Collections.emptyMap();
     private Map<String, ResolvedFeatureSpec> resolvedRefTargets;
     private Map<ResolvedFeatureId, FeatureDependencySpec> resolvedDeps;
+    private final String[] idParamNames;
+    private final int[] idParamPositions;
+    private final List<ResolvedCapabilitySpec> providedCaps;
+    private final List<ResolvedCapabilitySpec> requiredCaps;
 
     final boolean parentChildrenBranch;
     final String branchId;
@@ -70,6 +75,24 @@ public class ResolvedFeatureSpec extends CapabilityProvider {
             }
         }
 
+        if(xmlSpec.hasId()) {
+            final List<FeatureParameterSpec> idParams = xmlSpec.getIdParams();
+            final String[] names = new String[idParams.size()];
+            for(int i = 0; i < names.length; ++i) {
+                names[i] = idParams.get(i).getName();
+            }
+            idParamNames = IdParams.names(names);
+            idParamPositions = new int[names.length];
+            for(int i = 0; i < names.length; ++i) {
+                idParamPositions[i] = Arrays.binarySearch(idParamNames, names[i]);
+            }
+        } else {
+            idParamNames = null;
+            idParamPositions = null;
+        }
+        providedCaps = ResolvedCapabilitySpec.resolve(xmlSpec.getProvidedCapabilities());
+        requiredCaps = ResolvedCapabilitySpec.resolve(xmlSpec.getRequiredCapabilities());
+
         final FeatureAnnotation newFb = xmlSpec.getAnnotation(FeatureAnnotation.FEATURE_BRANCH);
         if(newFb != null) {
             branchId = newFb.getElement(FeatureAnnotation.FEATURE_BRANCH_ID);
@@ -131,6 +154,14 @@ public class ResolvedFeatureSpec extends CapabilityProvider {
         return xmlSpec;
     }
 
+    List<ResolvedCapabilitySpec> getProvidedCapabilities() {
+        return providedCaps;
+    }
+
+    List<ResolvedCapabilitySpec> getRequiredCapabilities() {
+        return requiredCaps;
+    }
+
     public boolean hasAnnotations() {
         return xmlSpec.hasAnnotations();
     }
@@ -201,7 +232,7 @@ public class ResolvedFeatureSpec extends CapabilityProvider {
         return resolvedParams;
     }
 
-    private Object paramFromString(String name, String value) throws ProvisioningException {
+    Object paramFromString(String name, String value) throws ProvisioningException {
         try {
             return getResolvedParam(name).type.fromString(value);
         } catch (ParameterTypeConversionException e) {
@@ -312,7 +343,7 @@ public class ResolvedFeatureSpec extends CapabilityProvider {
                 }
             }
 
-            return new ResolvedFeatureId(id, resolvedParams);
+            return new ResolvedFeatureId(id, toIdParams(resolvedParams), null);
         } catch(ProvisioningException e) {
             final StringBuilder buf = new StringBuilder();
             buf.append("Failed to initialize foreign key parameters of ").append(id).append(" spec referencing feature ").append(parentId).append(" with parameters ");
@@ -326,15 +357,29 @@ public class ResolvedFeatureSpec extends CapabilityProvider {
             return null;
         }
         final List<FeatureParameterSpec> idSpecs = xmlSpec.getIdParams();
-        if(idSpecs.size() == 1) {
-            final FeatureParameterSpec idSpec = idSpecs.get(0);
-            return new ResolvedFeatureId(id, Collections.singletonMap(idSpec.getName(), resolveIdParamValue(params, idSpec)));
+        final Object[] values = new Object[idParamNames.length];
+        for(int i = 0; i < values.length; ++i) {
+            values[idParamPositions[i]] = resolveIdParamValue(params, idSpecs.get(i));
         }
-        final Map<String, Object> resolvedParams = new HashMap<>(idSpecs.size());
-        for(FeatureParameterSpec param : idSpecs) {
-            resolvedParams.put(param.getName(), resolveIdParamValue(params, param));
+        return new ResolvedFeatureId(id, new IdParams(idParamNames, values), null);
+    }
+
+    /**
+     * Converts the ID parameters to their compact form sharing the parameter names of the spec.
+     */
+    private IdParams toIdParams(Map<String, Object> params) {
+        if(idParamNames == null || params.size() != idParamNames.length) {
+            return IdParams.of(params);
         }
-        return new ResolvedFeatureId(id, resolvedParams);
+        final Object[] values = new Object[idParamNames.length];
+        for(int i = 0; i < values.length; ++i) {
+            final Object value = params.get(idParamNames[i]);
+            if(value == null) {
+                return IdParams.of(params);
+            }
+            values[i] = value;
+        }
+        return new IdParams(idParamNames, values);
     }
 
     private Object resolveIdParamValue(Map<String, String> params, final FeatureParameterSpec param) throws ProvisioningException {
@@ -395,6 +440,9 @@ public class ResolvedFeatureSpec extends CapabilityProvider {
     }
 
     void resolveRefMappings(ProvisioningRuntimeBuilder rt) throws ProvisioningException {
+        if(resolvedRefTargets != null) {
+            return;
+        }
         if(!xmlSpec.hasFeatureRefs()) {
             resolvedRefTargets = Collections.emptyMap();
             return;
@@ -615,7 +663,7 @@ public class ResolvedFeatureSpec extends CapabilityProvider {
                     // TODO
                     continue;
                 }
-                refIds.add(new ResolvedFeatureId(targetSpec.id, idParams, child));
+                refIds.add(new ResolvedFeatureId(targetSpec.id, targetSpec.toIdParams(idParams), child));
             }
             if(refIds.isEmpty()) {
                 assertRefNotNillable(feature, refSpec);
@@ -626,7 +674,7 @@ public class ResolvedFeatureSpec extends CapabilityProvider {
             assertRefNotNillable(feature, refSpec);
             return Collections.emptyList();
         }
-        return Collections.singletonList(new ResolvedFeatureId(targetSpec.id, params, child));
+        return Collections.singletonList(new ResolvedFeatureId(targetSpec.id, targetSpec.toIdParams(params), child));
     }
 
     private void assertRefNotNillable(final ResolvedFeature feature, final FeatureReferenceSpec refSpec)
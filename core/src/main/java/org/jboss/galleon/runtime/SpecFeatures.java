@@ -25,7 +25,7 @@ import org.jboss.galleon.ProvisioningException;
  *
  * @author Alexey Loubyansky
  */
-class SpecFeatures {
+class SpecFeatures extends CapabilityProvider {
 
     private static final byte FREE = 0;
     private static final byte PROCESSING = 1;
@@ -59,6 +59,10 @@ public class SpecOnlyConfigArranger {
 
     private void doOrder(ProvisioningRuntimeBuilder rt) throws ProvisioningException {
         for (SpecFeatures features : specFeatures.values()) {
+            // features merged from a model-only config may also belong to other configs
+            for(ResolvedFeature feature : features.getFeatures()) {
+                feature.setSpecFeatures(features);
+            }
             // resolve references
             features.spec.resolveRefMappings(rt);
             // resolve and register capability providers
@@ -117,6 +117,18 @@ public class CapabilitySpec {
         return elems.length == 1 && isElemStatic[0];
     }
 
+    public int getElementsTotal() {
+        return elems.length;
+    }
+
+    public String getElement(int i) {
+        return elems[i];
+    }
+
+    public boolean isStaticElement(int i) {
+        return isElemStatic[i];
+    }
+
     public boolean resolve(CapabilityResolver resolver) throws ProvisioningException {
         for(int i = 0; i < elems.length; ++i) {
             if(!resolver.resolveElement(elems[i], isElemStatic[i])) {
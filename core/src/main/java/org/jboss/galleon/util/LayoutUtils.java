@@ -111,4 +111,12 @@ public class LayoutUtils {
     public static Path getHashesDir(Path home) {
         return home.resolve(Constants.PROVISIONED_STATE_DIR).resolve(Constants.HASHES);
     }
+
+    public static Path getHashesIndexFile(Path home) {
+        return home.resolve(Constants.PROVISIONED_STATE_DIR).resolve(Constants.HASHES_INDEX);
+    }
+
+    public static Path getHashOriginsFile(Path home) {
+        return home.resolve(Constants.PROVISIONED_STATE_DIR).resolve(Constants.HASH_ORIGINS);
+    }
 }
@@ -17,8 +17,11 @@
 package org.jboss.galleon.xml;
 
 import java.util.Arrays;
-import org.jboss.galleon.CoreVersion;
+import java.util.Iterator;
+
+import javax.xml.stream.XMLStreamException;
 
+import org.jboss.galleon.CoreVersion;
 import org.jboss.galleon.config.FeaturePackConfig;
 import org.jboss.galleon.spec.FeaturePackPlugin;
 import org.jboss.galleon.spec.FeaturePackSpec;
@@ -26,6 +29,8 @@ import org.jboss.galleon.spec.FeaturePackSpec.Family;
 import org.jboss.galleon.xml.FeaturePackXmlParser40.Attribute;
 import org.jboss.galleon.xml.FeaturePackXmlParser40.Element;
 import org.jboss.galleon.xml.util.ElementNode;
+import org.jboss.galleon.xml.util.ElementWriter;
+import org.jboss.galleon.xml.util.Node;
 
 /**
  *
@@ -42,77 +47,109 @@ public class FeaturePackXmlWriter extends BaseXmlWriter<FeaturePackSpec> {
     private FeaturePackXmlWriter() {
     }
 
-    protected ElementNode toElement(FeaturePackSpec fpSpec) {
-        final ElementNode fp = addElement(null, Element.FEATURE_PACK);
-        addAttribute(fp, Attribute.LOCATION, fpSpec.getFPID().toString());
-        addAttribute(fp, Attribute.GALLEON_MIN_VERSION, CoreVersion.getVersion());
-        if(fpSpec.hasFamily()) {
-            final ElementNode familyE = addElement(fp, Element.FAMILY);
-            addAttribute(familyE, Attribute.NAME, fpSpec.getFamily().getName());
-            for(Family.Criteria criteria : fpSpec.getFamily().getCriteria()) {
-                final ElementNode criteriaE = addElement(familyE, Element.CRITERIA);
-                addAttribute(criteriaE, Attribute.NAME, criteria.getName());
-                addAttribute(criteriaE, Attribute.INHERITED, (criteria.isInherited() ? "true" : "false"));
-            }
-        }
+    @Override
+    protected ElementNode toElement(FeaturePackSpec fpSpec) throws XMLStreamException {
+        return buildElement(fpSpec);
+    }
+
+    @Override
+    protected void writeElement(FeaturePackSpec fpSpec, ElementWriter writer) throws XMLStreamException {
+        startElement(writer, Element.FEATURE_PACK);
+        addAttribute(writer, Attribute.LOCATION, fpSpec.getFPID().toString());
+        addAttribute(writer, Attribute.GALLEON_MIN_VERSION, CoreVersion.getVersion());
         if (fpSpec.getConfigStability() != null) {
-            addAttribute(fp, Attribute.CONFIG_STABILITY_LEVEL, fpSpec.getConfigStability().toString());
+            addAttribute(writer, Attribute.CONFIG_STABILITY_LEVEL, fpSpec.getConfigStability().toString());
         }
         if (fpSpec.getPackageStability() != null) {
-            addAttribute(fp, Attribute.PACKAGE_STABILITY_LEVEL, fpSpec.getPackageStability().toString());
+            addAttribute(writer, Attribute.PACKAGE_STABILITY_LEVEL, fpSpec.getPackageStability().toString());
+        }
+        if(fpSpec.hasFamily()) {
+            startElement(writer, Element.FAMILY);
+            addAttribute(writer, Attribute.NAME, fpSpec.getFamily().getName());
+            for(Family.Criteria criteria : fpSpec.getFamily().getCriteria()) {
+                startElement(writer, Element.CRITERIA);
+                addAttribute(writer, Attribute.NAME, criteria.getName());
+                addAttribute(writer, Attribute.INHERITED, (criteria.isInherited() ? "true" : "false"));
+                writer.endElement();
+            }
+            writer.endElement();
         }
-        ProvisioningXmlWriter.writeUniverseSpecs(fpSpec, fp);
+        // the universes and the config customizations are small, they are written as trees
+        ElementNode children = addElement(null, Element.FEATURE_PACK);
+        ProvisioningXmlWriter.writeUniverseSpecs(fpSpec, children);
+        writeChildren(children, writer);
 
         if(fpSpec.isPatch()) {
-            final ElementNode patchFor = addElement(fp, Element.PATCH);
-            addAttribute(patchFor, Attribute.FOR, fpSpec.getPatchFor().toString());
+            startElement(writer, Element.PATCH);
+            addAttribute(writer, Attribute.FOR, fpSpec.getPatchFor().toString());
+            writer.endElement();
         }
 
         if (fpSpec.hasTransitiveDeps()) {
-            final ElementNode transitives = addElement(fp, Element.TRANSITIVE);
+            startElement(writer, Element.TRANSITIVE);
             for(FeaturePackConfig dep : fpSpec.getTransitiveDeps()) {
-                final ElementNode depElement = addElement(transitives, Element.DEPENDENCY);
+                final ElementNode depElement = addElement(null, Element.DEPENDENCY);
                 ProvisioningXmlWriter.writeFeaturePackConfig(depElement,
                         fpSpec.getUserConfiguredLocation(dep.getLocation()), dep, fpSpec.originOf(dep.getLocation().getProducer()));
+                writer.write(depElement);
             }
+            writer.endElement();
         }
 
         if (fpSpec.hasFeaturePackDeps()) {
-            final ElementNode deps = addElement(fp, Element.DEPENDENCIES);
+            startElement(writer, Element.DEPENDENCIES);
             for (FeaturePackConfig dep : fpSpec.getFeaturePackDeps()) {
-                final ElementNode depElement = addElement(deps, Element.DEPENDENCY);
+                final ElementNode depElement = addElement(null, Element.DEPENDENCY);
                 ProvisioningXmlWriter.writeFeaturePackConfig(depElement,
                         fpSpec.getUserConfiguredLocation(dep.getLocation()), dep, fpSpec.originOf(dep.getLocation().getProducer()));
+                writer.write(depElement);
             }
+            writer.endElement();
         }
 
-        ProvisioningXmlWriter.writeConfigCustomizations(fp, Element.FEATURE_PACK.getNamespace(), fpSpec);
+        children = addElement(null, Element.FEATURE_PACK);
+        ProvisioningXmlWriter.writeConfigCustomizations(children, Element.FEATURE_PACK.getNamespace(), fpSpec);
+        writeChildren(children, writer);
 
         if (fpSpec.hasDefaultPackages()) {
-            final ElementNode pkgs = addElement(fp, Element.DEFAULT_PACKAGES);
+            startElement(writer, Element.DEFAULT_PACKAGES);
             final String[] pkgNames = fpSpec.getDefaultPackageNames().toArray(new String[0]);
             Arrays.sort(pkgNames);
             for (String name : pkgNames) {
-                addAttribute(addElement(pkgs, Element.PACKAGE), Attribute.NAME, name);
+                startElement(writer, Element.PACKAGE);
+                addAttribute(writer, Attribute.NAME, name);
+                writer.endElement();
             }
+            writer.endElement();
         }
 
         if(fpSpec.hasPlugins()) {
-            final ElementNode plugins = addElement(fp, Element.PLUGINS);
+            startElement(writer, Element.PLUGINS);
             for(FeaturePackPlugin plugin : fpSpec.getPlugins().values()) {
-                final ElementNode pluginE = addElement(plugins, Element.PLUGIN);
-                addAttribute(pluginE, Attribute.ID, plugin.getId());
-                addAttribute(pluginE, Attribute.LOCATION, plugin.getLocation());
+                startElement(writer, Element.PLUGIN);
+                addAttribute(writer, Attribute.ID, plugin.getId());
+                addAttribute(writer, Attribute.LOCATION, plugin.getLocation());
+                writer.endElement();
             }
+            writer.endElement();
         }
 
         if (fpSpec.hasSystemPaths()) {
-            final ElementNode systemPaths = addElement(fp, Element.SYSTEM_PATHS);
+            startElement(writer, Element.SYSTEM_PATHS);
             for (String systemPath : fpSpec.getSystemPaths()) {
-                final ElementNode depElement = addElement(systemPaths, Element.SYSTEM_PATH);
-                addAttribute(depElement, Attribute.PATH, systemPath);
+                startElement(writer, Element.SYSTEM_PATH);
+                addAttribute(writer, Attribute.PATH, systemPath);
+                writer.endElement();
             }
+            writer.endElement();
+        }
+        writer.endElement();
+    }
+
+    private static void writeChildren(ElementNode parent, ElementWriter writer) throws XMLStreamException {
+        final Iterator<Node> children = parent.getChildren();
+        while(children.hasNext()) {
+            writer.write(children.next());
         }
-        return fp;
     }
 }
@@ -20,6 +20,8 @@ package org.jboss.galleon.xml;
 import java.util.Map;
 import java.util.Set;
 
+import javax.xml.stream.XMLStreamException;
+
 import org.jboss.galleon.Constants;
 import org.jboss.galleon.spec.CapabilitySpec;
 import org.jboss.galleon.spec.FeatureAnnotation;
@@ -30,6 +32,7 @@ import org.jboss.galleon.spec.FeatureSpec;
 import org.jboss.galleon.xml.FeatureSpecXmlParser20.Attribute;
 import org.jboss.galleon.xml.FeatureSpecXmlParser20.Element;
 import org.jboss.galleon.xml.util.ElementNode;
+import org.jboss.galleon.xml.util.ElementWriter;
 
 /**
  *
@@ -48,111 +51,132 @@ public class FeatureSpecXmlWriter extends BaseXmlWriter<FeatureSpec> {
     private FeatureSpecXmlWriter() {
     }
 
-    protected ElementNode toElement(FeatureSpec featureSpec) {
+    @Override
+    protected ElementNode toElement(FeatureSpec featureSpec) throws XMLStreamException {
+        return buildElement(featureSpec);
+    }
 
-        final ElementNode specE = addElement(null, Element.FEATURE_SPEC);
-        addAttribute(specE, Attribute.NAME, featureSpec.getName());
+    @Override
+    protected void writeElement(FeatureSpec featureSpec, ElementWriter writer) throws XMLStreamException {
+        startElement(writer, Element.FEATURE_SPEC);
+        addAttribute(writer, Attribute.NAME, featureSpec.getName());
         if (featureSpec.getStability() != null) {
-            addAttribute(specE, Attribute.STABILITY, featureSpec.getStability().toString());
+            addAttribute(writer, Attribute.STABILITY, featureSpec.getStability().toString());
         }
         if(featureSpec.hasAnnotations()) {
             for (FeatureAnnotation fa : featureSpec.getAnnotations()) {
-                final ElementNode annotationE = addElement(specE, Element.ANNOTATION);
-                addAttribute(annotationE, Attribute.NAME, fa.getName());
+                startElement(writer, Element.ANNOTATION);
+                addAttribute(writer, Attribute.NAME, fa.getName());
                 if (fa.hasElements()) {
                     for (Map.Entry<String, String> entry : fa.getElements().entrySet()) {
-                        final ElementNode elemE = addElement(annotationE, Element.ELEM);
-                        addAttribute(elemE, Attribute.NAME, entry.getKey());
+                        startElement(writer, Element.ELEM);
+                        addAttribute(writer, Attribute.NAME, entry.getKey());
                         if (entry.getValue() != null) {
-                            addAttribute(elemE, Attribute.VALUE, entry.getValue());
+                            addAttribute(writer, Attribute.VALUE, entry.getValue());
                         }
+                        writer.endElement();
                     }
                 }
+                writer.endElement();
             }
         }
 
         if(featureSpec.providesCapabilities()) {
-            writeCaps(addElement(specE, Element.PROVIDES), featureSpec.getProvidedCapabilities());
+            startElement(writer, Element.PROVIDES);
+            writeCaps(writer, featureSpec.getProvidedCapabilities());
+            writer.endElement();
         }
         if(featureSpec.requiresCapabilities()) {
-            writeCaps(addElement(specE, Element.REQUIRES), featureSpec.getRequiredCapabilities());
+            startElement(writer, Element.REQUIRES);
+            writeCaps(writer, featureSpec.getRequiredCapabilities());
+            writer.endElement();
         }
 
         if(featureSpec.hasFeatureDeps()) {
-            final ElementNode depsE = addElement(specE, Element.DEPENDENCIES);
+            startElement(writer, Element.DEPENDENCIES);
             for(FeatureDependencySpec dep : featureSpec.getFeatureDeps()) {
-                final ElementNode depE = addElement(depsE, Element.DEPENDENCY);
-                addAttribute(depE, Attribute.FEATURE_ID, dep.getFeatureId().toString());
+                startElement(writer, Element.DEPENDENCY);
+                addAttribute(writer, Attribute.FEATURE_ID, dep.getFeatureId().toString());
                 if(dep.getOrigin() != null) {
-                    addAttribute(depE, Attribute.DEPENDENCY, dep.getOrigin());
+                    addAttribute(writer, Attribute.DEPENDENCY, dep.getOrigin());
                 }
                 if(dep.isInclude()) {
-                    addAttribute(depE, Attribute.INCLUDE, TRUE);
+                    addAttribute(writer, Attribute.INCLUDE, TRUE);
                 }
+                writer.endElement();
             }
+            writer.endElement();
         }
 
         if(featureSpec.hasFeatureRefs()) {
-            final ElementNode refsE = addElement(specE, Element.REFERENCES);
+            startElement(writer, Element.REFERENCES);
             for(FeatureReferenceSpec ref : featureSpec.getFeatureRefs()) {
-                final ElementNode refE = addElement(refsE, Element.REFERENCE);
+                startElement(writer, Element.REFERENCE);
                 final String feature = ref.getFeature().toString();
                 if(ref.getOrigin() != null) {
-                    addAttribute(refE, Attribute.DEPENDENCY, ref.getOrigin());
+                    addAttribute(writer, Attribute.DEPENDENCY, ref.getOrigin());
                 }
-                addAttribute(refE, Attribute.FEATURE, feature);
+                addAttribute(writer, Attribute.FEATURE, feature);
                 if(!feature.equals(ref.getName())) {
-                    addAttribute(refE, Attribute.NAME, ref.getName());
+                    addAttribute(writer, Attribute.NAME, ref.getName());
                 }
                 if(ref.isNillable()) {
-                    addAttribute(refE, Attribute.NILLABLE, TRUE);
+                    addAttribute(writer, Attribute.NILLABLE, TRUE);
                 }
                 if(ref.isInclude()) {
-                    addAttribute(refE, Attribute.INCLUDE, TRUE);
+                    addAttribute(writer, Attribute.INCLUDE, TRUE);
                 }
                 for(Map.Entry<String, String> mapping : ref.getMappedParams().entrySet()) {
-                    final ElementNode paramE = addElement(refE, Element.PARAMETER);
-                    addAttribute(paramE, Attribute.NAME, mapping.getKey());
-                    addAttribute(paramE, Attribute.MAPS_TO, mapping.getValue());
+                    startElement(writer, Element.PARAMETER);
+                    addAttribute(writer, Attribute.NAME, mapping.getKey());
+                    addAttribute(writer, Attribute.MAPS_TO, mapping.getValue());
+                    writer.endElement();
                 }
+                writer.endElement();
             }
+            writer.endElement();
         }
 
         if(featureSpec.hasParams()) {
-            final ElementNode paramsE = addElement(specE, Element.PARAMETERS);
+            startElement(writer, Element.PARAMETERS);
             for(FeatureParameterSpec paramSpec : featureSpec.getParams().values()) {
-                final ElementNode paramE = addElement(paramsE, Element.PARAMETER);
-                addAttribute(paramE, Attribute.NAME, paramSpec.getName());
+                startElement(writer, Element.PARAMETER);
+                addAttribute(writer, Attribute.NAME, paramSpec.getName());
                 if(paramSpec.isFeatureId()) {
-                    addAttribute(paramE, Attribute.FEATURE_ID, TRUE);
+                    addAttribute(writer, Attribute.FEATURE_ID, TRUE);
                 } else if(paramSpec.isNillable()) {
-                    addAttribute(paramE, Attribute.NILLABLE, TRUE);
+                    addAttribute(writer, Attribute.NILLABLE, TRUE);
                 }
                 if(paramSpec.hasDefaultValue()) {
-                    addAttribute(paramE, Attribute.DEFAULT, paramSpec.getDefaultValue());
+                    addAttribute(writer, Attribute.DEFAULT, paramSpec.getDefaultValue());
                 }
                 if(paramSpec.getType() != null && !Constants.BUILT_IN_TYPE_STRING.equals(paramSpec.getType())) {
-                    addAttribute(paramE, Attribute.TYPE, paramSpec.getType());
+                    addAttribute(writer, Attribute.TYPE, paramSpec.getType());
                 }
                 if(paramSpec.getStability()!= null) {
-                    addAttribute(paramE, Attribute.STABILITY, paramSpec.getStability().toString());
+                    addAttribute(writer, Attribute.STABILITY, paramSpec.getStability().toString());
                 }
+                writer.endElement();
             }
+            writer.endElement();
         }
 
         if(featureSpec.hasPackageDeps()) {
-            PackageXmlWriter.writePackageDeps(featureSpec, addElement(specE, Element.PACKAGES));
+            final ElementNode pkgsE = addElement(null, Element.PACKAGES);
+            PackageXmlWriter.writePackageDeps(featureSpec, pkgsE);
+            writer.write(pkgsE);
         }
-        return specE;
+        writer.endElement();
     }
 
-    private void writeCaps(final ElementNode parent, Set<CapabilitySpec> caps) {
+    private void writeCaps(ElementWriter writer, Set<CapabilitySpec> caps) throws XMLStreamException {
         for(CapabilitySpec cap : caps) {
-            final ElementNode capE = addElement(parent, Element.CAPABILITY);
-            addAttribute(capE, Attribute.NAME, cap.toString());
+            startElement(writer, Element.CAPABILITY);
+            addAttribute(writer, Attribute.NAME, cap.toString());
             if(cap.isOptional()) {
-                addAttribute(capE, Attribute.OPTIONAL, TRUE);
+                addAttribute(writer, Attribute.OPTIONAL, TRUE);
             }
+            writer.endElement();
         }
     }
 }
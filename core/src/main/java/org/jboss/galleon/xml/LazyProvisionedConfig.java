@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.xml;
+
+import java.lang.ref.SoftReference;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.config.ConfigId;
+import org.jboss.galleon.plugin.ProvisionedConfigHandler;
+import org.jboss.galleon.state.ProvisionedConfig;
+
+/**
+ * Provisioned config whose features are parsed from a copy of its element in the provisioned
+ * state XML document only when they are accessed.
+ *
+ * The name, model, properties and layers are parsed together with the provisioned state.
+ * The fully parsed config is softly referenced, so it is parsed again if it was reclaimed.
+ * The hash code and the string representation do not depend on the features, so they never
+ * require parsing the document.
+ */
+class LazyProvisionedConfig implements ProvisionedConfig {
+
+    private final ProvisionedConfig header;
+    private final int size;
+    private final ProvisionedStateXmlIndex index;
+    private final int i;
+    private SoftReference<ProvisionedConfig> loaded;
+
+    LazyProvisionedConfig(ProvisionedConfig header, int size, ProvisionedStateXmlIndex index, int i) {
+        this.header = header;
+        this.size = size;
+        this.index = index;
+        this.i = i;
+    }
+
+    @Override
+    public String getName() {
+        return header.getName();
+    }
+
+    @Override
+    public String getModel() {
+        return header.getModel();
+    }
+
+    @Override
+    public boolean hasProperties() {
+        return header.hasProperties();
+    }
+
+    @Override
+    public String getProperty(String name) {
+        return header.getProperty(name);
+    }
+
+    @Override
+    public Map<String, String> getProperties() {
+        return header.getProperties();
+    }
+
+    @Override
+    public boolean hasLayers() {
+        return header.hasLayers();
+    }
+
+    @Override
+    public Collection<ConfigId> getLayers() {
+        return header.getLayers();
+    }
+
+    @Override
+    public boolean hasFeatures() {
+        return size > 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void handle(ProvisionedConfigHandler handler) throws ProvisioningException {
+        load().handle(handler);
+    }
+
+    synchronized ProvisionedConfig load() throws ProvisioningException {
+        ProvisionedConfig config = loaded == null ? null : loaded.get();
+        if (config == null) {
+            config = index.readConfig(i);
+            loaded = new SoftReference<>(config);
+        }
+        return config;
+    }
+
+    @Override
+    public int hashCode() {
+        return header.hashCode();
+    }
+
+    /**
+     * Compares the headers and the number of the features first and only then the features.
+     * A config whose features could not be parsed is equal only to itself.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof LazyProvisionedConfig || obj instanceof ProvisionedConfigBuilder)) {
+            return false;
+        }
+        final ProvisionedConfig other = (ProvisionedConfig) obj;
+        if (size != other.size()
+                || !Objects.equals(getName(), other.getName())
+                || !Objects.equals(getModel(), other.getModel())
+                || !getProperties().equals(other.getProperties())
+                || !getLayers().equals(other.getLayers())) {
+            return false;
+        }
+        try {
+            return load().equals(other instanceof LazyProvisionedConfig ? ((LazyProvisionedConfig) other).load() : other);
+        } catch (ProvisioningException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final String str = header.toString();
+        return str.substring(0, str.length() - 1) + "features=" + size + ']';
+    }
+}
@@ -150,7 +150,6 @@ public class ProvisionedConfigBuilder implements ProvisionedConfig {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((features == null) ? 0 : features.hashCode());
         result = prime * result + ((layers == null) ? 0 : layers.hashCode());
         result = prime * result + ((model == null) ? 0 : model.hashCode());
         result = prime * result + ((name == null) ? 0 : name.hashCode());
@@ -164,6 +163,8 @@ public class ProvisionedConfigBuilder implements ProvisionedConfig {
             return true;
         if (obj == null)
             return false;
+        if (obj instanceof LazyProvisionedConfig)
+            return obj.equals(this);
         if (getClass() != obj.getClass())
             return false;
         ProvisionedConfigBuilder other = (ProvisionedConfigBuilder) obj;
@@ -178,6 +178,24 @@ public class ProvisionedConfigXmlParser30 implements PlugableXmlParser<Provision
     }
 
     public static void read(XMLExtendedStreamReader reader, ProvisionedConfigBuilder config) throws XMLStreamException {
+        read(reader, config, true);
+    }
+
+    /**
+     * Reads the name, model, properties and layers of a config. The feature elements are
+     * only counted, their content is skipped without being parsed.
+     *
+     * @param reader  reader positioned at the config element
+     * @param config  config builder
+     * @return  total number of the skipped features
+     * @throws XMLStreamException  in case of a parsing error
+     */
+    static int readHeader(XMLExtendedStreamReader reader, ProvisionedConfigBuilder config) throws XMLStreamException {
+        return read(reader, config, false);
+    }
+
+    private static int read(XMLExtendedStreamReader reader, ProvisionedConfigBuilder config, boolean readFeatures) throws XMLStreamException {
+        int skippedFeatures = 0;
         final int count = reader.getAttributeCount();
         for (int i = 0; i < count; i++) {
             final Attribute attribute = Attribute.of(reader.getAttributeName(i));
@@ -195,7 +213,7 @@ public class ProvisionedConfigXmlParser30 implements PlugableXmlParser<Provision
         while (reader.hasNext()) {
             switch (reader.nextTag()) {
                 case XMLStreamConstants.END_ELEMENT: {
-                    return;
+                    return skippedFeatures;
                 }
                 case XMLStreamConstants.START_ELEMENT: {
                     final Element element = Element.of(reader.getName());
@@ -207,7 +225,11 @@ public class ProvisionedConfigXmlParser30 implements PlugableXmlParser<Provision
                             readLayers(reader, config);
                             break;
                         case FEATURE_PACK:
-                            readFeaturePack(reader, config);
+                            if (readFeatures) {
+                                readFeaturePack(reader, config);
+                            } else {
+                                skippedFeatures += countFeatures(reader);
+                            }
                             break;
                         default:
                             throw ParsingUtils.unexpectedContent(reader);
@@ -357,6 +379,69 @@ public class ProvisionedConfigXmlParser30 implements PlugableXmlParser<Provision
         throw ParsingUtils.endOfDocument(reader.getLocation());
     }
 
+    private static int countFeatures(XMLExtendedStreamReader reader) throws XMLStreamException {
+        int features = 0;
+        while (reader.hasNext()) {
+            switch (reader.nextTag()) {
+                case XMLStreamConstants.END_ELEMENT: {
+                    return features;
+                }
+                case XMLStreamConstants.START_ELEMENT: {
+                    if (Element.of(reader.getName()) != Element.SPEC) {
+                        throw ParsingUtils.unexpectedContent(reader);
+                    }
+                    features += countSpecFeatures(reader);
+                    break;
+                }
+                default: {
+                    throw ParsingUtils.unexpectedContent(reader);
+                }
+            }
+        }
+        throw ParsingUtils.endOfDocument(reader.getLocation());
+    }
+
+    private static int countSpecFeatures(XMLExtendedStreamReader reader) throws XMLStreamException {
+        int features = 0;
+        while (reader.hasNext()) {
+            switch (reader.nextTag()) {
+                case XMLStreamConstants.END_ELEMENT: {
+                    return features;
+                }
+                case XMLStreamConstants.START_ELEMENT: {
+                    if (Element.of(reader.getName()) != Element.FEATURE) {
+                        throw ParsingUtils.unexpectedContent(reader);
+                    }
+                    skipElement(reader);
+                    ++features;
+                    break;
+                }
+                default: {
+                    throw ParsingUtils.unexpectedContent(reader);
+                }
+            }
+        }
+        throw ParsingUtils.endOfDocument(reader.getLocation());
+    }
+
+    private static void skipElement(XMLExtendedStreamReader reader) throws XMLStreamException {
+        int depth = 0;
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    ++depth;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (depth-- == 0) {
+                        return;
+                    }
+                    break;
+                default:
+            }
+        }
+        throw ParsingUtils.endOfDocument(reader.getLocation());
+    }
+
     private static FeaturePackLocation parseSource(XMLExtendedStreamReader reader) throws XMLStreamException {
         final int count = reader.getAttributeCount();
         FeaturePackLocation fps = null;
@@ -32,6 +32,7 @@ import org.jboss.galleon.universe.FeaturePackLocation.FPID;
 import org.jboss.galleon.xml.ProvisionedConfigXmlParser30.Attribute;
 import org.jboss.galleon.xml.ProvisionedConfigXmlParser30.Element;
 import org.jboss.galleon.xml.util.ElementNode;
+import org.jboss.galleon.xml.util.ElementWriter;
 
 /**
  *
@@ -41,38 +42,73 @@ public class ProvisionedConfigXmlWriter extends BaseXmlWriter<ProvisionedConfig>
 
     private static class XmlConfigHandler implements ProvisionedConfigHandler {
 
-        private final ElementNode parent;
-        private ElementNode fpElement;
-        private ElementNode specElement;
+        private final ElementWriter writer;
+        private final String ns;
+        private boolean fpStarted;
+        private boolean specStarted;
 
-        XmlConfigHandler(ElementNode parent) {
-            this.parent = parent;
+        XmlConfigHandler(ElementWriter writer, String ns) {
+            this.writer = writer;
+            this.ns = ns;
         }
 
         @Override
-        public void nextFeaturePack(FPID fpid) {
-            fpElement = addElement(parent, Element.FEATURE_PACK.getLocalName(), parent.getNamespace());
-            addAttribute(fpElement, Attribute.LOCATION, fpid.toString());
+        public void nextFeaturePack(FPID fpid) throws ProvisioningException {
+            try {
+                endFeaturePack();
+                writer.startElement(Element.FEATURE_PACK.getLocalName(), ns);
+                addAttribute(writer, Attribute.LOCATION, fpid.toString());
+                fpStarted = true;
+            } catch (XMLStreamException e) {
+                throw new ProvisioningException(e);
+            }
         }
 
         @Override
-        public void nextSpec(ResolvedFeatureSpec spec) {
-            specElement = addElement(fpElement, Element.SPEC.getLocalName(), parent.getNamespace());
-            addAttribute(specElement, Attribute.NAME, spec.getId().getName());
+        public void nextSpec(ResolvedFeatureSpec spec) throws ProvisioningException {
+            try {
+                endSpec();
+                writer.startElement(Element.SPEC.getLocalName(), ns);
+                addAttribute(writer, Attribute.NAME, spec.getId().getName());
+                specStarted = true;
+            } catch (XMLStreamException e) {
+                throw new ProvisioningException(e);
+            }
         }
 
         @Override
         public void nextFeature(ProvisionedFeature feature) throws ProvisioningException {
-            final ElementNode featureE = addElement(specElement, Element.FEATURE.getLocalName(), parent.getNamespace());
-            if(feature.hasId()) {
-                addAttribute(featureE, Attribute.ID, feature.getId().toString());
-            }
-            if(feature.hasParams()) {
-                for(String param : new TreeSet<>(feature.getParamNames())) {
-                    final ElementNode paramE = addElement(featureE, Element.PARAM.getLocalName(), parent.getNamespace());
-                    addAttribute(paramE, Attribute.NAME, param);
-                    addAttribute(paramE, Attribute.VALUE, feature.getConfigParam(param));
+            try {
+                writer.startElement(Element.FEATURE.getLocalName(), ns);
+                if(feature.hasId()) {
+                    addAttribute(writer, Attribute.ID, feature.getId().toString());
                 }
+                if(feature.hasParams()) {
+                    for(String param : new TreeSet<>(feature.getParamNames())) {
+                        writer.startElement(Element.PARAM.getLocalName(), ns);
+                        addAttribute(writer, Attribute.NAME, param);
+                        addAttribute(writer, Attribute.VALUE, feature.getConfigParam(param));
+                        writer.endElement();
+                    }
+                }
+                writer.endElement();
+            } catch (XMLStreamException e) {
+                throw new ProvisioningException(e);
+            }
+        }
+
+        void endFeaturePack() throws XMLStreamException {
+            endSpec();
+            if(fpStarted) {
+                writer.endElement();
+                fpStarted = false;
+            }
+        }
+
+        private void endSpec() throws XMLStreamException {
+            if(specStarted) {
+                writer.endElement();
+                specStarted = false;
             }
         }
     }
@@ -86,47 +122,61 @@ public class ProvisionedConfigXmlWriter extends BaseXmlWriter<ProvisionedConfig>
     private ProvisionedConfigXmlWriter() {
     }
 
+    @Override
     protected ElementNode toElement(ProvisionedConfig config) throws XMLStreamException {
-        return toElement(config, ProvisionedConfigXmlParser30.NAMESPACE_3_0);
+        return buildElement(config);
     }
 
-    protected ElementNode toElement(ProvisionedConfig config, String ns) throws XMLStreamException {
+    @Override
+    protected void writeElement(ProvisionedConfig config, ElementWriter writer) throws XMLStreamException {
+        writeElement(config, ProvisionedConfigXmlParser30.NAMESPACE_3_0, writer);
+    }
 
-        final ElementNode configE = addElement(null, Element.CONFIG.getLocalName(), ns);
+    void writeElement(ProvisionedConfig config, String ns, ElementWriter writer) throws XMLStreamException {
+        writer.startElement(Element.CONFIG.getLocalName(), ns);
         if(config.getName() != null) {
-            addAttribute(configE, Attribute.NAME, config.getName());
+            addAttribute(writer, Attribute.NAME, config.getName());
         }
         if(config.getModel() != null) {
-            addAttribute(configE, Attribute.MODEL, config.getModel());
+            addAttribute(writer, Attribute.MODEL, config.getModel());
         }
 
         if(config.hasProperties()) {
-            final ElementNode propsE = addElement(configE, Element.PROPS.getLocalName(), ns);
+            writer.startElement(Element.PROPS.getLocalName(), ns);
             for(Map.Entry<String, String> entry : new TreeMap<>(config.getProperties()).entrySet()) {
-                final ElementNode propE = addElement(propsE, Element.PROP.getLocalName(), ns);
-                addAttribute(propE, Attribute.NAME, entry.getKey());
-                addAttribute(propE, Attribute.VALUE, entry.getValue());
+                writer.startElement(Element.PROP.getLocalName(), ns);
+                addAttribute(writer, Attribute.NAME, entry.getKey());
+                addAttribute(writer, Attribute.VALUE, entry.getValue());
+                writer.endElement();
             }
+            writer.endElement();
         }
 
         if(config.hasLayers()) {
-            final ElementNode propsE = addElement(configE, Element.LAYERS.getLocalName(), ns);
+            writer.startElement(Element.LAYERS.getLocalName(), ns);
             for(ConfigId layerId : config.getLayers()) {
-                final ElementNode propE = addElement(propsE, Element.LAYER.getLocalName(), ns);
+                writer.startElement(Element.LAYER.getLocalName(), ns);
                 if(layerId.getModel() != null) {
-                    addAttribute(propE, Attribute.MODEL, layerId.getModel());
+                    addAttribute(writer, Attribute.MODEL, layerId.getModel());
                 }
-                addAttribute(propE, Attribute.NAME, layerId.getName());
+                addAttribute(writer, Attribute.NAME, layerId.getName());
+                writer.endElement();
             }
+            writer.endElement();
         }
 
         if(config.hasFeatures()) {
+            final XmlConfigHandler handler = new XmlConfigHandler(writer, ns);
             try {
-                config.handle(new XmlConfigHandler(configE));
+                config.handle(handler);
             } catch (ProvisioningException e) {
+                if(e.getCause() instanceof XMLStreamException) {
+                    throw (XMLStreamException) e.getCause();
+                }
                 throw new XMLStreamException("Failed to marshal ProvisionedConfig", e);
             }
+            handler.endFeaturePack();
         }
-        return configE;
+        writer.endElement();
     }
 }
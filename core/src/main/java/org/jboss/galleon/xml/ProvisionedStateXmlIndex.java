@@ -0,0 +1,240 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.xml;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.galleon.Errors;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.state.ProvisionedConfig;
+import org.jboss.galleon.util.ParsingUtils;
+import org.jboss.staxmapper.XMLElementReader;
+import org.jboss.staxmapper.XMLExtendedStreamReader;
+import org.jboss.staxmapper.XMLMapper;
+
+/**
+ * Copies of the config elements of a provisioned state XML document whose features are parsed on demand.
+ *
+ * The document is scanned once for the boundaries of the config elements, which are copied together
+ * with the content preceding the root element's children, so that the namespaces declared by the root
+ * element apply to them. A config is then parsed on its own, without reading the rest of the document,
+ * from the same content the state was parsed from even if the file has been rewritten since.
+ */
+class ProvisionedStateXmlIndex {
+
+    private static class ConfigReader implements XMLElementReader<ProvisionedConfigBuilder> {
+
+        @Override
+        public void readElement(XMLExtendedStreamReader reader, ProvisionedConfigBuilder builder) throws XMLStreamException {
+            if (reader.nextTag() != XMLStreamConstants.START_ELEMENT
+                    || ProvisionedStateXmlParser30.Element.of(reader.getName()) != ProvisionedStateXmlParser30.Element.CONFIG) {
+                throw ParsingUtils.unexpectedContent(reader);
+            }
+            ProvisionedConfigXmlParser30.read(reader, builder);
+            if (reader.nextTag() != XMLStreamConstants.END_ELEMENT) {
+                throw ParsingUtils.unexpectedContent(reader);
+            }
+        }
+    }
+
+    private static final byte[] COMMENT_START = bytes("<!--");
+    private static final byte[] COMMENT_END = bytes("-->");
+    private static final byte[] CDATA_START = bytes("<![CDATA[");
+    private static final byte[] CDATA_END = bytes("]]>");
+    private static final byte[] PI_START = bytes("<?");
+    private static final byte[] PI_END = bytes("?>");
+    private static final byte[] CONFIG = bytes(ProvisionedStateXmlParser30.Element.CONFIG.getLocalName());
+
+    private static byte[] bytes(String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copies the config elements of the document.
+     *
+     * @param path  path of the document
+     * @param xml  content of the document
+     * @return  index of the document or null, if the boundaries of the config elements could not be
+     * determined, in which case the configs have to be parsed with the rest of the document
+     */
+    static ProvisionedStateXmlIndex index(Path path, byte[] xml) {
+        final List<byte[]> configs = new ArrayList<>();
+        byte[] prolog = null;
+        byte[] epilog = null;
+        int depth = 0;
+        int configStart = -1;
+        int i = 0;
+        while (i < xml.length) {
+            if (xml[i] != '<') {
+                ++i;
+                continue;
+            }
+            if (startsWith(xml, i, COMMENT_START)) {
+                i = skipPast(xml, i + COMMENT_START.length, COMMENT_END);
+            } else if (startsWith(xml, i, CDATA_START)) {
+                i = skipPast(xml, i + CDATA_START.length, CDATA_END);
+            } else if (startsWith(xml, i, PI_START)) {
+                i = skipPast(xml, i + PI_START.length, PI_END);
+            } else if (i + 1 < xml.length && xml[i + 1] == '!') {
+                return null;
+            } else {
+                final int tagEnd = skipTag(xml, i + 1);
+                if (tagEnd < 0) {
+                    return null;
+                }
+                if (xml[i + 1] == '/') {
+                    if (--depth == 1 && configStart >= 0) {
+                        configs.add(Arrays.copyOfRange(xml, configStart, tagEnd));
+                        configStart = -1;
+                    } else if (depth == 0) {
+                        epilog = Arrays.copyOfRange(xml, i, tagEnd);
+                    }
+                } else {
+                    final boolean empty = xml[tagEnd - 2] == '/';
+                    if (depth == 0) {
+                        prolog = Arrays.copyOf(xml, tagEnd);
+                    } else if (depth == 1 && isConfig(xml, i + 1)) {
+                        if (empty) {
+                            configs.add(Arrays.copyOfRange(xml, i, tagEnd));
+                        } else {
+                            configStart = i;
+                        }
+                    }
+                    if (!empty) {
+                        ++depth;
+                    }
+                }
+                i = tagEnd;
+            }
+            if (i < 0) {
+                return null;
+            }
+        }
+        if (configs.isEmpty()) {
+            return new ProvisionedStateXmlIndex(path, null, null, configs);
+        }
+        return depth == 0 && epilog != null ? new ProvisionedStateXmlIndex(path, prolog, epilog, configs) : null;
+    }
+
+    private static boolean startsWith(byte[] xml, int i, byte[] prefix) {
+        if (i + prefix.length > xml.length) {
+            return false;
+        }
+        for (int j = 0; j < prefix.length; ++j) {
+            if (xml[i + j] != prefix[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipPast(byte[] xml, int i, byte[] end) {
+        while (i < xml.length) {
+            if (startsWith(xml, i, end)) {
+                return i + end.length;
+            }
+            ++i;
+        }
+        return -1;
+    }
+
+    private static int skipTag(byte[] xml, int i) {
+        byte quote = 0;
+        while (i < xml.length) {
+            final byte b = xml[i++];
+            if (quote != 0) {
+                if (b == quote) {
+                    quote = 0;
+                }
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '>') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isConfig(byte[] xml, int nameStart) {
+        int nameEnd = nameStart;
+        while (nameEnd < xml.length) {
+            final byte b = xml[nameEnd];
+            if (b == '>' || b == '/' || b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                break;
+            }
+            if (b == ':') {
+                nameStart = nameEnd + 1;
+            }
+            ++nameEnd;
+        }
+        return nameEnd - nameStart == CONFIG.length && startsWith(xml, nameStart, CONFIG);
+    }
+
+    private final Path path;
+    private final byte[] prolog;
+    private final byte[] epilog;
+    private final List<byte[]> configs;
+
+    private ProvisionedStateXmlIndex(Path path, byte[] prolog, byte[] epilog, List<byte[]> configs) {
+        this.path = path;
+        this.prolog = prolog;
+        this.epilog = epilog;
+        this.configs = configs;
+    }
+
+    /**
+     * @return  number of the config elements found in the document
+     */
+    int getConfigsTotal() {
+        return configs.size();
+    }
+
+    /**
+     * Parses the config found at the specified position among the configs of the document.
+     *
+     * @param i  position of the config
+     * @return  parsed config
+     * @throws ProvisioningException  in case the config could not be parsed
+     */
+    ProvisionedConfig readConfig(int i) throws ProvisioningException {
+        final byte[] config = configs.get(i);
+        final byte[] xml = new byte[prolog.length + config.length + epilog.length];
+        System.arraycopy(prolog, 0, xml, 0, prolog.length);
+        System.arraycopy(config, 0, xml, prolog.length, config.length);
+        System.arraycopy(epilog, 0, xml, prolog.length + config.length, epilog.length);
+        final ProvisionedConfigBuilder builder = ProvisionedConfigBuilder.builder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(xml), StandardCharsets.UTF_8))) {
+            final XMLMapper mapper = XMLMapper.Factory.create();
+            mapper.registerRootElement(ProvisionedStateXmlParser30.ROOT_3_0, new ConfigReader());
+            mapper.parseDocument(builder, XmlBaseParsers.createXMLStreamReader(reader));
+        } catch (IOException | XMLStreamException e) {
+            throw new ProvisioningException(Errors.parseXml(path), e);
+        }
+        return builder.build();
+    }
+}
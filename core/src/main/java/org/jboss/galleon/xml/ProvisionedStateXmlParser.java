@@ -17,8 +17,11 @@
 package org.jboss.galleon.xml;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -27,6 +30,7 @@ import javax.xml.stream.XMLStreamException;
 import org.jboss.galleon.Errors;
 import org.jboss.galleon.ProvisioningException;
 import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.staxmapper.XMLMapper;
 
 /**
  *
@@ -51,6 +55,34 @@ public class ProvisionedStateXmlParser implements XmlParser<ProvisionedState> {
         }
     }
 
+    /**
+     * Parses the provisioned state except for the features of the configs, which are only counted.
+     * The features of a config are parsed once they are accessed, from a copy of the config element
+     * kept in memory. A malformed feature is reported only then.
+     *
+     * @param path  provisioned state XML file
+     * @return  provisioned state or null if the file does not exist
+     * @throws ProvisioningException  in case the file could not be read or parsed
+     */
+    public static ProvisionedState parseLazily(Path path) throws ProvisioningException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            final byte[] xml = Files.readAllBytes(path);
+            final ProvisionedStateXmlIndex index = ProvisionedStateXmlIndex.index(path, xml);
+            final XMLMapper mapper = XMLMapper.Factory.create();
+            mapper.registerRootElement(ProvisionedStateXmlParser30.ROOT_3_0, new ProvisionedStateXmlParser30(index));
+            final ProvisionedState.Builder builder = ProvisionedState.builder();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(xml), StandardCharsets.UTF_8))) {
+                mapper.parseDocument(builder, XmlBaseParsers.createXMLStreamReader(reader));
+            }
+            return builder.build();
+        } catch (IOException | XMLStreamException e) {
+            throw new ProvisioningException(Errors.parseXml(path), e);
+        }
+    }
+
     private ProvisionedStateXmlParser() {
     }
 
@@ -23,6 +23,7 @@ import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 
+import org.jboss.galleon.state.ProvisionedConfig;
 import org.jboss.galleon.state.ProvisionedFeaturePack;
 import org.jboss.galleon.state.ProvisionedPackage;
 import org.jboss.galleon.state.ProvisionedState;
@@ -172,6 +173,23 @@ class ProvisionedStateXmlParser30 implements PlugableXmlParser<ProvisionedState.
 
     }
 
+    private final ProvisionedStateXmlIndex index;
+    private int configsTotal;
+
+    ProvisionedStateXmlParser30() {
+        this(null);
+    }
+
+    /**
+     * Creates a parser that keeps only the headers of the configs. The features of the configs
+     * are parsed from the indexed copies of the configs when they are accessed.
+     *
+     * @param index  index of the document or null to parse the configs fully
+     */
+    ProvisionedStateXmlParser30(ProvisionedStateXmlIndex index) {
+        this.index = index;
+    }
+
     @Override
     public QName getRoot() {
         return ROOT_3_0;
@@ -183,6 +201,10 @@ class ProvisionedStateXmlParser30 implements PlugableXmlParser<ProvisionedState.
         while (reader.hasNext()) {
             switch (reader.nextTag()) {
                 case XMLStreamConstants.END_ELEMENT: {
+                    if (index != null && configsTotal != index.getConfigsTotal()) {
+                        throw new XMLStreamException("Found " + configsTotal + " configs while " + index.getConfigsTotal()
+                                + " were indexed", reader.getLocation());
+                    }
                     return;
                 }
                 case XMLStreamConstants.START_ELEMENT: {
@@ -192,9 +214,7 @@ class ProvisionedStateXmlParser30 implements PlugableXmlParser<ProvisionedState.
                             builder.addFeaturePack(readFeaturePack(reader));
                             break;
                         case CONFIG:
-                            final ProvisionedConfigBuilder configBuilder = ProvisionedConfigBuilder.builder();
-                            ProvisionedConfigXmlParser30.read(reader, configBuilder);
-                            builder.addConfig(configBuilder.build());
+                            builder.addConfig(readConfig(reader));
                             break;
                         default:
                             throw ParsingUtils.unexpectedContent(reader);
@@ -209,6 +229,16 @@ class ProvisionedStateXmlParser30 implements PlugableXmlParser<ProvisionedState.
         throw ParsingUtils.endOfDocument(reader.getLocation());
     }
 
+    private ProvisionedConfig readConfig(XMLExtendedStreamReader reader) throws XMLStreamException {
+        final ProvisionedConfigBuilder configBuilder = ProvisionedConfigBuilder.builder();
+        if (index == null) {
+            ProvisionedConfigXmlParser30.read(reader, configBuilder);
+            return configBuilder.build();
+        }
+        final int size = ProvisionedConfigXmlParser30.readHeader(reader, configBuilder);
+        return new LazyProvisionedConfig(configBuilder.build(), size, index, configsTotal++);
+    }
+
     private ProvisionedFeaturePack readFeaturePack(XMLExtendedStreamReader reader) throws XMLStreamException {
         final ProvisionedFeaturePack.Builder fpBuilder = ProvisionedFeaturePack.builder(parseSource(reader).getFPID());
         while (reader.hasNext()) {
@@ -25,6 +25,7 @@ import org.jboss.galleon.state.ProvisionedConfig;
 import org.jboss.galleon.xml.ProvisionedStateXmlParser30.Attribute;
 import org.jboss.galleon.xml.ProvisionedStateXmlParser30.Element;
 import org.jboss.galleon.xml.util.ElementNode;
+import org.jboss.galleon.xml.util.ElementWriter;
 
 /**
  *
@@ -43,34 +44,36 @@ public class ProvisionedStateXmlWriter extends BaseXmlWriter<FeaturePackSet<?>>
 
     @Override
     protected ElementNode toElement(FeaturePackSet<?> provisionedState) throws XMLStreamException {
+        return buildElement(provisionedState);
+    }
 
-        final ElementNode pkg = addElement(null, Element.INSTALLATION);
+    @Override
+    protected void writeElement(FeaturePackSet<?> provisionedState, ElementWriter writer) throws XMLStreamException {
+        startElement(writer, Element.INSTALLATION);
 
         if (provisionedState.hasFeaturePacks()) {
             for(FeaturePack<?> fp : provisionedState.getFeaturePacks()) {
-                final ElementNode fpElement = addElement(pkg, Element.FEATURE_PACK);
-                writeFeaturePack(fpElement, fp);
+                startElement(writer, Element.FEATURE_PACK);
+                addAttribute(writer, Attribute.LOCATION, fp.getFPID().toString());
+                if (fp.hasPackages()) {
+                    startElement(writer, Element.PACKAGES);
+                    for (FeaturePackPackage pkg : fp.getPackages()) {
+                        startElement(writer, Element.PACKAGE);
+                        addAttribute(writer, Attribute.NAME, pkg.getName());
+                        writer.endElement();
+                    }
+                    writer.endElement();
+                }
+                writer.endElement();
             }
         }
 
         if(provisionedState.hasConfigs()) {
             for(ProvisionedConfig config : provisionedState.getConfigs()) {
-                pkg.addChild(ProvisionedConfigXmlWriter.getInstance().toElement(config, Element.CONFIG.getNamespace()));
+                ProvisionedConfigXmlWriter.getInstance().writeElement(config, Element.CONFIG.getNamespace(), writer);
             }
         }
 
-        return pkg;
-    }
-
-    private void writeFeaturePack(ElementNode fp, FeaturePack<?> featurePack) {
-        addAttribute(fp, Attribute.LOCATION, featurePack.getFPID().toString());
-
-        if (featurePack.hasPackages()) {
-            final ElementNode packages = addElement(fp, Element.PACKAGES);
-            for (FeaturePackPackage pkg : featurePack.getPackages()) {
-                final ElementNode pkgElement = addElement(packages, Element.PACKAGE);
-                addAttribute(pkgElement, Attribute.NAME, pkg.getName());
-            }
-        }
+        writer.endElement();
     }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.config.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.DefaultMessageWriter;
+import org.jboss.galleon.MessageWriter;
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.ProvisioningManager;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.state.ProvisionedFeaturePack;
+import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.galleon.test.PmProvisionConfigTestBase;
+import org.jboss.galleon.test.util.fs.state.DirState;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1Universe;
+import org.junit.Assert;
+
+/**
+ * The cached resolution of a released feature-pack must not be reused once the release has been
+ * re-deployed with a different content keeping its ID.
+ */
+public class RedeployedReleaseResolutionCacheTestCase extends PmProvisionConfigTestBase {
+
+    private static final FPID FP1 = LegacyGalleon1Universe.newFPID("org.jboss.pm.test:fp1", "1", "1.0.0.Final");
+
+    private static final String REUSED = "Reusing the cached resolution";
+
+    private final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+    @Override
+    protected void createFeaturePacks(FeaturePackCreator creator) throws ProvisioningException {
+        creator
+        .newFeaturePack(FP1)
+            .newPackage("a", true)
+                .writeContent("a.txt", "a");
+    }
+
+    @Override
+    protected MessageWriter getMessageWriter() {
+        return new DefaultMessageWriter(new PrintStream(log, true), System.err, true);
+    }
+
+    @Override
+    protected ProvisioningConfig provisioningConfig() throws ProvisioningDescriptionException {
+        return ProvisioningConfig.builder()
+                .addFeaturePackDep(FP1.getLocation())
+                .build();
+    }
+
+    @Override
+    protected void testPm(ProvisioningManager pm) throws ProvisioningException {
+        final Map<String, String> options = Collections.singletonMap(Constants.RESOLUTION_CACHE, getCacheDir().toString());
+
+        pm.provision(provisioningConfig(), options);
+        Assert.assertFalse(getLog().contains(REUSED));
+        Assert.assertEquals(1, countEntries());
+
+        final FeaturePackCreator creator = initCreator();
+        creator
+        .newFeaturePack(FP1)
+            .newPackage("a", true)
+                .writeContent("a.txt", "a")
+                .getFeaturePack()
+            .newPackage("b", true)
+                .writeContent("b.txt", "b");
+        creator.install();
+
+        try (ProvisioningManager updated = getPm()) {
+            updated.provision(provisioningConfig(), options);
+        }
+        Assert.assertFalse(getLog().contains(REUSED));
+        Assert.assertEquals(2, countEntries());
+    }
+
+    @Override
+    protected ProvisionedState provisionedState() throws ProvisioningException {
+        return ProvisionedState.builder()
+                .addFeaturePack(ProvisionedFeaturePack.builder(FP1)
+                        .addPackage("a")
+                        .addPackage("b")
+                        .build())
+                .build();
+    }
+
+    @Override
+    protected DirState provisionedHomeDir() {
+        return newDirBuilder()
+                .addFile("a.txt", "a")
+                .addFile("b.txt", "b")
+                .build();
+    }
+
+    private Path getCacheDir() {
+        return workDir.resolve("resolution-cache");
+    }
+
+    private String getLog() {
+        return new String(log.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private long countEntries() {
+        try (Stream<Path> stream = Files.list(getCacheDir())) {
+            return stream.count();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.config.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.ProvisioningManager;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.state.ProvisionedFeaturePack;
+import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.galleon.test.PmProvisionConfigTestBase;
+import org.jboss.galleon.test.util.fs.state.DirState;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1Universe;
+import org.junit.Assert;
+
+/**
+ * Once the resolution cache exceeds its maximum size, the least recently used entries must be evicted.
+ */
+public class ResolutionCacheMaxSizeTestCase extends PmProvisionConfigTestBase {
+
+    private static final String MAX_SIZE_PROPERTY = "galleon.resolution-cache.max-size";
+
+    private static final FPID FP1 = LegacyGalleon1Universe.newFPID("org.jboss.pm.test:fp1", "1", "1.0.0.Final");
+
+    @Override
+    protected void doBefore() throws Exception {
+        super.doBefore();
+        System.setProperty(MAX_SIZE_PROPERTY, "1");
+    }
+
+    @Override
+    protected void doAfter() throws Exception {
+        System.clearProperty(MAX_SIZE_PROPERTY);
+        super.doAfter();
+    }
+
+    @Override
+    protected void createFeaturePacks(FeaturePackCreator creator) throws ProvisioningException {
+        creator
+        .newFeaturePack(FP1)
+            .newPackage("a", true)
+                .writeContent("a.txt", "a");
+    }
+
+    @Override
+    protected ProvisioningConfig provisioningConfig() throws ProvisioningDescriptionException {
+        return ProvisioningConfig.builder()
+                .addFeaturePackDep(FP1.getLocation())
+                .build();
+    }
+
+    @Override
+    protected void testPm(ProvisioningManager pm) throws ProvisioningException {
+        final Map<String, String> options = new HashMap<>();
+        options.put(Constants.RESOLUTION_CACHE, getCacheDir().toString());
+        options.put(Constants.OPTIONAL_PACKAGES, Constants.PASSIVE);
+
+        pm.provision(provisioningConfig(), options);
+        Assert.assertEquals(1, countEntries());
+
+        options.remove(Constants.OPTIONAL_PACKAGES);
+        pm.provision(provisioningConfig(), options);
+        Assert.assertEquals(1, countEntries());
+    }
+
+    @Override
+    protected ProvisionedState provisionedState() throws ProvisioningException {
+        return ProvisionedState.builder()
+                .addFeaturePack(ProvisionedFeaturePack.builder(FP1)
+                        .addPackage("a")
+                        .build())
+                .build();
+    }
+
+    @Override
+    protected DirState provisionedHomeDir() {
+        return newDirBuilder()
+                .addFile("a.txt", "a")
+                .build();
+    }
+
+    private Path getCacheDir() {
+        return workDir.resolve("resolution-cache");
+    }
+
+    private long countEntries() {
+        try (Stream<Path> stream = Files.list(getCacheDir())) {
+            return stream.count();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
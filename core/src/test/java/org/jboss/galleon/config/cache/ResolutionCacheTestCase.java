@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.config.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.DefaultMessageWriter;
+import org.jboss.galleon.MessageWriter;
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.ProvisioningManager;
+import org.jboss.galleon.config.ConfigModel;
+import org.jboss.galleon.config.FeatureConfig;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.plugin.ProvisionedConfigHandler;
+import org.jboss.galleon.runtime.ResolvedFeatureId;
+import org.jboss.galleon.spec.FeatureParameterSpec;
+import org.jboss.galleon.spec.FeatureReferenceSpec;
+import org.jboss.galleon.spec.FeatureSpec;
+import org.jboss.galleon.spec.PackageDependencySpec;
+import org.jboss.galleon.state.ProvisionedFeaturePack;
+import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.galleon.test.PmProvisionConfigTestBase;
+import org.jboss.galleon.test.util.TestConfigHandlersProvisioningPlugin;
+import org.jboss.galleon.test.util.TestProvisionedConfigHandler;
+import org.jboss.galleon.test.util.fs.state.DirState;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1Universe;
+import org.jboss.galleon.xml.ProvisionedConfigBuilder;
+import org.jboss.galleon.xml.ProvisionedFeatureBuilder;
+import org.junit.Assert;
+
+/**
+ * Provisioning the same config twice with the resolution cache must reuse the resolution
+ * stored by the first run and produce the same packages and configs.
+ */
+public class ResolutionCacheTestCase extends PmProvisionConfigTestBase {
+
+    private static final FPID FP1 = LegacyGalleon1Universe.newFPID("org.jboss.pm.test:fp1", "1", "1.0.0.Final");
+    private static final FPID FP2 = LegacyGalleon1Universe.newFPID("org.jboss.pm.test:fp2", "1", "1.0.0.Final");
+
+    private static final String REUSED = "Reusing the cached resolution";
+
+    public static class ConfigHandler extends TestProvisionedConfigHandler {
+        @Override
+        protected String[] initEvents() {
+            return new String[] {
+                    featurePackEvent(FP1),
+                    specEvent("specA"),
+                    featureEvent(ResolvedFeatureId.create(FP1.getProducer(), "specA", "a", "a1")),
+                    specEvent("specB"),
+                    featureEvent(ResolvedFeatureId.create(FP1.getProducer(), "specB", "b", "b1"))
+            };
+        }
+    }
+
+    private final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+    @Override
+    protected void createFeaturePacks(FeaturePackCreator creator) throws ProvisioningException {
+        creator
+        .newFeaturePack(FP1)
+            .addDependency("fp2", FP2.getLocation())
+            .addFeatureSpec(FeatureSpec.builder("specA")
+                    .addParam(FeatureParameterSpec.createId("a"))
+                    .addParam(FeatureParameterSpec.create("p", "def"))
+                    .build())
+            .addFeatureSpec(FeatureSpec.builder("specB")
+                    .addFeatureRef(FeatureReferenceSpec.create("specA"))
+                    .addParam(FeatureParameterSpec.createId("b"))
+                    .addParam(FeatureParameterSpec.create("a"))
+                    .build())
+            .addConfig(ConfigModel.builder()
+                    .setName("main")
+                    .setProperty("prop", "value")
+                    .addFeature(new FeatureConfig("specB").setParam("b", "b1").setParam("a", "a1"))
+                    .addFeature(new FeatureConfig("specA").setParam("a", "a1").setParam("p", "a1p"))
+                    .build())
+            .newPackage("a", true)
+                .addDependency("b")
+                .addDependency(PackageDependencySpec.passive("c"))
+                .addDependency("fp2", "x")
+                .writeContent("a.txt", "a")
+                .getFeaturePack()
+            .newPackage("b")
+                .writeContent("b.txt", "b")
+                .getFeaturePack()
+            .newPackage("c")
+                .addDependency("b")
+                .writeContent("c.txt", "c")
+                .getFeaturePack()
+            .newPackage("d")
+                .writeContent("d.txt", "d")
+                .getFeaturePack()
+            .addPlugin(TestConfigHandlersProvisioningPlugin.class)
+            .addService(ProvisionedConfigHandler.class, ConfigHandler.class);
+        creator
+        .newFeaturePack(FP2)
+            .newPackage("x")
+                .writeContent("x.txt", "x");
+    }
+
+    @Override
+    protected MessageWriter getMessageWriter() {
+        return new DefaultMessageWriter(new PrintStream(log, true), System.err, true);
+    }
+
+    @Override
+    protected ProvisioningConfig provisioningConfig() throws ProvisioningDescriptionException {
+        return ProvisioningConfig.builder()
+                .addFeaturePackDep(FP1.getLocation())
+                .addOption(Constants.OPTIONAL_PACKAGES, Constants.PASSIVE)
+                .build();
+    }
+
+    @Override
+    protected void testPm(ProvisioningManager pm) throws ProvisioningException {
+        final Map<String, String> options = Collections.singletonMap(Constants.RESOLUTION_CACHE, getCacheDir().toString());
+
+        pm.provision(provisioningConfig(), options);
+        Assert.assertFalse(getLog().contains(REUSED));
+        Assert.assertEquals(1, countEntries());
+        final ProvisionedState resolvedState = pm.getProvisionedState();
+
+        pm.provision(provisioningConfig(), options);
+        Assert.assertTrue(getLog().contains(REUSED));
+        Assert.assertEquals(1, countEntries());
+        Assert.assertEquals(resolvedState, pm.getProvisionedState());
+    }
+
+    @Override
+    protected ProvisionedState provisionedState() throws ProvisioningException {
+        return ProvisionedState.builder()
+                .addFeaturePack(ProvisionedFeaturePack.builder(FP2)
+                        .addPackage("x")
+                        .build())
+                .addFeaturePack(ProvisionedFeaturePack.builder(FP1)
+                        .addPackage("a")
+                        .addPackage("b")
+                        .addPackage("c")
+                        .build())
+                .addConfig(ProvisionedConfigBuilder.builder()
+                        .setName("main")
+                        .setProperty("prop", "value")
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1.getProducer(), "specA", "a", "a1"))
+                                .setConfigParam("p", "a1p").build())
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1.getProducer(), "specB", "b", "b1"))
+                                .setConfigParam("a", "a1").build())
+                        .build())
+                .build();
+    }
+
+    @Override
+    protected DirState provisionedHomeDir() {
+        return newDirBuilder()
+                .addFile("a.txt", "a")
+                .addFile("b.txt", "b")
+                .addFile("c.txt", "c")
+                .addFile("x.txt", "x")
+                .build();
+    }
+
+    private Path getCacheDir() {
+        return workDir.resolve("resolution-cache");
+    }
+
+    private String getLog() {
+        return new String(log.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private long countEntries() {
+        try (Stream<Path> stream = Files.list(getCacheDir())) {
+            return stream.count();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
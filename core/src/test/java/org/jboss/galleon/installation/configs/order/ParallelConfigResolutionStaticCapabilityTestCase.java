@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.installation.configs.order;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.ProvisioningManager;
+import org.jboss.galleon.config.ConfigModel;
+import org.jboss.galleon.config.FeatureConfig;
+import org.jboss.galleon.config.FeaturePackConfig;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackBuilder;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.runtime.ResolvedFeatureId;
+import org.jboss.galleon.spec.FeatureParameterSpec;
+import org.jboss.galleon.spec.FeatureReferenceSpec;
+import org.jboss.galleon.spec.FeatureSpec;
+import org.jboss.galleon.state.ProvisionedFeaturePack;
+import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.galleon.test.PmProvisionConfigTestBase;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1Universe;
+import org.jboss.galleon.xml.ProvisionedConfigBuilder;
+import org.jboss.galleon.xml.ProvisionedFeatureBuilder;
+import org.junit.Assert;
+
+/**
+ * Configs built concurrently using the same spec that provides a static capability must
+ * not see the capability as provided by the features of the other configs.
+ */
+public class ParallelConfigResolutionStaticCapabilityTestCase extends PmProvisionConfigTestBase {
+
+    private static final FPID FP1_GAV = LegacyGalleon1Universe.newFPID("org.jboss.pm.test:fp1", "1", "1.0.0.Final");
+    private static final int CONFIGS_TOTAL = 8;
+    private static final int PROVISIONING_ROUNDS = 10;
+
+    @Override
+    protected void createFeaturePacks(FeaturePackCreator creator) throws ProvisioningException {
+        final FeaturePackBuilder fp = creator.newFeaturePack(FP1_GAV)
+                .addFeatureSpec(FeatureSpec.builder("specA")
+                        .requiresCapability("cap.b")
+                        .addParam(FeatureParameterSpec.createId("a"))
+                        .build())
+                .addFeatureSpec(FeatureSpec.builder("specB")
+                        .providesCapability("cap.b")
+                        .addFeatureRef(FeatureReferenceSpec.create("specA"))
+                        .addParam(FeatureParameterSpec.createId("b"))
+                        .addParam(FeatureParameterSpec.create("a"))
+                        .build());
+        for(int i = 1; i <= CONFIGS_TOTAL; ++i) {
+            fp.addConfig(ConfigModel.builder("model", "config" + i)
+                    .addFeature(new FeatureConfig("specB").setParam("b", "b1").setParam("a", "a1"))
+                    .addFeature(new FeatureConfig("specA").setParam("a", "a1"))
+                    .addFeature(new FeatureConfig("specA").setParam("a", "a2"))
+                    .addFeature(new FeatureConfig("specB").setParam("b", "b2").setParam("a", "a2"))
+                    .build());
+        }
+    }
+
+    @Override
+    protected ProvisioningConfig provisioningConfig() throws ProvisioningException {
+        return ProvisioningConfig.builder()
+                .addFeaturePackDep(FeaturePackConfig.forLocation(FP1_GAV.getLocation()))
+                .addOption(Constants.PARALLEL_CONFIG_RESOLUTION, Constants.TRUE)
+                .build();
+    }
+
+    @Override
+    protected void testPm(ProvisioningManager pm) throws ProvisioningException {
+        final ProvisionedState expected = provisionedState();
+        for(int i = 0; i < PROVISIONING_ROUNDS; ++i) {
+            pm.provision(provisioningConfig());
+            Assert.assertEquals(expected, pm.getProvisionedState());
+        }
+    }
+
+    @Override
+    protected ProvisionedState provisionedState() throws ProvisioningException {
+        final ProvisionedState.Builder builder = ProvisionedState.builder()
+                .addFeaturePack(ProvisionedFeaturePack.forFPID(FP1_GAV));
+        for(int i = 1; i <= CONFIGS_TOTAL; ++i) {
+            builder.addConfig(ProvisionedConfigBuilder.builder()
+                    .setModel("model").setName("config" + i)
+                    .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1_GAV.getProducer(), "specB", "b", "b1")).setConfigParam("a", "a1").build())
+                    .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1_GAV.getProducer(), "specA", "a", "a1")).build())
+                    .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1_GAV.getProducer(), "specA", "a", "a2")).build())
+                    .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1_GAV.getProducer(), "specB", "b", "b2")).setConfigParam("a", "a2").build())
+                    .build());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.installation.configs.order;
+
+import java.util.Collections;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.ProvisioningManager;
+import org.jboss.galleon.config.ConfigId;
+import org.jboss.galleon.config.ConfigModel;
+import org.jboss.galleon.config.FeatureConfig;
+import org.jboss.galleon.config.FeaturePackConfig;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.runtime.ResolvedFeatureId;
+import org.jboss.galleon.spec.FeatureParameterSpec;
+import org.jboss.galleon.spec.FeatureReferenceSpec;
+import org.jboss.galleon.spec.FeatureSpec;
+import org.jboss.galleon.state.ProvisionedFeaturePack;
+import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1Universe;
+import org.jboss.galleon.xml.ProvisionedConfigBuilder;
+import org.jboss.galleon.xml.ProvisionedFeatureBuilder;
+import org.junit.Assert;
+
+/**
+ * Configs built concurrently must be listed in the same order and contain the same
+ * features in the same order as when they are built sequentially.
+ */
+public class ParallelConfigResolutionTestCase extends ConfigOrderTestBase {
+
+    private static final FPID FP1_GAV = LegacyGalleon1Universe.newFPID("org.jboss.pm.test:fp1", "1", "1.0.0.Final");
+
+    @Override
+    protected void createFeaturePacks(FeaturePackCreator creator) throws ProvisioningException {
+        creator
+            .newFeaturePack(FP1_GAV)
+                .addFeatureSpec(FeatureSpec.builder("specA")
+                        .addParam(FeatureParameterSpec.createId("a"))
+                        .build())
+                .addFeatureSpec(FeatureSpec.builder("specB")
+                        .addFeatureRef(FeatureReferenceSpec.create("specA"))
+                        .addParam(FeatureParameterSpec.createId("b"))
+                        .addParam(FeatureParameterSpec.create("a"))
+                        .build())
+                .addConfig(ConfigModel.builder(null, "configA")
+                        .setConfigDep("dep1", new ConfigId("model1", "config2"))
+                        .addFeature(new FeatureConfig("specB").setParam("b", "1").setParam("a", "1"))
+                        .addFeature(new FeatureConfig("specA").setParam("a", "1"))
+                        .build())
+                .addConfig(ConfigModel.builder("model1", "config1")
+                        .setConfigDep("dep1", new ConfigId("model2", "config1"))
+                        .addFeature(new FeatureConfig("specB").setParam("b", "11").setParam("a", "11"))
+                        .addFeature(new FeatureConfig("specA").setParam("a", "11"))
+                        .build())
+                .addConfig(ConfigModel.builder("model1", "config2")
+                        .addFeature(new FeatureConfig("specA").setParam("a", "12"))
+                        .build())
+                .addConfig(ConfigModel.builder("model2", "config1")
+                        .addFeature(new FeatureConfig("specB").setParam("b", "21").setParam("a", "21"))
+                        .addFeature(new FeatureConfig("specA").setParam("a", "21"))
+                        .build())
+                .addPlugin(ConfigListPlugin.class);
+    }
+
+    @Override
+    protected ProvisioningConfig provisioningConfig() throws ProvisioningDescriptionException {
+        return ProvisioningConfig.builder().addFeaturePackDep(FeaturePackConfig.forLocation(FP1_GAV.getLocation())).build();
+    }
+
+    @Override
+    protected void testPm(ProvisioningManager pm) throws ProvisioningException {
+        pm.provision(provisioningConfig());
+        final ProvisionedState sequentialState = pm.getProvisionedState();
+
+        pm.provision(provisioningConfig(), Collections.singletonMap(Constants.PARALLEL_CONFIG_RESOLUTION, Constants.TRUE));
+        Assert.assertEquals(sequentialState, pm.getProvisionedState());
+    }
+
+    @Override
+    protected ProvisionedState provisionedState() throws ProvisioningException {
+        return ProvisionedState.builder()
+                .addFeaturePack(ProvisionedFeaturePack.builder(FP1_GAV).build())
+                .addConfig(ProvisionedConfigBuilder.builder()
+                        .setModel("model1").setName("config2")
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1_GAV.getProducer(), "specA", "a", "12")))
+                        .build())
+                .addConfig(ProvisionedConfigBuilder.builder()
+                        .setName("configA")
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1_GAV.getProducer(), "specA", "a", "1")))
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1_GAV.getProducer(), "specB", "b", "1"))
+                                .setConfigParam("a", "1").build())
+                        .build())
+                .addConfig(ProvisionedConfigBuilder.builder()
+                        .setModel("model2").setName("config1")
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1_GAV.getProducer(), "specA", "a", "21")))
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1_GAV.getProducer(), "specB", "b", "21"))
+                                .setConfigParam("a", "21").build())
+                        .build())
+                .addConfig(ProvisionedConfigBuilder.builder()
+                        .setModel("model1").setName("config1")
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1_GAV.getProducer(), "specA", "a", "11")))
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1_GAV.getProducer(), "specB", "b", "11"))
+                                .setConfigParam("a", "11").build())
+                        .build())
+                .build();
+    }
+
+    @Override
+    protected String[] configList() {
+        return new String[] {
+                "model1 config2",
+                "configA",
+                "model2 config1",
+                "model1 config1"
+        };
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.installation.jfr;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.config.ProvisioningConfig;
+
+/**
+ * Package content copied by a pool of workers emits the same package copy events.
+ */
+public class ParallelCopyProvisioningEventsTestCase extends ProvisioningEventsTestCase {
+
+    @Override
+    protected ProvisioningConfig provisioningConfig() throws ProvisioningDescriptionException {
+        return ProvisioningConfig.builder(super.provisioningConfig())
+                .addOption(Constants.PARALLEL_PACKAGE_COPY, Constants.TRUE)
+                .build();
+    }
+}
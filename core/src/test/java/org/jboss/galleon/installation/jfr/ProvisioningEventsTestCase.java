@@ -0,0 +1,170 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.installation.jfr;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.ProvisioningManager;
+import org.jboss.galleon.config.ConfigModel;
+import org.jboss.galleon.config.FeatureConfig;
+import org.jboss.galleon.config.FeaturePackConfig;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.jfr.ConfigArrangementEvent;
+import org.jboss.galleon.jfr.FeaturePackResolutionEvent;
+import org.jboss.galleon.jfr.FeatureSpecParseEvent;
+import org.jboss.galleon.jfr.HashingEvent;
+import org.jboss.galleon.jfr.PackageCopyEvent;
+import org.jboss.galleon.jfr.PluginInvocationEvent;
+import org.jboss.galleon.plugin.InstallPlugin;
+import org.jboss.galleon.runtime.ResolvedFeatureId;
+import org.jboss.galleon.spec.FeatureParameterSpec;
+import org.jboss.galleon.spec.FeatureSpec;
+import org.jboss.galleon.state.ProvisionedFeaturePack;
+import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.galleon.test.PmProvisionConfigTestBase;
+import org.jboss.galleon.test.util.fs.state.DirState;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1Universe;
+import org.jboss.galleon.xml.ProvisionedConfigBuilder;
+import org.jboss.galleon.xml.ProvisionedFeatureBuilder;
+import org.junit.Assert;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Provisioning emits the Galleon events to a flight recording.
+ */
+public class ProvisioningEventsTestCase extends PmProvisionConfigTestBase {
+
+    public static class NoOpInstallPlugin implements InstallPlugin {
+    }
+
+    private static final FPID FP1_GAV = LegacyGalleon1Universe.newFPID("org.jboss.pm.test:fp1", "1", "1.0.0.Final");
+
+    @Override
+    protected void createFeaturePacks(FeaturePackCreator creator) throws ProvisioningException {
+        creator
+            .newFeaturePack(FP1_GAV)
+                .addFeatureSpec(FeatureSpec.builder("specA")
+                        .addParam(FeatureParameterSpec.createId("a"))
+                        .build())
+                .addConfig(ConfigModel.builder("model1", "config1")
+                        .addFeature(new FeatureConfig("specA").setParam("a", "1"))
+                        .addFeature(new FeatureConfig("specA").setParam("a", "2"))
+                        .build())
+                .newPackage("p1", true)
+                    .writeContent("fp1/p1.txt", "p1 content")
+                    .writeContent("fp1/dir/p1.txt", "p1")
+                    .getFeaturePack()
+                .addPlugin(NoOpInstallPlugin.class);
+    }
+
+    @Override
+    protected ProvisioningConfig provisioningConfig() throws ProvisioningDescriptionException {
+        return ProvisioningConfig.builder().addFeaturePackDep(FeaturePackConfig.forLocation(FP1_GAV.getLocation())).build();
+    }
+
+    @Override
+    protected void testPm(ProvisioningManager pm) throws ProvisioningException {
+        final Path jfr = workDir.resolve("provisioning.jfr");
+        final List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(FeaturePackResolutionEvent.class);
+            recording.enable(FeatureSpecParseEvent.class);
+            recording.enable(ConfigArrangementEvent.class);
+            recording.enable(PackageCopyEvent.class);
+            recording.enable(PluginInvocationEvent.class);
+            recording.enable(HashingEvent.class);
+            recording.start();
+            super.testPm(pm);
+            recording.stop();
+            recording.dump(jfr);
+            events = RecordingFile.readAllEvents(jfr);
+        } catch (IOException e) {
+            throw new ProvisioningException("Failed to read the recording", e);
+        }
+
+        final Map<String, RecordedEvent> recorded = new HashMap<>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals("org.jboss.galleon.PluginInvocation")) {
+                recorded.put(event.getString("phase"), event);
+            } else {
+                recorded.put(event.getEventType().getName(), event);
+            }
+        }
+
+        RecordedEvent event = recorded.get("org.jboss.galleon.FeaturePackResolution");
+        Assert.assertNotNull(event);
+        Assert.assertEquals(FP1_GAV.toString(), event.getString("fpid"));
+
+        event = recorded.get("org.jboss.galleon.FeatureSpecParse");
+        Assert.assertNotNull(event);
+        Assert.assertEquals(FP1_GAV.toString(), event.getString("fpid"));
+
+        event = recorded.get("org.jboss.galleon.ConfigArrangement");
+        Assert.assertNotNull(event);
+        Assert.assertEquals("model1", event.getString("model"));
+        Assert.assertEquals("config1", event.getString("name"));
+        Assert.assertEquals(2, event.getInt("featureCount"));
+
+        event = recorded.get("org.jboss.galleon.PackageCopy");
+        Assert.assertNotNull(event);
+        Assert.assertEquals("p1", event.getString("packageName"));
+        Assert.assertEquals(2, event.getInt("files"));
+        Assert.assertEquals("p1 content".length() + "p1".length(), event.getLong("bytes"));
+
+        Assert.assertNotNull(recorded.get(PluginInvocationEvent.PHASE_PRE_INSTALL));
+        event = recorded.get(PluginInvocationEvent.PHASE_POST_INSTALL);
+        Assert.assertNotNull(event);
+        Assert.assertEquals(NoOpInstallPlugin.class.getName(), event.getClass("pluginClass").getName());
+
+        event = recorded.get("org.jboss.galleon.Hashing");
+        Assert.assertNotNull(event);
+        Assert.assertTrue(event.getInt("files") >= 2);
+    }
+
+    @Override
+    protected ProvisionedState provisionedState() throws ProvisioningException {
+        return ProvisionedState.builder()
+                .addFeaturePack(ProvisionedFeaturePack.builder(FP1_GAV)
+                        .addPackage("p1")
+                        .build())
+                .addConfig(ProvisionedConfigBuilder.builder()
+                        .setModel("model1").setName("config1")
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1_GAV.getProducer(), "specA", "a", "1")))
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1_GAV.getProducer(), "specA", "a", "2")))
+                        .build())
+                .build();
+    }
+
+    @Override
+    protected DirState provisionedHomeDir() {
+        return newDirBuilder()
+                .addFile("fp1/p1.txt", "p1 content")
+                .addFile("fp1/dir/p1.txt", "p1")
+                .build();
+    }
+}
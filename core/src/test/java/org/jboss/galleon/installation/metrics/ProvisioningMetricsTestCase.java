@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.installation.metrics;
+
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.ProvisioningManager;
+import org.jboss.galleon.config.FeaturePackConfig;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.metrics.ProvisioningMetrics;
+import org.jboss.galleon.metrics.ProvisioningMetrics.Phase;
+import org.jboss.galleon.state.ProvisionedFeaturePack;
+import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.galleon.test.PmProvisionConfigTestBase;
+import org.jboss.galleon.test.util.fs.state.DirState;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1Universe;
+import org.junit.Assert;
+
+/**
+ * Re-provisioning an installation records every phase and the package content copied.
+ */
+public class ProvisioningMetricsTestCase extends PmProvisionConfigTestBase {
+
+    private static final FPID FP1_GAV = LegacyGalleon1Universe.newFPID("org.jboss.pm.test:fp1", "1", "1.0.0.Final");
+
+    private final ProvisioningMetrics metrics = ProvisioningMetrics.newInstance();
+
+    @Override
+    protected ProvisioningManager getPm() throws ProvisioningException {
+        return ProvisioningManager.builder()
+                .addArtifactResolver(repo)
+                .setInstallationHome(installHome)
+                .setMessageWriter(getMessageWriter())
+                .setMetrics(metrics)
+                .build();
+    }
+
+    @Override
+    protected void createFeaturePacks(FeaturePackCreator creator) throws ProvisioningException {
+        creator
+            .newFeaturePack(FP1_GAV)
+                .newPackage("p1", true)
+                    .writeContent("fp1/p1.txt", "p1")
+                    .getFeaturePack()
+                .newPackage("p2")
+                    .writeContent("fp1/p2.txt", "p2 content");
+    }
+
+    @Override
+    protected ProvisioningConfig initialState() throws ProvisioningException {
+        return ProvisioningConfig.builder()
+                .addFeaturePackDep(FeaturePackConfig.forLocation(FP1_GAV.getLocation()))
+                .build();
+    }
+
+    @Override
+    protected ProvisioningConfig provisioningConfig() throws ProvisioningDescriptionException {
+        return ProvisioningConfig.builder()
+                .addFeaturePackDep(FeaturePackConfig.builder(FP1_GAV.getLocation())
+                        .includePackage("p2")
+                        .build())
+                .build();
+    }
+
+    @Override
+    protected void testPm(ProvisioningManager pm) throws ProvisioningException {
+        metrics.reset();
+        super.testPm(pm);
+
+        Assert.assertSame(metrics, pm.getMetrics());
+        for(Phase phase : Phase.values()) {
+            Assert.assertTrue(phase.getName(), metrics.getCount(phase) > 0);
+            Assert.assertTrue(phase.getName(), metrics.getDurationNanos(phase) > 0);
+        }
+        Assert.assertEquals(1, metrics.getCount(Phase.PACKAGE_COPY));
+        Assert.assertEquals(2, metrics.getFilesCopied());
+        Assert.assertEquals("p1".length() + "p2 content".length(), metrics.getBytesCopied());
+        Assert.assertTrue(metrics.toJson().contains("\"package-copy\":{\"count\":1,"));
+    }
+
+    @Override
+    protected ProvisionedState provisionedState() {
+        return ProvisionedState.builder()
+                .addFeaturePack(ProvisionedFeaturePack.builder(FP1_GAV)
+                        .addPackage("p1")
+                        .addPackage("p2")
+                        .build())
+                .build();
+    }
+
+    @Override
+    protected DirState provisionedHomeDir() {
+        return newDirBuilder()
+                .addFile("fp1/p1.txt", "p1")
+                .addFile("fp1/p2.txt", "p2 content")
+                .build();
+    }
+}
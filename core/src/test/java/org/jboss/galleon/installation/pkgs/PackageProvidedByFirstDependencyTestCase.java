@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.installation.pkgs;
+
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.config.FeaturePackConfig;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.state.ProvisionedFeaturePack;
+import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.galleon.test.PmProvisionConfigTestBase;
+import org.jboss.galleon.test.util.fs.state.DirState;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1Universe;
+
+/**
+ * A package dependency not found in the origin is provided by the first dependency of the origin
+ * including the package, the dependencies being visited depth-first in the order they are declared.
+ */
+public class PackageProvidedByFirstDependencyTestCase extends PmProvisionConfigTestBase {
+
+    private static final FPID FP1 = LegacyGalleon1Universe.newFPID("org.jboss.pm.test:fp1", "1", "1.0.0.Final");
+    private static final FPID FP2 = LegacyGalleon1Universe.newFPID("org.jboss.pm.test:fp2", "1", "1.0.0.Final");
+    private static final FPID FP3 = LegacyGalleon1Universe.newFPID("org.jboss.pm.test:fp3", "1", "1.0.0.Final");
+    private static final FPID FP4 = LegacyGalleon1Universe.newFPID("org.jboss.pm.test:fp4", "1", "1.0.0.Final");
+
+    @Override
+    protected void createFeaturePacks(FeaturePackCreator creator) throws ProvisioningException {
+        creator
+            .newFeaturePack(FP1)
+                .addDependency(FeaturePackConfig.builder(FP2.getLocation(), false).build())
+                .addDependency(FeaturePackConfig.builder(FP3.getLocation(), false).build())
+                .newPackage("p1", true)
+                    .addDependency("shared")
+                    .addDependency("p3")
+                    .writeContent("fp1/p1.txt", "p1")
+                    .getFeaturePack()
+                .getCreator()
+            .newFeaturePack(FP2)
+                .addDependency(FeaturePackConfig.builder(FP4.getLocation(), false).build())
+                .getCreator()
+            .newFeaturePack(FP3)
+                .newPackage("shared")
+                    .writeContent("fp3/shared.txt", "shared")
+                    .getFeaturePack()
+                .newPackage("p3")
+                    .writeContent("fp3/p3.txt", "p3")
+                    .getFeaturePack()
+                .getCreator()
+            .newFeaturePack(FP4)
+                .newPackage("shared")
+                    .writeContent("fp4/shared.txt", "shared")
+                    .getFeaturePack();
+    }
+
+    @Override
+    protected ProvisioningConfig provisioningConfig() throws ProvisioningDescriptionException {
+        return ProvisioningConfig.builder()
+                .addFeaturePackDep(FeaturePackConfig.forLocation(FP1.getLocation()))
+                .build();
+    }
+
+    @Override
+    protected ProvisionedState provisionedState() {
+        return ProvisionedState.builder()
+                .addFeaturePack(ProvisionedFeaturePack.builder(FP4)
+                        .addPackage("shared")
+                        .build())
+                .addFeaturePack(ProvisionedFeaturePack.builder(FP2).build())
+                .addFeaturePack(ProvisionedFeaturePack.builder(FP3)
+                        .addPackage("p3")
+                        .build())
+                .addFeaturePack(ProvisionedFeaturePack.builder(FP1)
+                        .addPackage("p1")
+                        .build())
+                .build();
+    }
+
+    @Override
+    protected DirState provisionedHomeDir() {
+        return newDirBuilder()
+                .addFile("fp1/p1.txt", "p1")
+                .addFile("fp3/p3.txt", "p3")
+                .addFile("fp4/shared.txt", "shared")
+                .build();
+    }
+}
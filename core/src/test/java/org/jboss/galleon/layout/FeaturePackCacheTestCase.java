@@ -0,0 +1,246 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.layout;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.spec.PackageSpec;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1Universe;
+import org.jboss.galleon.util.ZipUtils;
+import org.jboss.galleon.xml.PackageXmlWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FeaturePackCacheTestCase {
+
+    private static final FPID FP1 = LegacyGalleon1Universe.newFPID("org.pm.test:fp1", "1", "1.0.0.Final");
+    private static final FPID FP2 = LegacyGalleon1Universe.newFPID("org.pm.test:fp2", "1", "1.0.0.Final");
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testIllegalMaxSizeIsReported() throws Exception {
+        System.setProperty(FeaturePackCache.CACHE_DIR_PROPERTY, temp.newFolder("cache").toString());
+        try {
+            for (String maxSize : new String[] {"2G", "0", "-1"}) {
+                System.setProperty(FeaturePackCache.MAX_SIZE_PROPERTY, maxSize);
+                try {
+                    FeaturePackCache.getDefault();
+                    fail("Illegal max size " + maxSize + " was accepted");
+                } catch (ProvisioningException e) {
+                    assertTrue(e.getMessage().contains(FeaturePackCache.MAX_SIZE_PROPERTY));
+                }
+            }
+            System.setProperty(FeaturePackCache.MAX_SIZE_PROPERTY, "1024");
+            assertEquals(1024, FeaturePackCache.getDefault().getMaxSize());
+        } finally {
+            System.clearProperty(FeaturePackCache.CACHE_DIR_PROPERTY);
+            System.clearProperty(FeaturePackCache.MAX_SIZE_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testEntryIsReused() throws Exception {
+        final FeaturePackCache cache = new FeaturePackCache(temp.newFolder("cache").toPath(), FeaturePackCache.DEFAULT_MAX_SIZE);
+        final Path archive = archive("fp1", "content");
+        final Path dir;
+        try (FeaturePackCache.Entry entry = cache.get(FP1, archive)) {
+            dir = entry.getDir();
+            assertEquals("content", read(dir.resolve("file.txt")));
+            Files.write(dir.resolve("marker.txt"), new byte[0]);
+        }
+        try (FeaturePackCache.Entry entry = cache.get(FP1, archive)) {
+            assertEquals(dir, entry.getDir());
+            assertTrue(Files.exists(entry.getDir().resolve("marker.txt")));
+        }
+    }
+
+    @Test
+    public void testTouchedArchiveWithSameContentReusesEntry() throws Exception {
+        final FeaturePackCache cache = new FeaturePackCache(temp.newFolder("cache").toPath(), FeaturePackCache.DEFAULT_MAX_SIZE);
+        final Path archive = archive("fp1", "content");
+        final Path dir;
+        try (FeaturePackCache.Entry entry = cache.get(FP1, archive)) {
+            dir = entry.getDir();
+            Files.write(dir.resolve("marker.txt"), new byte[0]);
+        }
+        Files.setLastModifiedTime(archive, FileTime.fromMillis(Files.getLastModifiedTime(archive).toMillis() + 60000));
+        try (FeaturePackCache.Entry entry = cache.get(FP1, archive)) {
+            assertEquals(dir, entry.getDir());
+            assertTrue(Files.exists(entry.getDir().resolve("marker.txt")));
+        }
+    }
+
+    @Test
+    public void testDifferentFeaturePacksAreExtractedConcurrently() throws Exception {
+        final FeaturePackCache cache = new FeaturePackCache(temp.newFolder("cache").toPath(), FeaturePackCache.DEFAULT_MAX_SIZE);
+        final Path fp1Archive = archive("fp1", "fp1 content");
+        final Path fp2Archive = archive("fp2", "fp2 content");
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<String> fp1 = executor.submit(get(cache, FP1, fp1Archive));
+            final Future<String> fp2 = executor.submit(get(cache, FP2, fp2Archive));
+            assertEquals("fp1 content", fp1.get());
+            assertEquals("fp2 content", fp2.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStaleEntryIsReplaced() throws Exception {
+        final FeaturePackCache cache = new FeaturePackCache(temp.newFolder("cache").toPath(), FeaturePackCache.DEFAULT_MAX_SIZE);
+        try (FeaturePackCache.Entry entry = cache.get(FP1, archive("fp1", "content"))) {
+            assertEquals("content", read(entry.getDir().resolve("file.txt")));
+        }
+        try (FeaturePackCache.Entry entry = cache.get(FP1, archive("fp1-rebuilt", "rebuilt"))) {
+            assertEquals("rebuilt", read(entry.getDir().resolve("file.txt")));
+        }
+    }
+
+    @Test
+    public void testStaleEntryInUseIsNotReplaced() throws Exception {
+        final FeaturePackCache cache = new FeaturePackCache(temp.newFolder("cache").toPath(), FeaturePackCache.DEFAULT_MAX_SIZE);
+        try (FeaturePackCache.Entry entry = cache.get(FP1, archive("fp1", "content"))) {
+            assertEquals(null, cache.get(FP1, archive("fp1-rebuilt", "rebuilt")));
+            assertEquals("content", read(entry.getDir().resolve("file.txt")));
+        }
+    }
+
+    @Test
+    public void testEntryOfOlderFormatIsReplaced() throws Exception {
+        final FeaturePackCache cache = new FeaturePackCache(temp.newFolder("cache").toPath(), FeaturePackCache.DEFAULT_MAX_SIZE);
+        final Path archive = archive("fp1", "content");
+        final Path dir;
+        try (FeaturePackCache.Entry entry = cache.get(FP1, archive)) {
+            dir = entry.getDir();
+            Files.write(dir.resolve("marker.txt"), new byte[0]);
+        }
+        final Path entryFile = dir.getParent().resolve("entry");
+        final List<String> lines = Files.readAllLines(entryFile);
+        Files.write(entryFile, lines.subList(0, lines.size() - 1));
+        try (FeaturePackCache.Entry entry = cache.get(FP1, archive)) {
+            assertEquals("content", read(entry.getDir().resolve("file.txt")));
+            assertFalse(Files.exists(entry.getDir().resolve("marker.txt")));
+        }
+    }
+
+    @Test
+    public void testMetadataIndexIsValidatedOnExtraction() throws Exception {
+        final FeaturePackCache cache = new FeaturePackCache(temp.newFolder("cache").toPath(), FeaturePackCache.DEFAULT_MAX_SIZE);
+        final Path fpDir = temp.newFolder("fp1").toPath();
+        final Path pkgXml = fpDir.resolve(Constants.PACKAGES).resolve("p1").resolve(Constants.PACKAGE_XML);
+        Files.createDirectories(pkgXml.getParent());
+        PackageXmlWriter.getInstance().write(PackageSpec.builder("p1").build(), pkgXml);
+        FeaturePackMetadataIndex.write(fpDir);
+        final Path archive = temp.getRoot().toPath().resolve("fp1.zip");
+        ZipUtils.zip(fpDir, archive);
+        try (FeaturePackCache.Entry entry = cache.get(FP1, archive)) {
+            assertNotNull(FeaturePackMetadataIndex.read(entry.getDir(), true));
+        }
+
+        PackageXmlWriter.getInstance().write(PackageSpec.builder("p1").addPackageDep("p2").build(), pkgXml);
+        final Path staleArchive = temp.getRoot().toPath().resolve("fp2.zip");
+        ZipUtils.zip(fpDir, staleArchive);
+        try (FeaturePackCache.Entry entry = cache.get(FP2, staleArchive)) {
+            assertTrue(Files.exists(entry.getDir().resolve(Constants.PACKAGES).resolve("p1").resolve(Constants.PACKAGE_XML)));
+            assertFalse(Files.exists(entry.getDir().resolve(Constants.METADATA_INDEX)));
+        }
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() throws Exception {
+        final FeaturePackCache cache = new FeaturePackCache(temp.newFolder("cache").toPath(), 10);
+        final Path fp1Dir;
+        try (FeaturePackCache.Entry entry = cache.get(FP1, archive("fp1", "fp1 content"))) {
+            fp1Dir = entry.getDir();
+        }
+        try (FeaturePackCache.Entry entry = cache.get(FP2, archive("fp2", "fp2 content"))) {
+            assertNotEquals(fp1Dir, entry.getDir());
+            assertTrue(Files.exists(entry.getDir()));
+        }
+        assertFalse(Files.exists(fp1Dir));
+    }
+
+    @Test
+    public void testEvictedEntryLeavesNoLockFiles() throws Exception {
+        final Path cacheDir = temp.newFolder("cache").toPath();
+        final FeaturePackCache cache = new FeaturePackCache(cacheDir, 10);
+        final String fp1Key;
+        try (FeaturePackCache.Entry entry = cache.get(FP1, archive("fp1", "fp1 content"))) {
+            fp1Key = entry.getDir().getParent().getFileName().toString();
+        }
+        assertTrue(Files.exists(cacheDir.resolve(fp1Key + ".extract")));
+        try (FeaturePackCache.Entry entry = cache.get(FP2, archive("fp2", "fp2 content"))) {
+            assertTrue(Files.exists(entry.getDir()));
+        }
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            assertFalse(files.anyMatch(file -> file.getFileName().toString().startsWith(fp1Key)));
+        }
+    }
+
+    @Test
+    public void testEntryInUseIsNotEvicted() throws Exception {
+        final FeaturePackCache cache = new FeaturePackCache(temp.newFolder("cache").toPath(), 10);
+        try (FeaturePackCache.Entry fp1 = cache.get(FP1, archive("fp1", "fp1 content"));
+                FeaturePackCache.Entry fp2 = cache.get(FP2, archive("fp2", "fp2 content"))) {
+            assertEquals("fp1 content", read(fp1.getDir().resolve("file.txt")));
+            assertEquals("fp2 content", read(fp2.getDir().resolve("file.txt")));
+        }
+    }
+
+    private static Callable<String> get(FeaturePackCache cache, FPID fpid, Path archive) {
+        return () -> {
+            try (FeaturePackCache.Entry entry = cache.get(fpid, archive)) {
+                return read(entry.getDir().resolve("file.txt"));
+            }
+        };
+    }
+
+    private Path archive(String name, String content) throws Exception {
+        final Path src = temp.newFolder(name).toPath();
+        Files.write(src.resolve("file.txt"), content.getBytes(StandardCharsets.UTF_8));
+        final Path archive = temp.getRoot().toPath().resolve(name + ".zip");
+        ZipUtils.zip(src, archive);
+        return archive;
+    }
+
+    private static String read(Path file) throws Exception {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.layout;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.spec.FeatureAnnotation;
+import org.jboss.galleon.spec.FeatureDependencySpec;
+import org.jboss.galleon.spec.FeatureId;
+import org.jboss.galleon.spec.FeatureParameterSpec;
+import org.jboss.galleon.spec.FeatureReferenceSpec;
+import org.jboss.galleon.spec.FeatureSpec;
+import org.jboss.galleon.spec.PackageDependencySpec;
+import org.jboss.galleon.spec.PackageSpec;
+import org.jboss.galleon.util.IoUtils;
+import org.jboss.galleon.util.ZipUtils;
+import org.jboss.galleon.xml.FeatureSpecXmlWriter;
+import org.jboss.galleon.xml.PackageXmlWriter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class FeaturePackMetadataIndexTestCase {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private Path fpDir;
+    private PackageSpec pkgSpec;
+    private FeatureSpec featureSpec;
+
+    @Before
+    public void before() throws Exception {
+        fpDir = temp.newFolder("fp").toPath();
+        pkgSpec = PackageSpec.builder("p1")
+                .setStability("preview")
+                .addPackageDep("p2")
+                .addPackageDep(PackageDependencySpec.optional("p3", "experimental"))
+                .addPackageDep(PackageDependencySpec.passive("p4"))
+                .addPackageDep("fp2", "p5", true)
+                .build();
+        featureSpec = FeatureSpec.builder("specA")
+                .addAnnotation(FeatureAnnotation.featureBranch("branch", true))
+                .providesCapability("cap.$a")
+                .requiresCapability("cap.$b", true)
+                .addFeatureDep(FeatureDependencySpec.create(FeatureId.create("specB", "b", "b1"), "fp2", true))
+                .addFeatureRef(FeatureReferenceSpec.builder("specB").setName("ref").setNillable(true).mapParam("b", "b").build())
+                .addParam(FeatureParameterSpec.createId("a"))
+                .addParam(FeatureParameterSpec.create("b", true))
+                .addParam(FeatureParameterSpec.builder("c").setDefaultValue("def").setType("int").setStability("community").build())
+                .addPackageDep("p1")
+                .build();
+        final Path pkgXml = fpDir.resolve(Constants.PACKAGES).resolve("p1").resolve(Constants.PACKAGE_XML);
+        Files.createDirectories(pkgXml.getParent());
+        PackageXmlWriter.getInstance().write(pkgSpec, pkgXml);
+        final Path specXml = fpDir.resolve(Constants.FEATURES).resolve("specA").resolve(Constants.SPEC_XML);
+        Files.createDirectories(specXml.getParent());
+        FeatureSpecXmlWriter.getInstance().write(featureSpec, specXml);
+    }
+
+    @Test
+    public void testSpecsAreIndexed() throws Exception {
+        FeaturePackMetadataIndex.write(fpDir);
+        final FeaturePackMetadataIndex index = FeaturePackMetadataIndex.read(fpDir);
+        assertNotNull(index);
+        assertEquals(pkgSpec, index.getPackageSpec("p1"));
+        assertEquals(pkgSpec.toString(), index.getPackageSpec("p1").toString());
+        assertEquals(featureSpec, index.getFeatureSpec("specA"));
+        assertNull(index.getPackageSpec("p2"));
+        assertNull(index.getFeatureSpec("specB"));
+    }
+
+    @Test
+    public void testModifiedXmlInvalidatesIndex() throws Exception {
+        FeaturePackMetadataIndex.write(fpDir);
+        final Path pkgXml = fpDir.resolve(Constants.PACKAGES).resolve("p1").resolve(Constants.PACKAGE_XML);
+        PackageXmlWriter.getInstance().write(PackageSpec.builder("p1").addPackageDep("p6").build(), pkgXml);
+        assertNull(FeaturePackMetadataIndex.read(fpDir));
+    }
+
+    @Test
+    public void testValidatedIndexIsNotCheckedAgainstXml() throws Exception {
+        FeaturePackMetadataIndex.write(fpDir);
+        final Path pkgXml = fpDir.resolve(Constants.PACKAGES).resolve("p1").resolve(Constants.PACKAGE_XML);
+        PackageXmlWriter.getInstance().write(PackageSpec.builder("p1").addPackageDep("p6").build(), pkgXml);
+        assertNull(FeaturePackMetadataIndex.read(fpDir, false));
+        final FeaturePackMetadataIndex index = FeaturePackMetadataIndex.read(fpDir, true);
+        assertNotNull(index);
+        assertEquals(pkgSpec, index.getPackageSpec("p1"));
+    }
+
+    @Test
+    public void testXmlModifiedKeepingSizeInvalidatesIndex() throws Exception {
+        FeaturePackMetadataIndex.write(fpDir);
+        final Path pkgXml = fpDir.resolve(Constants.PACKAGES).resolve("p1").resolve(Constants.PACKAGE_XML);
+        final long size = Files.size(pkgXml);
+        final String xml = new String(Files.readAllBytes(pkgXml), StandardCharsets.UTF_8);
+        Files.write(pkgXml, xml.replace("\"p2\"", "\"p7\"").getBytes(StandardCharsets.UTF_8));
+        assertEquals(size, Files.size(pkgXml));
+        assertNull(FeaturePackMetadataIndex.read(fpDir));
+    }
+
+    @Test
+    public void testIndexInArchive() throws Exception {
+        FeaturePackMetadataIndex.write(fpDir);
+        final Path archive = temp.getRoot().toPath().resolve("fp.zip");
+        ZipUtils.zip(fpDir, archive);
+        try (FileSystem zipFs = ZipUtils.newFileSystem(archive)) {
+            final FeaturePackMetadataIndex index = FeaturePackMetadataIndex.read(zipFs.getPath("/"));
+            assertNotNull(index);
+            assertEquals(pkgSpec, index.getPackageSpec("p1"));
+            assertEquals(featureSpec, index.getFeatureSpec("specA"));
+        }
+    }
+
+    @Test
+    public void testAddedXmlInvalidatesIndex() throws Exception {
+        FeaturePackMetadataIndex.write(fpDir);
+        final Path specXml = fpDir.resolve(Constants.FEATURES).resolve("specB").resolve(Constants.SPEC_XML);
+        Files.createDirectories(specXml.getParent());
+        FeatureSpecXmlWriter.getInstance().write(FeatureSpec.builder("specB").build(), specXml);
+        assertNull(FeaturePackMetadataIndex.read(fpDir));
+    }
+
+    @Test
+    public void testIndexedSpecsDoNotReadXml() throws Exception {
+        FeaturePackMetadataIndex.write(fpDir);
+        final FeaturePackMetadataIndex index = FeaturePackMetadataIndex.read(fpDir);
+        IoUtils.recursiveDelete(fpDir.resolve(Constants.PACKAGES));
+        IoUtils.recursiveDelete(fpDir.resolve(Constants.FEATURES));
+        assertEquals(pkgSpec, index.getPackageSpec("p1"));
+        assertEquals(featureSpec, index.getFeatureSpec("specA"));
+    }
+
+    @Test
+    public void testMissingOrUnsupportedIndex() throws Exception {
+        assertNull(FeaturePackMetadataIndex.read(fpDir));
+        Files.write(fpDir.resolve(Constants.METADATA_INDEX), "index".getBytes(StandardCharsets.UTF_8));
+        assertNull(FeaturePackMetadataIndex.read(fpDir));
+    }
+}
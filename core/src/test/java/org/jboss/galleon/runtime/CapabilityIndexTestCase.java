@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.runtime;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CapabilityIndexTestCase {
+
+    @Test
+    public void testSplit() {
+        Assert.assertArrayEquals(new String[] {"a"}, CapabilityIndex.split("a"));
+        Assert.assertArrayEquals(new String[] {"a", "b", "c"}, CapabilityIndex.split("a.b.c"));
+        Assert.assertArrayEquals(new String[] {"a", "", "c", ""}, CapabilityIndex.split("a..c."));
+    }
+
+    @Test
+    public void testSameNameSameNode() {
+        final CapabilityIndex index = new CapabilityIndex();
+        final CapabilityIndex.Node provided = index.getRoot().getDescendant(CapabilityIndex.split("org.test.cap"), true);
+        provided.getOrCreateProviders();
+
+        final CapabilityIndex.Node required = index.getRoot()
+                .getDescendant("org", false)
+                .getDescendant("test.cap", false);
+        Assert.assertSame(provided, required);
+        Assert.assertEquals("org.test.cap", required.getName());
+        Assert.assertNotNull(required.getProviders());
+    }
+
+    @Test
+    public void testMissingNodesAreNotAdded() {
+        final CapabilityIndex index = new CapabilityIndex();
+        index.getRoot().getDescendant("org.test.cap", true).getOrCreateProviders();
+
+        final CapabilityIndex.Node missing = index.getRoot().getDescendant("org.test.other", false);
+        Assert.assertNull(missing.getProviders());
+        Assert.assertEquals("org.test.other", missing.getName());
+        Assert.assertNotSame(missing, index.getRoot().getDescendant("org.test.other", false));
+
+        // intermediate nodes have no providers
+        Assert.assertNull(index.getRoot().getDescendant("org.test", false).getProviders());
+    }
+}
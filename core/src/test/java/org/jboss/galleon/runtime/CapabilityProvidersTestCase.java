@@ -0,0 +1,57 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.runtime;
+
+import org.jboss.galleon.spec.FeatureParameterSpec;
+import org.jboss.galleon.spec.FeatureSpec;
+import org.jboss.galleon.type.builtin.BuiltInParameterTypeProvider;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1Universe;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CapabilityProvidersTestCase {
+
+    private static final FPID FP1_GAV = LegacyGalleon1Universe.newFPID("org.jboss.pm.test:fp1", "1", "1.0.0.Final");
+
+    @Test
+    public void testStaticCapabilityIsProvidedOnlyInTheSameConfig() throws Exception {
+        final ResolvedSpecId specId = new ResolvedSpecId(FP1_GAV.getProducer(), "specB");
+        final ResolvedFeatureSpec spec = new ResolvedFeatureSpec(specId, BuiltInParameterTypeProvider.getInstance(),
+                FeatureSpec.builder("specB")
+                .providesCapability("cap.b")
+                .addParam(FeatureParameterSpec.createId("b"))
+                .build());
+
+        // the same spec used by two configs
+        final SpecFeatures config1Features = new SpecFeatures(spec);
+        final SpecFeatures config2Features = new SpecFeatures(spec);
+        final CapabilityProviders config1Providers = new CapabilityProviders();
+        config1Providers.add(config1Features);
+        final CapabilityProviders config2Providers = new CapabilityProviders();
+        config2Providers.add(config2Features);
+
+        final ResolvedFeature feature = new ResolvedFeature(ResolvedFeatureId.create(specId, "b", "b1"), spec, 0);
+        config1Features.add(feature);
+        feature.schedule();
+        feature.branch = new ConfigFeatureBranch(0, false);
+        feature.ordered();
+
+        Assert.assertTrue(config1Providers.isProvided());
+        Assert.assertFalse(config2Providers.isProvided());
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.runtime;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.universe.FeaturePackLocation.ProducerSpec;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1Universe;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResolvedFeatureIdTestCase {
+
+    private static final ProducerSpec PRODUCER = LegacyGalleon1Universe.newFPID("org.jboss.pm.test:fp1", "1", "1.0.0.Final").getProducer();
+
+    @Test
+    public void testParamsBehaveAsMap() throws Exception {
+        final ResolvedFeatureId id = ResolvedFeatureId.builder(PRODUCER, "specA")
+                .setParam("b", "2")
+                .setParam("a", "1")
+                .setParam("c", "3")
+                .build();
+
+        final Map<String, Object> expected = new HashMap<>();
+        expected.put("a", "1");
+        expected.put("b", "2");
+        expected.put("c", "3");
+        Assert.assertEquals(expected, id.getParams());
+        Assert.assertEquals(id.getParams(), expected);
+        Assert.assertEquals(expected.hashCode(), id.getParams().hashCode());
+        Assert.assertEquals("2", id.getParams().get(new String("b")));
+        Assert.assertNull(id.getParams().get("d"));
+    }
+
+    @Test
+    public void testEquality() throws Exception {
+        final ResolvedFeatureId id = ResolvedFeatureId.builder(PRODUCER, "specA")
+                .setParam("a", "1")
+                .setParam("b", "2")
+                .build();
+        final ResolvedFeatureId parsed = ResolvedFeatureId.fromString(id.toString());
+        Assert.assertEquals(id, parsed);
+        Assert.assertEquals(id.hashCode(), parsed.hashCode());
+
+        Assert.assertNotEquals(id, ResolvedFeatureId.builder(PRODUCER, "specA")
+                .setParam("a", "1")
+                .setParam("b", "3")
+                .build());
+        Assert.assertNotEquals(ResolvedFeatureId.create(PRODUCER, "specA", "a", "1"), id);
+    }
+
+    @Test
+    public void testUndefinedParamsAreIgnored() throws Exception {
+        final ResolvedFeatureId id = ResolvedFeatureId.builder(PRODUCER, "specA")
+                .setParam("a", "1")
+                .setParam("b", Constants.GLN_UNDEFINED)
+                .build();
+        Assert.assertEquals(ResolvedFeatureId.create(PRODUCER, "specA", "a", "1"), id);
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.xml;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.plugin.ProvisionedConfigHandler;
+import org.jboss.galleon.runtime.ResolvedFeatureId;
+import org.jboss.galleon.runtime.ResolvedSpecId;
+import org.jboss.galleon.state.ProvisionedConfig;
+import org.jboss.galleon.state.ProvisionedFeature;
+import org.jboss.galleon.state.ProvisionedFeaturePack;
+import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1Universe;
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The provisioned state parsed lazily must be equal to the one parsed eagerly.
+ */
+public class LazyProvisionedStateXmlParserTestCase {
+
+    private static final FPID FP1 = LegacyGalleon1Universe.newFPID("org.jboss.group", "fp1", "1.0");
+    private static final FPID FP2 = LegacyGalleon1Universe.newFPID("org.jboss.group", "fp2", "1.0");
+
+    private Path tmpDir;
+
+    @Before
+    public void before() {
+        tmpDir = IoUtils.createRandomTmpDir();
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(tmpDir);
+    }
+
+    @Test
+    public void testConfigsAreParsedOnAccess() throws Exception {
+        final ProvisionedState state = ProvisionedState.builder()
+                .addFeaturePack(ProvisionedFeaturePack.builder(FP1)
+                        .addPackage("package1")
+                        .build())
+                .addFeaturePack(ProvisionedFeaturePack.builder(FP2).build())
+                .addConfig(ProvisionedConfigBuilder.builder()
+                        .setModel("model")
+                        .setName("name")
+                        .setProperty("prop", "<config>")
+                        .addLayer("model", "layer1")
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1.getProducer(), "spec1", "p", "a"))
+                                .setConfigParam("param", "config")
+                                .build())
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1.getProducer(), "spec2", "p", "b"))
+                                .build())
+                        .addFeature(ProvisionedFeatureBuilder.builder(new ResolvedSpecId(FP2.getProducer(), "spec3"))
+                                .setIdParam("id", "c")
+                                .build())
+                        .build())
+                .addConfig(ProvisionedConfigBuilder.builder().build())
+                .addConfig(ProvisionedConfigBuilder.builder()
+                        .setName("other")
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP2.getProducer(), "spec1", "p", "d"))
+                                .build())
+                        .build())
+                .build();
+        final Path path = tmpDir.resolve("provisioned.xml");
+        ProvisionedStateXmlWriter.getInstance().write(state, path);
+
+        final ProvisionedState lazy = ProvisionedStateXmlParser.parseLazily(path);
+        Assert.assertEquals(state.getFeaturePacks(), lazy.getFeaturePacks());
+        Assert.assertEquals(3, lazy.getConfigs().size());
+        for (int i = 0; i < 3; ++i) {
+            final ProvisionedConfig expected = state.getConfigs().get(i);
+            final ProvisionedConfig actual = lazy.getConfigs().get(i);
+            Assert.assertTrue(actual instanceof LazyProvisionedConfig);
+            Assert.assertEquals(expected.getModel(), actual.getModel());
+            Assert.assertEquals(expected.getName(), actual.getName());
+            Assert.assertEquals(expected.getProperties(), actual.getProperties());
+            Assert.assertEquals(expected.getLayers(), actual.getLayers());
+            Assert.assertEquals(expected.hasFeatures(), actual.hasFeatures());
+            Assert.assertEquals(expected.size(), actual.size());
+            Assert.assertEquals(getFeatures(expected), getFeatures(actual));
+        }
+        Assert.assertEquals(state, lazy);
+        Assert.assertEquals(lazy, state);
+        Assert.assertEquals(state.hashCode(), lazy.hashCode());
+        Assert.assertEquals(ProvisionedStateXmlParser.parse(path), lazy);
+
+
+        // the lazily parsed state does not depend on the file
+        final ProvisionedState detached = ProvisionedStateXmlParser.parseLazily(path);
+        Files.delete(path);
+        Assert.assertEquals(state, detached);
+        Assert.assertEquals(state.hashCode(), detached.hashCode());
+        Assert.assertTrue(detached.getConfigs().get(0).toString().contains("features=3"));
+    }
+
+    @Test
+    public void testMalformedConfigIsReportedWhenParsed() throws Exception {
+        final String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<installation xmlns=\"urn:jboss:galleon:provisioned-state:3.0\">\n"
+                + "  <config name=\"config\">\n"
+                + "    <feature-pack location=\"" + FP1.getLocation() + "\">\n"
+                + "      <spec name=\"spec1\">\n"
+                + "        <feature><unknown/></feature>\n"
+                + "      </spec>\n"
+                + "    </feature-pack>\n"
+                + "  </config>\n"
+                + "</installation>\n";
+        final Path path = tmpDir.resolve("provisioned.xml");
+        Files.writeString(path, xml);
+        final ProvisionedState lazy = ProvisionedStateXmlParser.parseLazily(path);
+        final ProvisionedConfig config = lazy.getConfigs().get(0);
+        Assert.assertEquals("config", config.getName());
+        Assert.assertEquals(1, config.size());
+        try {
+            getFeatures(config);
+            Assert.fail("The malformed config was not reported");
+        } catch (ProvisioningException e) {
+            // expected
+        }
+        Assert.assertNotEquals(ProvisionedStateXmlParser.parseLazily(path), lazy);
+    }
+
+    @Test
+    public void testPrefixedDocument() throws Exception {
+        final String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<!-- <config name=\"comment\"/> -->\n"
+                + "<gln:installation xmlns:gln=\"urn:jboss:galleon:provisioned-state:3.0\">\n"
+                + "  <gln:feature-pack location=\"" + FP1.getLocation() + "\"/>\n"
+                + "  <gln:config name=\"empty\"/>\n"
+                + "  <gln:config model='model' name='a&gt;b'>\n"
+                + "    <!-- </gln:config> -->\n"
+                + "    <gln:feature-pack location=\"" + FP1.getLocation() + "\">\n"
+                + "      <gln:spec name=\"spec1\">\n"
+                + "        <gln:feature><gln:param name=\"p\" value=\"a\"/></gln:feature>\n"
+                + "        <gln:feature><gln:param name=\"p\" value=\"b\"/></gln:feature>\n"
+                + "      </gln:spec>\n"
+                + "    </gln:feature-pack>\n"
+                + "  </gln:config>\n"
+                + "</gln:installation>\n";
+        final Path path = tmpDir.resolve("provisioned.xml");
+        Files.writeString(path, xml);
+
+        final ProvisionedState lazy = ProvisionedStateXmlParser.parseLazily(path);
+        final ProvisionedState eager = ProvisionedStateXmlParser.getInstance().parse(new StringReader(xml));
+        Assert.assertEquals(2, lazy.getConfigs().size());
+        Assert.assertEquals("empty", lazy.getConfigs().get(0).getName());
+        Assert.assertFalse(lazy.getConfigs().get(0).hasFeatures());
+        Assert.assertEquals("a>b", lazy.getConfigs().get(1).getName());
+        Assert.assertEquals(2, lazy.getConfigs().get(1).size());
+        Assert.assertEquals(getFeatures(eager.getConfigs().get(1)), getFeatures(lazy.getConfigs().get(1)));
+        Assert.assertEquals(eager, lazy);
+    }
+
+    @Test
+    public void testMissingFile() throws Exception {
+        Assert.assertNull(ProvisionedStateXmlParser.parseLazily(tmpDir.resolve("provisioned.xml")));
+    }
+
+    private static List<ProvisionedFeature> getFeatures(ProvisionedConfig config) throws ProvisioningException {
+        final List<ProvisionedFeature> features = new ArrayList<>();
+        config.handle(new ProvisionedConfigHandler() {
+            @Override
+            public void nextFeature(ProvisionedFeature feature) {
+                features.add(feature);
+            }
+        });
+        return features;
+    }
+}
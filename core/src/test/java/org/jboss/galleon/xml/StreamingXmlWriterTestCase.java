@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.xml;
+
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.runtime.ResolvedFeatureId;
+import org.jboss.galleon.runtime.ResolvedSpecId;
+import org.jboss.galleon.spec.FeaturePackSpec;
+import org.jboss.galleon.state.ProvisionedFeaturePack;
+import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.galleon1.LegacyGalleon1Universe;
+import org.jboss.galleon.xml.util.FormattingXmlStreamWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The elements written as they are visited must be written exactly like the element trees.
+ */
+public class StreamingXmlWriterTestCase {
+
+    private static final FPID FP1 = LegacyGalleon1Universe.newFPID("org.jboss.group", "fp1", "1.0");
+    private static final FPID FP2 = LegacyGalleon1Universe.newFPID("org.jboss.group", "fp2", "1.0");
+
+    @Test
+    public void testProvisionedState() throws Exception {
+        final ProvisionedState state = ProvisionedState.builder()
+                .addFeaturePack(ProvisionedFeaturePack.builder(FP1)
+                        .addPackage("package1")
+                        .addPackage("package2")
+                        .build())
+                .addFeaturePack(ProvisionedFeaturePack.builder(FP2).build())
+                .addConfig(ProvisionedConfigBuilder.builder()
+                        .setModel("model")
+                        .setName("name")
+                        .setProperty("prop", "value")
+                        .addLayer("model", "layer1")
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1.getProducer(), "spec1", "p", "a"))
+                                .setConfigParam("param", "config")
+                                .build())
+                        .addFeature(ProvisionedFeatureBuilder.builder(ResolvedFeatureId.create(FP1.getProducer(), "spec2", "p", "b"))
+                                .build())
+                        .addFeature(ProvisionedFeatureBuilder.builder(new ResolvedSpecId(FP2.getProducer(), "spec3"))
+                                .build())
+                        .build())
+                .addConfig(ProvisionedConfigBuilder.builder().build())
+                .build();
+        assertSameOutput(ProvisionedStateXmlWriter.getInstance(), state);
+        assertSameOutput(ProvisionedStateXmlWriter.getInstance(), ProvisionedState.builder().build());
+        assertSameOutput(ProvisionedStateXmlWriter.getInstance(), parse(ProvisionedStateXmlParser.getInstance(), Paths.get("xml/provisioned/provisioned-state.xml")));
+    }
+
+    @Test
+    public void testFeatureSpecs() throws Exception {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(getResource("xml/feature/spec"))) {
+            for (Path p : stream) {
+                assertSameOutput(FeatureSpecXmlWriter.getInstance(), parse(FeatureSpecXmlParser.getInstance(), p));
+            }
+        }
+    }
+
+    @Test
+    public void testFeaturePacks() throws Exception {
+        int written = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(getResource("xml/feature-pack"))) {
+            for (Path p : stream) {
+                final FeaturePackSpec spec;
+                try {
+                    spec = parse(FeaturePackXmlParser.getInstance(), p);
+                } catch (ProvisioningDescriptionException | XMLStreamException e) {
+                    // invalid feature-pack descriptors
+                    continue;
+                }
+                assertSameOutput(FeaturePackXmlWriter.getInstance(), spec);
+                ++written;
+            }
+        }
+        Assert.assertTrue(written > 0);
+    }
+
+    private static <T> void assertSameOutput(BaseXmlWriter<T> xmlWriter, T t) throws Exception {
+        final StringWriter tree = new StringWriter();
+        try (FormattingXmlStreamWriter writer = new FormattingXmlStreamWriter(XMLOutputFactory.newDefaultFactory()
+                .createXMLStreamWriter(tree))) {
+            writer.writeStartDocument(StandardCharsets.UTF_8.name(), null);
+            xmlWriter.toElement(t).marshall(writer);
+            writer.writeEndDocument();
+        }
+        final StringWriter streamed = new StringWriter();
+        xmlWriter.write(t, streamed);
+        Assert.assertEquals(tree.toString(), streamed.toString());
+    }
+
+    private static <T> T parse(XmlParser<T> parser, Path p) throws Exception {
+        if (!p.isAbsolute()) {
+            p = getResource(p.toString());
+        }
+        try (Reader reader = Files.newBufferedReader(p)) {
+            return parser.parse(reader);
+        }
+    }
+
+    private static Path getResource(String path) throws Exception {
+        return Paths.get(StreamingXmlWriterTestCase.class.getClassLoader().getResource(path).toURI());
+    }
+}
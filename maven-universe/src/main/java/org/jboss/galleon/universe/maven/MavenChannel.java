@@ -107,10 +107,7 @@ public class MavenChannel implements Channel, MavenChannelDescription {
 
     @Override
     public Path resolve(FeaturePackLocation fpl) throws MavenUniverseException {
-        final MavenArtifact artifact = new MavenArtifact();
-        artifact.setGroupId(producer.getFeaturePackGroupId());
-        artifact.setArtifactId(producer.getFeaturePackArtifactId());
-        artifact.setExtension(MavenArtifact.EXT_ZIP);
+        final MavenArtifact artifact = newFeaturePackArtifact();
 
         if(fpl.getBuild() == null) {
             artifact.setVersionRange(versionRange);
@@ -129,6 +126,14 @@ public class MavenChannel implements Channel, MavenChannelDescription {
         return artifact.getPath();
     }
 
+    MavenArtifact newFeaturePackArtifact() {
+        final MavenArtifact artifact = new MavenArtifact();
+        artifact.setGroupId(producer.getFeaturePackGroupId());
+        artifact.setArtifactId(producer.getFeaturePackArtifactId());
+        artifact.setExtension(MavenArtifact.EXT_ZIP);
+        return artifact;
+    }
+
     public String getFeaturePackGroupId() {
         return producer.getFeaturePackGroupId();
     }
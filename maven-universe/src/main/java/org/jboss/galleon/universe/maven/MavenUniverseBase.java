@@ -18,6 +18,12 @@ package org.jboss.galleon.universe.maven;
 
 import java.nio.file.FileSystem;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.universe.FeaturePackLocation;
 import org.jboss.galleon.universe.Universe;
 import org.jboss.galleon.universe.maven.repo.MavenRepoManager;
 
@@ -55,6 +61,33 @@ public abstract class MavenUniverseBase implements Universe<MavenProducer> {
         return artifact;
     }
 
+    /**
+     * Resolves the feature-packs with a build in one request to the repository.
+     * The latest builds of the feature-packs without a build are resolved one by one.
+     */
+    @Override
+    public Map<FeaturePackLocation, Path> resolveAll(Collection<FeaturePackLocation> fpls) throws ProvisioningException {
+        final Map<FeaturePackLocation, Path> paths = new LinkedHashMap<>(fpls.size());
+        final Map<FeaturePackLocation, MavenArtifact> artifacts = new LinkedHashMap<>(fpls.size());
+        for (FeaturePackLocation fpl : fpls) {
+            final MavenChannel channel = getProducer(fpl.getProducerName()).getChannel(fpl.getChannelName());
+            if (fpl.getBuild() == null) {
+                paths.put(fpl, channel.resolve(fpl));
+            } else {
+                final MavenArtifact artifact = channel.newFeaturePackArtifact();
+                artifact.setVersion(fpl.getBuild());
+                artifacts.put(fpl, artifact);
+            }
+        }
+        if (!artifacts.isEmpty()) {
+            repo.resolveAll(artifacts.values());
+            for (Map.Entry<FeaturePackLocation, MavenArtifact> entry : artifacts.entrySet()) {
+                paths.put(entry.getKey(), entry.getValue().getPath());
+            }
+        }
+        return paths;
+    }
+
     protected static Path getProducerLocations(FileSystem zipfs) {
         return zipfs.getPath(GALLEON, UNIVERSE, PRODUCER, LOCATIONS);
     }
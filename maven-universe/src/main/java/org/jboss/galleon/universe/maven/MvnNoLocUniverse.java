@@ -19,7 +19,9 @@ package org.jboss.galleon.universe.maven;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.jboss.galleon.ProvisioningException;
 import org.jboss.galleon.universe.Channel;
@@ -141,6 +143,20 @@ public class MvnNoLocUniverse implements Universe<MvnNoLocUniverse>, Producer<Mv
         return artifact.getPath();
     }
 
+    @Override
+    public Map<FeaturePackLocation, Path> resolveAll(Collection<FeaturePackLocation> fpls) throws ProvisioningException {
+        final Map<FeaturePackLocation, MavenArtifact> artifacts = new LinkedHashMap<>(fpls.size());
+        for (FeaturePackLocation fpl : fpls) {
+            artifacts.put(fpl, toArtifact(fpl.getFPID()));
+        }
+        repo.resolveAll(artifacts.values());
+        final Map<FeaturePackLocation, Path> paths = new LinkedHashMap<>(fpls.size());
+        for (Map.Entry<FeaturePackLocation, MavenArtifact> entry : artifacts.entrySet()) {
+            paths.put(entry.getKey(), entry.getValue().getPath());
+        }
+        return paths;
+    }
+
     @Override
     public boolean isResolved(FeaturePackLocation fpl) throws ProvisioningException {
         repo.isResolved(toArtifact(fpl.getFPID()));
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.universe.maven.repo;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versions of the artifacts available in a local Maven repository.
+ *
+ * The versions of an artifact are the names of the subdirectories of the artifact directory,
+ * parsed and sorted. They are listed once and reused until the last modified time of the
+ * artifact directory changes, which happens when a version is added or removed.
+ * Directories modified shortly before they were listed are listed again on the next lookup,
+ * since a file system with a coarse time resolution may not tell their next modification.
+ *
+ * The index is kept in memory only for the lifetime of the resolver that created it and holds
+ * the versions of the most recently looked up artifacts, the least recently used ones are dropped
+ * once the limit is reached.
+ */
+class LocalArtifactVersionIndex {
+
+    private static final long RACY_MILLIS = 2000;
+
+    private static final int MAX_ARTIFACTS = 1024;
+
+    private static class Versions {
+        final FileTime lastModified;
+        final boolean racy;
+        final List<MavenArtifactVersion> sorted;
+
+        Versions(FileTime lastModified, boolean racy, List<MavenArtifactVersion> sorted) {
+            this.lastModified = lastModified;
+            this.racy = racy;
+            this.sorted = sorted;
+        }
+    }
+
+    private final Path repoHome;
+    private final Map<String, Versions> artifacts;
+
+    LocalArtifactVersionIndex(Path repoHome) {
+        this.repoHome = repoHome;
+        this.artifacts = Collections.synchronizedMap(new LinkedHashMap<String, Versions>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Versions> eldest) {
+                return size() > MAX_ARTIFACTS;
+            }
+        });
+    }
+
+    Path getArtifactDir(String groupId, String artifactId) {
+        Path artifactDir = repoHome;
+        for (String part : groupId.split("\\.")) {
+            artifactDir = artifactDir.resolve(part);
+        }
+        return artifactDir.resolve(artifactId);
+    }
+
+    /**
+     * Returns the versions available locally sorted in ascending order.
+     *
+     * @param groupId  artifact group ID
+     * @param artifactId  artifact ID
+     * @return  sorted versions or null in case the artifact directory does not exist
+     * @throws IOException  in case the artifact directory could not be read
+     */
+    List<MavenArtifactVersion> getVersions(String groupId, String artifactId) throws IOException {
+        final Path artifactDir = getArtifactDir(groupId, artifactId);
+        final FileTime lastModified;
+        try {
+            lastModified = Files.getLastModifiedTime(artifactDir);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        final String key = groupId + ':' + artifactId;
+        Versions versions = artifacts.get(key);
+        if (versions != null && !versions.racy && versions.lastModified.equals(lastModified)) {
+            return versions.sorted;
+        }
+        final boolean racy = System.currentTimeMillis() - lastModified.toMillis() < RACY_MILLIS;
+        final List<MavenArtifactVersion> sorted = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(artifactDir)) {
+            for (Path path : stream) {
+                if (Files.isDirectory(path)) {
+                    sorted.add(new MavenArtifactVersion(path.getFileName().toString()));
+                }
+            }
+        }
+        Collections.sort(sorted);
+        versions = new Versions(lastModified, racy, Collections.unmodifiableList(sorted));
+        artifacts.put(key, versions);
+        return versions.sorted;
+    }
+}
@@ -16,11 +16,11 @@
  */
 package org.jboss.galleon.universe.maven.repo;
 
-import java.nio.file.DirectoryStream;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Iterator;
-import java.util.NoSuchElementException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import org.jboss.galleon.universe.maven.MavenArtifact;
@@ -37,9 +37,11 @@ public class LocalArtifactVersionRangeResolver {
     private static final MavenArtifactVersionRangeParser versionRangeParser = new MavenArtifactVersionRangeParser();
 
     protected final Path repoHome;
+    private final LocalArtifactVersionIndex versionIndex;
 
     public LocalArtifactVersionRangeResolver(Path localRepo) {
         this.repoHome = localRepo;
+        this.versionIndex = new LocalArtifactVersionIndex(localRepo);
     }
 
     public void resolveLatestVersion(MavenArtifact artifact, String lowestQualifier) throws MavenUniverseException {
@@ -71,79 +73,66 @@ public class LocalArtifactVersionRangeResolver {
         return "Failed to resolve " + artifact.getCoordsAsString() + ": " + path + " does not exist";
     }
 
-    private Path resolveLatestVersionDir(MavenArtifact artifact, String lowestQualifier, Pattern includeVersion, Pattern excludeVersion) throws MavenUniverseException {
+    /**
+     * Returns the locally available versions of the artifact in ascending order.
+     * The versions are filtered by the version range of the artifact, if it is set,
+     * and by the patterns.
+     */
+    public List<String> getAllVersions(MavenArtifact artifact, Pattern includeVersion, Pattern excludeVersion) throws MavenUniverseException {
+        final MavenArtifactVersionRange range = artifact.getVersionRange() == null ? null : versionRangeParser.parseRange(artifact.getVersionRange());
+        final List<MavenArtifactVersion> versions = getVersions(artifact);
+        final List<String> result = new ArrayList<>(versions.size());
+        for (MavenArtifactVersion version : versions) {
+            if (range != null && !range.includesVersion(version)) {
+                continue;
+            }
+            final String v = version.toString();
+            if ((includeVersion == null || includeVersion.matcher(v).matches())
+                    && (excludeVersion == null || !excludeVersion.matcher(v).matches())) {
+                result.add(v);
+            }
+        }
+        return result;
+    }
+
+    private List<MavenArtifactVersion> getVersions(MavenArtifact artifact) throws MavenUniverseException {
         if(artifact.getGroupId() == null) {
             MavenErrors.missingGroupId();
         }
         if(artifact.getArtifactId() == null) {
             MavenErrors.missingArtifactId();
         }
-        if(artifact.getVersionRange() == null) {
-            throw new MavenUniverseException("Version range is missing for " + artifact.getCoordsAsString());
-        }
-        Path artifactDir = repoHome;
-        final String[] groupParts = artifact.getGroupId().split("\\.");
-        for (String part : groupParts) {
-            artifactDir = artifactDir.resolve(part);
+        final List<MavenArtifactVersion> versions;
+        try {
+            versions = versionIndex.getVersions(artifact.getGroupId(), artifact.getArtifactId());
+        } catch (IOException e) {
+            throw new MavenUniverseException(MavenErrors.failedToResolveLatestVersion(artifact.getCoordsAsString()), e);
         }
-        artifactDir = artifactDir.resolve(artifact.getArtifactId());
-        if(!Files.exists(artifactDir)) {
+        if(versions == null) {
             throw MavenErrors.artifactNotFound(artifact, repoHome);
         }
+        return versions;
+    }
+
+    private Path resolveLatestVersionDir(MavenArtifact artifact, String lowestQualifier, Pattern includeVersion, Pattern excludeVersion) throws MavenUniverseException {
+        if(artifact.getVersionRange() == null) {
+            throw new MavenUniverseException("Version range is missing for " + artifact.getCoordsAsString());
+        }
+        final List<MavenArtifactVersion> versions = getVersions(artifact);
         final MavenArtifactVersionRange range = versionRangeParser.parseRange(artifact.getVersionRange());
         if(lowestQualifier == null) {
             lowestQualifier = "";
         }
-        try(DirectoryStream<Path> stream = Files.newDirectoryStream(artifactDir)) {
-
-            final Iterable<String> versions = new Iterable<String>() {
-                @Override
-                public Iterator<String> iterator() {
-                    return new Iterator<String>() {
-                        final Iterator<Path> i = stream.iterator();
-                        Path nextPath = toNext(range);
-
-                        @Override
-                        public boolean hasNext() {
-                            return nextPath != null;
-                        }
-
-                        @Override
-                        public String next() {
-                            if(nextPath != null) {
-                                final String s = nextPath.getFileName().toString();
-                                nextPath = toNext(range);
-                                return s;
-                            }
-                            throw new NoSuchElementException();
-                        }
-
-                        private Path toNext(final MavenArtifactVersionRange range) {
-                            while(i.hasNext()) {
-                                final Path path = i.next();
-                                if(!Files.isDirectory(path)) {
-                                    continue;
-                                }
-                                final MavenArtifactVersion next = new MavenArtifactVersion(path.getFileName().toString());
-                                if(range.includesVersion(next)) {
-                                    return path;
-                                }
-                            }
-                            return null;
-                        }
-                    };
-                }
-            };
-
-            final MavenArtifactVersion latest = MavenArtifactVersion.getLatest(versions, lowestQualifier, includeVersion, excludeVersion);
-            if(latest == null) {
-                throw new MavenLatestVersionNotAvailableException(MavenErrors.failedToResolveLatestVersion(artifact.getCoordsAsString()));
+        final List<MavenArtifactVersion> inRange = new ArrayList<>(versions.size());
+        for(MavenArtifactVersion version : versions) {
+            if(range.includesVersion(version)) {
+                inRange.add(version);
             }
-            return artifactDir.resolve(latest.toString());
-        } catch(MavenUniverseException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new MavenUniverseException(MavenErrors.failedToResolveLatestVersion(artifact.getCoordsAsString()), e);
         }
+        final MavenArtifactVersion latest = MavenArtifactVersion.getLatest(inRange, lowestQualifier, includeVersion, excludeVersion);
+        if(latest == null) {
+            throw new MavenLatestVersionNotAvailableException(MavenErrors.failedToResolveLatestVersion(artifact.getCoordsAsString()));
+        }
+        return versionIndex.getArtifactDir(artifact.getGroupId(), artifact.getArtifactId()).resolve(latest.toString());
     }
 }
@@ -20,8 +20,11 @@ import org.jboss.galleon.universe.maven.MavenUniverseConstants;
 import org.jboss.galleon.universe.maven.MavenUniverseException;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.jboss.galleon.ProvisioningException;
@@ -48,6 +51,21 @@ public interface MavenRepoManager extends RepositoryArtifactResolver {
         return artifact.getPath();
     }
 
+    @Override
+    default Map<String, Path> resolveLocations(Collection<String> locations) throws ProvisioningException {
+        final List<MavenArtifact> artifacts = new ArrayList<>(locations.size());
+        for (String location : locations) {
+            artifacts.add(MavenArtifact.fromString(location));
+        }
+        resolveAll(artifacts);
+        final Map<String, Path> paths = new LinkedHashMap<>(locations.size());
+        int i = 0;
+        for (String location : locations) {
+            paths.put(location, artifacts.get(i++).getPath());
+        }
+        return paths;
+    }
+
     void resolve(MavenArtifact artifact) throws MavenUniverseException;
 
     default void resolveAll(Collection<MavenArtifact> artifacts) throws MavenUniverseException {
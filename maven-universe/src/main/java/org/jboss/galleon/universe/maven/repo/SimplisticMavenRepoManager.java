@@ -201,11 +201,18 @@ public class SimplisticMavenRepoManager extends LocalArtifactVersionRangeResolve
 
     @Override
     public List<String> getAllVersions(MavenArtifact artifact) throws MavenUniverseException {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        return getAllVersions(artifact, null, null);
     }
 
     @Override
     public List<String> getAllVersions(MavenArtifact artifact, Pattern includeVersion, Pattern excludeVersion) throws MavenUniverseException {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        try {
+            return super.getAllVersions(artifact, includeVersion, excludeVersion);
+        } catch(MavenUniverseException e) {
+            if(fallback == null) {
+                throw e;
+            }
+        }
+        return fallback.getAllVersions(artifact, includeVersion, excludeVersion);
     }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.universe.maven.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.universe.FeaturePackLocation;
+import org.jboss.galleon.universe.UniverseSpec;
+import org.jboss.galleon.universe.maven.MavenArtifact;
+import org.jboss.galleon.universe.maven.MvnNoLocUniverse;
+import org.jboss.galleon.universe.maven.repo.MavenRepoManager;
+import org.jboss.galleon.universe.maven.repo.SimplisticMavenRepoManager;
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchResolutionTestCase {
+
+    private Path repoHome;
+    private Path fp1;
+    private Path fp2;
+    private final List<Collection<MavenArtifact>> batches = new ArrayList<>();
+    private MavenRepoManager repo;
+
+    @Before
+    public void before() throws Exception {
+        repoHome = Files.createTempDirectory("galleon-local-repo");
+        fp1 = addArtifact("fp1", "1.0.0.Final");
+        fp2 = addArtifact("fp2", "2.0.0.Final");
+        final SimplisticMavenRepoManager simplistic = SimplisticMavenRepoManager.getInstance(repoHome);
+        repo = (MavenRepoManager) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {MavenRepoManager.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("resolveAll")) {
+                        @SuppressWarnings("unchecked")
+                        final Collection<MavenArtifact> artifacts = (Collection<MavenArtifact>) args[0];
+                        batches.add(new ArrayList<>(artifacts));
+                        for (MavenArtifact artifact : artifacts) {
+                            simplistic.resolve(artifact);
+                        }
+                        return null;
+                    }
+                    if (method.isDefault()) {
+                        return InvocationHandler.invokeDefault(proxy, method, args);
+                    }
+                    return method.invoke(simplistic, args);
+                });
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(repoHome);
+    }
+
+    @Test
+    public void testResolveLocations() throws Exception {
+        final Map<String, Path> paths = repo.resolveLocations(Arrays.asList("org.test:fp1:zip:1.0.0.Final", "org.test:fp2:zip:2.0.0.Final"));
+        assertEquals(1, batches.size());
+        assertEquals(fp1, paths.get("org.test:fp1:zip:1.0.0.Final"));
+        assertEquals(fp2, paths.get("org.test:fp2:zip:2.0.0.Final"));
+    }
+
+    @Test
+    public void testResolveMavenCoordinates() throws Exception {
+        final UniverseSpec maven = new UniverseSpec(Constants.MAVEN);
+        final FeaturePackLocation fpl1 = new FeaturePackLocation(maven, "org.test:fp1::zip", null, null, "1.0.0.Final");
+        final FeaturePackLocation fpl2 = new FeaturePackLocation(maven, "org.test:fp2::zip", null, null, "2.0.0.Final");
+        final Map<FeaturePackLocation, Path> paths = new MvnNoLocUniverse(repo).resolveAll(Arrays.asList(fpl1, fpl2));
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(fp1, paths.get(fpl1));
+        assertEquals(fp2, paths.get(fpl2));
+    }
+
+    private Path addArtifact(String artifactId, String version) throws IOException {
+        final Path dir = repoHome.resolve("org").resolve("test").resolve(artifactId).resolve(version);
+        Files.createDirectories(dir);
+        final Path file = dir.resolve(artifactId + "-" + version + ".zip");
+        Files.write(file, version.getBytes());
+        return file;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.universe.maven.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import org.jboss.galleon.universe.maven.MavenArtifact;
+import org.jboss.galleon.universe.maven.repo.SimplisticMavenRepoManager;
+import org.jboss.galleon.util.IoUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LocalArtifactVersionIndexTestCase {
+
+    private Path repoHome;
+    private Path artifactDir;
+    private FileTime lastModified;
+
+    @Before
+    public void before() throws Exception {
+        repoHome = Files.createTempDirectory("galleon-local-repo");
+        artifactDir = repoHome.resolve("org").resolve("test").resolve("fp");
+        addVersion("1.0.0.Final");
+        addVersion("1.0.0.Alpha1");
+        addVersion("1.1.0.Final-SNAPSHOT");
+        addVersion("0.9.0.Final");
+        // make the directory old enough for its listing to be reused
+        lastModified = FileTime.fromMillis(System.currentTimeMillis() - 60000);
+        Files.setLastModifiedTime(artifactDir, lastModified);
+    }
+
+    @After
+    public void after() {
+        IoUtils.recursiveDelete(repoHome);
+    }
+
+    @Test
+    public void testVersionsAreSorted() throws Exception {
+        final SimplisticMavenRepoManager repo = SimplisticMavenRepoManager.getInstance(repoHome);
+        assertEquals(Arrays.asList("0.9.0.Final", "1.0.0.Alpha1", "1.0.0.Final", "1.1.0.Final-SNAPSHOT"), repo.getAllVersions(newArtifact(null)));
+        assertEquals(Arrays.asList("1.0.0.Alpha1", "1.0.0.Final"), repo.getAllVersions(newArtifact("[0.9.1,1.0.0.Final]")));
+        assertEquals("1.0.0.Final", repo.getLatestVersion(newArtifact("[1.0,)"), null));
+    }
+
+    @Test
+    public void testAddedVersionIsIndexed() throws Exception {
+        final SimplisticMavenRepoManager repo = SimplisticMavenRepoManager.getInstance(repoHome);
+        assertEquals("1.0.0.Final", repo.getLatestVersion(newArtifact("[1.0,)"), null));
+
+        // the versions are not listed again as long as the directory is not modified
+        addVersion("1.2.0.Final");
+        Files.setLastModifiedTime(artifactDir, lastModified);
+        assertEquals("1.0.0.Final", repo.getLatestVersion(newArtifact("[1.0,)"), null));
+
+        Files.setLastModifiedTime(artifactDir, FileTime.fromMillis(lastModified.toMillis() + 1000));
+        assertEquals("1.2.0.Final", repo.getLatestVersion(newArtifact("[1.0,)"), null));
+        assertEquals("1.2.0.Final", SimplisticMavenRepoManager.getInstance(repoHome).getLatestVersion(newArtifact("[1.0,)"), null));
+    }
+
+    private MavenArtifact newArtifact(String versionRange) {
+        return new MavenArtifact().setGroupId("org.test").setArtifactId("fp").setExtension("zip").setVersionRange(versionRange);
+    }
+
+    private void addVersion(String version) throws Exception {
+        final Path dir = artifactDir.resolve(version);
+        Files.createDirectories(dir);
+        Files.write(dir.resolve("fp-" + version + ".zip"), version.getBytes());
+    }
+}
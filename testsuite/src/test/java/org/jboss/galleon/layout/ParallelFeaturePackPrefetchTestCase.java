@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.layout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.universe.Channel;
+import org.jboss.galleon.universe.FeaturePackLocation;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.MvnUniverse;
+import org.jboss.galleon.universe.UniverseResolver;
+
+/**
+ * Feature-packs of a dependency level prefetched concurrently are not resolved again by the layout.
+ */
+public class ParallelFeaturePackPrefetchTestCase extends LayoutTestBase {
+
+    private FeaturePackLocation fpl1_100;
+    private FeaturePackLocation fpl1_101;
+    private FeaturePackLocation fpl2;
+    private FeaturePackLocation fpl3;
+    private FeaturePackLocation fpl4_100;
+    private FeaturePackLocation fpl4_101;
+    private FeaturePackLocation fpl5;
+
+    private final List<FPID> prefetched = new ArrayList<>();
+    private final List<FPID> resolved = new ArrayList<>();
+
+    @Override
+    protected void createProducers(MvnUniverse universe) throws ProvisioningException {
+        universe.createProducer("prod1")
+        .createProducer("prod2")
+        .createProducer("prod3")
+        .createProducer("prod4")
+        .createProducer("prod5");
+    }
+
+    @Override
+    protected void createFeaturePacks(FeaturePackCreator creator) throws ProvisioningDescriptionException {
+        fpl1_100 = newFpl("prod1", "1", "1.0.0.Final");
+        creator.newFeaturePack(fpl1_100.getFPID());
+
+        fpl1_101 = newFpl("prod1", "1", "1.0.1.Final");
+        creator.newFeaturePack(fpl1_101.getFPID());
+
+        fpl2 = newFpl("prod2", "1", "1.0.0.Final");
+        creator.newFeaturePack(fpl2.getFPID()).addDependency(fpl1_101);
+
+        fpl4_100 = newFpl("prod4", "1", "1.0.0.Final");
+        creator.newFeaturePack(fpl4_100.getFPID());
+
+        fpl4_101 = newFpl("prod4", "1", "1.0.1.Final");
+        creator.newFeaturePack(fpl4_101.getFPID());
+
+        fpl5 = newFpl("prod5", "1", "1.0.0.Final");
+        creator.newFeaturePack(fpl5.getFPID()).addDependency(fpl4_101);
+
+        fpl3 = newFpl("prod3", "1", "1.0.0.Final");
+        creator.newFeaturePack(fpl3.getFPID())
+        .addTransitiveDependency(fpl4_100)
+        .addDependency(fpl5);
+    }
+
+    @Override
+    protected ProvisioningLayoutFactory getLayoutFactory() throws ProvisioningException {
+        return ProvisioningLayoutFactory.getInstance(new UniverseResolver(UniverseResolver.builder()) {
+            @Override
+            public Channel getChannel(FeaturePackLocation fpl) throws ProvisioningException {
+                synchronized (prefetched) {
+                    prefetched.add(fpl.getFPID());
+                }
+                return super.getChannel(fpl);
+            }
+
+            @Override
+            public Path resolve(FeaturePackLocation fpl) throws ProvisioningException {
+                synchronized (resolved) {
+                    resolved.add(fpl.getFPID());
+                }
+                return super.resolve(fpl);
+            }
+        });
+    }
+
+    @Override
+    protected ProvisioningConfig provisioningConfig() throws ProvisioningException {
+        return ProvisioningConfig.builder()
+                .addTransitiveDep(fpl1_100)
+                .addFeaturePackDep(fpl2)
+                .addFeaturePackDep(fpl3)
+                .addOption(Constants.PARALLEL_FEATURE_PACK_RESOLUTION, Constants.TRUE)
+                .build();
+    }
+
+    @Override
+    protected void assertLayout(ProvisioningLayout<FeaturePackLayout> layout) throws Exception {
+        assertOrdering(new FPID[] {fpl1_100.getFPID(), fpl2.getFPID(), fpl4_100.getFPID(), fpl5.getFPID(), fpl3.getFPID()}, layout);
+
+        final Set<FPID> expected = new HashSet<>();
+        expected.add(fpl2.getFPID());
+        expected.add(fpl3.getFPID());
+        assertEquals(expected, new HashSet<>(prefetched));
+        assertEquals(expected.size(), prefetched.size());
+        for (FPID fpid : prefetched) {
+            assertFalse(fpid + " is resolved again", resolved.contains(fpid));
+        }
+    }
+}
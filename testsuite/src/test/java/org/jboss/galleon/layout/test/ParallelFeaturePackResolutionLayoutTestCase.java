@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.layout.test;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.layout.LayoutOrderingTestBase;
+import org.jboss.galleon.universe.FeaturePackLocation;
+import org.jboss.galleon.universe.FeaturePackLocation.FPID;
+import org.jboss.galleon.universe.MvnUniverse;
+
+/**
+ * Feature-packs resolved concurrently ahead of the layout must be laid out in the same order.
+ */
+public class ParallelFeaturePackResolutionLayoutTestCase extends LayoutOrderingTestBase {
+
+    private FeaturePackLocation fpl1;
+    private FeaturePackLocation fpl2;
+    private FeaturePackLocation fpl3;
+    private FeaturePackLocation fpl4;
+    private FeaturePackLocation fpl5;
+
+    @Override
+    protected void createProducers(MvnUniverse universe) throws ProvisioningException {
+        universe.createProducer("prod1")
+        .createProducer("prod2")
+        .createProducer("prod3")
+        .createProducer("prod4")
+        .createProducer("prod5");
+    }
+
+    @Override
+    protected void createFeaturePacks(FeaturePackCreator creator) throws ProvisioningDescriptionException {
+        fpl1 = newFpl("prod1", "1", "1.0.0.Final");
+        creator.newFeaturePack(fpl1.getFPID());
+
+        fpl2 = newFpl("prod2", "1", "1.0.0.Final");
+        creator.newFeaturePack(fpl2.getFPID());
+
+        fpl3 = newFpl("prod3", "1", "1.0.0.Final");
+        creator.newFeaturePack(fpl3.getFPID()).addDependency(fpl1);
+
+        fpl5 = newFpl("prod5", "1", "1.0.0.Final");
+        creator.newFeaturePack(fpl5.getFPID()).addDependency(fpl1);
+
+        fpl4 = newFpl("prod4", "1", "1.0.0.Final");
+        creator.newFeaturePack(fpl4.getFPID()).addDependency(fpl2).addDependency(fpl5);
+    }
+
+    @Override
+    protected ProvisioningConfig provisioningConfig() throws ProvisioningException {
+        return ProvisioningConfig.builder()
+                .addFeaturePackDep(fpl3)
+                .addFeaturePackDep(fpl4)
+                .addFeaturePackDep(fpl2)
+                .addOption(Constants.PARALLEL_FEATURE_PACK_RESOLUTION, Constants.TRUE)
+                .build();
+    }
+
+    @Override
+    protected FPID[] expectedOrder() {
+        return new FPID[] {fpl1.getFPID(), fpl3.getFPID(), fpl5.getFPID(), fpl4.getFPID(), fpl2.getFPID()};
+    }
+}
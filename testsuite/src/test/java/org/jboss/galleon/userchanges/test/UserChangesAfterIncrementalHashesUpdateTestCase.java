@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.userchanges.test;
+
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.ProvisioningManager;
+import org.jboss.galleon.config.FeaturePackConfig;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.layout.FeaturePackCache;
+import org.jboss.galleon.metrics.ProvisioningMetrics;
+import org.jboss.galleon.state.ProvisionedFeaturePack;
+import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.galleon.test.util.fs.state.DirState;
+import org.jboss.galleon.universe.FeaturePackLocation;
+import org.jboss.galleon.universe.MvnUniverse;
+import org.jboss.galleon.util.LayoutUtils;
+import org.junit.Assert;
+
+/**
+ * User changes, including the ones that preserve the size of a file, must be detected
+ * when the hashes of the files whose content is the same in the new version of the feature-pack
+ * are reused from the previous provisioning. The feature-packs are extracted into the feature-pack cache,
+ * which records the digests identifying the same content in both versions.
+ */
+public class UserChangesAfterIncrementalHashesUpdateTestCase extends UserChangesTestBase {
+
+    private static final Map<String, String> OPTIONS = Collections.singletonMap(Constants.INCREMENTAL_HASHES, Constants.TRUE);
+
+    private FeaturePackLocation prod100;
+    private FeaturePackLocation prod101;
+
+    private final ProvisioningMetrics metrics = ProvisioningMetrics.newInstance();
+
+    @Override
+    protected void doBefore() throws Exception {
+        super.doBefore();
+        System.setProperty(FeaturePackCache.CACHE_DIR_PROPERTY, workDir.resolve("fp-cache").toString());
+    }
+
+    @Override
+    protected void doAfter() throws Exception {
+        System.clearProperty(FeaturePackCache.CACHE_DIR_PROPERTY);
+        super.doAfter();
+    }
+
+    @Override
+    protected ProvisioningManager getPm() throws ProvisioningException {
+        return ProvisioningManager.builder()
+                .addArtifactResolver(repo)
+                .setInstallationHome(installHome)
+                .setMessageWriter(getMessageWriter())
+                .setMetrics(metrics)
+                .build();
+    }
+
+    @Override
+    protected void createProducers(MvnUniverse universe) throws ProvisioningException {
+        universe.createProducer("prod1");
+    }
+
+    @Override
+    protected void createFeaturePacks(FeaturePackCreator creator) throws ProvisioningException {
+        prod100 = newFpl("prod1", "1", "1.0.0.Final");
+        creator.newFeaturePack(prod100.getFPID())
+            .newPackage("p1", true)
+                .writeContent("prod1/p1.txt", "prod100 p1")
+                .writeContent("prod1/p2.txt", "prod100 p2")
+                .writeContent("prod1/p3.txt", "prod100 p3")
+                .getFeaturePack()
+            .newPackage("common", true)
+                .writeContent("common.txt", "common");
+
+        prod101 = newFpl("prod1", "1", "1.0.1.Final");
+        creator.newFeaturePack(prod101.getFPID())
+            .newPackage("p1", true)
+                .writeContent("prod1/p1.txt", "prod100 p1")
+                .writeContent("prod1/p2.txt", "prod101 p2")
+                .writeContent("prod1/p3.txt", "prod100 p3")
+                .getFeaturePack()
+            .newPackage("common", true)
+                .writeContent("common.txt", "common");
+    }
+
+    @Override
+    protected void testPm(ProvisioningManager pm) throws ProvisioningException {
+        pm.install(prod100, OPTIONS);
+        Assert.assertTrue(Files.exists(LayoutUtils.getHashOriginsFile(installHome)));
+        writeContent("prod1/p1.txt", "user00 p1x");
+        writeContent("prod1/p2.txt", "user00 p2x");
+        metrics.reset();
+        pm.install(prod101, OPTIONS);
+        // prod1/p1.txt, prod1/p3.txt and common.txt
+        Assert.assertEquals(3, metrics.getHashesReused());
+    }
+
+    @Override
+    protected ProvisioningConfig provisionedConfig() throws ProvisioningDescriptionException {
+        return ProvisioningConfig.builder()
+                .addFeaturePackDep(FeaturePackConfig.builder(prod101).build())
+                .build();
+    }
+
+    @Override
+    protected ProvisionedState provisionedState() throws ProvisioningException {
+        return ProvisionedState.builder()
+                .addFeaturePack(ProvisionedFeaturePack.builder(prod101.getFPID())
+                        .addPackage("p1")
+                        .addPackage("common")
+                        .build())
+                .build();
+    }
+
+    @Override
+    protected DirState provisionedHomeDir() {
+        return newDirBuilder()
+                .addFile("prod1/p1.txt", "user00 p1x")
+                .addFile("prod1/p2.txt", "user00 p2x")
+                .addFile("prod1/p2.txt.glnew", "prod101 p2")
+                .addFile("prod1/p3.txt", "prod100 p3")
+                .addFile("common.txt", "common")
+                .build();
+    }
+}
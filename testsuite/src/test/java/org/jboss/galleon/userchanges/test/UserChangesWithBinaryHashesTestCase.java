@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.userchanges.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Map;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.ProvisioningManager;
+import org.jboss.galleon.config.FeaturePackConfig;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.state.ProvisionedFeaturePack;
+import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.galleon.test.util.fs.state.DirState;
+import org.jboss.galleon.universe.FeaturePackLocation;
+import org.jboss.galleon.universe.MvnUniverse;
+import org.jboss.galleon.util.LayoutUtils;
+import org.junit.Assert;
+
+/**
+ * User changes must be detected from the binary hashes index, including the ones
+ * that preserve both the size and the last modification time of a file.
+ */
+public class UserChangesWithBinaryHashesTestCase extends UserChangesTestBase {
+
+    private static final Map<String, String> OPTIONS = Collections.singletonMap(Constants.BINARY_HASHES, Constants.TRUE);
+
+    private FeaturePackLocation prod100;
+    private FeaturePackLocation prod101;
+
+    @Override
+    protected void createProducers(MvnUniverse universe) throws ProvisioningException {
+        universe.createProducer("prod1");
+    }
+
+    @Override
+    protected void createFeaturePacks(FeaturePackCreator creator) throws ProvisioningException {
+        prod100 = newFpl("prod1", "1", "1.0.0.Final");
+        creator.newFeaturePack(prod100.getFPID())
+            .newPackage("p1", true)
+                .writeContent("prod1/p1.txt", "prod100 p1")
+                .writeContent("prod1/p2.txt", "prod100 p2")
+                .writeContent("prod1/p3.txt", "prod100 p3")
+                .getFeaturePack()
+            .newPackage("common", true)
+                .writeContent("common.txt", "common");
+
+        prod101 = newFpl("prod1", "1", "1.0.1.Final");
+        creator.newFeaturePack(prod101.getFPID())
+            .newPackage("p1", true)
+                .writeContent("prod1/p1.txt", "prod101 p1")
+                .writeContent("prod1/p2.txt", "prod101 p2")
+                .writeContent("prod1/p3.txt", "prod100 p3")
+                .getFeaturePack()
+            .newPackage("common", true)
+                .writeContent("common.txt", "common");
+    }
+
+    @Override
+    protected void testPm(ProvisioningManager pm) throws ProvisioningException {
+        pm.install(prod100, OPTIONS);
+        Assert.assertTrue(Files.exists(LayoutUtils.getHashesIndexFile(installHome)));
+        Assert.assertFalse(Files.exists(LayoutUtils.getHashesDir(installHome)));
+
+        final Path p1 = installHome.resolve("prod1/p1.txt");
+        try {
+            final FileTime time = Files.getLastModifiedTime(p1);
+            writeContent("prod1/p1.txt", "user00 p1");
+            Files.setLastModifiedTime(p1, time);
+        } catch (IOException e) {
+            throw new ProvisioningException("Failed to modify " + p1, e);
+        }
+        pm.install(prod101, OPTIONS);
+    }
+
+    @Override
+    protected ProvisioningConfig provisionedConfig() throws ProvisioningDescriptionException {
+        return ProvisioningConfig.builder()
+                .addFeaturePackDep(FeaturePackConfig.builder(prod101).build())
+                .build();
+    }
+
+    @Override
+    protected ProvisionedState provisionedState() throws ProvisioningException {
+        return ProvisionedState.builder()
+                .addFeaturePack(ProvisionedFeaturePack.builder(prod101.getFPID())
+                        .addPackage("p1")
+                        .addPackage("common")
+                        .build())
+                .build();
+    }
+
+    @Override
+    protected DirState provisionedHomeDir() {
+        return newDirBuilder()
+                .addFile("prod1/p1.txt", "user00 p1")
+                .addFile("prod1/p1.txt.glnew", "prod101 p1")
+                .addFile("prod1/p2.txt", "prod101 p2")
+                .addFile("prod1/p3.txt", "prod100 p3")
+                .addFile("common.txt", "common")
+                .build();
+    }
+}
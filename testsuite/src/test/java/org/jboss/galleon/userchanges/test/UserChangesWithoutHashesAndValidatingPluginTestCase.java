@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.userchanges.test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.ProvisioningManager;
+import org.jboss.galleon.config.FeaturePackConfig;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.diff.FsDiff;
+import org.jboss.galleon.plugin.InstallPlugin;
+import org.jboss.galleon.runtime.ProvisioningRuntime;
+import org.jboss.galleon.state.ProvisionedFeaturePack;
+import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.galleon.test.util.fs.state.DirState;
+import org.jboss.galleon.universe.FeaturePackLocation;
+import org.jboss.galleon.universe.MvnUniverse;
+import org.jboss.galleon.util.LayoutUtils;
+import org.junit.Assert;
+
+/**
+ * Install plugins that don't modify the content must not force the provisioning
+ * of the installation when the user changes are detected without the hashes.
+ */
+public class UserChangesWithoutHashesAndValidatingPluginTestCase extends UserChangesTestBase {
+
+    private static final AtomicInteger INVOCATIONS = new AtomicInteger();
+
+    public static class ValidatingPlugin implements InstallPlugin {
+        @Override
+        public void postInstall(ProvisioningRuntime runtime) throws ProvisioningException {
+            INVOCATIONS.incrementAndGet();
+        }
+
+        @Override
+        public boolean isContentModifier() {
+            return false;
+        }
+    }
+
+    private FeaturePackLocation prod100;
+    private FeaturePackLocation prod101;
+
+    @Override
+    protected void createProducers(MvnUniverse universe) throws ProvisioningException {
+        universe.createProducer("prod1");
+    }
+
+    @Override
+    protected void createFeaturePacks(FeaturePackCreator creator) throws ProvisioningException {
+        prod100 = newFpl("prod1", "1", "1.0.0.Final");
+        creator.newFeaturePack(prod100.getFPID())
+            .addPlugin(ValidatingPlugin.class)
+            .newPackage("p1", true)
+                .writeContent("prod1/p1.txt", "prod100 p1")
+                .writeContent("prod1/p2.txt", "prod100 p2");
+
+        prod101 = newFpl("prod1", "1", "1.0.1.Final");
+        creator.newFeaturePack(prod101.getFPID())
+            .addPlugin(ValidatingPlugin.class)
+            .newPackage("p1", true)
+                .writeContent("prod1/p1.txt", "prod100 p1")
+                .writeContent("prod1/p2.txt", "prod101 p2");
+    }
+
+    @Override
+    protected void testPm(ProvisioningManager pm) throws ProvisioningException {
+        INVOCATIONS.set(0);
+        pm.install(prod100);
+        Assert.assertEquals(1, INVOCATIONS.get());
+        recursiveDelete(LayoutUtils.getHashesDir(installHome).toString());
+
+        writeContent("prod1/p1.txt", "user p1");
+
+        final FsDiff diff = pm.getFsDiff();
+        Assert.assertEquals(1, INVOCATIONS.get());
+        Assert.assertEquals(Collections.singleton("prod1/p1.txt"), diff.getModifiedPaths());
+        Assert.assertFalse(diff.hasRemovedEntries());
+        Assert.assertFalse(diff.hasAddedEntries());
+
+        pm.install(prod101);
+    }
+
+    @Override
+    protected ProvisioningConfig provisionedConfig() throws ProvisioningDescriptionException {
+        return ProvisioningConfig.builder()
+                .addFeaturePackDep(FeaturePackConfig.builder(prod101).build())
+                .build();
+    }
+
+    @Override
+    protected ProvisionedState provisionedState() throws ProvisioningException {
+        return ProvisionedState.builder()
+                .addFeaturePack(ProvisionedFeaturePack.builder(prod101.getFPID())
+                        .addPackage("p1")
+                        .build())
+                .build();
+    }
+
+    @Override
+    protected DirState provisionedHomeDir() {
+        return newDirBuilder()
+                .addFile("prod1/p1.txt", "user p1")
+                .addFile("prod1/p2.txt", "prod101 p2")
+                .build();
+    }
+}
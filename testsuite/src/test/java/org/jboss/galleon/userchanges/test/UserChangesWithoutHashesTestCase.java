@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016-2026 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.galleon.userchanges.test;
+
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.jboss.galleon.ProvisioningDescriptionException;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.ProvisioningManager;
+import org.jboss.galleon.config.FeaturePackConfig;
+import org.jboss.galleon.config.ProvisioningConfig;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.diff.FsDiff;
+import org.jboss.galleon.state.ProvisionedFeaturePack;
+import org.jboss.galleon.state.ProvisionedState;
+import org.jboss.galleon.test.util.fs.state.DirState;
+import org.jboss.galleon.universe.FeaturePackLocation;
+import org.jboss.galleon.universe.MvnUniverse;
+import org.jboss.galleon.util.LayoutUtils;
+import org.junit.Assert;
+
+/**
+ * User changes must be detected from the package content, without provisioning it
+ * into a staged directory, when the hashes of the installation are missing.
+ */
+public class UserChangesWithoutHashesTestCase extends UserChangesTestBase {
+
+    private FeaturePackLocation prod100;
+    private FeaturePackLocation prod101;
+
+    @Override
+    protected void createProducers(MvnUniverse universe) throws ProvisioningException {
+        universe.createProducer("prod1");
+    }
+
+    @Override
+    protected void createFeaturePacks(FeaturePackCreator creator) throws ProvisioningException {
+        prod100 = newFpl("prod1", "1", "1.0.0.Final");
+        creator.newFeaturePack(prod100.getFPID())
+            .newPackage("p1", true)
+                .addDependency("p2")
+                .writeContent("prod1/p1.txt", "prod100 p1")
+                .writeContent("prod1/p2.txt", "prod100 p2")
+                .writeContent("shared/shared.txt", "prod100 p1")
+                .getFeaturePack()
+            .newPackage("p2")
+                .writeContent("shared/shared.txt", "prod100 p2")
+                .writeContent("shared/p2.txt", "prod100 p2");
+
+        prod101 = newFpl("prod1", "1", "1.0.1.Final");
+        creator.newFeaturePack(prod101.getFPID())
+            .newPackage("p1", true)
+                .addDependency("p2")
+                .writeContent("prod1/p1.txt", "prod100 p1")
+                .writeContent("prod1/p2.txt", "prod100 p2")
+                .writeContent("prod1/p3.txt", "prod101 p3")
+                .writeContent("shared/shared.txt", "prod100 p1")
+                .getFeaturePack()
+            .newPackage("p2")
+                .writeContent("shared/shared.txt", "prod100 p2")
+                .writeContent("shared/p2.txt", "prod100 p2");
+    }
+
+    @Override
+    protected void testPm(ProvisioningManager pm) throws ProvisioningException {
+        pm.install(prod100);
+        recursiveDelete(LayoutUtils.getHashesDir(installHome).toString());
+        Assert.assertFalse(Files.exists(LayoutUtils.getHashesDir(installHome)));
+
+        writeContent("prod1/p1.txt", "user p1");
+        recursiveDelete("prod1/p2.txt");
+        writeContent("shared/user.txt", "user");
+
+        final FsDiff diff = pm.getFsDiff();
+        Assert.assertEquals(Collections.singleton("prod1/p1.txt"), diff.getModifiedPaths());
+        Assert.assertEquals(Collections.singleton("prod1/p2.txt"), diff.getRemovedPaths());
+        Assert.assertEquals(Collections.singleton("shared/user.txt"), diff.getAddedPaths());
+
+        pm.install(prod101);
+    }
+
+    @Override
+    protected ProvisioningConfig provisionedConfig() throws ProvisioningDescriptionException {
+        return ProvisioningConfig.builder()
+                .addFeaturePackDep(FeaturePackConfig.builder(prod101).build())
+                .build();
+    }
+
+    @Override
+    protected ProvisionedState provisionedState() throws ProvisioningException {
+        return ProvisionedState.builder()
+                .addFeaturePack(ProvisionedFeaturePack.builder(prod101.getFPID())
+                        .addPackage("p1")
+                        .addPackage("p2")
+                        .build())
+                .build();
+    }
+
+    @Override
+    protected DirState provisionedHomeDir() {
+        return newDirBuilder()
+                .addFile("prod1/p1.txt", "user p1")
+                .addFile("prod1/p3.txt", "prod101 p3")
+                .addFile("shared/shared.txt", "prod100 p1")
+                .addFile("shared/p2.txt", "prod100 p2")
+                .addFile("shared/user.txt", "user")
+                .build();
+    }
+}